@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+
+import java.util.List;
+
+/**
+ * The consolidations of app service plans proposed by an app service plan packing advisor.
+ */
+@Fluent(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+@Beta(SinceVersion.V1_4_0)
+public interface AppServicePlanPackingAdvice {
+    /**
+     * The density of the sites in an app service plan.
+     */
+    interface PlanDensity {
+        /**
+         * @return the app service plan
+         */
+        AppServicePlan plan();
+
+        /**
+         * @return the resource ids of the web apps and function apps in the plan
+         */
+        List<String> siteIds();
+
+        /**
+         * @return the number of sites per instance of the plan
+         */
+        double sitesPerInstance();
+
+        /**
+         * @return the number of sites over the maximum number of sites a plan is packed with
+         */
+        double fill();
+    }
+
+    /**
+     * A proposed move of a site to another app service plan.
+     */
+    interface SiteMove {
+        /**
+         * @return the resource id of the web app or function app
+         */
+        String siteId();
+
+        /**
+         * @return the resource id of the plan the site is in
+         */
+        String sourcePlanId();
+
+        /**
+         * @return the resource id of the plan the site is proposed to move to
+         */
+        String targetPlanId();
+    }
+
+    /**
+     * @return the density of each plan, as of the snapshot
+     */
+    List<PlanDensity> plans();
+
+    /**
+     * @return the moves emptying the plans proposed for release
+     */
+    List<SiteMove> moves();
+
+    /**
+     * @return the resource ids of the plans left without sites once the moves are done, including the plans
+     * already without sites
+     */
+    List<String> releasablePlanIds();
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.apigeneration.Method;
+import rx.Observable;
+
+/**
+ * An advisor on packing the sites of a subscription into fewer app service plans.
+ * <p>
+ * Each advice takes a snapshot of all the app service plans of the subscription and of the sites of each plan, listing
+ * the sites of at most {@link #withMaxConcurrency(int)} plans at a time.
+ * <p>
+ * Sites are only proposed to move between plans of the same resource group, region, operating system, pricing tier
+ * and app service environment, and a plan is only proposed to be emptied if all its sites fit in the other plans.
+ */
+@Fluent(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+@Beta(SinceVersion.V1_4_0)
+public interface AppServicePlanPackingAdvisor {
+    /**
+     * Specifies the maximum number of sites a plan is packed with. The default is 10.
+     *
+     * @param maxSitesPerPlan the maximum number of sites in a plan
+     * @return the advisor
+     */
+    AppServicePlanPackingAdvisor withMaxSitesPerPlan(int maxSitesPerPlan);
+
+    /**
+     * Specifies the maximum number of plans whose sites are listed at a time when the snapshot is taken.
+     * The default is 10.
+     *
+     * @param maxConcurrency the maximum number of concurrent listings
+     * @return the advisor
+     */
+    AppServicePlanPackingAdvisor withMaxConcurrency(int maxConcurrency);
+
+    /**
+     * Refreshes the snapshot of the plans and their sites, and proposes consolidations of the plans.
+     *
+     * @return the advice
+     */
+    @Method
+    AppServicePlanPackingAdvice advise();
+
+    /**
+     * Refreshes the snapshot of the plans and their sites, and proposes consolidations of the plans.
+     *
+     * @return an observable that emits the advice
+     */
+    @Method
+    Observable<AppServicePlanPackingAdvice> adviseAsync();
+}
@@ -6,7 +6,9 @@
 
 package com.microsoft.azure.management.appservice;
 
+import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.appservice.implementation.AppServiceManager;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.SupportsGettingById;
@@ -17,6 +19,7 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingByName;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
+import rx.Observable;
 
 /**
  * Entry point for Azure web app deployment slot management API.
@@ -32,4 +35,23 @@ public interface DeploymentSlots extends
         SupportsDeletingByName,
         HasManager<AppServiceManager>,
         HasParent<WebApp> {
-}
\ No newline at end of file
+    /**
+     * Lists the deployment slots of the web app without their configuration, app settings, connection strings,
+     * slot configurations and authentication settings; each group of properties is fetched on first access.
+     *
+     * @return the list of deployment slots
+     * @see AppServiceManager#loadSiteProperties(java.util.Collection, int)
+     */
+    @Beta(SinceVersion.V1_4_0)
+    PagedList<DeploymentSlot> listLazily();
+
+    /**
+     * Lists the deployment slots of the web app with their properties, fetching the properties of a bounded number of
+     * slots at a time.
+     *
+     * @param maxConcurrency the maximum number of slots fetching their properties at a time
+     * @return an observable that emits the deployment slots
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Observable<DeploymentSlot> listAsync(int maxConcurrency);
+}
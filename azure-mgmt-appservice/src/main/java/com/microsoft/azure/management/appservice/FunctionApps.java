@@ -6,7 +6,9 @@
 
 package com.microsoft.azure.management.appservice;
 
+import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.appservice.implementation.AppServiceManager;
 import com.microsoft.azure.management.appservice.implementation.WebAppsInner;
@@ -19,6 +21,7 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
 
 /**
  * Entry point for web app management API.
@@ -35,4 +38,44 @@ public interface FunctionApps extends
         SupportsDeletingByResourceGroup,
         HasManager<AppServiceManager>,
         HasInner<WebAppsInner> {
+    /**
+     * Lists all the function apps in the subscription without their configuration, app settings, connection strings,
+     * slot configurations and authentication settings; each group of properties is fetched on first access.
+     *
+     * @return the list of function apps
+     * @see AppServiceManager#loadSiteProperties(java.util.Collection, int)
+     */
+    @Beta(SinceVersion.V1_4_0)
+    PagedList<FunctionApp> listLazily();
+
+    /**
+     * Lists the function apps in a resource group without their configuration, app settings, connection strings,
+     * slot configurations and authentication settings; each group of properties is fetched on first access.
+     *
+     * @param resourceGroupName the name of the resource group
+     * @return the list of function apps
+     */
+    @Beta(SinceVersion.V1_4_0)
+    PagedList<FunctionApp> listByResourceGroupLazily(String resourceGroupName);
+
+    /**
+     * Lists all the function apps in the subscription with their properties, fetching the properties of a bounded
+     * number of function apps at a time.
+     *
+     * @param maxConcurrency the maximum number of function apps fetching their properties at a time
+     * @return an observable that emits the function apps
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Observable<FunctionApp> listAsync(int maxConcurrency);
+
+    /**
+     * Lists the function apps in a resource group with their properties, fetching the properties of a bounded
+     * number of function apps at a time.
+     *
+     * @param resourceGroupName the name of the resource group
+     * @param maxConcurrency the maximum number of function apps fetching their properties at a time
+     * @return an observable that emits the function apps
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Observable<FunctionApp> listByResourceGroupAsync(String resourceGroupName, int maxConcurrency);
 }
@@ -17,6 +17,7 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingByName;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
+import rx.Observable;
 
 /**
  * Entry point for Azure function app deployment slot management API.
@@ -32,4 +33,13 @@ public interface FunctionDeploymentSlots extends
         SupportsDeletingByName,
         HasManager<AppServiceManager>,
         HasParent<FunctionApp> {
-}
\ No newline at end of file
+    /**
+     * Lists the deployment slots of the function app with their properties, fetching the properties of a bounded number of
+     * slots at a time.
+     *
+     * @param maxConcurrency the maximum number of slots fetching their properties at a time
+     * @return an observable that emits the deployment slots
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Observable<FunctionDeploymentSlot> listAsync(int maxConcurrency);
+}
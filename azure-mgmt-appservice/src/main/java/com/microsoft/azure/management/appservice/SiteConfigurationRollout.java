@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.apigeneration.Method;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A change of app settings and connection strings rolled out to many web apps, function apps and deployment slots.
+ * <p>
+ * The app settings and connection strings of each site are read again right before it is updated, and only the
+ * sites whose settings differ from the change are updated. The whole app settings and connection strings of a site
+ * are written at once, so a change made to the same site by someone else between the read and the write is
+ * overwritten: the last writer wins. The sites are updated in waves, the first ones serving as canaries: once a wave
+ * is done, its updated sites are health checked, and any failure stops the rollout before the next wave.
+ */
+@Fluent(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+@Beta(SinceVersion.V1_4_0)
+public interface SiteConfigurationRollout {
+    /**
+     * Sets an app setting on the target sites.
+     *
+     * @param key the key of the app setting
+     * @param value the value of the app setting
+     * @return the rollout
+     */
+    SiteConfigurationRollout withAppSetting(String key, String value);
+
+    /**
+     * Removes an app setting from the target sites.
+     *
+     * @param key the key of the app setting
+     * @return the rollout
+     */
+    SiteConfigurationRollout withoutAppSetting(String key);
+
+    /**
+     * Sets a connection string on the target sites.
+     *
+     * @param name the name of the connection string
+     * @param value the connection string
+     * @param type the type of the connection string
+     * @return the rollout
+     */
+    SiteConfigurationRollout withConnectionString(String name, String value, ConnectionStringType type);
+
+    /**
+     * Removes a connection string from the target sites.
+     *
+     * @param name the name of the connection string
+     * @return the rollout
+     */
+    SiteConfigurationRollout withoutConnectionString(String name);
+
+    /**
+     * Adds sites to the candidates of the rollout, e.g. sites listed with WebApps.listLazily(), whose properties are
+     * then loaded as the rollout reaches them.
+     *
+     * @param sites the web apps, function apps or deployment slots
+     * @return the rollout
+     */
+    SiteConfigurationRollout withTargets(Collection<? extends WebAppBase> sites);
+
+    /**
+     * Restricts the rollout to the candidate sites matching a selector.
+     *
+     * @param selector the selector, returning true for the sites to update
+     * @return the rollout
+     */
+    SiteConfigurationRollout withTargetSelector(Func1<WebAppBase, Boolean> selector);
+
+    /**
+     * Specifies the number of sites of the successive waves; the sites left after the last size given go in waves
+     * of that last size. By default, all the sites are updated in one wave.
+     *
+     * @param sizes the sizes of the waves, e.g. 1, 10, 100 for a single canary, then 10 sites, then 100 at a time
+     * @return the rollout
+     */
+    SiteConfigurationRollout withWaveSizes(int... sizes);
+
+    /**
+     * Specifies the maximum number of sites updated at a time within a wave. The default is 10.
+     *
+     * @param maxConcurrency the maximum number of sites updated at a time
+     * @return the rollout
+     */
+    SiteConfigurationRollout withMaxConcurrency(int maxConcurrency);
+
+    /**
+     * Specifies a health check run on each updated site once its wave is done.
+     *
+     * @param healthCheck the health check, emitting true if the site is healthy
+     * @return the rollout
+     */
+    SiteConfigurationRollout withHealthCheck(Func1<WebAppBase, Observable<Boolean>> healthCheck);
+
+    /**
+     * Rolls the change out.
+     *
+     * @return the result for each candidate site
+     */
+    @Method
+    List<SiteConfigurationRolloutResult> execute();
+
+    /**
+     * Rolls the change out.
+     *
+     * @return an observable that emits the result for each candidate site, as soon as it is known
+     */
+    @Method
+    Observable<SiteConfigurationRolloutResult> executeAsync();
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+
+/**
+ * The outcome of a site configuration rollout for one site.
+ */
+@Fluent(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+@Beta(SinceVersion.V1_4_0)
+public interface SiteConfigurationRolloutResult {
+    /**
+     * The outcomes of a rollout for a site.
+     */
+    enum Status {
+        /** The site already had the configuration; it was not updated. */
+        UNCHANGED,
+        /** The site was updated and passed its health check, if any. */
+        UPDATED,
+        /** The site was updated but failed its health check. */
+        UNHEALTHY,
+        /** The update of the site failed. */
+        FAILED,
+        /** The site was not updated, as the rollout stopped at an earlier wave. */
+        NOT_ATTEMPTED
+    }
+
+    /**
+     * @return the web app, function app or deployment slot
+     */
+    WebAppBase site();
+
+    /**
+     * @return the outcome for the site
+     */
+    Status status();
+
+    /**
+     * @return the number of the wave of the site, starting at 0
+     */
+    int wave();
+
+    /**
+     * @return the error that failed the update or the health check of the site, if any
+     */
+    Throwable error();
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.apigeneration.Method;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot swaps of many web apps and function apps, run together with a bounded number of swaps at a time.
+ * <p>
+ * The sites swapped in are warmed up first, by probing them until they are healthy; if any of them does not
+ * become healthy, nothing is swapped. The site swapped in is the deployment slot for a swap of a deployment slot,
+ * and the target slot for a swap of the production slot of a web app or function app. If a swap fails, no further swap is started, and the swaps already done are
+ * swapped back.
+ */
+@Fluent(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+@Beta(SinceVersion.V1_4_0)
+public interface SlotSwapOrchestration {
+    /**
+     * Adds a swap of a web app, function app or deployment slot with another slot of the same app.
+     *
+     * @param site the web app, function app or deployment slot swapped
+     * @param targetSlotName the slot to swap with, 'production' for the production slot
+     * @return the orchestration
+     */
+    SlotSwapOrchestration withSwap(WebAppBase site, String targetSlotName);
+
+    /**
+     * Adds swaps of deployment slots into the production slots of their apps.
+     *
+     * @param slots the deployment slots
+     * @return the orchestration
+     */
+    SlotSwapOrchestration withSwapsIntoProduction(Collection<? extends WebAppBase> slots);
+
+    /**
+     * Specifies the path probed on the default host name of a site to warm it up; the site is healthy once the
+     * path is served with a 2xx or 3xx status. The default is the root path.
+     *
+     * @param path the path, e.g. /health
+     * @return the orchestration
+     */
+    SlotSwapOrchestration withWarmUpPath(String path);
+
+    /**
+     * Specifies a probe used instead of requests to the default host name to warm up a site.
+     *
+     * @param probe the probe, called with the site swapped in and emitting true once it is healthy
+     * @return the orchestration
+     */
+    SlotSwapOrchestration withWarmUpProbe(Func1<WebAppBase, Observable<Boolean>> probe);
+
+    /**
+     * Specifies how long a site is probed before its warm up fails. The default is 5 minutes.
+     *
+     * @param timeout the timeout
+     * @param unit the unit of the timeout
+     * @return the orchestration
+     */
+    SlotSwapOrchestration withWarmUpTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * Specifies the maximum number of sites warmed up, swapped or swapped back at a time. The default is 10.
+     *
+     * @param maxConcurrency the maximum number of concurrent operations
+     * @return the orchestration
+     */
+    SlotSwapOrchestration withMaxConcurrency(int maxConcurrency);
+
+    /**
+     * Runs the swaps.
+     *
+     * @return the result of each swap
+     */
+    @Method
+    List<SlotSwapResult> execute();
+
+    /**
+     * Runs the swaps.
+     *
+     * @return an observable that emits the result of each swap once all the swaps are done, or swapped back
+     */
+    @Method
+    Observable<SlotSwapResult> executeAsync();
+}
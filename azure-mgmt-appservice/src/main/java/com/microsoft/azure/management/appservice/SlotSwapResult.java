@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+
+/**
+ * The outcome of one swap of a slot swap orchestration.
+ */
+@Fluent(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+@Beta(SinceVersion.V1_4_0)
+public interface SlotSwapResult {
+    /**
+     * The outcomes of a swap.
+     */
+    enum Status {
+        /** The site was swapped. */
+        SWAPPED,
+        /** The site was swapped, then swapped back as another swap failed. */
+        ROLLED_BACK,
+        /** The site was swapped, and swapping it back failed. */
+        ROLLBACK_FAILED,
+        /** The swap of the site failed. */
+        SWAP_FAILED,
+        /** The site did not become healthy in time; nothing was swapped. */
+        WARM_UP_FAILED,
+        /** The site was not swapped, as another site failed its warm up or swap. */
+        NOT_ATTEMPTED
+    }
+
+    /**
+     * @return the site whose app was swapped in
+     */
+    WebAppBase site();
+
+    /**
+     * @return the slot swapped with
+     */
+    String targetSlotName();
+
+    /**
+     * @return the outcome of the swap
+     */
+    Status status();
+
+    /**
+     * @return how long the warm up of the site took, in milliseconds
+     */
+    long warmUpMillis();
+
+    /**
+     * @return how long the swap took, in milliseconds, 0 if it was not attempted
+     */
+    long swapMillis();
+
+    /**
+     * @return the error that failed the warm up, the swap or the swap back, if any
+     */
+    Throwable error();
+}
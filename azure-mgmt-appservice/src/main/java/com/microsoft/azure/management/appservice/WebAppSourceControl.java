@@ -6,12 +6,15 @@
 package com.microsoft.azure.management.appservice;
 
 import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.ChildResource;
 import com.microsoft.azure.management.resources.fluentcore.model.Attachable;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
 import com.microsoft.azure.management.appservice.implementation.SiteSourceControlInner;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * An immutable representation of a web app source control configuration in a web app.
  */
@@ -159,7 +162,27 @@ public interface WebAppSourceControl extends
          * @param <ParentT> the return type of {@link WithAttach#attach()}
          */
         interface WithAttach<ParentT> extends
-                Attachable.InDefinition<ParentT> {
+                Attachable.InDefinition<ParentT>,
+                WithSyncTimeout<ParentT> {
+        }
+
+        /**
+         * A web app source control definition stage allowing specifying how long the creation or update of the
+         * web app waits for the first synchronization from the repository to complete.
+         * @param <ParentT> the return type of {@link WithAttach#attach()}
+         */
+        @Beta(SinceVersion.V1_4_0)
+        interface WithSyncTimeout<ParentT> {
+            /**
+             * Specifies how long to wait for the synchronization from the repository to complete; the creation of the web app
+             * completes once the synchronization completes, or once this timeout expires, whichever comes first.
+             * The default is 30 seconds.
+             *
+             * @param timeout the timeout
+             * @param unit the unit of the timeout
+             * @return the next stage of the definition
+             */
+            WithAttach<ParentT> withSyncTimeout(long timeout, TimeUnit unit);
         }
 
         /** The final stage of the web app source control definition that binds to a GitHub account.
@@ -287,7 +310,27 @@ public interface WebAppSourceControl extends
          * @param <ParentT> the return type of {@link WithAttach#attach()}
          */
         interface WithAttach<ParentT> extends
-                Attachable.InUpdate<ParentT> {
+                Attachable.InUpdate<ParentT>,
+                WithSyncTimeout<ParentT> {
+        }
+
+        /**
+         * A web app source control definition stage allowing specifying how long the creation or update of the
+         * web app waits for the first synchronization from the repository to complete.
+         * @param <ParentT> the return type of {@link WithAttach#attach()}
+         */
+        @Beta(SinceVersion.V1_4_0)
+        interface WithSyncTimeout<ParentT> {
+            /**
+             * Specifies how long to wait for the synchronization from the repository to complete; the update of the web app
+             * completes once the synchronization completes, or once this timeout expires, whichever comes first.
+             * The default is 30 seconds.
+             *
+             * @param timeout the timeout
+             * @param unit the unit of the timeout
+             * @return the next stage of the definition
+             */
+            WithAttach<ParentT> withSyncTimeout(long timeout, TimeUnit unit);
         }
 
         /** The final stage of the web app source control definition that binds to a GitHub account.
@@ -6,7 +6,9 @@
 
 package com.microsoft.azure.management.appservice;
 
+import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.appservice.implementation.AppServiceManager;
 import com.microsoft.azure.management.appservice.implementation.WebAppsInner;
@@ -35,4 +37,23 @@ public interface WebApps extends
         SupportsDeletingByResourceGroup,
         HasManager<AppServiceManager>,
         HasInner<WebAppsInner> {
+    /**
+     * Lists all the web apps in the subscription without their configuration, app settings, connection strings,
+     * slot configurations and authentication settings; each group of properties is fetched on first access.
+     *
+     * @return the list of web apps
+     * @see AppServiceManager#loadSiteProperties(java.util.Collection, int)
+     */
+    @Beta(SinceVersion.V1_4_0)
+    PagedList<WebApp> listLazily();
+
+    /**
+     * Lists the web apps in a resource group without their configuration, app settings, connection strings,
+     * slot configurations and authentication settings; each group of properties is fetched on first access.
+     *
+     * @param resourceGroupName the name of the resource group
+     * @return the list of web apps
+     */
+    @Beta(SinceVersion.V1_4_0)
+    PagedList<WebApp> listByResourceGroupLazily(String resourceGroupName);
 }
@@ -12,6 +12,8 @@ import com.microsoft.azure.management.resources.fluentcore.arm.models.HasParent;
 import com.microsoft.azure.management.resources.fluentcore.model.Executable;
 import org.joda.time.DateTime;
 
+import java.io.File;
+
 /**
  * A client-side representation allowing user to deploy to a web app through web deployment (MSDeploy).
  */
@@ -44,7 +46,9 @@ public interface WebDeployment extends Executable<WebDeployment>,
      */
     interface Definition extends
             DefinitionStages.WithPackageUri,
-            DefinitionStages.WithExecute {
+            DefinitionStages.WithPackageFile,
+            DefinitionStages.WithExecute,
+            DefinitionStages.WithPackageFileExecute {
     }
 
 
@@ -55,7 +59,7 @@ public interface WebDeployment extends Executable<WebDeployment>,
         /**
          * The first stage of a web deployment definition.
          */
-        interface WithPackageUri {
+        interface WithPackageUri extends WithPackageFile {
             /**
              * Specifies the zipped package to deploy.
              *
@@ -66,6 +70,53 @@ public interface WebDeployment extends Executable<WebDeployment>,
             WithExecute withPackageUri(String packageUri);
         }
 
+        /**
+         * A web deployment definition stage allowing uploading a local package to the SCM site, authenticated with
+         * the publishing credentials of the web app, instead of deploying a package from a URL. The deployment fails
+         * with a TimeoutException if it is not complete 30 minutes after the upload.
+         */
+        @Beta(SinceVersion.V1_4_0)
+        interface WithPackageFile {
+            /**
+             * Specifies a local zip file, whose content is extracted to wwwroot.
+             *
+             * @param zipFile the zip file
+             * @return the next definition stage
+             */
+            WithPackageFileExecute withZipFile(File zipFile);
+
+            /**
+             * Specifies a local war file, which is deployed as a Java web application.
+             *
+             * @param warFile the war file
+             * @return the next definition stage
+             */
+            WithPackageFileExecute withWarFile(File warFile);
+        }
+
+        /**
+         * A web deployment definition stage allowing compressing the uploaded package.
+         */
+        @Beta(SinceVersion.V1_4_0)
+        interface WithGzipCompression {
+            /**
+             * Specifies that the package is compressed with gzip as it is uploaded, and sent in chunks.
+             *
+             * @return the next definition stage
+             */
+            WithPackageFileExecute withGzipCompression();
+        }
+
+        /**
+         * The stage of a definition uploading a local package which contains all the minimum required inputs for
+         * the deployment to be executed, but also allows for any other optional settings to be specified.
+         */
+        @Beta(SinceVersion.V1_4_0)
+        interface WithPackageFileExecute extends
+                Executable<WebDeployment>,
+                WithGzipCompression {
+        }
+
         /**
          * A web deployment definition stage allowing specifying whether to delete existing deployments.
          */
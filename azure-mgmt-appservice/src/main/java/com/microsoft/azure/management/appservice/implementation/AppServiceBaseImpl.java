@@ -112,6 +112,11 @@ abstract class AppServiceBaseImpl<
         return this.manager().inner().webApps().createOrUpdateSourceControlAsync(resourceGroupName(), name(), inner);
     }
 
+    @Override
+    Observable<Page<DeploymentInner>> listDeployments() {
+        return this.manager().inner().webApps().listDeploymentsAsync(resourceGroupName(), name());
+    }
+
     @Override
     Observable<Void> deleteSourceControl() {
         return this.manager().inner().webApps().deleteSourceControlAsync(resourceGroupName(), name()).map(new Func1<Object, Void>() {
@@ -10,11 +10,16 @@ import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.AzureResponseBuilder;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.appservice.AppServiceCertificateOrders;
 import com.microsoft.azure.management.appservice.AppServiceCertificates;
 import com.microsoft.azure.management.appservice.AppServiceDomains;
+import com.microsoft.azure.management.appservice.AppServicePlanPackingAdvisor;
 import com.microsoft.azure.management.appservice.AppServicePlans;
 import com.microsoft.azure.management.appservice.FunctionApps;
+import com.microsoft.azure.management.appservice.SiteConfigurationRollout;
+import com.microsoft.azure.management.appservice.SlotSwapOrchestration;
+import com.microsoft.azure.management.appservice.WebAppBase;
 import com.microsoft.azure.management.appservice.WebApps;
 import com.microsoft.azure.management.keyvault.implementation.KeyVaultManager;
 import com.microsoft.azure.management.resources.fluentcore.arm.AzureConfigurable;
@@ -25,6 +30,11 @@ import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManager
 import com.microsoft.azure.management.storage.implementation.StorageManager;
 import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.rest.RestClient;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Entry point to Azure storage resource management.
@@ -192,4 +202,73 @@ public final class AppServiceManager extends Manager<AppServiceManager, WebSiteM
         }
         return functionApps;
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts the definition of a change of app settings and connection strings rolled out to many sites.
+     *
+     * @return the rollout
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public SiteConfigurationRollout defineConfigurationRollout() {
+        return new SiteConfigurationRolloutImpl();
+    }
+
+    /**
+     * Starts the definition of slot swaps of many web apps and function apps, run together.
+     *
+     * @return the slot swaps
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public SlotSwapOrchestration defineSlotSwaps() {
+        return new SlotSwapOrchestrationImpl();
+    }
+
+    /**
+     * Starts an advisor on packing the sites of the subscription into fewer app service plans. The advisor keeps
+     * a snapshot of the plans and their sites, refreshed incrementally each time it is asked again.
+     *
+     * @return the advisor
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public AppServicePlanPackingAdvisor defineAppServicePlanPacking() {
+        return new AppServicePlanPackingAdvisorImpl(this);
+    }
+
+    /**
+     * Loads the configuration, app settings, connection strings, slot configurations and authentication settings
+     * not yet loaded for sites listed lazily, with a bounded number of sites loading at a time.
+     *
+     * @param sites the web apps, function apps or deployment slots
+     * @param maxConcurrency the maximum number of sites loading at a time
+     * @param <T> the type of the sites
+     * @return the sites, once loaded
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public <T extends WebAppBase> List<T> loadSiteProperties(Collection<T> sites, int maxConcurrency) {
+        return loadSitePropertiesAsync(sites, maxConcurrency).toList().toBlocking().single();
+    }
+
+    /**
+     * Loads the configuration, app settings, connection strings, slot configurations and authentication settings
+     * not yet loaded for sites listed lazily, with a bounded number of sites loading at a time.
+     *
+     * @param sites the web apps, function apps or deployment slots
+     * @param maxConcurrency the maximum number of sites loading at a time
+     * @param <T> the type of the sites
+     * @return an observable that emits each site once loaded
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public <T extends WebAppBase> Observable<T> loadSitePropertiesAsync(Collection<T> sites, int maxConcurrency) {
+        return Observable.from(sites).flatMap(new Func1<T, Observable<T>>() {
+            @Override
+            public Observable<T> call(final T site) {
+                return ((WebAppBaseImpl<?, ?>) site).loadPendingPropertiesAsync().map(new Func1<Object, T>() {
+                    @Override
+                    public T call(Object loaded) {
+                        return site;
+                    }
+                });
+            }
+        }, maxConcurrency);
+    }
+}
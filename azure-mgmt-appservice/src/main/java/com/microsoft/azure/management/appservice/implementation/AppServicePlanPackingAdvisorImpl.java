@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.Page;
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.appservice.AppServicePlan;
+import com.microsoft.azure.management.appservice.AppServicePlanPackingAdvice;
+import com.microsoft.azure.management.appservice.AppServicePlanPackingAdvisor;
+import com.microsoft.azure.management.appservice.HostingEnvironmentProfile;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Implementation for AppServicePlanPackingAdvisor.
+ */
+@LangDefinition(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+class AppServicePlanPackingAdvisorImpl implements AppServicePlanPackingAdvisor {
+    private final AppServiceManager manager;
+    private int maxSitesPerPlan = 10;
+    private int maxConcurrency = WebAppBaseImpl.DEFAULT_LIST_CONCURRENCY;
+
+    AppServicePlanPackingAdvisorImpl(AppServiceManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public AppServicePlanPackingAdvisorImpl withMaxSitesPerPlan(int maxSitesPerPlan) {
+        if (maxSitesPerPlan < 1) {
+            throw new IllegalArgumentException("A plan is packed with at least 1 site.");
+        }
+        this.maxSitesPerPlan = maxSitesPerPlan;
+        return this;
+    }
+
+    @Override
+    public AppServicePlanPackingAdvisorImpl withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency is at least 1.");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    @Override
+    public AppServicePlanPackingAdvice advise() {
+        return adviseAsync().toBlocking().last();
+    }
+
+    @Override
+    public Observable<AppServicePlanPackingAdvice> adviseAsync() {
+        final int maxSites = this.maxSitesPerPlan;
+        return snapshotAsync().map(new Func1<List<PlanSnapshot>, AppServicePlanPackingAdvice>() {
+            @Override
+            public AppServicePlanPackingAdvice call(List<PlanSnapshot> plans) {
+                return pack(plans, maxSites);
+            }
+        });
+    }
+
+    /**
+     * Lists the plans, and the sites of every plan. The sites are listed again on each advice, as a site may move
+     * between plans, or be replaced by another one, without the number of sites of the plan changing.
+     */
+    private Observable<List<PlanSnapshot>> snapshotAsync() {
+        return listPlansAsync()
+                .flatMapIterable(new Func1<List<AppServicePlanInner>, Iterable<AppServicePlanInner>>() {
+                    @Override
+                    public Iterable<AppServicePlanInner> call(List<AppServicePlanInner> plans) {
+                        return plans;
+                    }
+                })
+                .flatMap(new Func1<AppServicePlanInner, Observable<PlanSnapshot>>() {
+                    @Override
+                    public Observable<PlanSnapshot> call(final AppServicePlanInner plan) {
+                        return listSiteIdsAsync(plan).map(new Func1<List<String>, PlanSnapshot>() {
+                            @Override
+                            public PlanSnapshot call(List<String> siteIds) {
+                                return new PlanSnapshot(plan, siteIds);
+                            }
+                        });
+                    }
+                }, maxConcurrency)
+                .toList();
+    }
+
+    private Observable<List<AppServicePlanInner>> listPlansAsync() {
+        return manager.inner().appServicePlans().listAsync()
+                .flatMapIterable(new Func1<Page<AppServicePlanInner>, Iterable<AppServicePlanInner>>() {
+                    @Override
+                    public Iterable<AppServicePlanInner> call(Page<AppServicePlanInner> page) {
+                        return page.items();
+                    }
+                })
+                .toList();
+    }
+
+    private Observable<List<String>> listSiteIdsAsync(AppServicePlanInner plan) {
+        return manager.inner().appServicePlans().listWebAppsAsync(ResourceUtils.groupFromResourceId(plan.id()), plan.name())
+                .flatMapIterable(new Func1<Page<SiteInner>, Iterable<SiteInner>>() {
+                    @Override
+                    public Iterable<SiteInner> call(Page<SiteInner> page) {
+                        return page.items();
+                    }
+                })
+                .map(new Func1<SiteInner, String>() {
+                    @Override
+                    public String call(SiteInner site) {
+                        return site.id();
+                    }
+                })
+                .toList();
+    }
+
+    private AppServicePlanPackingAdvice pack(Iterable<PlanSnapshot> snapshot, int maxSites) {
+        Advice advice = new Advice();
+        // Sites only move between plans of the same resource group, region, operating system, pricing tier and
+        // app service environment
+        Map<String, List<PlanState>> groups = new LinkedHashMap<>();
+        for (PlanSnapshot planSnapshot : snapshot) {
+            AppServicePlanImpl plan = new AppServicePlanImpl(planSnapshot.inner.name(), planSnapshot.inner, manager);
+            advice.plans.add(new Density(plan, planSnapshot.siteIds, maxSites));
+            HostingEnvironmentProfile environment = planSnapshot.inner.hostingEnvironmentProfile();
+            String key = (plan.resourceGroupName() + "|" + plan.regionName() + "|" + plan.operatingSystem()
+                    + "|" + plan.pricingTier() + "|" + (environment != null ? environment.id() : "")).toLowerCase(Locale.ROOT);
+            if (!groups.containsKey(key)) {
+                groups.put(key, new ArrayList<PlanState>());
+            }
+            groups.get(key).add(new PlanState(plan.id(), planSnapshot.siteIds));
+        }
+        for (List<PlanState> group : groups.values()) {
+            packGroup(group, maxSites, advice);
+        }
+        return advice;
+    }
+
+    /**
+     * Empties the plans of a group with the fewest sites into the plans with the most sites that still have room,
+     * as long as all the sites of a plan fit in the others.
+     */
+    static void packGroup(List<PlanState> group, int maxSites, Advice advice) {
+        Collections.sort(group, new Comparator<PlanState>() {
+            @Override
+            public int compare(PlanState left, PlanState right) {
+                int bySites = Integer.compare(right.siteIds.size(), left.siteIds.size());
+                return bySites != 0 ? bySites : left.id.compareToIgnoreCase(right.id);
+            }
+        });
+        for (int i = group.size() - 1; i >= 0; i--) {
+            PlanState source = group.get(i);
+            if (source.target) {
+                continue;
+            }
+            if (source.siteIds.isEmpty()) {
+                source.released = true;
+                advice.releasablePlanIds.add(source.id);
+                continue;
+            }
+            int room = 0;
+            for (PlanState plan : group) {
+                if (plan != source && !plan.released) {
+                    room += Math.max(0, maxSites - plan.siteIds.size());
+                }
+            }
+            if (room < source.siteIds.size()) {
+                continue;
+            }
+            for (PlanState target : group) {
+                if (target == source || target.released) {
+                    continue;
+                }
+                while (target.siteIds.size() < maxSites && !source.siteIds.isEmpty()) {
+                    String siteId = source.siteIds.remove(source.siteIds.size() - 1);
+                    target.siteIds.add(siteId);
+                    target.target = true;
+                    advice.moves.add(new Move(siteId, source.id, target.id));
+                }
+            }
+            source.released = true;
+            advice.releasablePlanIds.add(source.id);
+        }
+    }
+
+    /**
+     * A plan and the ids of its sites, as of a snapshot.
+     */
+    private static class PlanSnapshot {
+        private final AppServicePlanInner inner;
+        private final List<String> siteIds;
+
+        PlanSnapshot(AppServicePlanInner inner, List<String> siteIds) {
+            this.inner = inner;
+            this.siteIds = Collections.unmodifiableList(siteIds);
+        }
+    }
+
+    /**
+     * A plan whose sites are being packed.
+     */
+    static class PlanState {
+        private final String id;
+        private final List<String> siteIds;
+        private boolean released;
+        private boolean target;
+
+        PlanState(String id, List<String> siteIds) {
+            this.id = id;
+            this.siteIds = new ArrayList<>(siteIds);
+        }
+    }
+
+    static class Advice implements AppServicePlanPackingAdvice {
+        private final List<PlanDensity> plans = new ArrayList<>();
+        private final List<SiteMove> moves = new ArrayList<>();
+        private final List<String> releasablePlanIds = new ArrayList<>();
+
+        @Override
+        public List<PlanDensity> plans() {
+            return Collections.unmodifiableList(plans);
+        }
+
+        @Override
+        public List<SiteMove> moves() {
+            return Collections.unmodifiableList(moves);
+        }
+
+        @Override
+        public List<String> releasablePlanIds() {
+            return Collections.unmodifiableList(releasablePlanIds);
+        }
+    }
+
+    private static class Density implements AppServicePlanPackingAdvice.PlanDensity {
+        private final AppServicePlan plan;
+        private final List<String> siteIds;
+        private final int maxSites;
+
+        Density(AppServicePlan plan, List<String> siteIds, int maxSites) {
+            this.plan = plan;
+            this.siteIds = siteIds;
+            this.maxSites = maxSites;
+        }
+
+        @Override
+        public AppServicePlan plan() {
+            return plan;
+        }
+
+        @Override
+        public List<String> siteIds() {
+            return siteIds;
+        }
+
+        @Override
+        public double sitesPerInstance() {
+            return (double) siteIds.size() / Math.max(1, plan.capacity());
+        }
+
+        @Override
+        public double fill() {
+            return (double) siteIds.size() / maxSites;
+        }
+    }
+
+    private static class Move implements AppServicePlanPackingAdvice.SiteMove {
+        private final String siteId;
+        private final String sourcePlanId;
+        private final String targetPlanId;
+
+        Move(String siteId, String sourcePlanId, String targetPlanId) {
+            this.siteId = siteId;
+            this.sourcePlanId = sourcePlanId;
+            this.targetPlanId = targetPlanId;
+        }
+
+        @Override
+        public String siteId() {
+            return siteId;
+        }
+
+        @Override
+        public String sourcePlanId() {
+            return sourcePlanId;
+        }
+
+        @Override
+        public String targetPlanId() {
+            return targetPlanId;
+        }
+    }
+}
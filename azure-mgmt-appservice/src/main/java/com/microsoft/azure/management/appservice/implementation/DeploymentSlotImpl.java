@@ -170,13 +170,13 @@ class DeploymentSlotImpl
 
     @Override
     public DeploymentSlotImpl withConfigurationFromWebApp(WebApp webApp) {
-        copyConfigurations(((WebAppBaseImpl) webApp).siteConfig, webApp.appSettings().values(), webApp.connectionStrings().values());
+        copyConfigurations(((WebAppBaseImpl) webApp).siteConfigInner(), webApp.appSettings().values(), webApp.connectionStrings().values());
         return this;
     }
 
     @Override
     public DeploymentSlotImpl withConfigurationFromDeploymentSlot(DeploymentSlot slot) {
-        copyConfigurations(((WebAppBaseImpl) slot).siteConfig, slot.appSettings().values(), slot.connectionStrings().values());
+        copyConfigurations(((WebAppBaseImpl) slot).siteConfigInner(), slot.appSettings().values(), slot.connectionStrings().values());
         return this;
     }
 
@@ -265,6 +265,11 @@ class DeploymentSlotImpl
         return manager().inner().webApps().createOrUpdateSourceControlSlotAsync(resourceGroupName(), parent().name(), name(), inner);
     }
 
+    @Override
+    Observable<Page<DeploymentInner>> listDeployments() {
+        return manager().inner().webApps().listDeploymentsSlotAsync(resourceGroupName(), parent().name(), name());
+    }
+
     @Override
     public void swap(String slotName) {
         swapAsync(slotName).toObservable().toBlocking().subscribe();
@@ -34,6 +34,7 @@ class DeploymentSlotsImpl
         implements DeploymentSlots {
 
     private final PagedListConverter<SiteInner, DeploymentSlot> converter;
+    private final PagedListConverter<SiteInner, DeploymentSlot> lazyConverter;
     private final WebAppImpl parent;
 
     DeploymentSlotsImpl(final WebAppImpl parent) {
@@ -47,10 +48,31 @@ class DeploymentSlotsImpl
                 return wrapModelWithConfigChange(siteInner, innerCollection, parent);
             }
         };
+        lazyConverter = new PagedListConverter<SiteInner, DeploymentSlot>() {
+            @Override
+            public DeploymentSlot typeConvert(SiteInner siteInner) {
+                return wrapModel(siteInner).withLazilyLoadedProperties();
+            }
+        };
+    }
+
+    @Override
+    public PagedList<DeploymentSlot> listLazily() {
+        return lazyConverter.convert(innerCollection.listSlots(parent.resourceGroupName(), parent.name()));
     }
 
     private DeploymentSlot wrapModelWithConfigChange(SiteInner siteInner, WebAppsInner innerCollection, WebAppImpl parent) {
-        return wrapModel(siteInner, innerCollection.getConfigurationSlot(siteInner.resourceGroup(), parent.name(), siteInner.name().replaceAll(".*/", ""))).cacheSiteProperties().toBlocking().single();
+        return wrapModelWithConfigChangeAsync(siteInner, innerCollection, parent).toBlocking().single();
+    }
+
+    private Observable<DeploymentSlot> wrapModelWithConfigChangeAsync(final SiteInner siteInner, WebAppsInner innerCollection, WebAppImpl parent) {
+        return innerCollection.getConfigurationSlotAsync(siteInner.resourceGroup(), parent.name(), siteInner.name().replaceAll(".*/", ""))
+                .flatMap(new Func1<SiteConfigResourceInner, Observable<DeploymentSlot>>() {
+                    @Override
+                    public Observable<DeploymentSlot> call(SiteConfigResourceInner siteConfigInner) {
+                        return wrapModel(siteInner, siteConfigInner).cacheSiteProperties();
+                    }
+                });
     }
 
     @Override
@@ -135,12 +157,17 @@ class DeploymentSlotsImpl
 
     @Override
     public Observable<DeploymentSlot> listAsync() {
-        return convertPageToInnerAsync(innerCollection.listSlotsAsync(parent.resourceGroupName(), parent.name())).map(new Func1<SiteInner, DeploymentSlot>() {
+        return listAsync(WebAppBaseImpl.DEFAULT_LIST_CONCURRENCY);
+    }
+
+    @Override
+    public Observable<DeploymentSlot> listAsync(int maxConcurrency) {
+        return convertPageToInnerAsync(innerCollection.listSlotsAsync(parent.resourceGroupName(), parent.name())).flatMap(new Func1<SiteInner, Observable<DeploymentSlot>>() {
             @Override
-            public DeploymentSlot call(SiteInner siteInner) {
-                return wrapModelWithConfigChange(siteInner, innerCollection, parent);
+            public Observable<DeploymentSlot> call(SiteInner siteInner) {
+                return wrapModelWithConfigChangeAsync(siteInner, innerCollection, parent);
             }
-        });
+        }, maxConcurrency);
     }
 
     private DeploymentSlotImpl wrapModel(SiteInner inner, SiteConfigResourceInner configResourceInner) {
@@ -107,7 +107,7 @@ class FunctionAppImpl
         if (storageAccountToSet == null) {
             return super.submitAppSettings(site);
         } else {
-            return storageAccountToSet.getKeysAsync()
+            return manager().storageManager().storageAccountKeys().getKeysAsync(storageAccountToSet)
                 .flatMapIterable(new Func1<List<StorageAccountKey>, Iterable<StorageAccountKey>>() {
                     @Override
                     public Iterable<StorageAccountKey> call(List<StorageAccountKey> storageAccountKeys) {
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.management.appservice.implementation;
 
+import com.microsoft.azure.Page;
 import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.appservice.FunctionApp;
@@ -13,6 +14,8 @@ import com.microsoft.azure.management.appservice.FunctionApps;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
 import com.microsoft.azure.management.resources.fluentcore.utils.PagedListConverter;
 import rx.Completable;
+import rx.Observable;
+import rx.functions.Func1;
 
 /**
  * The implementation for WebApps.
@@ -28,14 +31,25 @@ class FunctionAppsImpl
         implements FunctionApps {
 
     private final PagedListConverter<SiteInner, FunctionApp> converter;
+    private final PagedListConverter<SiteInner, FunctionApp> lazyConverter;
 
     FunctionAppsImpl(final AppServiceManager manager) {
         super(manager.inner().webApps(), manager);
         converter = new PagedListConverter<SiteInner, FunctionApp>() {
             @Override
             public FunctionApp typeConvert(SiteInner siteInner) {
-                FunctionAppImpl impl = wrapModel(siteInner, manager.inner().webApps().getConfiguration(siteInner.resourceGroup(), siteInner.name()));
-                return impl.cacheSiteProperties().toBlocking().single();
+                return wrapModelWithConfigAsync(siteInner).toBlocking().single();
+            }
+
+            @Override
+            protected boolean filter(SiteInner inner) {
+                return "functionapp".equals(inner.kind());
+            }
+        };
+        lazyConverter = new PagedListConverter<SiteInner, FunctionApp>() {
+            @Override
+            public FunctionApp typeConvert(SiteInner siteInner) {
+                return wrapModel(siteInner).withLazilyLoadedProperties();
             }
 
             @Override
@@ -46,12 +60,70 @@ class FunctionAppsImpl
     }
 
     @Override
-    public FunctionApp getByResourceGroup(String groupName, String name) {
-        SiteInner siteInner = this.inner().getByResourceGroup(groupName, name);
-        if (siteInner == null) {
-            return null;
-        }
-        return wrapModel(siteInner, this.inner().getConfiguration(groupName, name)).cacheSiteProperties().toBlocking().single();
+    public PagedList<FunctionApp> listLazily() {
+        return lazyConverter.convert(this.inner().list());
+    }
+
+    @Override
+    public PagedList<FunctionApp> listByResourceGroupLazily(String resourceGroupName) {
+        return lazyConverter.convert(this.inner().listByResourceGroup(resourceGroupName));
+    }
+
+    @Override
+    public Observable<FunctionApp> getByResourceGroupAsync(String groupName, String name) {
+        return this.inner().getByResourceGroupAsync(groupName, name).flatMap(new Func1<SiteInner, Observable<FunctionApp>>() {
+            @Override
+            public Observable<FunctionApp> call(SiteInner siteInner) {
+                if (siteInner == null) {
+                    return Observable.<FunctionApp>just(null);
+                }
+                return wrapModelWithConfigAsync(siteInner);
+            }
+        });
+    }
+
+    @Override
+    public Observable<FunctionApp> listAsync() {
+        return listAsync(WebAppBaseImpl.DEFAULT_LIST_CONCURRENCY);
+    }
+
+    @Override
+    public Observable<FunctionApp> listAsync(int maxConcurrency) {
+        return wrapFunctionAppsAsync(this.inner().listAsync(), maxConcurrency);
+    }
+
+    @Override
+    public Observable<FunctionApp> listByResourceGroupAsync(String resourceGroupName) {
+        return listByResourceGroupAsync(resourceGroupName, WebAppBaseImpl.DEFAULT_LIST_CONCURRENCY);
+    }
+
+    @Override
+    public Observable<FunctionApp> listByResourceGroupAsync(String resourceGroupName, int maxConcurrency) {
+        return wrapFunctionAppsAsync(this.inner().listByResourceGroupAsync(resourceGroupName), maxConcurrency);
+    }
+
+    private Observable<FunctionApp> wrapFunctionAppsAsync(Observable<Page<SiteInner>> innerPages, int maxConcurrency) {
+        return convertPageToInnerAsync(innerPages).filter(new Func1<SiteInner, Boolean>() {
+            @Override
+            public Boolean call(SiteInner siteInner) {
+                return "functionapp".equals(siteInner.kind());
+            }
+        }).flatMap(new Func1<SiteInner, Observable<FunctionApp>>() {
+            @Override
+            public Observable<FunctionApp> call(SiteInner siteInner) {
+                return wrapModelWithConfigAsync(siteInner);
+            }
+        }, maxConcurrency);
+    }
+
+    private Observable<FunctionApp> wrapModelWithConfigAsync(final SiteInner siteInner) {
+        return this.inner().getConfigurationAsync(siteInner.resourceGroup(), siteInner.name())
+                .flatMap(new Func1<SiteConfigResourceInner, Observable<FunctionApp>>() {
+                    @Override
+                    public Observable<FunctionApp> call(SiteConfigResourceInner siteConfigInner) {
+                        return wrapModel(siteInner, siteConfigInner).cacheSiteProperties();
+                    }
+                });
     }
 
     @Override
@@ -171,13 +171,13 @@ class FunctionDeploymentSlotImpl
 
     @Override
     public FunctionDeploymentSlotImpl withConfigurationFromWebApp(FunctionApp app) {
-        copyConfigurations(((WebAppBaseImpl) app).siteConfig, app.appSettings().values(), app.connectionStrings().values());
+        copyConfigurations(((WebAppBaseImpl) app).siteConfigInner(), app.appSettings().values(), app.connectionStrings().values());
         return this;
     }
 
     @Override
     public FunctionDeploymentSlotImpl withConfigurationFromDeploymentSlot(FunctionDeploymentSlot slot) {
-        copyConfigurations(((WebAppBaseImpl) slot).siteConfig, slot.appSettings().values(), slot.connectionStrings().values());
+        copyConfigurations(((WebAppBaseImpl) slot).siteConfigInner(), slot.appSettings().values(), slot.connectionStrings().values());
         return this;
     }
 
@@ -266,6 +266,11 @@ class FunctionDeploymentSlotImpl
         return manager().inner().webApps().createOrUpdateSourceControlSlotAsync(resourceGroupName(), parent().name(), name(), inner);
     }
 
+    @Override
+    Observable<Page<DeploymentInner>> listDeployments() {
+        return manager().inner().webApps().listDeploymentsSlotAsync(resourceGroupName(), parent().name(), name());
+    }
+
     @Override
     public void swap(String slotName) {
         swapAsync(slotName).toObservable().toBlocking().subscribe();
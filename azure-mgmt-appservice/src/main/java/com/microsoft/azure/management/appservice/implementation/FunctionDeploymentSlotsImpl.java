@@ -50,7 +50,17 @@ class FunctionDeploymentSlotsImpl
     }
 
     private FunctionDeploymentSlot wrapModelWithConfigChange(SiteInner siteInner, WebAppsInner innerCollection, FunctionAppImpl parent) {
-        return wrapModel(siteInner, innerCollection.getConfigurationSlot(siteInner.resourceGroup(), parent.name(), siteInner.name().replaceAll(".*/", ""))).cacheSiteProperties().toBlocking().single();
+        return wrapModelWithConfigChangeAsync(siteInner, innerCollection, parent).toBlocking().single();
+    }
+
+    private Observable<FunctionDeploymentSlot> wrapModelWithConfigChangeAsync(final SiteInner siteInner, WebAppsInner innerCollection, FunctionAppImpl parent) {
+        return innerCollection.getConfigurationSlotAsync(siteInner.resourceGroup(), parent.name(), siteInner.name().replaceAll(".*/", ""))
+                .flatMap(new Func1<SiteConfigResourceInner, Observable<FunctionDeploymentSlot>>() {
+                    @Override
+                    public Observable<FunctionDeploymentSlot> call(SiteConfigResourceInner siteConfigInner) {
+                        return wrapModel(siteInner, siteConfigInner).cacheSiteProperties();
+                    }
+                });
     }
 
     @Override
@@ -138,12 +148,17 @@ class FunctionDeploymentSlotsImpl
 
     @Override
     public Observable<FunctionDeploymentSlot> listAsync() {
-        return convertPageToInnerAsync(innerCollection.listSlotsAsync(parent.resourceGroupName(), parent.name())).map(new Func1<SiteInner, FunctionDeploymentSlot>() {
+        return listAsync(WebAppBaseImpl.DEFAULT_LIST_CONCURRENCY);
+    }
+
+    @Override
+    public Observable<FunctionDeploymentSlot> listAsync(int maxConcurrency) {
+        return convertPageToInnerAsync(innerCollection.listSlotsAsync(parent.resourceGroupName(), parent.name())).flatMap(new Func1<SiteInner, Observable<FunctionDeploymentSlot>>() {
             @Override
-            public FunctionDeploymentSlot call(SiteInner siteInner) {
-                return wrapModelWithConfigChange(siteInner, innerCollection, parent);
+            public Observable<FunctionDeploymentSlot> call(SiteInner siteInner) {
+                return wrapModelWithConfigChangeAsync(siteInner, innerCollection, parent);
             }
-        });
+        }, maxConcurrency);
     }
 
     private FunctionDeploymentSlotImpl wrapModel(SiteInner inner, SiteConfigResourceInner configResourceInner) {
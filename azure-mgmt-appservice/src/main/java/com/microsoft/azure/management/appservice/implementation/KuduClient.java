@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.microsoft.azure.management.appservice.PublishingProfile;
+import com.microsoft.rest.RestClient;
+import com.microsoft.rest.RestException;
+import com.microsoft.rest.credentials.BasicAuthenticationCredentials;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import org.joda.time.DateTime;
+import retrofit2.Response;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.POST;
+import retrofit2.http.Query;
+import retrofit2.http.Url;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A client for the deployment endpoints of the SCM (Kudu) site of a web app, function app or deployment slot,
+ * authenticated with the publishing credentials of the site.
+ */
+class KuduClient {
+    static final long DEFAULT_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    static final long DEFAULT_DEPLOYMENT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int STATUS_FAILED = 3;
+
+    private final KuduService service;
+    private final long pollIntervalMillis;
+    private final long deploymentTimeoutMillis;
+
+    /**
+     * Creates KuduClient.
+     *
+     * @param restClient the REST client for the SCM site, with its base URL and credentials
+     * @param pollIntervalMillis the interval between two checks of the status of a deployment
+     */
+    KuduClient(RestClient restClient, long pollIntervalMillis) {
+        this(restClient, pollIntervalMillis, DEFAULT_DEPLOYMENT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates KuduClient.
+     *
+     * @param restClient the REST client for the SCM site, with its base URL and credentials
+     * @param pollIntervalMillis the interval between two checks of the status of a deployment
+     * @param deploymentTimeoutMillis how long the status of a deployment is checked before giving up on it
+     */
+    KuduClient(RestClient restClient, long pollIntervalMillis, long deploymentTimeoutMillis) {
+        this.service = restClient.retrofit().create(KuduService.class);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.deploymentTimeoutMillis = deploymentTimeoutMillis;
+    }
+
+    /**
+     * Creates a KuduClient for the SCM site of a publishing profile.
+     *
+     * @param manager the app service manager, whose REST client settings are reused
+     * @param profile the publishing profile of the site
+     * @return the client
+     */
+    static KuduClient forPublishingProfile(AppServiceManager manager, PublishingProfile profile) {
+        RestClient restClient = manager.restClient().newBuilder()
+                .withBaseUrl(((PublishingProfileImpl) profile).scmUrl())
+                .withCredentials(new BasicAuthenticationCredentials(profile.gitUsername(), profile.gitPassword()))
+                .build();
+        return new KuduClient(restClient, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Uploads a zip or war package and waits for the deployment to complete.
+     *
+     * @param file the package
+     * @param war true to deploy the package as a Java web application, false to extract it to wwwroot
+     * @param gzip true to compress the package on the fly, which streams it with chunked transfer encoding
+     * @return an observable that emits the completed deployment, or a TimeoutException if the deployment does
+     * not complete in time
+     */
+    Observable<KuduDeployment> deployAsync(File file, boolean war, boolean gzip) {
+        RequestBody body = new FileChannelRequestBody(file, gzip);
+        String contentEncoding = gzip ? "gzip" : null;
+        Observable<Response<ResponseBody>> upload = war
+                ? service.warDeploy(body, contentEncoding, true)
+                : service.zipDeploy(body, contentEncoding, true);
+        return upload.flatMap(new Func1<Response<ResponseBody>, Observable<KuduDeployment>>() {
+            @Override
+            public Observable<KuduDeployment> call(Response<ResponseBody> response) {
+                if (!response.isSuccessful()) {
+                    return Observable.error(new RestException("Upload of the deployment package failed with status code "
+                            + response.code(), Response.<ResponseBody>error(response.errorBody(), response.raw())));
+                }
+                String location = response.headers().get("Location");
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deploymentTimeoutMillis);
+                return pollAsync(location == null ? "api/deployments/latest" : location, deadline);
+            }
+        });
+    }
+
+    private Observable<KuduDeployment> pollAsync(final String url, final long deadlineNanos) {
+        return service.getDeployment(url).flatMap(new Func1<KuduDeployment, Observable<KuduDeployment>>() {
+            @Override
+            public Observable<KuduDeployment> call(KuduDeployment deployment) {
+                if (deployment.complete) {
+                    if (deployment.status == STATUS_FAILED) {
+                        return Observable.error(new RuntimeException("Deployment " + deployment.id + " failed: "
+                                + deployment.statusText));
+                    }
+                    return Observable.just(deployment);
+                }
+                if (System.nanoTime() - deadlineNanos > 0) {
+                    return Observable.error(new TimeoutException("Deployment " + deployment.id + " did not complete within "
+                            + deploymentTimeoutMillis + " ms, last status: " + deployment.statusText));
+                }
+                return Observable.defer(new Func0<Observable<KuduDeployment>>() {
+                    @Override
+                    public Observable<KuduDeployment> call() {
+                        return pollAsync(url, deadlineNanos);
+                    }
+                }).delaySubscription(pollIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private interface KuduService {
+        @POST("api/zipdeploy")
+        Observable<Response<ResponseBody>> zipDeploy(@Body RequestBody body, @Header("Content-Encoding") String contentEncoding, @Query("isAsync") boolean isAsync);
+
+        @POST("api/wardeploy")
+        Observable<Response<ResponseBody>> warDeploy(@Body RequestBody body, @Header("Content-Encoding") String contentEncoding, @Query("isAsync") boolean isAsync);
+
+        @GET
+        Observable<KuduDeployment> getDeployment(@Url String url);
+    }
+
+    /**
+     * The status of a deployment, as reported by the SCM site.
+     */
+    static class KuduDeployment {
+        @JsonProperty("id")
+        private String id;
+        @JsonProperty("status")
+        private int status;
+        @JsonProperty("status_text")
+        private String statusText;
+        @JsonProperty("deployer")
+        private String deployer;
+        @JsonProperty("start_time")
+        private DateTime startTime;
+        @JsonProperty("end_time")
+        private DateTime endTime;
+        @JsonProperty("complete")
+        private boolean complete;
+
+        String deployer() {
+            return deployer;
+        }
+
+        DateTime startTime() {
+            return startTime;
+        }
+
+        DateTime endTime() {
+            return endTime;
+        }
+
+        boolean complete() {
+            return complete;
+        }
+    }
+
+    /**
+     * A request body streamed from a file channel, read again on each attempt so that requests can be retried.
+     */
+    private static class FileChannelRequestBody extends RequestBody {
+        private static final MediaType CONTENT_TYPE = MediaType.parse("application/octet-stream");
+
+        private final File file;
+        private final boolean gzip;
+
+        FileChannelRequestBody(File file, boolean gzip) {
+            this.file = file;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public long contentLength() {
+            // The compressed length is unknown up front, in which case the body is sent in chunks
+            return gzip ? -1 : file.length();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            BufferedSink target = gzip ? Okio.buffer(new GzipSink(sink)) : sink;
+            OutputStream outputStream = target.outputStream();
+            WritableByteChannel out = Channels.newChannel(outputStream);
+            try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (in.read(buffer) >= 0) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            if (gzip) {
+                // Writes the gzip trailer; this also closes the request sink, which OkHttp tolerates
+                target.close();
+            } else {
+                outputStream.flush();
+            }
+        }
+    }
+}
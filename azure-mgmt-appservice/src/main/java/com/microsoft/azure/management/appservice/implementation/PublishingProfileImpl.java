@@ -71,6 +71,14 @@ class PublishingProfileImpl implements PublishingProfile {
         return gitUrl + "/" + repoName;
     }
 
+    /**
+     * @return the base URL of the SCM site, e.g. https://contoso.scm.azurewebsites.net:443/
+     */
+    String scmUrl() {
+        String scmUrl = gitUrl.startsWith("https://") ? gitUrl : "https://" + gitUrl;
+        return scmUrl.endsWith("/") ? scmUrl : scmUrl + "/";
+    }
+
     @Override
     public String gitUsername() {
         return gitUsername;
@@ -0,0 +1,398 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.appservice.ConnStringValueTypePair;
+import com.microsoft.azure.management.appservice.ConnectionStringType;
+import com.microsoft.azure.management.appservice.SiteConfigurationRollout;
+import com.microsoft.azure.management.appservice.SiteConfigurationRolloutResult;
+import com.microsoft.azure.management.appservice.WebAppBase;
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation for SiteConfigurationRollout.
+ */
+@LangDefinition(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+class SiteConfigurationRolloutImpl implements SiteConfigurationRollout {
+    private final Map<String, String> appSettingsToSet = new LinkedHashMap<>();
+    private final Set<String> appSettingsToRemove = new LinkedHashSet<>();
+    private final Map<String, ConnStringValueTypePair> connectionStringsToSet = new LinkedHashMap<>();
+    private final Set<String> connectionStringsToRemove = new LinkedHashSet<>();
+    private final List<WebAppBase> targets = new ArrayList<>();
+    private Func1<WebAppBase, Boolean> selector;
+    private int[] waveSizes = new int[0];
+    private int maxConcurrency = WebAppBaseImpl.DEFAULT_LIST_CONCURRENCY;
+    private Func1<WebAppBase, Observable<Boolean>> healthCheck;
+
+    @Override
+    public SiteConfigurationRolloutImpl withAppSetting(String key, String value) {
+        appSettingsToRemove.remove(key);
+        appSettingsToSet.put(key, value);
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withoutAppSetting(String key) {
+        appSettingsToSet.remove(key);
+        appSettingsToRemove.add(key);
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withConnectionString(String name, String value, ConnectionStringType type) {
+        connectionStringsToRemove.remove(name);
+        connectionStringsToSet.put(name, new ConnStringValueTypePair().withValue(value).withType(type));
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withoutConnectionString(String name) {
+        connectionStringsToSet.remove(name);
+        connectionStringsToRemove.add(name);
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withTargets(Collection<? extends WebAppBase> sites) {
+        targets.addAll(sites);
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withTargetSelector(Func1<WebAppBase, Boolean> selector) {
+        this.selector = selector;
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withWaveSizes(int... sizes) {
+        for (int size : sizes) {
+            if (size < 1) {
+                throw new IllegalArgumentException("Wave sizes are at least 1.");
+            }
+        }
+        this.waveSizes = sizes.clone();
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency is at least 1.");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    @Override
+    public SiteConfigurationRolloutImpl withHealthCheck(Func1<WebAppBase, Observable<Boolean>> healthCheck) {
+        this.healthCheck = healthCheck;
+        return this;
+    }
+
+    @Override
+    public List<SiteConfigurationRolloutResult> execute() {
+        return executeAsync().toList().toBlocking().single();
+    }
+
+    @Override
+    public Observable<SiteConfigurationRolloutResult> executeAsync() {
+        final List<List<WebAppBase>> waves = waves(selectedTargets(), waveSizes);
+        // Set by the first failure, and checked by each wave before it starts
+        final AtomicBoolean halted = new AtomicBoolean();
+        return Observable.range(0, waves.size())
+                .concatMap(new Func1<Integer, Observable<SiteConfigurationRolloutResult>>() {
+                    @Override
+                    public Observable<SiteConfigurationRolloutResult> call(final Integer wave) {
+                        return Observable.defer(new Func0<Observable<SiteConfigurationRolloutResult>>() {
+                            @Override
+                            public Observable<SiteConfigurationRolloutResult> call() {
+                                if (halted.get()) {
+                                    return notAttempted(waves.get(wave), wave);
+                                }
+                                return rolloutWaveAsync(waves.get(wave), wave);
+                            }
+                        }).doOnNext(new Action1<SiteConfigurationRolloutResult>() {
+                            @Override
+                            public void call(SiteConfigurationRolloutResult result) {
+                                if (result.status() == SiteConfigurationRolloutResult.Status.FAILED
+                                        || result.status() == SiteConfigurationRolloutResult.Status.UNHEALTHY) {
+                                    halted.set(true);
+                                }
+                            }
+                        });
+                    }
+                });
+    }
+
+    private List<WebAppBase> selectedTargets() {
+        List<WebAppBase> selected = new ArrayList<>();
+        for (WebAppBase site : targets) {
+            if (selector == null || Boolean.TRUE.equals(selector.call(site))) {
+                selected.add(site);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Splits sites into waves of the given sizes, the last size repeating until all the sites are in a wave.
+     *
+     * @param sites the sites
+     * @param waveSizes the sizes of the first waves, all the sites in one wave if empty
+     * @param <T> the type of site
+     * @return the waves
+     */
+    static <T> List<List<T>> waves(List<T> sites, int[] waveSizes) {
+        List<List<T>> waves = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; start < sites.size(); i++) {
+            int size = waveSizes.length == 0 ? sites.size() : waveSizes[Math.min(i, waveSizes.length - 1)];
+            int end = Math.min(sites.size(), start + size);
+            waves.add(sites.subList(start, end));
+            start = end;
+        }
+        return waves;
+    }
+
+    private Observable<SiteConfigurationRolloutResult> rolloutWaveAsync(List<WebAppBase> sites, final int wave) {
+        final Observable<SiteConfigurationRolloutResult> updates = Observable.from(sites)
+                .flatMap(new Func1<WebAppBase, Observable<SiteConfigurationRolloutResult>>() {
+                    @Override
+                    public Observable<SiteConfigurationRolloutResult> call(WebAppBase site) {
+                        return updateAsync(site, wave);
+                    }
+                }, maxConcurrency)
+                .cache();
+        if (healthCheck == null) {
+            return updates;
+        }
+        // Updated sites are health checked once the whole wave is updated
+        Observable<SiteConfigurationRolloutResult> checked = updates
+                .filter(new Func1<SiteConfigurationRolloutResult, Boolean>() {
+                    @Override
+                    public Boolean call(SiteConfigurationRolloutResult result) {
+                        return result.status() == SiteConfigurationRolloutResult.Status.UPDATED;
+                    }
+                })
+                .toList()
+                .flatMap(new Func1<List<SiteConfigurationRolloutResult>, Observable<SiteConfigurationRolloutResult>>() {
+                    @Override
+                    public Observable<SiteConfigurationRolloutResult> call(List<SiteConfigurationRolloutResult> updated) {
+                        return Observable.from(updated).flatMap(new Func1<SiteConfigurationRolloutResult, Observable<SiteConfigurationRolloutResult>>() {
+                            @Override
+                            public Observable<SiteConfigurationRolloutResult> call(SiteConfigurationRolloutResult result) {
+                                return checkHealthAsync(result.site(), wave);
+                            }
+                        }, maxConcurrency);
+                    }
+                });
+        return Observable.concat(updates.filter(new Func1<SiteConfigurationRolloutResult, Boolean>() {
+            @Override
+            public Boolean call(SiteConfigurationRolloutResult result) {
+                return result.status() != SiteConfigurationRolloutResult.Status.UPDATED;
+            }
+        }), checked);
+    }
+
+    /**
+     * Updates a site from its current app settings and connection strings, read again right before the write so
+     * that the window in which a concurrent change of another setting is overwritten stays short; the whole
+     * dictionaries are written, so the last writer still wins.
+     */
+    private Observable<SiteConfigurationRolloutResult> updateAsync(final WebAppBase site, final int wave) {
+        final WebAppBaseImpl<?, ?> siteImpl = (WebAppBaseImpl<?, ?>) site;
+        Observable<Object> appSettingsWrite = Observable.just(null);
+        if (!appSettingsToSet.isEmpty() || !appSettingsToRemove.isEmpty()) {
+            appSettingsWrite = siteImpl.listAppSettings().flatMap(new Func1<StringDictionaryInner, Observable<Object>>() {
+                @Override
+                public Observable<Object> call(StringDictionaryInner current) {
+                    Map<String, String> appSettings = changedAppSettings(current.properties());
+                    if (appSettings == null) {
+                        return Observable.just(null);
+                    }
+                    StringDictionaryInner appSettingsInner = new StringDictionaryInner().withProperties(appSettings);
+                    appSettingsInner.withLocation(site.regionName());
+                    return siteImpl.updateAppSettings(appSettingsInner).map(new Func1<StringDictionaryInner, Object>() {
+                        @Override
+                        public Object call(StringDictionaryInner written) {
+                            siteImpl.cacheAppSettings(written);
+                            return written;
+                        }
+                    });
+                }
+            });
+        }
+        Observable<Object> connectionStringsWrite = Observable.just(null);
+        if (!connectionStringsToSet.isEmpty() || !connectionStringsToRemove.isEmpty()) {
+            connectionStringsWrite = siteImpl.listConnectionStrings().flatMap(new Func1<ConnectionStringDictionaryInner, Observable<Object>>() {
+                @Override
+                public Observable<Object> call(ConnectionStringDictionaryInner current) {
+                    Map<String, ConnStringValueTypePair> connectionStrings = changedConnectionStrings(current.properties());
+                    if (connectionStrings == null) {
+                        return Observable.just(null);
+                    }
+                    ConnectionStringDictionaryInner connectionStringsInner = new ConnectionStringDictionaryInner().withProperties(connectionStrings);
+                    connectionStringsInner.withLocation(site.regionName());
+                    return siteImpl.updateConnectionStrings(connectionStringsInner).map(new Func1<ConnectionStringDictionaryInner, Object>() {
+                        @Override
+                        public Object call(ConnectionStringDictionaryInner written) {
+                            siteImpl.cacheConnectionStrings(written);
+                            return written;
+                        }
+                    });
+                }
+            });
+        }
+        return Observable.zip(appSettingsWrite, connectionStringsWrite, new Func2<Object, Object, SiteConfigurationRolloutResult>() {
+            @Override
+            public SiteConfigurationRolloutResult call(Object appSettingsWritten, Object connectionStringsWritten) {
+                return result(site, appSettingsWritten == null && connectionStringsWritten == null
+                        ? SiteConfigurationRolloutResult.Status.UNCHANGED
+                        : SiteConfigurationRolloutResult.Status.UPDATED, wave, null);
+            }
+        }).onErrorReturn(new Func1<Throwable, SiteConfigurationRolloutResult>() {
+            @Override
+            public SiteConfigurationRolloutResult call(Throwable throwable) {
+                return result(site, SiteConfigurationRolloutResult.Status.FAILED, wave, throwable);
+            }
+        });
+    }
+
+    private Observable<SiteConfigurationRolloutResult> checkHealthAsync(final WebAppBase site, final int wave) {
+        return healthCheck.call(site)
+                .defaultIfEmpty(false)
+                .last()
+                .map(new Func1<Boolean, SiteConfigurationRolloutResult>() {
+                    @Override
+                    public SiteConfigurationRolloutResult call(Boolean healthy) {
+                        return result(site, Boolean.TRUE.equals(healthy)
+                                ? SiteConfigurationRolloutResult.Status.UPDATED
+                                : SiteConfigurationRolloutResult.Status.UNHEALTHY, wave, null);
+                    }
+                })
+                .onErrorReturn(new Func1<Throwable, SiteConfigurationRolloutResult>() {
+                    @Override
+                    public SiteConfigurationRolloutResult call(Throwable throwable) {
+                        return result(site, SiteConfigurationRolloutResult.Status.UNHEALTHY, wave, throwable);
+                    }
+                });
+    }
+
+    private Observable<SiteConfigurationRolloutResult> notAttempted(List<WebAppBase> sites, final int wave) {
+        return Observable.from(sites).map(new Func1<WebAppBase, SiteConfigurationRolloutResult>() {
+            @Override
+            public SiteConfigurationRolloutResult call(WebAppBase site) {
+                return result(site, SiteConfigurationRolloutResult.Status.NOT_ATTEMPTED, wave, null);
+            }
+        });
+    }
+
+    /**
+     * Applies the app setting changes to the app settings of a site.
+     *
+     * @param current the app settings of the site, null if none
+     * @return the changed app settings, or null if the change makes no difference
+     */
+    Map<String, String> changedAppSettings(Map<String, String> current) {
+        if (appSettingsToSet.isEmpty() && appSettingsToRemove.isEmpty()) {
+            return null;
+        }
+        Map<String, String> values = current != null ? current : Collections.<String, String>emptyMap();
+        Map<String, String> changed = new HashMap<>(values);
+        changed.putAll(appSettingsToSet);
+        changed.keySet().removeAll(appSettingsToRemove);
+        return changed.equals(values) ? null : changed;
+    }
+
+    /**
+     * Applies the connection string changes to the connection strings of a site.
+     *
+     * @param current the connection strings of the site, null if none
+     * @return the changed connection strings, or null if the change makes no difference
+     */
+    Map<String, ConnStringValueTypePair> changedConnectionStrings(Map<String, ConnStringValueTypePair> current) {
+        if (connectionStringsToSet.isEmpty() && connectionStringsToRemove.isEmpty()) {
+            return null;
+        }
+        Map<String, ConnStringValueTypePair> changed = new HashMap<>();
+        boolean differs = false;
+        if (current != null) {
+            changed.putAll(current);
+        }
+        for (Map.Entry<String, ConnStringValueTypePair> entry : connectionStringsToSet.entrySet()) {
+            ConnStringValueTypePair previous = changed.put(entry.getKey(), entry.getValue());
+            differs = differs || previous == null
+                    || !equal(previous.value(), entry.getValue().value())
+                    || !equal(previous.type(), entry.getValue().type());
+        }
+        for (String name : connectionStringsToRemove) {
+            differs = changed.remove(name) != null || differs;
+        }
+        return differs ? changed : null;
+    }
+
+    private static boolean equal(Object o1, Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    private static SiteConfigurationRolloutResult result(WebAppBase site, SiteConfigurationRolloutResult.Status status, int wave, Throwable error) {
+        return new RolloutResult(site, status, wave, error);
+    }
+
+    /**
+     * The outcome of a rollout for one site.
+     */
+    private static class RolloutResult implements SiteConfigurationRolloutResult {
+        private final WebAppBase site;
+        private final Status status;
+        private final int wave;
+        private final Throwable error;
+
+        RolloutResult(WebAppBase site, Status status, int wave, Throwable error) {
+            this.site = site;
+            this.status = status;
+            this.wave = wave;
+            this.error = error;
+        }
+
+        @Override
+        public WebAppBase site() {
+            return site;
+        }
+
+        @Override
+        public Status status() {
+            return status;
+        }
+
+        @Override
+        public int wave() {
+            return wave;
+        }
+
+        @Override
+        public Throwable error() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.appservice.DeploymentSlot;
+import com.microsoft.azure.management.appservice.FunctionApp;
+import com.microsoft.azure.management.appservice.FunctionDeploymentSlot;
+import com.microsoft.azure.management.appservice.SlotSwapOrchestration;
+import com.microsoft.azure.management.appservice.SlotSwapResult;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.appservice.WebAppBase;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation for SlotSwapOrchestration.
+ */
+@LangDefinition(ContainerName = "/Microsoft.Azure.Management.AppService.Fluent")
+class SlotSwapOrchestrationImpl implements SlotSwapOrchestration {
+    private static final long PROBE_INTERVAL_MILLIS = 2000;
+    private static final String PRODUCTION_SLOT = "production";
+
+    private final List<Swap> swaps = new ArrayList<>();
+    private String warmUpPath = "/";
+    private Func1<WebAppBase, Observable<Boolean>> warmUpProbe;
+    private long warmUpTimeoutMillis = TimeUnit.MINUTES.toMillis(5);
+    private int maxConcurrency = WebAppBaseImpl.DEFAULT_LIST_CONCURRENCY;
+
+    @Override
+    public SlotSwapOrchestrationImpl withSwap(WebAppBase site, String targetSlotName) {
+        swaps.add(new Swap(site, targetSlotName));
+        return this;
+    }
+
+    @Override
+    public SlotSwapOrchestrationImpl withSwapsIntoProduction(Collection<? extends WebAppBase> slots) {
+        for (WebAppBase slot : slots) {
+            if (!(slot instanceof DeploymentSlot) && !(slot instanceof FunctionDeploymentSlot)) {
+                throw new IllegalArgumentException(slot.name() + " is not a deployment slot.");
+            }
+            withSwap(slot, PRODUCTION_SLOT);
+        }
+        return this;
+    }
+
+    @Override
+    public SlotSwapOrchestrationImpl withWarmUpPath(String path) {
+        this.warmUpPath = path.startsWith("/") ? path : "/" + path;
+        return this;
+    }
+
+    @Override
+    public SlotSwapOrchestrationImpl withWarmUpProbe(Func1<WebAppBase, Observable<Boolean>> probe) {
+        this.warmUpProbe = probe;
+        return this;
+    }
+
+    @Override
+    public SlotSwapOrchestrationImpl withWarmUpTimeout(long timeout, TimeUnit unit) {
+        this.warmUpTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    @Override
+    public SlotSwapOrchestrationImpl withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency is at least 1.");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    @Override
+    public List<SlotSwapResult> execute() {
+        return executeAsync().toList().toBlocking().single();
+    }
+
+    @Override
+    public Observable<SlotSwapResult> executeAsync() {
+        final Func1<WebAppBase, Observable<Boolean>> probe = warmUpProbe != null ? warmUpProbe : httpProbe();
+        final List<Swap> swaps = new ArrayList<>(this.swaps);
+        return Observable.defer(new Func0<Observable<SlotSwapResult>>() {
+            @Override
+            public Observable<SlotSwapResult> call() {
+                // Each execution has results of its own, so that a later one leaves the results of the earlier ones alone
+                List<SwapResult> results = new ArrayList<>();
+                for (Swap swap : swaps) {
+                    results.add(new SwapResult(swap));
+                }
+                return executeAsync(results, probe);
+            }
+        });
+    }
+
+    private Observable<SlotSwapResult> executeAsync(final List<SwapResult> results, final Func1<WebAppBase, Observable<Boolean>> probe) {
+        final AtomicBoolean failed = new AtomicBoolean();
+        return forEachSwap(results, new Func1<SwapResult, Observable<SwapResult>>() {
+            @Override
+            public Observable<SwapResult> call(SwapResult swap) {
+                return warmUpAsync(swap, probe, failed);
+            }
+        }).flatMap(new Func1<List<SwapResult>, Observable<List<SwapResult>>>() {
+            @Override
+            public Observable<List<SwapResult>> call(List<SwapResult> warmedUp) {
+                if (failed.get()) {
+                    return Observable.just(warmedUp);
+                }
+                return forEachSwap(results, new Func1<SwapResult, Observable<SwapResult>>() {
+                    @Override
+                    public Observable<SwapResult> call(SwapResult swap) {
+                        return swapAsync(swap, failed);
+                    }
+                });
+            }
+        }).flatMap(new Func1<List<SwapResult>, Observable<List<SwapResult>>>() {
+            @Override
+            public Observable<List<SwapResult>> call(List<SwapResult> swapped) {
+                if (!failed.get()) {
+                    return Observable.just(swapped);
+                }
+                return forEachSwap(results, new Func1<SwapResult, Observable<SwapResult>>() {
+                    @Override
+                    public Observable<SwapResult> call(SwapResult swap) {
+                        return rollbackAsync(swap);
+                    }
+                });
+            }
+        }).flatMapIterable(new Func1<List<SwapResult>, Iterable<SlotSwapResult>>() {
+            @Override
+            public Iterable<SlotSwapResult> call(List<SwapResult> results) {
+                return new ArrayList<SlotSwapResult>(results);
+            }
+        });
+    }
+
+    private Observable<List<SwapResult>> forEachSwap(List<SwapResult> results, Func1<SwapResult, Observable<SwapResult>> step) {
+        return Observable.from(results).flatMap(step, maxConcurrency).toList();
+    }
+
+    private Observable<SwapResult> warmUpAsync(final SwapResult swap, final Func1<WebAppBase, Observable<Boolean>> probe, final AtomicBoolean failed) {
+        final long start = System.nanoTime();
+        return sourceAsync(swap.site, swap.targetSlotName)
+                .flatMap(new Func1<WebAppBase, Observable<Boolean>>() {
+                    @Override
+                    public Observable<Boolean> call(WebAppBase source) {
+                        return pollAsync(source, probe);
+                    }
+                })
+                .timeout(warmUpTimeoutMillis, TimeUnit.MILLISECONDS)
+                .map(new Func1<Boolean, SwapResult>() {
+                    @Override
+                    public SwapResult call(Boolean healthy) {
+                        swap.warmUpMillis = elapsedMillis(start);
+                        return swap;
+                    }
+                })
+                .onErrorReturn(new Func1<Throwable, SwapResult>() {
+                    @Override
+                    public SwapResult call(Throwable throwable) {
+                        failed.set(true);
+                        swap.warmUpMillis = elapsedMillis(start);
+                        swap.status = SlotSwapResult.Status.WARM_UP_FAILED;
+                        swap.error = throwable;
+                        return swap;
+                    }
+                });
+    }
+
+    /**
+     * Gets the site whose app is swapped in: the slot swapped into production, or the slot swapped with
+     * the production slot of a web app or function app.
+     */
+    static Observable<WebAppBase> sourceAsync(final WebAppBase site, final String targetSlotName) {
+        if (PRODUCTION_SLOT.equalsIgnoreCase(targetSlotName)
+                || !(site instanceof WebApp) && !(site instanceof FunctionApp)) {
+            return Observable.just(site);
+        }
+        return Observable.fromCallable(new Callable<WebAppBase>() {
+            @Override
+            public WebAppBase call() {
+                if (site instanceof WebApp) {
+                    return ((WebApp) site).deploymentSlots().getByName(targetSlotName);
+                }
+                return ((FunctionApp) site).deploymentSlots().getByName(targetSlotName);
+            }
+        }).subscribeOn(Schedulers.io());
+    }
+
+    private Observable<Boolean> pollAsync(final WebAppBase site, final Func1<WebAppBase, Observable<Boolean>> probe) {
+        return probe.call(site)
+                .defaultIfEmpty(false)
+                .last()
+                .onErrorReturn(new Func1<Throwable, Boolean>() {
+                    @Override
+                    public Boolean call(Throwable throwable) {
+                        return false;
+                    }
+                })
+                .flatMap(new Func1<Boolean, Observable<Boolean>>() {
+                    @Override
+                    public Observable<Boolean> call(Boolean healthy) {
+                        if (healthy) {
+                            return Observable.just(true);
+                        }
+                        return Observable.defer(new Func0<Observable<Boolean>>() {
+                            @Override
+                            public Observable<Boolean> call() {
+                                return pollAsync(site, probe);
+                            }
+                        }).delaySubscription(PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                });
+    }
+
+    private Observable<SwapResult> swapAsync(final SwapResult swap, final AtomicBoolean failed) {
+        // Swaps not started yet when another one fails are skipped
+        if (failed.get()) {
+            return Observable.just(swap);
+        }
+        final long start = System.nanoTime();
+        return swap.site.swapAsync(swap.targetSlotName)
+                .andThen(Observable.just(swap))
+                .map(new Func1<SwapResult, SwapResult>() {
+                    @Override
+                    public SwapResult call(SwapResult swapped) {
+                        swap.swapMillis = elapsedMillis(start);
+                        swap.status = SlotSwapResult.Status.SWAPPED;
+                        return swap;
+                    }
+                })
+                .onErrorReturn(new Func1<Throwable, SwapResult>() {
+                    @Override
+                    public SwapResult call(Throwable throwable) {
+                        failed.set(true);
+                        swap.swapMillis = elapsedMillis(start);
+                        swap.status = SlotSwapResult.Status.SWAP_FAILED;
+                        swap.error = throwable;
+                        return swap;
+                    }
+                });
+    }
+
+    private Observable<SwapResult> rollbackAsync(final SwapResult swap) {
+        if (swap.status != SlotSwapResult.Status.SWAPPED) {
+            return Observable.just(swap);
+        }
+        return swap.site.swapAsync(swap.targetSlotName)
+                .andThen(Observable.just(swap))
+                .map(new Func1<SwapResult, SwapResult>() {
+                    @Override
+                    public SwapResult call(SwapResult swappedBack) {
+                        swap.status = SlotSwapResult.Status.ROLLED_BACK;
+                        return swap;
+                    }
+                })
+                .onErrorReturn(new Func1<Throwable, SwapResult>() {
+                    @Override
+                    public SwapResult call(Throwable throwable) {
+                        swap.status = SlotSwapResult.Status.ROLLBACK_FAILED;
+                        swap.error = throwable;
+                        return swap;
+                    }
+                });
+    }
+
+    private Func1<WebAppBase, Observable<Boolean>> httpProbe() {
+        // A client of its own, so that the management credentials are not sent to the sites
+        final OkHttpClient httpClient = new OkHttpClient.Builder()
+                .connectTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(1, TimeUnit.MINUTES)
+                .followRedirects(false)
+                .build();
+        return new Func1<WebAppBase, Observable<Boolean>>() {
+            @Override
+            public Observable<Boolean> call(WebAppBase site) {
+                final Request request = new Request.Builder().url("https://" + site.defaultHostName() + warmUpPath).get().build();
+                return Observable.fromCallable(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        Response response = httpClient.newCall(request).execute();
+                        try {
+                            return response.code() >= 200 && response.code() < 400;
+                        } finally {
+                            response.body().close();
+                        }
+                    }
+                }).subscribeOn(Schedulers.io());
+            }
+        };
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * A swap of a site with a slot of the same app.
+     */
+    private static class Swap {
+        private final WebAppBase site;
+        private final String targetSlotName;
+
+        Swap(WebAppBase site, String targetSlotName) {
+            this.site = site;
+            this.targetSlotName = targetSlotName;
+        }
+    }
+
+    /**
+     * The state of one swap in one execution, updated by each step of the orchestration.
+     */
+    private static class SwapResult implements SlotSwapResult {
+        private final WebAppBase site;
+        private final String targetSlotName;
+        private volatile Status status = Status.NOT_ATTEMPTED;
+        private volatile long warmUpMillis;
+        private volatile long swapMillis;
+        private volatile Throwable error;
+
+        SwapResult(Swap swap) {
+            this.site = swap.site;
+            this.targetSlotName = swap.targetSlotName;
+        }
+
+        @Override
+        public WebAppBase site() {
+            return site;
+        }
+
+        @Override
+        public String targetSlotName() {
+            return targetSlotName;
+        }
+
+        @Override
+        public Status status() {
+            return status;
+        }
+
+        @Override
+        public long warmUpMillis() {
+            return warmUpMillis;
+        }
+
+        @Override
+        public long swapMillis() {
+            return swapMillis;
+        }
+
+        @Override
+        public Throwable error() {
+            return error;
+        }
+    }
+}
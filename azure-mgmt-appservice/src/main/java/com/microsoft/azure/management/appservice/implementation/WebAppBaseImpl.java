@@ -9,6 +9,7 @@ package com.microsoft.azure.management.appservice.implementation;
 import com.google.common.base.Function;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.microsoft.azure.Page;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.appservice.AppServiceCertificate;
 import com.microsoft.azure.management.appservice.AppServiceDomain;
@@ -38,10 +39,11 @@ import com.microsoft.azure.management.appservice.UsageState;
 import com.microsoft.azure.management.appservice.WebAppBase;
 import com.microsoft.azure.management.appservice.WebContainer;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.implementation.GroupableResourceImpl;
-import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
 import org.joda.time.DateTime;
 import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func0;
 import rx.functions.Func1;
 import rx.functions.Func2;
 import rx.functions.Func4;
@@ -49,12 +51,15 @@ import rx.functions.FuncN;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * The implementation for WebAppBase.
@@ -76,9 +81,31 @@ abstract class WebAppBaseImpl<
             WebAppBase.Update<FluentT>,
             WebAppBase.UpdateStages.WithWebContainer<FluentT> {
 
+    /**
+     * The groups of site properties fetched separately from the site.
+     */
+    enum SiteProperty {
+        CONFIGURATION, APP_SETTINGS, CONNECTION_STRINGS, SLOT_CONFIGURATIONS, AUTHENTICATION
+    }
+
+    /**
+     * The default number of sites of an asynchronous listing fetching their properties at a time.
+     */
+    static final int DEFAULT_LIST_CONCURRENCY = 10;
+
+    private static final long SOURCE_CONTROL_SYNC_FIRST_POLL_DELAY_MILLIS = 1000;
+    private static final long SOURCE_CONTROL_SYNC_MAX_POLL_DELAY_MILLIS = 8000;
+    private static final int DEPLOYMENT_STATUS_FAILED = 3;
+    private static final int DEPLOYMENT_STATUS_SUCCESS = 4;
+
     SiteConfigResourceInner siteConfig;
     private Map<String, AppSetting> cachedAppSettings;
     private Map<String, ConnectionString> cachedConnectionStrings;
+    private SlotConfigNamesResourceInner cachedSlotConfigurations;
+    // Properties of a site listed without its properties, each fetched on first access
+    private final Set<SiteProperty> pendingProperties = EnumSet.noneOf(SiteProperty.class);
+    // The fetches in flight of the pending properties, shared by the getters waiting for them
+    private final Map<SiteProperty, Observable<Void>> propertyLoads = new EnumMap<>(SiteProperty.class);
 
     private Set<String> hostNamesSet;
     private Set<String> enabledHostNamesSet;
@@ -286,6 +313,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public List<String> defaultDocuments() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -294,6 +322,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public NetFrameworkVersion netFrameworkVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -302,6 +331,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public PhpVersion phpVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null || siteConfig.phpVersion() == null) {
             return PhpVersion.OFF;
         }
@@ -310,6 +340,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public PythonVersion pythonVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null || siteConfig.pythonVersion() == null) {
             return PythonVersion.OFF;
         }
@@ -318,6 +349,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public String nodeVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -326,6 +358,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public boolean remoteDebuggingEnabled() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return false;
         }
@@ -334,6 +367,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public RemoteVisualStudioVersion remoteDebuggingVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -342,6 +376,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public boolean webSocketsEnabled() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return false;
         }
@@ -350,6 +385,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public boolean alwaysOn() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return false;
         }
@@ -358,6 +394,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public JavaVersion javaVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null || siteConfig.javaVersion() == null) {
             return JavaVersion.OFF;
         }
@@ -366,6 +403,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public String javaContainer() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -374,6 +412,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public String javaContainerVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -382,6 +421,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public ManagedPipelineMode managedPipelineMode() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -390,6 +430,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public PlatformArchitecture platformArchitecture() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig.use32BitWorkerProcess()) {
             return PlatformArchitecture.X86;
         } else {
@@ -399,6 +440,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public String linuxFxVersion() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -407,6 +449,7 @@ abstract class WebAppBaseImpl<
 
     @Override
     public String autoSwapSlotName() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
         if (siteConfig == null) {
             return null;
         }
@@ -415,11 +458,13 @@ abstract class WebAppBaseImpl<
 
     @Override
     public Map<String, AppSetting> appSettings() {
+        loadPendingProperty(SiteProperty.APP_SETTINGS);
         return cachedAppSettings;
     }
 
     @Override
     public Map<String, ConnectionString> connectionStrings() {
+        loadPendingProperty(SiteProperty.CONNECTION_STRINGS);
         return cachedConnectionStrings;
     }
 
@@ -446,32 +491,244 @@ abstract class WebAppBaseImpl<
                                 final ConnectionStringDictionaryInner connectionStringsInner,
                                 final SlotConfigNamesResourceInner slotConfigs,
                                 final SiteAuthSettingsInner siteAuth) {
-                cachedAppSettings = new HashMap<>();
-                cachedConnectionStrings = new HashMap<>();
-                if (appSettingsInner != null && appSettingsInner.properties() != null) {
-                    cachedAppSettings = Maps.asMap(appSettingsInner.properties().keySet(), new Function<String, AppSetting>() {
-                        @Override
-                        public AppSetting apply(String input) {
-                            return new AppSettingImpl(input, appSettingsInner.properties().get(input),
-                                    slotConfigs.appSettingNames() != null && slotConfigs.appSettingNames().contains(input));
-                        }
-                    });
+                synchronized (pendingProperties) {
+                    cachedSlotConfigurations = slotConfigs;
+                    cachedAppSettings = toAppSettings(appSettingsInner, slotConfigs);
+                    cachedConnectionStrings = toConnectionStrings(connectionStringsInner, slotConfigs);
+                    authentication = new WebAppAuthenticationImpl<>(siteAuth, WebAppBaseImpl.this);
+                    pendingProperties.retainAll(EnumSet.of(SiteProperty.CONFIGURATION));
                 }
-                if (connectionStringsInner != null && connectionStringsInner.properties() != null) {
-                    cachedConnectionStrings = Maps.asMap(connectionStringsInner.properties().keySet(), new Function<String, ConnectionString>() {
-                        @Override
-                        public ConnectionString apply(String input) {
-                            return new ConnectionStringImpl(input, connectionStringsInner.properties().get(input),
-                                    slotConfigs.connectionStringNames() != null && slotConfigs.connectionStringNames().contains(input));
+                return self;
+            }
+        });
+    }
+
+    /**
+     * Marks all the site properties as not fetched yet, so that each group of properties is fetched on first access.
+     *
+     * @return the site
+     */
+    @SuppressWarnings("unchecked")
+    FluentImplT withLazilyLoadedProperties() {
+        synchronized (pendingProperties) {
+            pendingProperties.addAll(EnumSet.allOf(SiteProperty.class));
+        }
+        return (FluentImplT) this;
+    }
+
+    /**
+     * Fetches, concurrently, the site properties not fetched yet.
+     *
+     * @return an observable that emits the site once all its properties are fetched
+     */
+    @SuppressWarnings("unchecked")
+    Observable<FluentT> loadPendingPropertiesAsync() {
+        final FluentT self = (FluentT) this;
+        Set<SiteProperty> pending;
+        synchronized (pendingProperties) {
+            pending = EnumSet.copyOf(pendingProperties);
+        }
+        Observable<FluentT> configuration = Observable.just(self);
+        if (pending.remove(SiteProperty.CONFIGURATION)) {
+            configuration = getConfigInner().map(new Func1<SiteConfigResourceInner, FluentT>() {
+                @Override
+                public FluentT call(SiteConfigResourceInner siteConfigInner) {
+                    synchronized (pendingProperties) {
+                        if (pendingProperties.remove(SiteProperty.CONFIGURATION)) {
+                            siteConfig = siteConfigInner;
                         }
-                    });
+                    }
+                    return self;
                 }
-                authentication = new WebAppAuthenticationImpl<>(siteAuth, WebAppBaseImpl.this);
+            });
+        }
+        Observable<FluentT> properties = pending.isEmpty() ? Observable.just(self) : cacheSiteProperties();
+        return Observable.zip(configuration, properties, new Func2<FluentT, FluentT, FluentT>() {
+            @Override
+            public FluentT call(FluentT t1, FluentT t2) {
                 return self;
             }
         });
     }
 
+    /**
+     * @return the site configuration, fetched first if the site was listed without its properties
+     */
+    SiteConfigResourceInner siteConfigInner() {
+        loadPendingProperty(SiteProperty.CONFIGURATION);
+        return siteConfig;
+    }
+
+    /**
+     * Fetches a group of site properties if it was not fetched yet. The fetch is made without holding the lock
+     * on the site properties, and shared by the getters asking for the same group meanwhile.
+     *
+     * @param property the group of site properties
+     */
+    void loadPendingProperty(SiteProperty property) {
+        loadPendingPropertyAsync(property).toBlocking().lastOrDefault(null);
+    }
+
+    private Observable<Void> loadPendingPropertyAsync(final SiteProperty property) {
+        synchronized (pendingProperties) {
+            if (!pendingProperties.contains(property)) {
+                return Observable.just(null);
+            }
+            Observable<Void> load = propertyLoads.get(property);
+            if (load == null) {
+                // A failed fetch is not kept, the next access fetches the property again
+                load = fetchPropertyAsync(property)
+                        .doOnTerminate(new Action0() {
+                            @Override
+                            public void call() {
+                                synchronized (pendingProperties) {
+                                    propertyLoads.remove(property);
+                                }
+                            }
+                        })
+                        .cache();
+                propertyLoads.put(property, load);
+            }
+            return load;
+        }
+    }
+
+    /**
+     * Fetches a group of site properties and publishes it, unless it was set meanwhile, e.g. by a refresh.
+     */
+    private Observable<Void> fetchPropertyAsync(final SiteProperty property) {
+        switch (property) {
+            case CONFIGURATION:
+                return getConfigInner().map(new Func1<SiteConfigResourceInner, Void>() {
+                    @Override
+                    public Void call(SiteConfigResourceInner siteConfigInner) {
+                        synchronized (pendingProperties) {
+                            if (pendingProperties.remove(SiteProperty.CONFIGURATION)) {
+                                siteConfig = siteConfigInner;
+                            }
+                        }
+                        return null;
+                    }
+                });
+            case SLOT_CONFIGURATIONS:
+                return listSlotConfigurations().map(new Func1<SlotConfigNamesResourceInner, Void>() {
+                    @Override
+                    public Void call(SlotConfigNamesResourceInner slotConfigs) {
+                        synchronized (pendingProperties) {
+                            if (pendingProperties.remove(SiteProperty.SLOT_CONFIGURATIONS)) {
+                                cachedSlotConfigurations = slotConfigs;
+                            }
+                        }
+                        return null;
+                    }
+                });
+            case APP_SETTINGS:
+                return loadPendingPropertyAsync(SiteProperty.SLOT_CONFIGURATIONS)
+                        .last()
+                        .flatMap(new Func1<Void, Observable<StringDictionaryInner>>() {
+                            @Override
+                            public Observable<StringDictionaryInner> call(Void slotConfigsLoaded) {
+                                return listAppSettings();
+                            }
+                        })
+                        .map(new Func1<StringDictionaryInner, Void>() {
+                            @Override
+                            public Void call(StringDictionaryInner appSettingsInner) {
+                                synchronized (pendingProperties) {
+                                    if (pendingProperties.remove(SiteProperty.APP_SETTINGS)) {
+                                        cachedAppSettings = toAppSettings(appSettingsInner, cachedSlotConfigurations);
+                                    }
+                                }
+                                return null;
+                            }
+                        });
+            case CONNECTION_STRINGS:
+                return loadPendingPropertyAsync(SiteProperty.SLOT_CONFIGURATIONS)
+                        .last()
+                        .flatMap(new Func1<Void, Observable<ConnectionStringDictionaryInner>>() {
+                            @Override
+                            public Observable<ConnectionStringDictionaryInner> call(Void slotConfigsLoaded) {
+                                return listConnectionStrings();
+                            }
+                        })
+                        .map(new Func1<ConnectionStringDictionaryInner, Void>() {
+                            @Override
+                            public Void call(ConnectionStringDictionaryInner connectionStringsInner) {
+                                synchronized (pendingProperties) {
+                                    if (pendingProperties.remove(SiteProperty.CONNECTION_STRINGS)) {
+                                        cachedConnectionStrings = toConnectionStrings(connectionStringsInner, cachedSlotConfigurations);
+                                    }
+                                }
+                                return null;
+                            }
+                        });
+            case AUTHENTICATION:
+                return getAuthentication().map(new Func1<SiteAuthSettingsInner, Void>() {
+                    @Override
+                    public Void call(SiteAuthSettingsInner siteAuth) {
+                        synchronized (pendingProperties) {
+                            if (pendingProperties.remove(SiteProperty.AUTHENTICATION)) {
+                                authentication = new WebAppAuthenticationImpl<>(siteAuth, WebAppBaseImpl.this);
+                            }
+                        }
+                        return null;
+                    }
+                });
+            default:
+                return Observable.just(null);
+        }
+    }
+
+    private static Map<String, AppSetting> toAppSettings(final StringDictionaryInner appSettingsInner, final SlotConfigNamesResourceInner slotConfigs) {
+        if (appSettingsInner == null || appSettingsInner.properties() == null) {
+            return new HashMap<>();
+        }
+        return Maps.asMap(appSettingsInner.properties().keySet(), new Function<String, AppSetting>() {
+            @Override
+            public AppSetting apply(String input) {
+                return new AppSettingImpl(input, appSettingsInner.properties().get(input),
+                        slotConfigs != null && slotConfigs.appSettingNames() != null && slotConfigs.appSettingNames().contains(input));
+            }
+        });
+    }
+
+    private static Map<String, ConnectionString> toConnectionStrings(final ConnectionStringDictionaryInner connectionStringsInner, final SlotConfigNamesResourceInner slotConfigs) {
+        if (connectionStringsInner == null || connectionStringsInner.properties() == null) {
+            return new HashMap<>();
+        }
+        return Maps.asMap(connectionStringsInner.properties().keySet(), new Function<String, ConnectionString>() {
+            @Override
+            public ConnectionString apply(String input) {
+                return new ConnectionStringImpl(input, connectionStringsInner.properties().get(input),
+                        slotConfigs != null && slotConfigs.connectionStringNames() != null && slotConfigs.connectionStringNames().contains(input));
+            }
+        });
+    }
+
+    /**
+     * Replaces the cached app settings with the dictionary written to the site.
+     *
+     * @param appSettingsInner the app settings written
+     */
+    void cacheAppSettings(StringDictionaryInner appSettingsInner) {
+        synchronized (pendingProperties) {
+            cachedAppSettings = toAppSettings(appSettingsInner, cachedSlotConfigurations);
+            pendingProperties.remove(SiteProperty.APP_SETTINGS);
+        }
+    }
+
+    /**
+     * Replaces the cached connection strings with the dictionary written to the site.
+     *
+     * @param connectionStringsInner the connection strings written
+     */
+    void cacheConnectionStrings(ConnectionStringDictionaryInner connectionStringsInner) {
+        synchronized (pendingProperties) {
+            cachedConnectionStrings = toConnectionStrings(connectionStringsInner, cachedSlotConfigurations);
+            pendingProperties.remove(SiteProperty.CONNECTION_STRINGS);
+        }
+    }
+
     abstract Observable<SiteInner> createOrUpdateInner(SiteInner site);
 
     abstract Observable<SiteInner> getInner();
@@ -498,6 +755,8 @@ abstract class WebAppBaseImpl<
 
     abstract Observable<Void> deleteSourceControl();
 
+    abstract Observable<Page<DeploymentInner>> listDeployments();
+
     abstract Observable<SiteAuthSettingsInner> updateAuthentication(SiteAuthSettingsInner inner);
 
     abstract Observable<SiteAuthSettingsInner> getAuthentication();
@@ -781,33 +1040,141 @@ abstract class WebAppBaseImpl<
         if (sourceControl == null || sourceControlToDelete) {
             return Observable.just(site);
         }
+        final long syncTimeoutMillis = sourceControl.syncTimeoutMillis();
         return sourceControl.registerGithubAccessToken()
-            .flatMap(new Func1<SourceControlInner, Observable<SiteSourceControlInner>>() {
+            .flatMap(new Func1<SourceControlInner, Observable<Set<String>>>() {
                 @Override
-                public Observable<SiteSourceControlInner> call(SourceControlInner sourceControlInner) {
-                    return createOrUpdateSourceControl(sourceControl.inner());
+                public Observable<Set<String>> call(SourceControlInner sourceControlInner) {
+                    return listDeploymentIds();
                 }
             })
-            .delay(new Func1<SiteSourceControlInner, Observable<Long>>() {
+            .flatMap(new Func1<Set<String>, Observable<Object>>() {
                 @Override
-                public Observable<Long> call(SiteSourceControlInner siteSourceControlInner) {
-                    return Observable.fromCallable(new Callable<Long>() {
-                        @Override
-                        public Long call() throws Exception {
-                            SdkContext.sleep(30000);
-                            return 30000L;
-                        }
-                    });
+                public Observable<Object> call(final Set<String> existingDeploymentIds) {
+                    final DateTime syncStartTime = DateTime.now();
+                    return createOrUpdateSourceControl(sourceControl.inner())
+                        .flatMap(new Func1<SiteSourceControlInner, Observable<Object>>() {
+                            @Override
+                            public Observable<Object> call(SiteSourceControlInner siteSourceControlInner) {
+                                return awaitSourceControlSync(existingDeploymentIds, syncStartTime, syncTimeoutMillis);
+                            }
+                        });
                 }
             })
-            .map(new Func1<SiteSourceControlInner, SiteInner>() {
+            .map(new Func1<Object, SiteInner>() {
                 @Override
-                public SiteInner call(SiteSourceControlInner siteSourceControlInner) {
+                public SiteInner call(Object o) {
                     return site;
                 }
             });
     }
 
+    /**
+     * @return an observable that emits the deployments of the site from all the pages of the listing
+     */
+    Observable<List<DeploymentInner>> listAllDeployments() {
+        return listDeployments()
+            .concatMap(new Func1<Page<DeploymentInner>, Observable<DeploymentInner>>() {
+                @Override
+                public Observable<DeploymentInner> call(Page<DeploymentInner> page) {
+                    if (page == null || page.items() == null) {
+                        return Observable.empty();
+                    }
+                    return Observable.from(page.items());
+                }
+            })
+            .toList();
+    }
+
+    /**
+     * @return an observable that emits the ids of the deployments of the site, or null if they could not be listed
+     */
+    Observable<Set<String>> listDeploymentIds() {
+        return listAllDeployments()
+            .map(new Func1<List<DeploymentInner>, Set<String>>() {
+                @Override
+                public Set<String> call(List<DeploymentInner> deployments) {
+                    Set<String> ids = new HashSet<>();
+                    for (DeploymentInner deployment : deployments) {
+                        ids.add(deployment.id());
+                    }
+                    return ids;
+                }
+            })
+            .onErrorReturn(new Func1<Throwable, Set<String>>() {
+                @Override
+                public Set<String> call(Throwable throwable) {
+                    // Deployments started by the synchronization are then told apart by their start time
+                    return null;
+                }
+            });
+    }
+
+    /**
+     * Polls the deployments of the site, with exponential backoff, until a deployment started by the synchronization
+     * from the source control repository completes or the timeout expires. Failed polls are retried until the timeout.
+     *
+     * @param existingDeploymentIds the ids of the deployments that existed before the source control was set up,
+     *                              null if they are not known
+     * @param syncStartTime the time the source control was set up at
+     * @param timeoutMillis how long to wait for the synchronization
+     * @return an observable that emits once the synchronization completed or the timeout expired
+     */
+    private Observable<Object> awaitSourceControlSync(final Set<String> existingDeploymentIds, DateTime syncStartTime, long timeoutMillis) {
+        return pollSourceControlSync(existingDeploymentIds, syncStartTime, SOURCE_CONTROL_SYNC_FIRST_POLL_DELAY_MILLIS)
+            .timeout(timeoutMillis, TimeUnit.MILLISECONDS)
+            .onErrorResumeNext(new Func1<Throwable, Observable<Object>>() {
+                @Override
+                public Observable<Object> call(Throwable throwable) {
+                    // The synchronization goes on in the service; the site is usable meanwhile
+                    if (throwable instanceof TimeoutException) {
+                        return Observable.just(null);
+                    }
+                    return Observable.error(throwable);
+                }
+            });
+    }
+
+    Observable<Object> pollSourceControlSync(final Set<String> existingDeploymentIds,
+                                             final DateTime syncStartTime,
+                                             final long delayMillis) {
+        return listAllDeployments()
+            .onErrorReturn(new Func1<Throwable, List<DeploymentInner>>() {
+                @Override
+                public List<DeploymentInner> call(Throwable throwable) {
+                    // A failed poll means the synchronization is not known to be finished yet
+                    return null;
+                }
+            })
+            .flatMap(new Func1<List<DeploymentInner>, Observable<Object>>() {
+                @Override
+                public Observable<Object> call(List<DeploymentInner> deployments) {
+                    if (deployments != null) {
+                        for (DeploymentInner deployment : deployments) {
+                            if (isStartedBySync(deployment, existingDeploymentIds, syncStartTime) && deployment.status() != null
+                                    && (deployment.status() == DEPLOYMENT_STATUS_FAILED || deployment.status() == DEPLOYMENT_STATUS_SUCCESS)) {
+                                return Observable.<Object>just(deployment);
+                            }
+                        }
+                    }
+                    return Observable.defer(new Func0<Observable<Object>>() {
+                        @Override
+                        public Observable<Object> call() {
+                            return pollSourceControlSync(existingDeploymentIds, syncStartTime,
+                                    Math.min(delayMillis * 2, SOURCE_CONTROL_SYNC_MAX_POLL_DELAY_MILLIS));
+                        }
+                    }).delaySubscription(delayMillis, TimeUnit.MILLISECONDS);
+                }
+            });
+    }
+
+    private static boolean isStartedBySync(DeploymentInner deployment, Set<String> existingDeploymentIds, DateTime syncStartTime) {
+        if (existingDeploymentIds != null) {
+            return !existingDeploymentIds.contains(deployment.id());
+        }
+        return deployment.startTime() != null && !deployment.startTime().isBefore(syncStartTime);
+    }
+
     Observable<SiteInner> submitSourceControlToDelete(final SiteInner site) {
         if (!sourceControlToDelete) {
             return Observable.just(site);
@@ -1212,7 +1579,10 @@ abstract class WebAppBaseImpl<
                 return getConfigInner().flatMap(new Func1<SiteConfigResourceInner, Observable<FluentT>>() {
                     @Override
                     public Observable<FluentT> call(SiteConfigResourceInner returnedSiteConfig) {
-                        siteConfig = returnedSiteConfig;
+                        synchronized (pendingProperties) {
+                            siteConfig = returnedSiteConfig;
+                            pendingProperties.remove(SiteProperty.CONFIGURATION);
+                        }
                         final WebAppBaseImpl<FluentT, FluentImplT> impl = (WebAppBaseImpl<FluentT, FluentImplT>) fluentT;
 
                         return impl.cacheSiteProperties();
@@ -1234,9 +1604,19 @@ abstract class WebAppBaseImpl<
 
     @Override
     public WebAppAuthenticationImpl<FluentT, FluentImplT> updateAuthentication() {
+        loadPendingProperty(SiteProperty.AUTHENTICATION);
         return authentication;
     }
 
+    @Override
+    public FluentImplT update() {
+        // Updates are computed against the current properties, so all of them are needed
+        for (SiteProperty property : SiteProperty.values()) {
+            loadPendingProperty(property);
+        }
+        return super.update();
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public FluentImplT withoutAuthentication() {
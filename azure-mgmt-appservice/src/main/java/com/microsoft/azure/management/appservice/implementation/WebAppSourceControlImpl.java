@@ -13,6 +13,8 @@ import com.microsoft.azure.management.appservice.WebAppBase;
 import com.microsoft.azure.management.appservice.WebAppSourceControl;
 import rx.Observable;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  *  Implementation for WebAppSourceControl and its create and update interfaces.
  *  @param <FluentT> the fluent interface of the parent web app
@@ -28,8 +30,11 @@ class WebAppSourceControlImpl<
         WebAppSourceControl.Definition<WebAppBase.DefinitionStages.WithCreate<FluentT>>,
         WebAppSourceControl.UpdateDefinition<WebAppBase.Update<FluentT>> {
 
+    static final long DEFAULT_SYNC_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
     private final WebAppBaseImpl<FluentT, FluentImplT> parent;
     private String githubAccessToken;
+    private long syncTimeoutMillis = DEFAULT_SYNC_TIMEOUT_MILLIS;
 
     WebAppSourceControlImpl(SiteSourceControlInner inner, WebAppBaseImpl<FluentT, FluentImplT> parent) {
         super(inner);
@@ -117,6 +122,16 @@ class WebAppSourceControlImpl<
         return this;
     }
 
+    @Override
+    public WebAppSourceControlImpl<FluentT, FluentImplT> withSyncTimeout(long timeout, TimeUnit unit) {
+        this.syncTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    long syncTimeoutMillis() {
+        return syncTimeoutMillis;
+    }
+
     Observable<SourceControlInner> registerGithubAccessToken() {
         if (githubAccessToken == null) {
             return Observable.just(null);
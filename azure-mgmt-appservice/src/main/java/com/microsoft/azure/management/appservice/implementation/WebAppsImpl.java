@@ -32,6 +32,7 @@ class WebAppsImpl
         implements WebApps {
 
     private final PagedListConverter<SiteInner, WebApp> converter;
+    private final PagedListConverter<SiteInner, WebApp> lazyConverter;
 
     WebAppsImpl(final AppServiceManager manager) {
         super(manager.inner().webApps(), manager);
@@ -48,6 +49,27 @@ class WebAppsImpl
                 return kinds.contains("app");
             }
         };
+        lazyConverter = new PagedListConverter<SiteInner, WebApp>() {
+            @Override
+            public WebApp typeConvert(SiteInner siteInner) {
+                return wrapModel(siteInner).withLazilyLoadedProperties();
+            }
+
+            @Override
+            protected boolean filter(SiteInner inner) {
+                return Arrays.asList(inner.kind().split(",")).contains("app");
+            }
+        };
+    }
+
+    @Override
+    public PagedList<WebApp> listLazily() {
+        return lazyConverter.convert(this.inner().list());
+    }
+
+    @Override
+    public PagedList<WebApp> listByResourceGroupLazily(String resourceGroupName) {
+        return lazyConverter.convert(this.inner().listByResourceGroup(resourceGroupName));
     }
 
     @Override
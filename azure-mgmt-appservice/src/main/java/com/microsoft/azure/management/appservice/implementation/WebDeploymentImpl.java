@@ -8,6 +8,7 @@ package com.microsoft.azure.management.appservice.implementation;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.appservice.MSDeployCore;
 import com.microsoft.azure.management.appservice.MSDeployParameterEntry;
+import com.microsoft.azure.management.appservice.PublishingProfile;
 import com.microsoft.azure.management.appservice.WebAppBase;
 import com.microsoft.azure.management.appservice.WebDeployment;
 import com.microsoft.azure.management.resources.fluentcore.model.implementation.ExecutableImpl;
@@ -15,6 +16,7 @@ import org.joda.time.DateTime;
 import rx.Observable;
 import rx.functions.Func1;
 
+import java.io.File;
 import java.util.ArrayList;
 
 /**
@@ -32,6 +34,10 @@ public class WebDeploymentImpl<
     private final WebAppBaseImpl<FluentT, FluentImplT> parent;
     private MSDeployInner request;
     private MSDeployStatusInner result;
+    private File packageFile;
+    private boolean war;
+    private boolean gzip;
+    private KuduClient.KuduDeployment packageResult;
 
     WebDeploymentImpl(WebAppBaseImpl<FluentT, FluentImplT> parent) {
         this.parent = parent;
@@ -45,22 +51,22 @@ public class WebDeploymentImpl<
 
     @Override
     public String deployer() {
-        return result.deployer();
+        return packageResult != null ? packageResult.deployer() : result.deployer();
     }
 
     @Override
     public DateTime startTime() {
-        return result.startTime();
+        return packageResult != null ? packageResult.startTime() : result.startTime();
     }
 
     @Override
     public DateTime endTime() {
-        return result.endTime();
+        return packageResult != null ? packageResult.endTime() : result.endTime();
     }
 
     @Override
     public boolean complete() {
-        return result.complete();
+        return packageResult != null ? packageResult.complete() : result.complete();
     }
 
     @Override
@@ -70,8 +76,44 @@ public class WebDeploymentImpl<
         return this;
     }
 
+    @Override
+    public WebDeploymentImpl<FluentT, FluentImplT> withZipFile(File zipFile) {
+        this.packageFile = zipFile;
+        this.war = false;
+        return this;
+    }
+
+    @Override
+    public WebDeploymentImpl<FluentT, FluentImplT> withWarFile(File warFile) {
+        this.packageFile = warFile;
+        this.war = true;
+        return this;
+    }
+
+    @Override
+    public WebDeploymentImpl<FluentT, FluentImplT> withGzipCompression() {
+        this.gzip = true;
+        return this;
+    }
+
     @Override
     public Observable<WebDeployment> executeWorkAsync() {
+        if (packageFile != null) {
+            return parent.getPublishingProfileAsync()
+                    .flatMap(new Func1<PublishingProfile, Observable<KuduClient.KuduDeployment>>() {
+                        @Override
+                        public Observable<KuduClient.KuduDeployment> call(PublishingProfile profile) {
+                            return KuduClient.forPublishingProfile(parent.manager(), profile).deployAsync(packageFile, war, gzip);
+                        }
+                    })
+                    .map(new Func1<KuduClient.KuduDeployment, WebDeployment>() {
+                        @Override
+                        public WebDeployment call(KuduClient.KuduDeployment deployment) {
+                            packageResult = deployment;
+                            return WebDeploymentImpl.this;
+                        }
+                    });
+        }
         return parent.createMSDeploy(request)
                 .map(new Func1<MSDeployStatusInner, WebDeployment>() {
                     @Override
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.management.appservice.AppServicePlanPackingAdvice;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AppServicePlanPackingAdvisorTests {
+    @Test
+    public void emptiesSmallestPlanIntoOthers() {
+        AppServicePlanPackingAdvisorImpl.Advice advice = new AppServicePlanPackingAdvisorImpl.Advice();
+        AppServicePlanPackingAdvisorImpl.packGroup(Arrays.asList(
+                plan("plan1", 6),
+                plan("plan2", 2),
+                plan("plan3", 0)), 10, advice);
+
+        Assert.assertEquals(Arrays.asList("plan3", "plan2"), advice.releasablePlanIds());
+        Assert.assertEquals(2, advice.moves().size());
+        for (AppServicePlanPackingAdvice.SiteMove move : advice.moves()) {
+            Assert.assertEquals("plan2", move.sourcePlanId());
+            Assert.assertEquals("plan1", move.targetPlanId());
+        }
+    }
+
+    @Test
+    public void fillsTargetsUpToMaxSites() {
+        AppServicePlanPackingAdvisorImpl.Advice advice = new AppServicePlanPackingAdvisorImpl.Advice();
+        AppServicePlanPackingAdvisorImpl.packGroup(Arrays.asList(
+                plan("plan1", 4),
+                plan("plan2", 3),
+                plan("plan3", 2)), 5, advice);
+
+        // plan3 fits in the room left in plan1 and plan2, plan2 does not fit in plan1 then
+        Assert.assertEquals(Collections.singletonList("plan3"), advice.releasablePlanIds());
+        Map<String, Integer> sites = new HashMap<>();
+        sites.put("plan1", 4);
+        sites.put("plan2", 3);
+        for (AppServicePlanPackingAdvice.SiteMove move : advice.moves()) {
+            Assert.assertEquals("plan3", move.sourcePlanId());
+            sites.put(move.targetPlanId(), sites.get(move.targetPlanId()) + 1);
+        }
+        Assert.assertEquals(Integer.valueOf(5), sites.get("plan1"));
+        Assert.assertEquals(Integer.valueOf(4), sites.get("plan2"));
+    }
+
+    @Test
+    public void neverEmptiesPlanThatReceivedSites() {
+        AppServicePlanPackingAdvisorImpl.Advice advice = new AppServicePlanPackingAdvisorImpl.Advice();
+        AppServicePlanPackingAdvisorImpl.packGroup(Arrays.asList(
+                plan("plan1", 1),
+                plan("plan2", 1),
+                plan("plan3", 1)), 10, advice);
+
+        List<String> targets = new ArrayList<>();
+        for (AppServicePlanPackingAdvice.SiteMove move : advice.moves()) {
+            Assert.assertFalse(advice.releasablePlanIds().contains(move.targetPlanId()));
+            targets.add(move.targetPlanId());
+        }
+        Assert.assertEquals(2, advice.releasablePlanIds().size());
+        Assert.assertEquals(Arrays.asList("plan1", "plan1"), targets);
+    }
+
+    @Test
+    public void keepsPlansWhoseSitesDoNotFit() {
+        AppServicePlanPackingAdvisorImpl.Advice advice = new AppServicePlanPackingAdvisorImpl.Advice();
+        AppServicePlanPackingAdvisorImpl.packGroup(Arrays.asList(
+                plan("plan1", 3),
+                plan("plan2", 3)), 3, advice);
+
+        Assert.assertTrue(advice.moves().isEmpty());
+        Assert.assertTrue(advice.releasablePlanIds().isEmpty());
+    }
+
+    private static AppServicePlanPackingAdvisorImpl.PlanState plan(String id, int siteCount) {
+        List<String> siteIds = new ArrayList<>();
+        for (int i = 0; i < siteCount; i++) {
+            siteIds.add(id + "/site" + i);
+        }
+        return new AppServicePlanPackingAdvisorImpl.PlanState(id, siteIds);
+    }
+}
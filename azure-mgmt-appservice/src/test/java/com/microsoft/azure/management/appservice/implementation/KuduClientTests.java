@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.google.common.io.ByteStreams;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import com.microsoft.rest.credentials.BasicAuthenticationCredentials;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+public class KuduClientTests {
+    private HttpServer server;
+    private File packageFile;
+    private byte[] packageBytes;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+    private volatile byte[] receivedBytes;
+    private volatile String finalStatus = "4";
+    private volatile int pollsBeforeComplete = 2;
+
+    @Before
+    public void setup() throws IOException {
+        packageBytes = new byte[300 * 1024];
+        new Random(1).nextBytes(packageBytes);
+        packageFile = File.createTempFile("package", ".zip");
+        Files.write(packageFile.toPath(), packageBytes);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        final HttpHandler upload = new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                InputStream body = exchange.getRequestBody();
+                if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                    body = new GZIPInputStream(body);
+                }
+                receivedBytes = ByteStreams.toByteArray(body);
+                requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                        + " " + exchange.getRequestHeaders().getFirst("Authorization")
+                        + " " + exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+                exchange.getResponseHeaders().add("Location", baseUrl() + "api/deployments/1234");
+                exchange.sendResponseHeaders(202, -1);
+                exchange.close();
+            }
+        };
+        server.createContext("/api/zipdeploy", upload);
+        server.createContext("/api/wardeploy", upload);
+        final AtomicInteger polls = new AtomicInteger();
+        server.createContext("/api/deployments/1234", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+                boolean complete = polls.incrementAndGet() > pollsBeforeComplete;
+                String json = "{\"id\":\"1234\",\"status\":" + (complete ? finalStatus : "1")
+                        + ",\"status_text\":\"Deploying\",\"deployer\":\"ZipDeploy\","
+                        + "\"start_time\":\"2017-10-19T10:00:00Z\",\"complete\":" + complete + "}";
+                byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void cleanup() {
+        server.stop(0);
+        Assert.assertTrue(packageFile.delete());
+    }
+
+    @Test
+    public void canStreamZipAndPollDeployment() {
+        KuduClient.KuduDeployment deployment = client().deployAsync(packageFile, false, false).toBlocking().single();
+
+        Assert.assertTrue(deployment.complete());
+        Assert.assertEquals("ZipDeploy", deployment.deployer());
+        Assert.assertNotNull(deployment.startTime());
+        Assert.assertArrayEquals(packageBytes, receivedBytes);
+        Assert.assertEquals(4, requests.size());
+        Assert.assertEquals("POST /api/zipdeploy?isAsync=true Basic JHNpdGU6c2VjcmV0 null", requests.get(0));
+        Assert.assertEquals("GET /api/deployments/1234", requests.get(3));
+    }
+
+    @Test
+    public void canStreamCompressedWar() {
+        client().deployAsync(packageFile, true, true).toBlocking().single();
+
+        Assert.assertArrayEquals(packageBytes, receivedBytes);
+        Assert.assertEquals("POST /api/wardeploy?isAsync=true Basic JHNpdGU6c2VjcmV0 chunked", requests.get(0));
+    }
+
+    @Test
+    public void failsOnFailedDeployment() {
+        finalStatus = "3";
+        try {
+            client().deployAsync(packageFile, false, false).toBlocking().single();
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("1234"));
+        }
+    }
+
+    @Test
+    public void failsOnDeploymentNotCompleteInTime() {
+        pollsBeforeComplete = Integer.MAX_VALUE;
+        try {
+            client(200).deployAsync(packageFile, false, false).toBlocking().single();
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            Assert.assertTrue(e.getMessage().contains("1234"));
+        }
+        // Polled every 10 ms for 200 ms, then given up on
+        Assert.assertTrue(requests.size() < 100);
+    }
+
+    private KuduClient client() {
+        return client(KuduClient.DEFAULT_DEPLOYMENT_TIMEOUT_MILLIS);
+    }
+
+    private KuduClient client(long deploymentTimeoutMillis) {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl(baseUrl())
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withCredentials(new BasicAuthenticationCredentials("$site", "secret"))
+                .build();
+        return new KuduClient(restClient, 10, deploymentTimeoutMillis);
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.management.appservice.ConnStringValueTypePair;
+import com.microsoft.azure.management.appservice.ConnectionStringType;
+import com.microsoft.azure.management.appservice.SiteConfigurationRolloutResult;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SiteConfigurationRolloutTests {
+    private final List<Map<String, String>> writtenAppSettings = new ArrayList<>();
+
+    @Test
+    public void appliesAppSettingChanges() {
+        Map<String, String> current = new HashMap<>();
+        current.put("a", "1");
+        current.put("b", "2");
+
+        Map<String, String> changed = new SiteConfigurationRolloutImpl()
+                .withAppSetting("a", "10")
+                .withoutAppSetting("b")
+                .withAppSetting("c", "3")
+                .changedAppSettings(current);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "10");
+        expected.put("c", "3");
+        Assert.assertEquals(expected, changed);
+        Assert.assertEquals("1", current.get("a"));
+    }
+
+    @Test
+    public void detectsAppSettingChangesMakingNoDifference() {
+        Map<String, String> current = Collections.singletonMap("a", "1");
+
+        Assert.assertNull(new SiteConfigurationRolloutImpl().changedAppSettings(current));
+        Assert.assertNull(new SiteConfigurationRolloutImpl().withAppSetting("a", "1").changedAppSettings(current));
+        Assert.assertNull(new SiteConfigurationRolloutImpl().withoutAppSetting("b").changedAppSettings(current));
+        Assert.assertNull(new SiteConfigurationRolloutImpl().withoutAppSetting("b").changedAppSettings(null));
+        Assert.assertEquals(Collections.singletonMap("b", "2"),
+                new SiteConfigurationRolloutImpl().withAppSetting("b", "2").changedAppSettings(null));
+    }
+
+    @Test
+    public void appliesConnectionStringChanges() {
+        Map<String, ConnStringValueTypePair> current = new HashMap<>();
+        current.put("db", connectionString("server=1", ConnectionStringType.SQLSERVER));
+        current.put("cache", connectionString("redis", ConnectionStringType.CUSTOM));
+
+        Map<String, ConnStringValueTypePair> changed = new SiteConfigurationRolloutImpl()
+                .withConnectionString("db", "server=1", ConnectionStringType.SQLAZURE)
+                .withoutConnectionString("cache")
+                .changedConnectionStrings(current);
+
+        Assert.assertEquals(Collections.singleton("db"), changed.keySet());
+        Assert.assertEquals(ConnectionStringType.SQLAZURE, changed.get("db").type());
+        Assert.assertEquals(2, current.size());
+    }
+
+    @Test
+    public void detectsConnectionStringChangesMakingNoDifference() {
+        Map<String, ConnStringValueTypePair> current = Collections.singletonMap("db",
+                connectionString("server=1", ConnectionStringType.SQLSERVER));
+
+        Assert.assertNull(new SiteConfigurationRolloutImpl().changedConnectionStrings(current));
+        Assert.assertNull(new SiteConfigurationRolloutImpl()
+                .withConnectionString("db", "server=1", ConnectionStringType.SQLSERVER)
+                .changedConnectionStrings(current));
+        Assert.assertNull(new SiteConfigurationRolloutImpl().withoutConnectionString("other").changedConnectionStrings(current));
+        Assert.assertNotNull(new SiteConfigurationRolloutImpl()
+                .withConnectionString("db", "server=2", ConnectionStringType.SQLSERVER)
+                .changedConnectionStrings(current));
+    }
+
+    @Test
+    public void splitsSitesIntoWaves() {
+        List<Integer> sites = Arrays.asList(1, 2, 3, 4, 5, 6);
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1), Arrays.asList(2, 3), Arrays.asList(4, 5), Arrays.asList(6)),
+                SiteConfigurationRolloutImpl.waves(sites, new int[] {1, 2}));
+        Assert.assertEquals(Collections.singletonList(sites), SiteConfigurationRolloutImpl.waves(sites, new int[0]));
+        Assert.assertEquals(Collections.singletonList(sites), SiteConfigurationRolloutImpl.waves(sites, new int[] {10}));
+        Assert.assertTrue(SiteConfigurationRolloutImpl.waves(Collections.<Integer>emptyList(), new int[] {1}).isEmpty());
+    }
+
+    @Test
+    public void updatesFromAppSettingsReadBeforeTheWrite() {
+        Map<String, String> cached = Collections.singletonMap("a", "stale");
+        Map<String, String> current = new HashMap<>();
+        current.put("a", "1");
+        current.put("b", "2");
+        WebAppImpl site = site(current);
+        site.cacheAppSettings(new StringDictionaryInner().withProperties(cached));
+
+        List<SiteConfigurationRolloutResult> results = new SiteConfigurationRolloutImpl()
+                .withAppSetting("c", "3")
+                .withTargets(Collections.singletonList(site))
+                .execute();
+
+        Map<String, String> expected = new HashMap<>(current);
+        expected.put("c", "3");
+        Assert.assertEquals(Collections.singletonList(expected), writtenAppSettings);
+        Assert.assertEquals(SiteConfigurationRolloutResult.Status.UPDATED, results.get(0).status());
+        Assert.assertEquals("3", site.appSettings().get("c").value());
+    }
+
+    @Test
+    public void leavesSitesAlreadyChangedUnchanged() {
+        WebAppImpl site = site(Collections.singletonMap("a", "1"));
+
+        List<SiteConfigurationRolloutResult> results = new SiteConfigurationRolloutImpl()
+                .withAppSetting("a", "1")
+                .withTargets(Collections.singletonList(site))
+                .execute();
+
+        Assert.assertTrue(writtenAppSettings.isEmpty());
+        Assert.assertEquals(SiteConfigurationRolloutResult.Status.UNCHANGED, results.get(0).status());
+    }
+
+    private WebAppImpl site(final Map<String, String> appSettings) {
+        SiteInner inner = new SiteInner();
+        inner.withLocation("westus");
+        return new WebAppImpl("site", inner, null, null) {
+            @Override
+            Observable<StringDictionaryInner> listAppSettings() {
+                return Observable.just(new StringDictionaryInner().withProperties(new HashMap<>(appSettings)));
+            }
+
+            @Override
+            Observable<StringDictionaryInner> updateAppSettings(StringDictionaryInner inner) {
+                writtenAppSettings.add(inner.properties());
+                return Observable.just(inner);
+            }
+        };
+    }
+
+    private static ConnStringValueTypePair connectionString(String value, ConnectionStringType type) {
+        return new ConnStringValueTypePair().withValue(value).withType(type);
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.management.appservice.DeploymentSlot;
+import com.microsoft.azure.management.appservice.DeploymentSlots;
+import com.microsoft.azure.management.appservice.SlotSwapResult;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.appservice.WebAppBase;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Completable;
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class SlotSwapOrchestrationTests {
+    private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    private final Set<String> failingSwaps = Collections.synchronizedSet(new HashSet<String>());
+    private final Set<String> unhealthySites = Collections.synchronizedSet(new HashSet<String>());
+
+    @Test
+    public void warmsUpAllSitesBeforeSwapping() {
+        List<SlotSwapResult> results = orchestration()
+                .withSwapsIntoProduction(Arrays.asList(slot("a"), slot("b"), slot("c")))
+                .execute();
+
+        Assert.assertEquals(6, events.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("warm a", "warm b", "warm c")), new HashSet<>(events.subList(0, 3)));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("swap a", "swap b", "swap c")), new HashSet<>(events.subList(3, 6)));
+        for (SlotSwapResult result : results) {
+            Assert.assertEquals(SlotSwapResult.Status.SWAPPED, result.status());
+            Assert.assertEquals("production", result.targetSlotName());
+            Assert.assertNull(result.error());
+        }
+    }
+
+    @Test
+    public void swapsNothingWhenWarmUpFails() {
+        unhealthySites.add("b");
+        List<SlotSwapResult> results = orchestration()
+                .withWarmUpTimeout(100, TimeUnit.MILLISECONDS)
+                .withSwapsIntoProduction(Arrays.asList(slot("a"), slot("b")))
+                .execute();
+
+        for (String event : events) {
+            Assert.assertTrue(event, event.startsWith("warm "));
+        }
+        Assert.assertEquals(SlotSwapResult.Status.NOT_ATTEMPTED, results.get(0).status());
+        Assert.assertEquals(SlotSwapResult.Status.WARM_UP_FAILED, results.get(1).status());
+        Assert.assertNotNull(results.get(1).error());
+    }
+
+    @Test
+    public void swapsBackWhenSwapFails() {
+        failingSwaps.add("b");
+        List<SlotSwapResult> results = orchestration()
+                .withMaxConcurrency(1)
+                .withSwapsIntoProduction(Arrays.asList(slot("a"), slot("b"), slot("c")))
+                .execute();
+
+        Assert.assertEquals(Arrays.asList("warm a", "warm b", "warm c", "swap a", "swap b", "swap a"), events);
+        Assert.assertEquals(SlotSwapResult.Status.ROLLED_BACK, results.get(0).status());
+        Assert.assertEquals(SlotSwapResult.Status.SWAP_FAILED, results.get(1).status());
+        Assert.assertNotNull(results.get(1).error());
+        Assert.assertEquals(SlotSwapResult.Status.NOT_ATTEMPTED, results.get(2).status());
+    }
+
+    @Test
+    public void keepsResultsOfEachExecution() {
+        SlotSwapOrchestrationImpl orchestration = orchestration()
+                .withSwapsIntoProduction(Collections.singletonList(slot("a")));
+        List<SlotSwapResult> first = orchestration.execute();
+        failingSwaps.add("a");
+        List<SlotSwapResult> second = orchestration.execute();
+
+        Assert.assertNotSame(first.get(0), second.get(0));
+        Assert.assertEquals(SlotSwapResult.Status.SWAPPED, first.get(0).status());
+        Assert.assertNull(first.get(0).error());
+        Assert.assertEquals(SlotSwapResult.Status.SWAP_FAILED, second.get(0).status());
+    }
+
+    @Test
+    public void warmsUpSlotSwappedWithProduction() {
+        final DeploymentSlot staging = slot("staging");
+        List<SlotSwapResult> results = orchestration()
+                .withSwap(webApp("app", staging), "staging")
+                .execute();
+
+        Assert.assertEquals(Arrays.asList("warm staging", "swap app"), events);
+        Assert.assertEquals(SlotSwapResult.Status.SWAPPED, results.get(0).status());
+        Assert.assertEquals("app", results.get(0).site().name());
+    }
+
+    private SlotSwapOrchestrationImpl orchestration() {
+        return new SlotSwapOrchestrationImpl().withWarmUpProbe(new Func1<WebAppBase, Observable<Boolean>>() {
+            @Override
+            public Observable<Boolean> call(WebAppBase site) {
+                events.add("warm " + site.name());
+                return Observable.just(!unhealthySites.contains(site.name()));
+            }
+        });
+    }
+
+    private DeploymentSlot slot(String name) {
+        return stub(DeploymentSlot.class, name, null);
+    }
+
+    private WebApp webApp(String name, final DeploymentSlot slot) {
+        final DeploymentSlots slots = (DeploymentSlots) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {DeploymentSlots.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getByName") && slot.name().equals(args[0])) {
+                            return slot;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return stub(WebApp.class, name, slots);
+    }
+
+    private <T extends WebAppBase> T stub(Class<T> type, final String name, final DeploymentSlots slots) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "name":
+                    case "toString":
+                        return name;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "deploymentSlots":
+                        return slots;
+                    case "swapAsync":
+                        return Completable.fromAction(new Action0() {
+                            @Override
+                            public void call() {
+                                events.add("swap " + name);
+                                if (failingSwaps.contains(name)) {
+                                    throw new IllegalStateException("Swap of " + name + " failed.");
+                                }
+                            }
+                        });
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        }));
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.Page;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SourceControlSyncTests {
+    private static final int DEPLOYMENT_STATUS_BUILDING = 1;
+    private static final int DEPLOYMENT_STATUS_SUCCESS = 4;
+
+    @Test
+    public void listsDeploymentIdsOfAllPages() throws IOException {
+        WebAppImpl site = site(page(deployment("d1", DEPLOYMENT_STATUS_SUCCESS), deployment("d2", DEPLOYMENT_STATUS_SUCCESS)),
+                page(deployment("d3", DEPLOYMENT_STATUS_SUCCESS)));
+
+        List<Set<String>> ids = site.listDeploymentIds().toList().toBlocking().single();
+
+        Assert.assertEquals(Collections.singletonList(new HashSet<>(Arrays.asList("d1", "d2", "d3"))), ids);
+    }
+
+    @Test
+    public void findsCompletedDeploymentOnLaterPage() throws IOException {
+        WebAppImpl site = site(page(deployment("d1", DEPLOYMENT_STATUS_SUCCESS), deployment("d2", DEPLOYMENT_STATUS_BUILDING)),
+                page(deployment("d3", DEPLOYMENT_STATUS_SUCCESS)));
+
+        List<Object> completed = site.pollSourceControlSync(new HashSet<>(Arrays.asList("d1", "d2")), DateTime.now(), 1)
+                .toList().toBlocking().single();
+
+        Assert.assertEquals(1, completed.size());
+        Assert.assertEquals("d3", ((DeploymentInner) completed.get(0)).id());
+    }
+
+    @SafeVarargs
+    private static WebAppImpl site(final Page<DeploymentInner>... pages) {
+        return new WebAppImpl("site", new SiteInner(), null, null) {
+            @Override
+            Observable<Page<DeploymentInner>> listDeployments() {
+                return Observable.from(pages);
+            }
+        };
+    }
+
+    private static Page<DeploymentInner> page(DeploymentInner... deployments) {
+        return new PageImpl<DeploymentInner>().setItems(Arrays.asList(deployments));
+    }
+
+    private static DeploymentInner deployment(String id, int status) throws IOException {
+        return new AzureJacksonAdapter().deserialize(
+                "{\"id\":\"" + id + "\",\"properties\":{\"status\":" + status + "}}", DeploymentInner.class);
+    }
+}
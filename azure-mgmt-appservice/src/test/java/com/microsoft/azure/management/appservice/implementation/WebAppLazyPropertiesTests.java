@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WebAppLazyPropertiesTests {
+    private final AtomicInteger configFetches = new AtomicInteger();
+    private final AtomicInteger appSettingsFetches = new AtomicInteger();
+    private final AtomicInteger slotConfigurationsFetches = new AtomicInteger();
+    private final CountDownLatch configReleased = new CountDownLatch(1);
+    private volatile boolean configFails;
+    private volatile boolean configBlocks;
+
+    @Test
+    public void fetchesEachPropertyOnFirstAccessOnly() {
+        WebAppImpl site = site();
+
+        Assert.assertEquals("value", site.appSettings().get("key").value());
+        Assert.assertEquals("value", site.appSettings().get("key").value());
+        Assert.assertTrue(site.appSettings().get("key").sticky());
+
+        Assert.assertEquals(1, appSettingsFetches.get());
+        Assert.assertEquals(1, slotConfigurationsFetches.get());
+        Assert.assertEquals(0, configFetches.get());
+    }
+
+    @Test(timeout = 10000)
+    public void concurrentGettersShareOneFetch() throws Exception {
+        configBlocks = true;
+        final WebAppImpl site = site();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<SiteConfigResourceInner> getter = new Callable<SiteConfigResourceInner>() {
+                @Override
+                public SiteConfigResourceInner call() {
+                    return site.siteConfigInner();
+                }
+            };
+            Future<SiteConfigResourceInner> first = executor.submit(getter);
+            Future<SiteConfigResourceInner> second = executor.submit(getter);
+            Thread.sleep(200);
+            configReleased.countDown();
+
+            Assert.assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, configFetches.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void writesDoNotWaitForFetchesInFlight() throws Exception {
+        configBlocks = true;
+        final WebAppImpl site = site();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<SiteConfigResourceInner> getter = executor.submit(new Callable<SiteConfigResourceInner>() {
+                @Override
+                public SiteConfigResourceInner call() {
+                    return site.siteConfigInner();
+                }
+            });
+            Thread.sleep(200);
+
+            // Would block on the fetch of the configuration if it held the lock on the site properties
+            site.cacheAppSettings(new StringDictionaryInner().withProperties(Collections.singletonMap("key", "written")));
+            Assert.assertFalse(getter.isDone());
+            Assert.assertEquals("written", site.appSettings().get("key").value());
+
+            configReleased.countDown();
+            Assert.assertNotNull(getter.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void fetchesAgainAfterFailure() {
+        configFails = true;
+        WebAppImpl site = site();
+        try {
+            site.siteConfigInner();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("config", e.getMessage());
+        }
+
+        configFails = false;
+        Assert.assertNotNull(site.siteConfigInner());
+        Assert.assertEquals(2, configFetches.get());
+    }
+
+    private WebAppImpl site() {
+        return new WebAppImpl("site", new SiteInner(), null, null) {
+            @Override
+            Observable<SiteConfigResourceInner> getConfigInner() {
+                return Observable.fromCallable(new Callable<SiteConfigResourceInner>() {
+                    @Override
+                    public SiteConfigResourceInner call() throws Exception {
+                        configFetches.incrementAndGet();
+                        if (configBlocks) {
+                            configReleased.await();
+                        }
+                        if (configFails) {
+                            throw new IllegalStateException("config");
+                        }
+                        return new SiteConfigResourceInner();
+                    }
+                }).subscribeOn(Schedulers.io());
+            }
+
+            @Override
+            Observable<StringDictionaryInner> listAppSettings() {
+                appSettingsFetches.incrementAndGet();
+                return Observable.just(new StringDictionaryInner().withProperties(Collections.singletonMap("key", "value")));
+            }
+
+            @Override
+            Observable<SlotConfigNamesResourceInner> listSlotConfigurations() {
+                slotConfigurationsFetches.incrementAndGet();
+                return Observable.just(new SlotConfigNamesResourceInner().withAppSettingNames(Collections.singletonList("key")));
+            }
+        }.withLazilyLoadedProperties();
+    }
+}
@@ -17,11 +17,13 @@ import com.microsoft.azure.management.resources.fluentcore.model.Appliable;
 import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
 import com.microsoft.azure.management.resources.fluentcore.model.Refreshable;
 import com.microsoft.azure.management.resources.fluentcore.model.Updatable;
+import com.microsoft.azure.management.storage.StorageAccount;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
 import rx.Observable;
 
+import java.io.File;
 import java.util.Set;
 
 /**
@@ -119,6 +121,29 @@ public interface Disk extends
      */
     ServiceFuture<Void> revokeAccessAsync(ServiceCallback<Void> callback);
 
+    /**
+     * Downloads the content of the disk to a local file.
+     * <p>
+     * Read access is granted for the duration of the transfer and revoked once it ends. Unallocated
+     * and zero-filled ranges are skipped so the file is written sparse; an interrupted download
+     * is resumed when called again with the same target file.
+     *
+     * @param file the target file
+     * @param accessDurationInSeconds the access duration in seconds, long enough to cover the transfer
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    void downloadToFile(File file, int accessDurationInSeconds);
+
+    /**
+     * Downloads the content of the disk to a local file asynchronously.
+     *
+     * @param file the target file
+     * @param accessDurationInSeconds the access duration in seconds, long enough to cover the transfer
+     * @return a representation of the deferred computation of this call
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Completable downloadToFileAsync(File file, int accessDurationInSeconds);
+
     /**
      * The entirety of the managed disk definition.
      */
@@ -206,6 +231,19 @@ public interface Disk extends
              * @return the next stage of the definition
              */
             WithCreateAndSize withWindowsFromVhd(String vhdUrl);
+
+            /**
+             * Specifies a local specialized or generalized Windows OS fixed-size VHD file.
+             * <p>
+             * The file is uploaded as a page blob into the given storage account, the disk is
+             * imported from that blob and the blob is deleted once the disk is created.
+             *
+             * @param vhdFile the local VHD file
+             * @param stagingStorageAccount the storage account to stage the VHD in, in the same region as the disk
+             * @return the next stage of the definition
+             */
+            @Beta(Beta.SinceVersion.V1_4_0)
+            WithCreateAndSize withWindowsFromLocalVhd(File vhdFile, StorageAccount stagingStorageAccount);
         }
 
         /**
@@ -251,6 +289,19 @@ public interface Disk extends
              * @return the next stage of the definition
              */
             WithCreateAndSize withLinuxFromVhd(String vhdUrl);
+
+            /**
+             * Specifies a local specialized or generalized Linux OS fixed-size VHD file.
+             * <p>
+             * The file is uploaded as a page blob into the given storage account, the disk is
+             * imported from that blob and the blob is deleted once the disk is created.
+             *
+             * @param vhdFile the local VHD file
+             * @param stagingStorageAccount the storage account to stage the VHD in, in the same region as the disk
+             * @return the next stage of the definition
+             */
+            @Beta(Beta.SinceVersion.V1_4_0)
+            WithCreateAndSize withLinuxFromLocalVhd(File vhdFile, StorageAccount stagingStorageAccount);
         }
 
         /**
@@ -292,6 +343,19 @@ public interface Disk extends
              * @return the next stage of the definition
              */
             WithCreateAndSize fromVhd(String vhdUrl);
+
+            /**
+             * Specifies a local fixed-size data VHD file.
+             * <p>
+             * The file is uploaded as a page blob into the given storage account, the disk is
+             * imported from that blob and the blob is deleted once the disk is created.
+             *
+             * @param vhdFile the local VHD file
+             * @param stagingStorageAccount the storage account to stage the VHD in, in the same region as the disk
+             * @return the next stage of the definition
+             */
+            @Beta(Beta.SinceVersion.V1_4_0)
+            WithCreateAndSize fromLocalVhd(File vhdFile, StorageAccount stagingStorageAccount);
         }
 
         /**
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.management.compute;
 
+import com.microsoft.azure.management.apigeneration.Beta;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.apigeneration.Method;
 import com.microsoft.azure.management.resources.fluentcore.model.Refreshable;
@@ -38,4 +39,16 @@ public interface DiskVolumeEncryptionMonitor
      */
     @Method
     Observable<DiskVolumeEncryptionMonitor> refreshAsync();
+
+    /**
+     * Observes the encryption status of the virtual machine until unsubscribed.
+     * <p>
+     * The status is polled with a delay that grows while nothing changes, and polling is shared
+     * between the monitors of virtual machines in the same resource group where possible.
+     *
+     * @return an observable that emits this monitor each time the encryption status changes
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    @Method
+    Observable<DiskVolumeEncryptionMonitor> statusChangesAsync();
 }
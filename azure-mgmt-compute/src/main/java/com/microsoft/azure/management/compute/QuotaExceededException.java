@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.compute;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+
+/**
+ * Exception thrown when resources are not created because the demand they add up to does not fit in the
+ * remaining quota of the subscription in a region.
+ */
+@Beta(Beta.SinceVersion.V1_4_0)
+public class QuotaExceededException extends RuntimeException {
+    private static final long serialVersionUID = 4236931807735224183L;
+
+    private final Region region;
+    private final String quotaName;
+    private final long required;
+    private final long available;
+
+    /**
+     * Creates QuotaExceededException.
+     *
+     * @param region the region of the quota
+     * @param quotaName the name of the quota
+     * @param required the amount required by the rejected resources
+     * @param available the amount remaining in the quota
+     */
+    public QuotaExceededException(Region region, String quotaName, long required, long available) {
+        super(String.format("Quota '%s' in region '%s' is exceeded: %d required, %d available",
+                quotaName, region.name(), required, available));
+        this.region = region;
+        this.quotaName = quotaName;
+        this.required = required;
+        this.available = available;
+    }
+
+    /**
+     * @return the region of the quota
+     */
+    public Region region() {
+        return region;
+    }
+
+    /**
+     * @return the name of the quota, such as a core family name or "NetworkInterfaces"
+     */
+    public String quotaName() {
+        return quotaName;
+    }
+
+    /**
+     * @return the amount required by the rejected resources
+     */
+    public long required() {
+        return required;
+    }
+
+    /**
+     * @return the amount remaining in the quota
+     */
+    public long available() {
+        return available;
+    }
+}
@@ -16,7 +16,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  */
 public class ResourceSkuRestrictions {
     /**
-     * The type of restrictions. Possible values include: 'location'.
+     * The type of restrictions. Possible values include: 'location',
+     * 'zone'.
      */
     @JsonProperty(value = "type", access = JsonProperty.Access.WRITE_ONLY)
     private ResourceSkuRestrictionsType type;
@@ -28,6 +29,12 @@ public class ResourceSkuRestrictions {
     @JsonProperty(value = "values", access = JsonProperty.Access.WRITE_ONLY)
     private List<String> values;
 
+    /**
+     * The information about the restriction where the SKU cannot be used.
+     */
+    @JsonProperty(value = "restrictionInfo", access = JsonProperty.Access.WRITE_ONLY)
+    private ResourceSkuRestrictionInfo restrictionInfo;
+
     /**
      * The reason for restriction. Possible values include: 'QuotaId',
      * 'NotAvailableForSubscription'.
@@ -53,6 +60,15 @@ public class ResourceSkuRestrictions {
         return this.values;
     }
 
+    /**
+     * Get the restrictionInfo value.
+     *
+     * @return the restrictionInfo value
+     */
+    public ResourceSkuRestrictionInfo restrictionInfo() {
+        return this.restrictionInfo;
+    }
+
     /**
      * Get the reasonCode value.
      *
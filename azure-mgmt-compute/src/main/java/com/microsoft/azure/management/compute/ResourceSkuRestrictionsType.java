@@ -16,7 +16,10 @@ import com.fasterxml.jackson.annotation.JsonValue;
  */
 public enum ResourceSkuRestrictionsType {
     /** Enum value location. */
-    LOCATION("location");
+    LOCATION("location"),
+
+    /** Enum value zone. */
+    ZONE("zone");
 
     /** The actual serialized value for a ResourceSkuRestrictionsType instance. */
     private String value;
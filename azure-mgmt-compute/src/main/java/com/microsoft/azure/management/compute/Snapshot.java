@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.management.compute;
 
+import com.microsoft.azure.management.apigeneration.Beta;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.compute.implementation.ComputeManager;
 import com.microsoft.azure.management.compute.implementation.SnapshotInner;
@@ -20,6 +21,8 @@ import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
 import rx.Observable;
 
+import java.io.File;
+
 /**
  * An immutable client-side representation of an Azure managed snapshot.
  */
@@ -98,6 +101,29 @@ public interface Snapshot extends
      */
     ServiceFuture<Void> revokeAccessAsync(ServiceCallback<Void> callback);
 
+    /**
+     * Downloads the content of the snapshot to a local file.
+     * <p>
+     * Read access is granted for the duration of the transfer and revoked once it ends. Unallocated
+     * and zero-filled ranges are skipped so the file is written sparse; an interrupted download
+     * is resumed when called again with the same target file.
+     *
+     * @param file the target file
+     * @param accessDurationInSeconds the access duration in seconds, long enough to cover the transfer
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    void downloadToFile(File file, int accessDurationInSeconds);
+
+    /**
+     * Downloads the content of the snapshot to a local file asynchronously.
+     *
+     * @param file the target file
+     * @param accessDurationInSeconds the access duration in seconds, long enough to cover the transfer
+     * @return a representation of the deferred computation of this call
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Completable downloadToFileAsync(File file, int accessDurationInSeconds);
+
     /**
      * The entirety of the managed snapshot definition.
      */
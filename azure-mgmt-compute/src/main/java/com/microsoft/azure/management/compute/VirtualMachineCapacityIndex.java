@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.compute;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import org.joda.time.DateTime;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An in-memory snapshot of the virtual machine sizes, compute SKU restrictions, availability zones
+ * and quota usage of a subscription in a region, that answers capacity planning queries without
+ * calling the service.
+ */
+@Fluent
+@Beta(Beta.SinceVersion.V1_4_0)
+public interface VirtualMachineCapacityIndex {
+    /**
+     * @return the region the index describes
+     */
+    Region region();
+
+    /**
+     * @return the time the index was built
+     */
+    DateTime refreshedTime();
+
+    /**
+     * @return the virtual machine sizes available in the region, ordered by number of cores,
+     * then memory, then name
+     */
+    List<VirtualMachineSize> sizes();
+
+    /**
+     * Checks whether a virtual machine size can be used by the subscription in the region.
+     *
+     * @param sizeName the virtual machine size name
+     * @return true if the size exists in the region and is not restricted for the subscription
+     */
+    boolean isAvailable(String sizeName);
+
+    /**
+     * @param sizeName the virtual machine size name
+     * @return the availability zones in which the size can be used, empty if the size is not zonal
+     */
+    Set<String> availabilityZones(String sizeName);
+
+    /**
+     * Gets the number of cores that can still be allocated to virtual machines of a size, the lowest of
+     * the remaining regional cores and the remaining cores of the size family.
+     *
+     * @param sizeName the virtual machine size name
+     * @return the remaining cores, or 0 if the size is unknown
+     */
+    long remainingCores(String sizeName);
+
+    /**
+     * Finds the available sizes that meet the given requirements.
+     *
+     * @param minCores the minimum number of cores
+     * @param minMemoryInMB the minimum memory in MB
+     * @param availabilityZone the availability zone the size must be available in, null for any
+     * @param instanceCount the number of instances that must fit in the remaining quota
+     * @return the matching sizes, smallest first
+     */
+    List<VirtualMachineSize> findSizes(int minCores, int minMemoryInMB, String availabilityZone, int instanceCount);
+
+    /**
+     * Finds the smallest available size that meets the given requirements.
+     *
+     * @param minCores the minimum number of cores
+     * @param minMemoryInMB the minimum memory in MB
+     * @param availabilityZone the availability zone the size must be available in, null for any
+     * @param instanceCount the number of instances that must fit in the remaining quota
+     * @return the smallest matching size, or null if there is none
+     */
+    VirtualMachineSize findSmallestSize(int minCores, int minMemoryInMB, String availabilityZone, int instanceCount);
+}
@@ -7,6 +7,7 @@
 package com.microsoft.azure.management.compute;
 
 import com.microsoft.azure.CloudException;
+import com.microsoft.azure.management.apigeneration.Beta;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.compute.implementation.ComputeManager;
 import com.microsoft.azure.management.compute.implementation.VirtualMachineScaleSetsInner;
@@ -20,12 +21,17 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsBa
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCreating;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
+import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
+import com.microsoft.azure.management.resources.fluentcore.model.CreatedResources;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
+import rx.Observable;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  *  Entry point to virtual machine scale set management API.
@@ -194,4 +200,47 @@ public interface VirtualMachineScaleSets extends
      * @return a handle to cancel the request
      */
     ServiceFuture<Void> reimageAsync(String groupName, String name, ServiceCallback<Void> callback);
+
+    /**
+     * Creates a batch of virtual machine scale sets after checking that the cores, network interfaces and public IP
+     * addresses they need fit in the remaining quota of the subscription. Current usage is read once per
+     * region, and the batch is rejected with a {@link QuotaExceededException} before anything is created
+     * if it does not fit.
+     *
+     * @param creatables the virtual machine scale sets to create
+     * @return the created resources
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    CreatedResources<VirtualMachineScaleSet> createWithQuotaCheck(List<Creatable<VirtualMachineScaleSet>> creatables);
+
+    /**
+     * Creates a batch of virtual machine scale sets asynchronously after checking that it fits in the remaining quota of
+     * the subscription.
+     *
+     * @param creatables the virtual machine scale sets to create
+     * @return an observable that emits the created resources, or a {@link QuotaExceededException}
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Observable<Indexable> createWithQuotaCheckAsync(List<Creatable<VirtualMachineScaleSet>> creatables);
+
+    /**
+     * Creates a batch of virtual machine scale sets in quota-feasible waves. Each wave is the longest run of the remaining
+     * virtual machine scale sets that fits in the quota observed right before it, usage is read again between waves.
+     * Creation stops with a {@link QuotaExceededException} when not even the next virtual machine scale set fits, the
+     * virtual machine scale sets created by the earlier waves are kept.
+     *
+     * @param creatables the virtual machine scale sets to create, in order
+     * @return the created virtual machine scale sets
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    List<VirtualMachineScaleSet> createInQuotaWaves(List<Creatable<VirtualMachineScaleSet>> creatables);
+
+    /**
+     * Creates a batch of virtual machine scale sets in quota-feasible waves asynchronously.
+     *
+     * @param creatables the virtual machine scale sets to create, in order
+     * @return an observable that emits the created virtual machine scale sets
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Observable<VirtualMachineScaleSet> createInQuotaWavesAsync(List<Creatable<VirtualMachineScaleSet>> creatables);
 }
@@ -5,8 +5,11 @@
  */
 package com.microsoft.azure.management.compute;
 
+import com.microsoft.azure.management.apigeneration.Beta;
 import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListingByRegion;
+import rx.Observable;
 
 /**
  *  Entry point to virtual machine sizes API.
@@ -14,4 +17,34 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsLi
 @Fluent
 public interface VirtualMachineSizes extends
         SupportsListingByRegion<VirtualMachineSize> {
+    /**
+     * Gets the capacity index of a region, an in-memory view of the virtual machine sizes, SKU restrictions,
+     * availability zones and quota usage of the subscription in the region.
+     * <p>
+     * Indexes are cached per region and rebuilt from the service once they are older than a few minutes,
+     * so repeated placement queries do not list sizes, SKUs and usages again.
+     *
+     * @param region the region
+     * @return the capacity index
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    VirtualMachineCapacityIndex getCapacityIndex(Region region);
+
+    /**
+     * Gets the capacity index of a region asynchronously.
+     *
+     * @param region the region
+     * @return an observable that emits the capacity index
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Observable<VirtualMachineCapacityIndex> getCapacityIndexAsync(Region region);
+
+    /**
+     * Discards the cached capacity index of a region, so that the next request rebuilds it, for instance
+     * after virtual machines were created outside of this client.
+     *
+     * @param region the region
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    void invalidateCapacityIndex(Region region);
 }
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.management.compute;
 
+import com.microsoft.azure.management.apigeneration.Beta;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.compute.implementation.ComputeManager;
 import com.microsoft.azure.management.compute.implementation.VirtualMachinesInner;
@@ -19,12 +20,17 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsBa
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCreating;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
+import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
+import com.microsoft.azure.management.resources.fluentcore.model.CreatedResources;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
 import rx.Observable;
 
+import java.util.List;
+
 /**
  *  Entry point to virtual machine management API.
  */
@@ -274,4 +280,47 @@ public interface VirtualMachines extends
      * @return a handle to cancel the request
      */
     ServiceFuture<Void> migrateToManagedAsync(String groupName, String name, ServiceCallback<Void> callback);
+
+    /**
+     * Creates a batch of virtual machines after checking that the cores, network interfaces and public IP
+     * addresses they need fit in the remaining quota of the subscription. Current usage is read once per
+     * region, and the batch is rejected with a {@link QuotaExceededException} before anything is created
+     * if it does not fit.
+     *
+     * @param creatables the virtual machines to create
+     * @return the created resources
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    CreatedResources<VirtualMachine> createWithQuotaCheck(List<Creatable<VirtualMachine>> creatables);
+
+    /**
+     * Creates a batch of virtual machines asynchronously after checking that it fits in the remaining quota of
+     * the subscription.
+     *
+     * @param creatables the virtual machines to create
+     * @return an observable that emits the created resources, or a {@link QuotaExceededException}
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Observable<Indexable> createWithQuotaCheckAsync(List<Creatable<VirtualMachine>> creatables);
+
+    /**
+     * Creates a batch of virtual machines in quota-feasible waves. Each wave is the longest run of the remaining
+     * virtual machines that fits in the quota observed right before it, usage is read again between waves.
+     * Creation stops with a {@link QuotaExceededException} when not even the next virtual machine fits, the
+     * virtual machines created by the earlier waves are kept.
+     *
+     * @param creatables the virtual machines to create, in order
+     * @return the created virtual machines
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    List<VirtualMachine> createInQuotaWaves(List<Creatable<VirtualMachine>> creatables);
+
+    /**
+     * Creates a batch of virtual machines in quota-feasible waves asynchronously.
+     *
+     * @param creatables the virtual machines to create, in order
+     * @return an observable that emits the created virtual machines
+     */
+    @Beta(Beta.SinceVersion.V1_4_0)
+    Observable<VirtualMachine> createInQuotaWavesAsync(List<Creatable<VirtualMachine>> creatables);
 }
@@ -52,6 +52,8 @@ public final class ComputeManager extends Manager<ComputeManager, ComputeManagem
     private Disks disks;
     private Snapshots snapshots;
     private ContainerServices containerServices;
+    private DiskVolumeEncryptionWatcher diskVolumeEncryptionWatcher;
+    private VirtualMachineCapacityIndexes virtualMachineCapacityIndexes;
 
     /**
      * Get a Configurable instance that can be used to create ComputeManager with optional configuration.
@@ -236,4 +238,32 @@ public final class ComputeManager extends Manager<ComputeManager, ComputeManagem
         }
         return snapshots;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the shared state used to observe disk volume encryption status
+     */
+    synchronized DiskVolumeEncryptionWatcher diskVolumeEncryptionWatcher() {
+        if (diskVolumeEncryptionWatcher == null) {
+            diskVolumeEncryptionWatcher = new DiskVolumeEncryptionWatcher(this);
+        }
+        return diskVolumeEncryptionWatcher;
+    }
+
+    /**
+     * @return the cache of virtual machine capacity indexes of the subscription
+     */
+    synchronized VirtualMachineCapacityIndexes virtualMachineCapacityIndexes() {
+        if (virtualMachineCapacityIndexes == null) {
+            virtualMachineCapacityIndexes = new VirtualMachineCapacityIndexes(this.inner(),
+                    VirtualMachineCapacityIndexes.DEFAULT_TIME_TO_LIVE_IN_MILLISECONDS);
+        }
+        return virtualMachineCapacityIndexes;
+    }
+
+    /**
+     * @return the storage manager used by the compute resources
+     */
+    StorageManager storageManager() {
+        return storageManager;
+    }
+}
@@ -18,13 +18,17 @@ import com.microsoft.azure.management.compute.OperatingSystemTypes;
 import com.microsoft.azure.management.compute.Snapshot;
 import com.microsoft.azure.management.resources.fluentcore.arm.AvailabilityZoneId;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.implementation.GroupableResourceImpl;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
+import com.microsoft.azure.management.storage.StorageAccount;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
 import rx.Observable;
+import rx.functions.Action0;
 import rx.functions.Func1;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -44,6 +48,8 @@ class DiskImpl
         Disk,
         Disk.Definition,
         Disk.Update  {
+    private File localVhdFile;
+    private StorageAccount stagingStorageAccount;
 
     DiskImpl(String name, DiskInner innerModel, final ComputeManager computeManager) {
         super(name, innerModel, computeManager);
@@ -138,6 +144,18 @@ class DiskImpl
         return ServiceFuture.fromBody(this.revokeAccessAsync(), callback);
     }
 
+    @Override
+    public void downloadToFile(File file, int accessDurationInSeconds) {
+        this.downloadToFileAsync(file, accessDurationInSeconds).await();
+    }
+
+    @Override
+    public Completable downloadToFileAsync(File file, int accessDurationInSeconds) {
+        return new ManagedDiskDownloader(manager().inner().restClient()).downloadAsync(this.grantAccessAsync(accessDurationInSeconds),
+                this.revokeAccessAsync(),
+                file.toPath());
+    }
+
     @Override
     public DiskImpl withLinuxFromVhd(String vhdUrl) {
         this.inner()
@@ -149,6 +167,13 @@ class DiskImpl
         return this;
     }
 
+    @Override
+    public DiskImpl withLinuxFromLocalVhd(File vhdFile, StorageAccount stagingStorageAccount) {
+        this.fromLocalVhd(vhdFile, stagingStorageAccount);
+        this.inner().withOsType(OperatingSystemTypes.LINUX);
+        return this;
+    }
+
     @Override
     public DiskImpl withLinuxFromDisk(String sourceDiskId) {
         this.inner()
@@ -202,6 +227,13 @@ class DiskImpl
         return this;
     }
 
+    @Override
+    public DiskImpl withWindowsFromLocalVhd(File vhdFile, StorageAccount stagingStorageAccount) {
+        this.fromLocalVhd(vhdFile, stagingStorageAccount);
+        this.inner().withOsType(OperatingSystemTypes.WINDOWS);
+        return this;
+    }
+
     @Override
     public DiskImpl withWindowsFromDisk(String sourceDiskId) {
         this.inner()
@@ -263,6 +295,17 @@ class DiskImpl
         return this;
     }
 
+    @Override
+    public DiskImpl fromLocalVhd(File vhdFile, StorageAccount stagingStorageAccount) {
+        this.inner()
+                .withCreationData(new CreationData())
+                .creationData()
+                .withCreateOption(DiskCreateOption.IMPORT);
+        this.localVhdFile = vhdFile;
+        this.stagingStorageAccount = stagingStorageAccount;
+        return this;
+    }
+
     @Override
     public DiskImpl fromSnapshot(String snapshotId) {
         this.inner()
@@ -328,8 +371,48 @@ class DiskImpl
 
     @Override
     public Observable<Disk> createResourceAsync() {
-        return manager().inner().disks().createOrUpdateAsync(resourceGroupName(), name(), this.inner())
-                .map(innerToFluentMap(this));
+        if (this.localVhdFile == null) {
+            return manager().inner().disks().createOrUpdateAsync(resourceGroupName(), name(), this.inner())
+                    .map(innerToFluentMap(this));
+        }
+        final DiskImpl self = this;
+        final StorageAccount storageAccount = this.stagingStorageAccount;
+        final ManagedDiskUploader uploader = new ManagedDiskUploader(manager().inner().restClient(), manager().storageManager().sasSigner());
+        final String blobName = SdkContext.randomResourceName(this.name(), 30) + ".vhd";
+        return uploader.stageAsync(this.localVhdFile.toPath(), storageAccount, "vhds", blobName)
+                .flatMap(new Func1<String, Observable<Disk>>() {
+                    @Override
+                    public Observable<Disk> call(final String blobUrl) {
+                        self.inner().creationData().withSourceUri(blobUrl);
+                        return manager().inner().disks().createOrUpdateAsync(resourceGroupName(), name(), self.inner())
+                                .map(innerToFluentMap(self))
+                                .flatMap(new Func1<Disk, Observable<Disk>>() {
+                                    @Override
+                                    public Observable<Disk> call(Disk disk) {
+                                        // The disk holds its own copy of the content, the staged blob is no longer needed.
+                                        return uploader.deleteStagedAsync(storageAccount, blobUrl)
+                                                .andThen(Observable.just(disk));
+                                    }
+                                })
+                                .onErrorResumeNext(new Func1<Throwable, Observable<Disk>>() {
+                                    @Override
+                                    public Observable<Disk> call(Throwable throwable) {
+                                        // Do not leak the staged blob when the disk creation fails; the
+                                        // creation error is the one reported.
+                                        return uploader.deleteStagedAsync(storageAccount, blobUrl)
+                                                .onErrorComplete()
+                                                .andThen(Observable.<Disk>error(throwable));
+                                    }
+                                });
+                    }
+                })
+                .doOnCompleted(new Action0() {
+                    @Override
+                    public void call() {
+                        self.localVhdFile = null;
+                        self.stagingStorageAccount = null;
+                    }
+                });
     }
 
     @Override
@@ -0,0 +1,308 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.CloudException;
+import com.microsoft.azure.Page;
+import com.microsoft.azure.management.compute.DiskVolumeEncryptionMonitor;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Action2;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shared polling state behind {@link DiskVolumeEncryptionMonitor#statusChangesAsync()}.
+ * <p>
+ * Virtual machines in the same resource group are observed through a single shared
+ * list-by-resource-group poll, and the name of the encryption extension installed in
+ * each virtual machine is remembered so that the virtual machine does not need to be
+ * fetched again to locate it, until the extension is found missing.
+ */
+class DiskVolumeEncryptionWatcher {
+    static final long MIN_POLL_DELAY_IN_MILLISECONDS = 10 * 1000;
+    static final long MAX_POLL_DELAY_IN_MILLISECONDS = 2 * 60 * 1000;
+    static final int MAX_POLL_RETRIES = 5;
+
+    private final ComputeManager computeManager;
+    private final ConcurrentMap<String, Observable<Map<String, VirtualMachineInner>>> resourceGroupPolls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> encryptionExtensionNames = new ConcurrentHashMap<>();
+
+    /**
+     * Creates DiskVolumeEncryptionWatcher.
+     *
+     * @param computeManager compute manager
+     */
+    DiskVolumeEncryptionWatcher(ComputeManager computeManager) {
+        this.computeManager = computeManager;
+    }
+
+    /**
+     * Gets the shared poll of the virtual machines in a resource group. The poll runs while at least one
+     * subscriber is subscribed, late subscribers receive the latest snapshot right away.
+     *
+     * @param resourceGroupName the resource group name
+     * @return an observable that emits the virtual machines in the group keyed by lower case name
+     */
+    Observable<Map<String, VirtualMachineInner>> virtualMachinesInGroup(final String resourceGroupName) {
+        return sharedPoll(resourceGroupName.toLowerCase(), listVirtualMachinesAsync(resourceGroupName));
+    }
+
+    /**
+     * Gets the poll shared under a key, starting it with the given listing if there is none. A failed listing is
+     * retried with a growing delay, {@link #MAX_POLL_RETRIES} times in a row at most; once the poll fails, it is
+     * forgotten so that the next subscriber starts a new one.
+     *
+     * @param key the key of the poll
+     * @param list the cold observable listing the virtual machines once
+     * @return an observable that emits the virtual machines keyed by lower case name
+     */
+    Observable<Map<String, VirtualMachineInner>> sharedPoll(final String key, Observable<Map<String, VirtualMachineInner>> list) {
+        Observable<Map<String, VirtualMachineInner>> poll = resourceGroupPolls.get(key);
+        if (poll != null) {
+            return poll;
+        }
+        final AtomicReference<Observable<Map<String, VirtualMachineInner>>> self = new AtomicReference<>();
+        poll = pollAdaptively(list.retryWhen(new RetryTransientFailures()),
+                new Func1<Map<String, VirtualMachineInner>, Object>() {
+                    @Override
+                    public Object call(Map<String, VirtualMachineInner> virtualMachines) {
+                        return encryptionStateOf(virtualMachines);
+                    }
+                },
+                MIN_POLL_DELAY_IN_MILLISECONDS,
+                MAX_POLL_DELAY_IN_MILLISECONDS)
+                .doOnTerminate(new Action0() {
+                    @Override
+                    public void call() {
+                        resourceGroupPolls.remove(key, self.get());
+                    }
+                })
+                .replay(1)
+                .refCount();
+        self.set(poll);
+        Observable<Map<String, VirtualMachineInner>> existing = resourceGroupPolls.putIfAbsent(key, poll);
+        return existing != null ? existing : poll;
+    }
+
+    /**
+     * Gets the cached name of the encryption extension installed in a virtual machine.
+     *
+     * @param virtualMachineId the virtual machine resource id
+     * @return the extension name, null if not known yet
+     */
+    String encryptionExtensionName(String virtualMachineId) {
+        return encryptionExtensionNames.get(virtualMachineId.toLowerCase());
+    }
+
+    /**
+     * Caches the name of the encryption extension installed in a virtual machine.
+     *
+     * @param virtualMachineId the virtual machine resource id
+     * @param extensionName the extension name
+     */
+    void cacheEncryptionExtensionName(String virtualMachineId, String extensionName) {
+        encryptionExtensionNames.put(virtualMachineId.toLowerCase(), extensionName);
+    }
+
+    /**
+     * Forgets the cached name of the encryption extension of a virtual machine, e.g. once it is not found.
+     *
+     * @param virtualMachineId the virtual machine resource id
+     */
+    void invalidateEncryptionExtensionName(String virtualMachineId) {
+        encryptionExtensionNames.remove(virtualMachineId.toLowerCase());
+    }
+
+    /**
+     * Repeats a poll with a delay that doubles each time the observed state did not change,
+     * up to the given maximum, and goes back to the minimum as soon as the state changes.
+     *
+     * @param poll the cold observable performing a single poll
+     * @param stateOf the function computing the observed state from a poll result
+     * @param minDelayInMilliseconds the minimum delay between two polls
+     * @param maxDelayInMilliseconds the maximum delay between two polls
+     * @param <T> the type of poll result
+     * @return an observable that emits the result of each poll
+     */
+    static <T> Observable<T> pollAdaptively(final Observable<T> poll,
+                                            final Func1<T, Object> stateOf,
+                                            final long minDelayInMilliseconds,
+                                            final long maxDelayInMilliseconds) {
+        return Observable.defer(new Func0<Observable<T>>() {
+            @Override
+            public Observable<T> call() {
+                final AtomicLong delay = new AtomicLong(minDelayInMilliseconds);
+                final AtomicReference<Object> lastState = new AtomicReference<>();
+                return poll
+                        .doOnNext(new Action1<T>() {
+                            @Override
+                            public void call(T result) {
+                                Object state = stateOf.call(result);
+                                Object previous = lastState.getAndSet(state);
+                                if (previous == null || !previous.equals(state)) {
+                                    delay.set(minDelayInMilliseconds);
+                                } else {
+                                    delay.set(Math.min(delay.get() * 2, maxDelayInMilliseconds));
+                                }
+                            }
+                        })
+                        .repeatWhen(new Func1<Observable<? extends Void>, Observable<?>>() {
+                            @Override
+                            public Observable<?> call(Observable<? extends Void> completions) {
+                                return completions.flatMap(new Func1<Void, Observable<Long>>() {
+                                    @Override
+                                    public Observable<Long> call(Void ignored) {
+                                        return Observable.timer(delay.get(), TimeUnit.MILLISECONDS, SdkContext.getRxScheduler());
+                                    }
+                                });
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * @param monitor the encryption monitor
+     * @return a value that changes whenever the status reported by the monitor changes
+     */
+    static String statusOf(DiskVolumeEncryptionMonitor monitor) {
+        return monitor.osDiskStatus() + "|" + monitor.dataDiskStatus() + "|" + monitor.progressMessage();
+    }
+
+    /**
+     * Drops the polls of a monitor that report the same status as the poll before.
+     *
+     * @param polls the monitor after each poll
+     * @return an observable that emits the monitor each time its status changes
+     */
+    static Observable<DiskVolumeEncryptionMonitor> statusChanges(Observable<DiskVolumeEncryptionMonitor> polls) {
+        return polls.distinctUntilChanged(new Func1<DiskVolumeEncryptionMonitor, Object>() {
+            @Override
+            public Object call(DiskVolumeEncryptionMonitor monitor) {
+                return statusOf(monitor);
+            }
+        });
+    }
+
+    /**
+     * @param throwable an error
+     * @return true if the error reports that the requested resource does not exist
+     */
+    static boolean isNotFound(Throwable throwable) {
+        return throwable instanceof CloudException
+                && ((CloudException) throwable).response() != null
+                && ((CloudException) throwable).response().code() == 404;
+    }
+
+    /**
+     * Finds the encryption extension among the extensions of a virtual machine.
+     *
+     * @param virtualMachine the virtual machine
+     * @param extensionType the encryption extension type
+     * @return the extension, null if not installed
+     */
+    static VirtualMachineExtensionInner findEncryptionExtension(VirtualMachineInner virtualMachine, String extensionType) {
+        if (virtualMachine == null || virtualMachine.resources() == null) {
+            return null;
+        }
+        for (VirtualMachineExtensionInner extension : virtualMachine.resources()) {
+            if (extension.publisher() != null
+                    && extension.publisher().equalsIgnoreCase("Microsoft.Azure.Security")
+                    && extension.virtualMachineExtensionType() != null
+                    && extension.virtualMachineExtensionType().equalsIgnoreCase(extensionType)) {
+                return extension;
+            }
+        }
+        return null;
+    }
+
+    private Observable<Map<String, VirtualMachineInner>> listVirtualMachinesAsync(String resourceGroupName) {
+        return this.computeManager.inner().virtualMachines()
+                .listByResourceGroupAsync(resourceGroupName)
+                .collect(new Func0<Map<String, VirtualMachineInner>>() {
+                    @Override
+                    public Map<String, VirtualMachineInner> call() {
+                        return new HashMap<>();
+                    }
+                }, new Action2<Map<String, VirtualMachineInner>, Page<VirtualMachineInner>>() {
+                    @Override
+                    public void call(Map<String, VirtualMachineInner> virtualMachines, Page<VirtualMachineInner> page) {
+                        if (page.items() != null) {
+                            for (VirtualMachineInner virtualMachine : page.items()) {
+                                virtualMachines.put(virtualMachine.name().toLowerCase(), virtualMachine);
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Retries a failed listing with a delay that doubles each time, from the minimum poll delay up to the
+     * maximum one, unless the request was rejected for good.
+     */
+    private static class RetryTransientFailures implements Func1<Observable<? extends Throwable>, Observable<?>> {
+        @Override
+        public Observable<?> call(Observable<? extends Throwable> errors) {
+            return errors.zipWith(Observable.range(1, MAX_POLL_RETRIES + 1), new Func2<Throwable, Integer, Observable<Long>>() {
+                @Override
+                public Observable<Long> call(Throwable throwable, Integer attempt) {
+                    if (attempt > MAX_POLL_RETRIES || !isTransient(throwable)) {
+                        return Observable.error(throwable);
+                    }
+                    long delay = Math.min(MIN_POLL_DELAY_IN_MILLISECONDS << (attempt - 1), MAX_POLL_DELAY_IN_MILLISECONDS);
+                    return Observable.timer(delay, TimeUnit.MILLISECONDS, SdkContext.getRxScheduler());
+                }
+            }).flatMap(new Func1<Observable<Long>, Observable<Long>>() {
+                @Override
+                public Observable<Long> call(Observable<Long> delay) {
+                    return delay;
+                }
+            });
+        }
+
+        private static boolean isTransient(Throwable throwable) {
+            if (!(throwable instanceof CloudException) || ((CloudException) throwable).response() == null) {
+                return true;
+            }
+            int code = ((CloudException) throwable).response().code();
+            return code == 429 || code >= 500;
+        }
+    }
+
+    private static String encryptionStateOf(Map<String, VirtualMachineInner> virtualMachines) {
+        StringBuilder state = new StringBuilder();
+        for (VirtualMachineInner virtualMachine : virtualMachines.values()) {
+            state.append(virtualMachine.name()).append(':');
+            List<VirtualMachineExtensionInner> extensions = virtualMachine.resources();
+            if (extensions != null) {
+                for (VirtualMachineExtensionInner extension : extensions) {
+                    state.append(extension.name()).append('=').append(extension.provisioningState()).append(',');
+                }
+            }
+            if (virtualMachine.storageProfile() != null
+                    && virtualMachine.storageProfile().osDisk() != null
+                    && virtualMachine.storageProfile().osDisk().encryptionSettings() != null) {
+                state.append(virtualMachine.storageProfile().osDisk().encryptionSettings().enabled());
+            }
+            state.append(';');
+        }
+        return state.toString();
+    }
+}
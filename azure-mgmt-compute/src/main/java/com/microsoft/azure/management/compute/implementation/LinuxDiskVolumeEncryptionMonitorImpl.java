@@ -17,17 +17,21 @@ import com.microsoft.azure.management.compute.OperatingSystemTypes;
 import com.microsoft.azure.management.compute.VirtualMachineExtensionInstanceView;
 import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
 import rx.Observable;
+import rx.functions.Action1;
 import rx.functions.Func1;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The implementation for DiskVolumeEncryptionStatus for Linux virtual machine.
  */
 @LangDefinition
 class LinuxDiskVolumeEncryptionMonitorImpl implements DiskVolumeEncryptionMonitor {
+    private static final String ENCRYPTION_EXTENSION_TYPE = "AzureDiskEncryptionForLinux";
+    private final String virtualMachineId;
     private final String rgName;
     private final String vmName;
     private final ComputeManager computeManager;
@@ -40,6 +44,7 @@ class LinuxDiskVolumeEncryptionMonitorImpl implements DiskVolumeEncryptionMonito
      * @param computeManager compute manager
      */
     LinuxDiskVolumeEncryptionMonitorImpl(String virtualMachineId, ComputeManager computeManager) {
+        this.virtualMachineId = virtualMachineId;
         this.rgName = ResourceUtils.groupFromResourceId(virtualMachineId);
         this.vmName = ResourceUtils.nameFromResourceId(virtualMachineId);
         this.computeManager = computeManager;
@@ -115,6 +120,79 @@ class LinuxDiskVolumeEncryptionMonitorImpl implements DiskVolumeEncryptionMonito
                 .switchIfEmpty(Observable.just(self));
     }
 
+    @Override
+    public Observable<DiskVolumeEncryptionMonitor> statusChangesAsync() {
+        final DiskVolumeEncryptionMonitor self = this;
+        final Func1<DiskVolumeEncryptionMonitor, Object> statusOf = new Func1<DiskVolumeEncryptionMonitor, Object>() {
+            @Override
+            public Object call(DiskVolumeEncryptionMonitor monitor) {
+                return DiskVolumeEncryptionWatcher.statusOf(monitor);
+            }
+        };
+        // The status of Linux encryption lives in the extension instance view which cannot be listed
+        // per resource group, so only the lookup of the extension name uses the shared poll.
+        //
+        return DiskVolumeEncryptionWatcher.statusChanges(encryptionExtensionNameAsync()
+                .flatMap(new Func1<String, Observable<DiskVolumeEncryptionMonitor>>() {
+                    @Override
+                    public Observable<DiskVolumeEncryptionMonitor> call(String extensionName) {
+                        Observable<DiskVolumeEncryptionMonitor> poll = retrieveExtensionWithInstanceViewAsync(extensionName)
+                                .map(new Func1<VirtualMachineExtensionInner, DiskVolumeEncryptionMonitor>() {
+                                    @Override
+                                    public DiskVolumeEncryptionMonitor call(VirtualMachineExtensionInner virtualMachineExtensionInner) {
+                                        encryptionExtension = virtualMachineExtensionInner;
+                                        return self;
+                                    }
+                                });
+                        return DiskVolumeEncryptionWatcher.pollAdaptively(poll,
+                                statusOf,
+                                DiskVolumeEncryptionWatcher.MIN_POLL_DELAY_IN_MILLISECONDS,
+                                DiskVolumeEncryptionWatcher.MAX_POLL_DELAY_IN_MILLISECONDS);
+                    }
+                }));
+    }
+
+    /**
+     * Resolves the name of the encryption extension, from the cached extension, the names cached
+     * by other monitors or, failing both, the shared poll of the virtual machines in the resource group.
+     *
+     * @return an observable that emits the extension name once it is installed
+     */
+    private Observable<String> encryptionExtensionNameAsync() {
+        if (encryptionExtension != null) {
+            return Observable.just(encryptionExtension.name());
+        }
+        final DiskVolumeEncryptionWatcher watcher = this.computeManager.diskVolumeEncryptionWatcher();
+        String extensionName = watcher.encryptionExtensionName(virtualMachineId);
+        if (extensionName != null) {
+            return Observable.just(extensionName);
+        }
+        return watcher.virtualMachinesInGroup(rgName)
+                .flatMap(new Func1<Map<String, VirtualMachineInner>, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(Map<String, VirtualMachineInner> virtualMachines) {
+                        VirtualMachineInner virtualMachine = virtualMachines.get(vmName.toLowerCase());
+                        if (virtualMachine == null) {
+                            return Observable.error(new Exception(String.format("VM with name '%s' not found (resource group '%s')",
+                                    vmName, rgName)));
+                        }
+                        VirtualMachineExtensionInner extension = DiskVolumeEncryptionWatcher.findEncryptionExtension(virtualMachine,
+                                ENCRYPTION_EXTENSION_TYPE);
+                        if (extension == null) {
+                            return Observable.empty();
+                        }
+                        return Observable.just(extension.name());
+                    }
+                })
+                .first()
+                .doOnNext(new Action1<String>() {
+                    @Override
+                    public void call(String name) {
+                        watcher.cacheEncryptionExtensionName(virtualMachineId, name);
+                    }
+                });
+    }
+
     /**
      * Retrieves the latest state of encryption extension in the virtual machine.
      *
@@ -124,7 +202,13 @@ class LinuxDiskVolumeEncryptionMonitorImpl implements DiskVolumeEncryptionMonito
         if (encryptionExtension != null) {
             // If there is already a cached extension simply retrieve it again with instance view.
             //
-            return retrieveExtensionWithInstanceViewAsync(encryptionExtension);
+            return retrieveExtensionWithInstanceViewAsync(encryptionExtension.name());
+        }
+        String extensionName = this.computeManager.diskVolumeEncryptionWatcher().encryptionExtensionName(virtualMachineId);
+        if (extensionName != null) {
+            // The extension name is already known from an earlier lookup, skip retrieving the virtual machine.
+            //
+            return retrieveExtensionWithInstanceViewAsync(extensionName);
         } else {
             // Extension is not cached already so retrieve name from the virtual machine and
             // then get the extension with instance view.
@@ -135,20 +219,30 @@ class LinuxDiskVolumeEncryptionMonitorImpl implements DiskVolumeEncryptionMonito
 
     /**
      * Retrieve the extension with latest state. If the extension could not be found then
-     * an empty observable will be returned.
+     * an empty observable will be returned, and the cached extension name is forgotten.
      *
-     * @param extension the extension name
+     * @param extensionName the extension name
      * @return an observable that emits the retrieved extension
      */
-    private Observable<VirtualMachineExtensionInner> retrieveExtensionWithInstanceViewAsync(VirtualMachineExtensionInner extension) {
+    private Observable<VirtualMachineExtensionInner> retrieveExtensionWithInstanceViewAsync(String extensionName) {
+        final DiskVolumeEncryptionWatcher watcher = this.computeManager.diskVolumeEncryptionWatcher();
         return this.computeManager
                 .inner()
                 .virtualMachineExtensions()
-                .getAsync(rgName, vmName, extension.name(), "instanceView")
+                .getAsync(rgName, vmName, extensionName, "instanceView")
+                .doOnError(new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        if (DiskVolumeEncryptionWatcher.isNotFound(throwable)) {
+                            watcher.invalidateEncryptionExtensionName(virtualMachineId);
+                        }
+                    }
+                })
                 .flatMap(new Func1<VirtualMachineExtensionInner, Observable<VirtualMachineExtensionInner>>() {
                     @Override
                     public Observable<VirtualMachineExtensionInner> call(VirtualMachineExtensionInner virtualMachineExtensionInner) {
                         if (virtualMachineExtensionInner == null) {
+                            watcher.invalidateEncryptionExtensionName(virtualMachineId);
                             return Observable.empty();
                         }
                         return Observable.just(virtualMachineExtensionInner);
@@ -175,15 +269,13 @@ class LinuxDiskVolumeEncryptionMonitorImpl implements DiskVolumeEncryptionMonito
                             return Observable.error(new Exception(String.format("VM with name '%s' not found (resource group '%s')",
                                     vmName, rgName)));
                         }
-                        if (virtualMachine.resources() != null) {
-                            for (VirtualMachineExtensionInner extension : virtualMachine.resources()) {
-                                if (extension.publisher().equalsIgnoreCase("Microsoft.Azure.Security")
-                                        && extension.virtualMachineExtensionType().equalsIgnoreCase("AzureDiskEncryptionForLinux")) {
-                                    return retrieveExtensionWithInstanceViewAsync(extension);
-                                }
-                            }
+                        VirtualMachineExtensionInner extension = DiskVolumeEncryptionWatcher.findEncryptionExtension(virtualMachine,
+                                ENCRYPTION_EXTENSION_TYPE);
+                        if (extension == null) {
+                            return Observable.empty();
                         }
-                        return Observable.empty();
+                        computeManager.diskVolumeEncryptionWatcher().cacheEncryptionExtensionName(virtualMachineId, extension.name());
+                        return retrieveExtensionWithInstanceViewAsync(extension.name());
                     }
                 });
     }
@@ -0,0 +1,473 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.Header;
+import retrofit2.http.Url;
+import rx.Completable;
+import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Downloads the content of a managed disk or snapshot exposed through a read SAS URI into a local file.
+ * <p>
+ * The page ranges of the underlying page blob are fetched in parallel over a bounded number of
+ * connections and written with positioned writes, so that unallocated ranges and ranges holding
+ * only zeros are never written and the resulting file is sparse. Completed ranges are recorded
+ * in a checkpoint file next to the target so that an interrupted transfer can be resumed.
+ */
+class ManagedDiskDownloader {
+    static final int DEFAULT_MAX_CONCURRENCY = 8;
+    static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_CHUNK_RETRIES = 3;
+    private static final String STORAGE_API_VERSION = "2016-05-31";
+    private static final String CHECKPOINT_SUFFIX = ".download";
+
+    private final PageBlobService service;
+    private final int maxConcurrency;
+    private final int chunkSize;
+
+    /**
+     * Creates ManagedDiskDownloader that uses the HTTP configuration of the given client without
+     * its credentials; the SAS URI carries its own authorization, so the management plane
+     * credentials must not be sent.
+     *
+     * @param restClient the client of the manager
+     */
+    ManagedDiskDownloader(RestClient restClient) {
+        this(anonymousRetrofit(restClient), DEFAULT_MAX_CONCURRENCY, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates ManagedDiskDownloader.
+     *
+     * @param retrofit the retrofit client used to reach the blob endpoint
+     * @param maxConcurrency the maximum number of ranges fetched concurrently
+     * @param chunkSize the maximum size of a single ranged request, a multiple of 512
+     */
+    ManagedDiskDownloader(Retrofit retrofit, int maxConcurrency, int chunkSize) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (chunkSize <= 0 || chunkSize % 512 != 0) {
+            throw new IllegalArgumentException("chunkSize must be a positive multiple of 512");
+        }
+        this.service = retrofit.create(PageBlobService.class);
+        this.maxConcurrency = maxConcurrency;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Grants access, downloads the content to the target file and revokes the access again,
+     * whether or not the download succeeded.
+     *
+     * @param grantAccess the deferred call granting read access and returning the SAS URI
+     * @param revokeAccess the deferred call revoking the access
+     * @param target the target file
+     * @return a representation of the deferred computation of this call
+     */
+    Completable downloadAsync(Observable<String> grantAccess, final Completable revokeAccess, final Path target) {
+        return grantAccess.last().flatMap(new Func1<String, Observable<Object>>() {
+            @Override
+            public Observable<Object> call(String sasUri) {
+                return downloadAsync(sasUri, target)
+                        .onErrorResumeNext(new Func1<Throwable, Completable>() {
+                            @Override
+                            public Completable call(Throwable throwable) {
+                                return revokeAccess.andThen(Completable.error(throwable));
+                            }
+                        })
+                        .andThen(revokeAccess)
+                        .toObservable();
+            }
+        }).toCompletable();
+    }
+
+    /**
+     * Downloads the page blob behind the given SAS URI into the target file, resuming from
+     * a previous checkpoint if one exists for the same blob.
+     *
+     * @param sasUri the read SAS URI
+     * @param target the target file
+     * @return a representation of the deferred computation of this call
+     */
+    Completable downloadAsync(final String sasUri, final Path target) {
+        return service.getProperties(sasUri, STORAGE_API_VERSION)
+                .flatMap(new Func1<Response<Void>, Observable<Object>>() {
+                    @Override
+                    public Observable<Object> call(Response<Void> response) {
+                        if (!response.isSuccessful()) {
+                            return Observable.error(new IOException("Unable to read blob properties, status code: " + response.code()));
+                        }
+                        final long length = Long.parseLong(response.headers().get("Content-Length"));
+                        final String version = blobVersion(response);
+                        return service.getPageRanges(pageListUri(sasUri), STORAGE_API_VERSION)
+                                .map(new Func1<ResponseBody, List<long[]>>() {
+                                    @Override
+                                    public List<long[]> call(ResponseBody responseBody) {
+                                        try {
+                                            return splitRanges(parsePageRanges(responseBody.byteStream()), chunkSize);
+                                        } catch (XMLStreamException e) {
+                                            throw Exceptions.propagate(e);
+                                        } finally {
+                                            responseBody.close();
+                                        }
+                                    }
+                                })
+                                .flatMap(new Func1<List<long[]>, Observable<Object>>() {
+                                    @Override
+                                    public Observable<Object> call(List<long[]> chunks) {
+                                        return downloadChunksAsync(sasUri, target, length, version, chunks).toObservable();
+                                    }
+                                });
+                    }
+                }).toCompletable();
+    }
+
+    private Completable downloadChunksAsync(final String sasUri, final Path target, final long length, final String version,
+                                            final List<long[]> chunks) {
+        return Completable.using(new Func0<Transfer>() {
+            @Override
+            public Transfer call() {
+                try {
+                    return new Transfer(target, length, version);
+                } catch (IOException e) {
+                    throw Exceptions.propagate(e);
+                }
+            }
+        }, new Func1<Transfer, Completable>() {
+            @Override
+            public Completable call(final Transfer transfer) {
+                return Observable.from(chunks)
+                        .filter(new Func1<long[], Boolean>() {
+                            @Override
+                            public Boolean call(long[] chunk) {
+                                return !transfer.isCompleted(chunk[0]);
+                            }
+                        })
+                        .flatMap(new Func1<long[], Observable<Void>>() {
+                            @Override
+                            public Observable<Void> call(long[] chunk) {
+                                return downloadChunkAsync(sasUri, transfer, version, chunk[0], chunk[1])
+                                        .subscribeOn(Schedulers.io());
+                            }
+                        }, maxConcurrency)
+                        .toCompletable()
+                        .doOnCompleted(new Action0() {
+                            @Override
+                            public void call() {
+                                try {
+                                    transfer.complete();
+                                } catch (IOException e) {
+                                    throw Exceptions.propagate(e);
+                                }
+                            }
+                        });
+            }
+        }, new Action1<Transfer>() {
+            @Override
+            public void call(Transfer transfer) {
+                transfer.close();
+            }
+        });
+    }
+
+    private Observable<Void> downloadChunkAsync(String sasUri, final Transfer transfer, String version, final long start, final long end) {
+        // A blob replaced during the transfer fails the ranges read after the replacement
+        String ifMatch = version.startsWith("\"") ? version : null;
+        return service.download(sasUri, STORAGE_API_VERSION, "bytes=" + start + "-" + end, ifMatch)
+                .map(new Func1<ResponseBody, Void>() {
+                    @Override
+                    public Void call(ResponseBody responseBody) {
+                        try {
+                            ByteBuffer buffer = ByteBuffer.allocate((int) (end - start + 1));
+                            readFully(responseBody.byteStream(), buffer);
+                            transfer.write(buffer, start);
+                            return null;
+                        } catch (IOException e) {
+                            throw Exceptions.propagate(e);
+                        } finally {
+                            responseBody.close();
+                        }
+                    }
+                })
+                .retry(MAX_CHUNK_RETRIES);
+    }
+
+    static Retrofit anonymousRetrofit(RestClient restClient) {
+        OkHttpClient.Builder httpClient = restClient.httpClient().newBuilder();
+        // The application interceptors add the management plane credentials, the network
+        // interceptors only log.
+        httpClient.interceptors().clear();
+        return new RestClient.Builder(httpClient, new Retrofit.Builder())
+                .withBaseUrl("https://localhost/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .build()
+                .retrofit();
+    }
+
+    /**
+     * Identifies the content of a blob, so that a checkpoint is only resumed for the same content.
+     *
+     * @param response the response to the Get Blob Properties request
+     * @return the ETag of the blob, or its last modified time if the ETag is missing, or an empty string
+     */
+    static String blobVersion(Response<Void> response) {
+        String version = response.headers().get("ETag");
+        if (version == null) {
+            version = response.headers().get("Last-Modified");
+        }
+        return version == null ? "" : version.trim();
+    }
+
+    static String pageListUri(String sasUri) {
+        return sasUri + (sasUri.contains("?") ? "&" : "?") + "comp=pagelist";
+    }
+
+    /**
+     * Parses the page list returned by the Get Page Ranges operation.
+     *
+     * @param stream the response content
+     * @return the allocated ranges as inclusive [start, end] pairs, ordered by start offset
+     * @throws XMLStreamException if the content is not a valid page list
+     */
+    static List<long[]> parsePageRanges(InputStream stream) throws XMLStreamException {
+        List<long[]> ranges = new ArrayList<>();
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+        try {
+            long start = -1;
+            String element = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    element = reader.getLocalName();
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    element = null;
+                } else if (event == XMLStreamConstants.CHARACTERS && element != null) {
+                    String text = reader.getText().trim();
+                    if (text.isEmpty()) {
+                        continue;
+                    }
+                    if (element.equals("Start")) {
+                        start = Long.parseLong(text);
+                    } else if (element.equals("End") && start >= 0) {
+                        ranges.add(new long[] {start, Long.parseLong(text)});
+                        start = -1;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return ranges;
+    }
+
+    /**
+     * Merges adjacent page ranges and splits them into chunks no larger than the given size.
+     *
+     * @param ranges the page ranges ordered by start offset
+     * @param chunkSize the maximum chunk size
+     * @return the chunks as inclusive [start, end] pairs
+     */
+    static List<long[]> splitRanges(List<long[]> ranges, int chunkSize) {
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last[1] + 1 >= range[0]) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(new long[] {range[0], range[1]});
+            }
+        }
+        List<long[]> chunks = new ArrayList<>();
+        for (long[] range : merged) {
+            for (long start = range[0]; start <= range[1]; start += chunkSize) {
+                chunks.add(new long[] {start, Math.min(range[1], start + chunkSize - 1)});
+            }
+        }
+        return chunks;
+    }
+
+    static Path checkpointPath(Path target) {
+        return Paths.get(target.toString() + CHECKPOINT_SUFFIX);
+    }
+
+    private static void readFully(InputStream stream, ByteBuffer buffer) throws IOException {
+        byte[] array = buffer.array();
+        while (buffer.hasRemaining()) {
+            int read = stream.read(array, buffer.position(), buffer.remaining());
+            if (read < 0) {
+                throw new IOException("Unexpected end of range content");
+            }
+            buffer.position(buffer.position() + read);
+        }
+        buffer.flip();
+    }
+
+    private static boolean isZero(ByteBuffer buffer) {
+        byte[] array = buffer.array();
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (array[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The state of a single transfer: the target channel and the checkpoint of completed chunks.
+     */
+    private static final class Transfer {
+        private final Path checkpoint;
+        private final long length;
+        private final String version;
+        private final Set<Long> completed = new HashSet<>();
+        private final FileChannel channel;
+        private final Writer checkpointWriter;
+
+        Transfer(Path target, long length, String version) throws IOException {
+            this.checkpoint = checkpointPath(target);
+            this.length = length;
+            this.version = version;
+            boolean resume = Files.exists(target) && Files.exists(checkpoint) && readCheckpoint();
+            if (resume) {
+                this.channel = FileChannel.open(target, StandardOpenOption.WRITE);
+            } else {
+                Files.deleteIfExists(target);
+                this.channel = FileChannel.open(target,
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.SPARSE);
+            }
+            this.checkpointWriter = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+                    resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            if (!resume) {
+                this.checkpointWriter.write(Long.toString(length));
+                this.checkpointWriter.write('\n');
+                this.checkpointWriter.write(version);
+                this.checkpointWriter.write('\n');
+                this.checkpointWriter.flush();
+            }
+        }
+
+        private boolean readCheckpoint() throws IOException {
+            try (BufferedReader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                if (line == null || Long.parseLong(line.trim()) != length) {
+                    // The checkpoint belongs to a different blob, start over.
+                    return false;
+                }
+                line = reader.readLine();
+                if (version.isEmpty() || line == null || !line.trim().equals(version)) {
+                    // The blob was replaced since the checkpoint, or its content cannot be identified.
+                    return false;
+                }
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        completed.add(Long.parseLong(line));
+                    }
+                }
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        synchronized boolean isCompleted(long start) {
+            return completed.contains(start);
+        }
+
+        void write(ByteBuffer buffer, long position) throws IOException {
+            // Ranges holding only zeros are left as holes in the sparse target file.
+            if (!isZero(buffer)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, position + buffer.position());
+                }
+            }
+            synchronized (this) {
+                completed.add(position);
+                checkpointWriter.write(Long.toString(position));
+                checkpointWriter.write('\n');
+                checkpointWriter.flush();
+            }
+        }
+
+        void complete() throws IOException {
+            if (channel.size() < length && length > 0) {
+                // Extend the file to the blob length when trailing pages are unallocated.
+                channel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+            }
+            channel.force(false);
+            close();
+            Files.deleteIfExists(checkpoint);
+        }
+
+        synchronized void close() {
+            try {
+                checkpointWriter.close();
+            } catch (IOException ignored) {
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * A Retrofit service used to read a page blob through its SAS URI.
+     */
+    private interface PageBlobService {
+        @HEAD
+        Observable<Response<Void>> getProperties(@Url String url, @Header("x-ms-version") String version);
+
+        @GET
+        Observable<ResponseBody> getPageRanges(@Url String url, @Header("x-ms-version") String version);
+
+        @GET
+        Observable<ResponseBody> download(@Url String url, @Header("x-ms-version") String version, @Header("x-ms-range") String range,
+                                          @Header("If-Match") String ifMatch);
+    }
+}
@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.google.common.io.BaseEncoding;
+import com.microsoft.azure.management.storage.StorageAccount;
+import com.microsoft.azure.management.storage.StorageAccountKey;
+import com.microsoft.azure.management.storage.implementation.StorageAccountSasSigner;
+import com.microsoft.rest.RestClient;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import org.joda.time.DateTime;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.Body;
+import retrofit2.http.DELETE;
+import retrofit2.http.Header;
+import retrofit2.http.PUT;
+import retrofit2.http.Url;
+import rx.Completable;
+import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.schedulers.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uploads a local fixed-size VHD file into a page blob so that a managed disk can be imported from it.
+ * <p>
+ * The file is memory-mapped and split into ranges of at most 4 MB, the maximum size of a single
+ * Put Page operation. Ranges holding only zeros are skipped, the remaining ones are uploaded
+ * concurrently with their MD5 hash so that the service verifies the content, and the number of
+ * ranges in flight is bounded so that the bytes held in memory stay bounded as well.
+ */
+class ManagedDiskUploader {
+    static final int MAX_PAGE_RANGE_SIZE = 4 * 1024 * 1024;
+    static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 32L * 1024 * 1024;
+    private static final int MAX_RANGE_RETRIES = 3;
+    private static final String STORAGE_API_VERSION = StorageAccountSasSigner.SERVICE_VERSION;
+    private static final String SAS_SERVICES = "b";
+    private static final String SAS_RESOURCE_TYPES = "co";
+    private static final String SAS_PERMISSIONS = "rwdlc";
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private final PageBlobService service;
+    private final StorageAccountSasSigner sasSigner;
+    private final int chunkSize;
+    private final int maxConcurrency;
+
+    /**
+     * Creates ManagedDiskUploader that uses the HTTP configuration of the given client without its
+     * credentials; requests are authorized with an account SAS, so the management plane credentials
+     * must not be sent.
+     *
+     * @param restClient the client of the compute manager
+     * @param sasSigner the signer of the account SAS, with cached storage account keys
+     */
+    ManagedDiskUploader(RestClient restClient, StorageAccountSasSigner sasSigner) {
+        this(ManagedDiskDownloader.anonymousRetrofit(restClient), sasSigner, MAX_PAGE_RANGE_SIZE, DEFAULT_MAX_IN_FLIGHT_BYTES);
+    }
+
+    /**
+     * Creates ManagedDiskUploader.
+     *
+     * @param retrofit the retrofit client used to reach the blob endpoint
+     * @param chunkSize the size of a single Put Page request, a multiple of 512 no larger than 4 MB
+     * @param maxInFlightBytes the maximum number of bytes being uploaded at the same time
+     */
+    ManagedDiskUploader(Retrofit retrofit, int chunkSize, long maxInFlightBytes) {
+        this(retrofit, null, chunkSize, maxInFlightBytes);
+    }
+
+    /**
+     * Creates ManagedDiskUploader.
+     *
+     * @param retrofit the retrofit client used to reach the blob endpoint
+     * @param sasSigner the signer of the account SAS, null to list the storage account keys for each call
+     * @param chunkSize the size of a single Put Page request, a multiple of 512 no larger than 4 MB
+     * @param maxInFlightBytes the maximum number of bytes being uploaded at the same time
+     */
+    ManagedDiskUploader(Retrofit retrofit, StorageAccountSasSigner sasSigner, int chunkSize, long maxInFlightBytes) {
+        if (chunkSize <= 0 || chunkSize % 512 != 0 || chunkSize > MAX_PAGE_RANGE_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be a positive multiple of 512 no larger than 4 MB");
+        }
+        this.service = retrofit.create(PageBlobService.class);
+        this.sasSigner = sasSigner;
+        this.chunkSize = chunkSize;
+        this.maxConcurrency = (int) Math.max(1, maxInFlightBytes / chunkSize);
+    }
+
+    /**
+     * Uploads the VHD into a page blob in the given storage account.
+     *
+     * @param vhd the local VHD file
+     * @param storageAccount the storage account to stage the page blob in
+     * @param containerName the container name, created if it does not exist
+     * @param blobName the page blob name
+     * @return an observable that emits the URL of the staged page blob
+     */
+    Observable<String> stageAsync(final Path vhd, final StorageAccount storageAccount, final String containerName, final String blobName) {
+        final String containerUrl = storageAccount.endPoints().primary().blob() + containerName;
+        return accountSasAsync(storageAccount)
+                .flatMap(new Func1<String, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(final String sas) {
+                        return createContainerAsync(containerUrl, sas)
+                                .andThen(uploadAsync(vhd, containerUrl + "/" + blobName, sas));
+                    }
+                });
+    }
+
+    /**
+     * Deletes a page blob staged by {@link #stageAsync(Path, StorageAccount, String, String)}.
+     *
+     * @param storageAccount the storage account the page blob is staged in
+     * @param blobUrl the page blob URL
+     * @return a representation of the deferred computation of this call
+     */
+    Completable deleteStagedAsync(StorageAccount storageAccount, final String blobUrl) {
+        return accountSasAsync(storageAccount)
+                .flatMap(new Func1<String, Observable<Response<ResponseBody>>>() {
+                    @Override
+                    public Observable<Response<ResponseBody>> call(String sas) {
+                        return service.delete(signedUrl(blobUrl, sas), STORAGE_API_VERSION)
+                                .map(new Func1<Response<ResponseBody>, Response<ResponseBody>>() {
+                                    @Override
+                                    public Response<ResponseBody> call(Response<ResponseBody> response) {
+                                        return checkResponse(response, 404);
+                                    }
+                                });
+                    }
+                }).toCompletable();
+    }
+
+    /**
+     * Creates the container if it does not exist.
+     *
+     * @param containerUrl the container URL
+     * @param sas the SAS token authorizing the request
+     * @return a representation of the deferred computation of this call
+     */
+    Completable createContainerAsync(String containerUrl, String sas) {
+        return service.createContainer(signedUrl(containerUrl + "?restype=container", sas), STORAGE_API_VERSION, emptyBody())
+                .map(new Func1<Response<ResponseBody>, Response<ResponseBody>>() {
+                    @Override
+                    public Response<ResponseBody> call(Response<ResponseBody> response) {
+                        // 409 (ContainerAlreadyExists) is expected when the container is reused.
+                        return checkResponse(response, 409);
+                    }
+                }).toCompletable();
+    }
+
+    /**
+     * Creates a page blob with the size of the VHD and uploads the non-zero ranges of the file.
+     *
+     * @param vhd the local VHD file
+     * @param blobUrl the page blob URL
+     * @param sas the SAS token authorizing the requests
+     * @return an observable that emits the page blob URL once all ranges are uploaded
+     */
+    Observable<String> uploadAsync(final Path vhd, final String blobUrl, final String sas) {
+        return Observable.using(new Func0<FileChannel>() {
+            @Override
+            public FileChannel call() {
+                try {
+                    return FileChannel.open(vhd, StandardOpenOption.READ);
+                } catch (IOException e) {
+                    throw Exceptions.propagate(e);
+                }
+            }
+        }, new Func1<FileChannel, Observable<String>>() {
+            @Override
+            public Observable<String> call(final FileChannel channel) {
+                final long length;
+                try {
+                    length = channel.size();
+                } catch (IOException e) {
+                    return Observable.error(e);
+                }
+                if (length % 512 != 0) {
+                    return Observable.error(new IllegalArgumentException("The size of a fixed VHD must be a multiple of 512 bytes"));
+                }
+                return service.createPageBlob(signedUrl(blobUrl, sas), STORAGE_API_VERSION, "PageBlob", length, emptyBody())
+                        .map(new Func1<Response<ResponseBody>, Response<ResponseBody>>() {
+                            @Override
+                            public Response<ResponseBody> call(Response<ResponseBody> response) {
+                                return checkResponse(response);
+                            }
+                        })
+                        .flatMap(new Func1<Response<ResponseBody>, Observable<Void>>() {
+                            @Override
+                            public Observable<Void> call(Response<ResponseBody> response) {
+                                return Observable.from(chunks(length, chunkSize))
+                                        .flatMap(new Func1<long[], Observable<Void>>() {
+                                            @Override
+                                            public Observable<Void> call(long[] chunk) {
+                                                return uploadRangeAsync(channel, blobUrl, sas, chunk[0], chunk[1])
+                                                        .subscribeOn(Schedulers.io());
+                                            }
+                                        }, maxConcurrency);
+                            }
+                        })
+                        .toCompletable()
+                        .andThen(Observable.just(blobUrl));
+            }
+        }, new Action1<FileChannel>() {
+            @Override
+            public void call(FileChannel channel) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+    }
+
+    private Observable<Void> uploadRangeAsync(final FileChannel channel, final String blobUrl, final String sas, final long start, final long end) {
+        return Observable.defer(new Func0<Observable<Void>>() {
+            @Override
+            public Observable<Void> call() {
+                final byte[] content;
+                final String md5;
+                try {
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start + 1);
+                    if (isZero(mapped)) {
+                        // A freshly created page blob reads as zeros, there is nothing to write.
+                        return Observable.empty();
+                    }
+                    content = new byte[mapped.remaining()];
+                    mapped.get(content);
+                    md5 = BaseEncoding.base64().encode(MessageDigest.getInstance("MD5").digest(content));
+                } catch (IOException | GeneralSecurityException e) {
+                    return Observable.error(e);
+                }
+                return service.putPage(signedUrl(blobUrl + "?comp=page", sas),
+                        STORAGE_API_VERSION,
+                        "update",
+                        "bytes=" + start + "-" + end,
+                        md5,
+                        RequestBody.create(OCTET_STREAM, content))
+                        .map(new Func1<Response<ResponseBody>, Void>() {
+                            @Override
+                            public Void call(Response<ResponseBody> response) {
+                                checkResponse(response);
+                                return null;
+                            }
+                        })
+                        .retry(new Func2<Integer, Throwable, Boolean>() {
+                            @Override
+                            public Boolean call(Integer attempt, Throwable throwable) {
+                                return attempt <= MAX_RANGE_RETRIES && isTransient(throwable);
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * @param throwable the error of a blob request
+     * @return true if the request failed for a network error or a server error, rather than being rejected
+     */
+    static boolean isTransient(Throwable throwable) {
+        if (throwable instanceof RuntimeException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        if (throwable instanceof BlobRequestException) {
+            return ((BlobRequestException) throwable).statusCode >= 500;
+        }
+        return throwable instanceof IOException;
+    }
+
+    private Observable<String> accountSasAsync(final StorageAccount storageAccount) {
+        final DateTime expiry = DateTime.now().plusDays(1);
+        if (sasSigner != null) {
+            return sasSigner.accountSasAsync(storageAccount, SAS_SERVICES, SAS_RESOURCE_TYPES, SAS_PERMISSIONS, expiry);
+        }
+        return storageAccount.getKeysAsync()
+                .map(new Func1<List<StorageAccountKey>, String>() {
+                    @Override
+                    public String call(List<StorageAccountKey> keys) {
+                        return accountSas(storageAccount.name(), keys.get(0).value(), expiry);
+                    }
+                });
+    }
+
+    /**
+     * Creates an account SAS token granting read, write, delete, list and create permissions
+     * on blob service containers and objects.
+     *
+     * @param accountName the storage account name
+     * @param accountKey the base64 encoded storage account key
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    static String accountSas(String accountName, String accountKey, DateTime expiry) {
+        return StorageAccountSasSigner.accountSas(accountName, accountKey, SAS_SERVICES, SAS_RESOURCE_TYPES, SAS_PERMISSIONS, expiry);
+    }
+
+    static List<long[]> chunks(long length, int chunkSize) {
+        List<long[]> chunks = new ArrayList<>();
+        for (long start = 0; start < length; start += chunkSize) {
+            chunks.add(new long[] {start, Math.min(length, start + chunkSize) - 1});
+        }
+        return chunks;
+    }
+
+    private static String signedUrl(String url, String sas) {
+        return url + (url.contains("?") ? "&" : "?") + sas;
+    }
+
+    private static RequestBody emptyBody() {
+        return RequestBody.create(OCTET_STREAM, new byte[0]);
+    }
+
+    private static Response<ResponseBody> checkResponse(Response<ResponseBody> response, int... acceptedCodes) {
+        // The content of these responses is never read, release the connection right away.
+        if (response.body() != null) {
+            response.body().close();
+        }
+        if (response.errorBody() != null) {
+            response.errorBody().close();
+        }
+        if (response.isSuccessful()) {
+            return response;
+        }
+        for (int code : acceptedCodes) {
+            if (response.code() == code) {
+                return response;
+            }
+        }
+        throw Exceptions.propagate(new BlobRequestException(response.raw().request().method(), response.code()));
+    }
+
+    private static boolean isZero(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A blob request answered with an error status.
+     */
+    private static class BlobRequestException extends IOException {
+        private final int statusCode;
+
+        BlobRequestException(String method, int statusCode) {
+            super("Blob request '" + method + "' failed with status code: " + statusCode);
+            this.statusCode = statusCode;
+        }
+    }
+
+    /**
+     * A Retrofit service used to write a page blob through an account SAS.
+     */
+    private interface PageBlobService {
+        @PUT
+        Observable<Response<ResponseBody>> createContainer(@Url String url, @Header("x-ms-version") String version, @Body RequestBody body);
+
+        @PUT
+        Observable<Response<ResponseBody>> createPageBlob(@Url String url, @Header("x-ms-version") String version,
+                                                         @Header("x-ms-blob-type") String blobType,
+                                                         @Header("x-ms-blob-content-length") long length,
+                                                         @Body RequestBody body);
+
+        @PUT
+        Observable<Response<ResponseBody>> putPage(@Url String url, @Header("x-ms-version") String version,
+                                                  @Header("x-ms-page-write") String pageWrite,
+                                                  @Header("x-ms-range") String range,
+                                                  @Header("Content-MD5") String md5,
+                                                  @Body RequestBody body);
+
+        @DELETE
+        Observable<Response<ResponseBody>> delete(@Url String url, @Header("x-ms-version") String version);
+    }
+}
@@ -0,0 +1,390 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.compute.QuotaExceededException;
+import com.microsoft.azure.management.compute.VirtualMachineScaleSetNetworkProfile;
+import com.microsoft.azure.management.compute.VirtualMachineSizeTypes;
+import com.microsoft.azure.management.network.NetworkUsage;
+import com.microsoft.azure.management.network.implementation.NetworkManager;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.management.resources.fluentcore.collection.SupportsBatchCreation;
+import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks the quota demand of a batch of virtual machines or virtual machine scale sets against the
+ * remaining compute and network quota of the subscription before anything is created.
+ * <p>
+ * The demand of a batch is the number of cores of each virtual machine size, counted against both the
+ * regional and the size family core quota, and the number of network interfaces and public IP addresses
+ * created along with the virtual machines, or with each instance of the scale sets. A batch with a virtual
+ * machine size not offered in the region is rejected.
+ */
+class QuotaAdmission {
+    static final String REGIONAL_CORES_QUOTA = "cores";
+    static final String NETWORK_INTERFACES_QUOTA = "NetworkInterfaces";
+    static final String PUBLIC_IP_ADDRESSES_QUOTA = "PublicIPAddresses";
+
+    private final ComputeManager computeManager;
+    private final NetworkManager networkManager;
+
+    /**
+     * Creates QuotaAdmission.
+     *
+     * @param computeManager the compute manager
+     * @param networkManager the network manager
+     */
+    QuotaAdmission(ComputeManager computeManager, NetworkManager networkManager) {
+        this.computeManager = computeManager;
+        this.networkManager = networkManager;
+    }
+
+    /**
+     * Checks that a batch fits in the remaining quota as a whole.
+     *
+     * @param creatables the batch
+     * @param <T> the type of the resources in the batch
+     * @return an observable that emits the batch if it fits, or a {@link QuotaExceededException}
+     */
+    <T extends Indexable> Observable<List<Creatable<T>>> admitAsync(final List<Creatable<T>> creatables) {
+        final List<Demand> demands = demandsOf(creatables);
+        return headroomAsync(demands).map(new Func1<Map<String, Headroom>, List<Creatable<T>>>() {
+            @Override
+            public List<Creatable<T>> call(Map<String, Headroom> headroom) {
+                Ledger ledger = new Ledger(headroom);
+                for (Demand demand : demands) {
+                    ledger.add(demand);
+                }
+                QuotaExceededException exceeded = ledger.firstExceeded();
+                if (exceeded != null) {
+                    throw exceeded;
+                }
+                return creatables;
+            }
+        });
+    }
+
+    /**
+     * Creates a batch in consecutive waves. Each wave is the longest run of the remaining creatables that
+     * fits in the quota observed right before the wave; quota usage is read again between waves.
+     * Creation stops with a {@link QuotaExceededException} as soon as not even the next creatable fits,
+     * the resources created by the earlier waves are kept.
+     *
+     * @param collection the collection used to create each wave
+     * @param creatables the batch
+     * @param <T> the type of the resources in the batch
+     * @return an observable that emits the created resources
+     */
+    <T extends Indexable> Observable<T> createInWavesAsync(final SupportsBatchCreation<T> collection,
+                                                           final List<Creatable<T>> creatables) {
+        if (creatables.isEmpty()) {
+            return Observable.empty();
+        }
+        final List<Demand> demands = demandsOf(creatables);
+        return headroomAsync(demands).flatMap(new Func1<Map<String, Headroom>, Observable<T>>() {
+            @Override
+            public Observable<T> call(Map<String, Headroom> headroom) {
+                Ledger ledger = new Ledger(headroom);
+                int count = 0;
+                while (count < creatables.size() && ledger.tryAdd(demands.get(count))) {
+                    count++;
+                }
+                if (count == 0) {
+                    return Observable.error(ledger.exceededBy(demands.get(0)));
+                }
+                final List<Creatable<T>> wave = new ArrayList<>(creatables.subList(0, count));
+                final List<Creatable<T>> remaining = new ArrayList<>(creatables.subList(count, creatables.size()));
+                return createdAsync(collection, wave).concatWith(Observable.defer(new Func0<Observable<T>>() {
+                    @Override
+                    public Observable<T> call() {
+                        return createInWavesAsync(collection, remaining);
+                    }
+                }));
+            }
+        });
+    }
+
+    /**
+     * Gets the quota demand of a creatable.
+     *
+     * @param creatable the creatable
+     * @return the demand, null if the creatable is not a virtual machine or a virtual machine scale set
+     */
+    static Demand demandOf(Creatable<?> creatable) {
+        if (creatable instanceof VirtualMachineImpl) {
+            VirtualMachineImpl virtualMachine = (VirtualMachineImpl) creatable;
+            // Size defaults to Basic_A0 when the virtual machine is created
+            VirtualMachineSizeTypes size = virtualMachine.inner().hardwareProfile().vmSize();
+            return new Demand(Region.fromName(virtualMachine.regionName()),
+                    (size != null ? size : VirtualMachineSizeTypes.BASIC_A0).toString(),
+                    1,
+                    virtualMachine.newNetworkInterfaceCount(),
+                    virtualMachine.newPublicIPAddressCount());
+        } else if (creatable instanceof VirtualMachineScaleSetImpl) {
+            VirtualMachineScaleSetImpl scaleSet = (VirtualMachineScaleSetImpl) creatable;
+            // Capacity defaults to 2 when the scale set is created
+            Long capacity = scaleSet.inner().sku().capacity();
+            long instanceCount = capacity != null ? capacity : 2;
+            int networkInterfaces = 0;
+            int publicIPAddresses = 0;
+            VirtualMachineScaleSetNetworkProfile networkProfile = scaleSet.inner().virtualMachineProfile() != null
+                    ? scaleSet.inner().virtualMachineProfile().networkProfile()
+                    : null;
+            if (networkProfile != null && networkProfile.networkInterfaceConfigurations() != null) {
+                for (VirtualMachineScaleSetNetworkConfigurationInner nicConfiguration
+                        : networkProfile.networkInterfaceConfigurations()) {
+                    networkInterfaces++;
+                    if (nicConfiguration.ipConfigurations() == null) {
+                        continue;
+                    }
+                    for (VirtualMachineScaleSetIPConfigurationInner ipConfiguration : nicConfiguration.ipConfigurations()) {
+                        if (ipConfiguration.publicIPAddressConfiguration() != null) {
+                            publicIPAddresses++;
+                        }
+                    }
+                }
+            }
+            // Each instance of the scale set gets its own network interfaces and public IP addresses
+            return new Demand(Region.fromName(scaleSet.regionName()),
+                    scaleSet.inner().sku().name(),
+                    instanceCount,
+                    networkInterfaces * instanceCount,
+                    publicIPAddresses * instanceCount);
+        }
+        return null;
+    }
+
+    private static <T extends Indexable> List<Demand> demandsOf(List<Creatable<T>> creatables) {
+        List<Demand> demands = new ArrayList<>(creatables.size());
+        for (Creatable<T> creatable : creatables) {
+            demands.add(demandOf(creatable));
+        }
+        return demands;
+    }
+
+    private Observable<Map<String, Headroom>> headroomAsync(List<Demand> demands) {
+        Set<Region> regions = new HashSet<>();
+        for (Demand demand : demands) {
+            if (demand != null) {
+                regions.add(demand.region);
+            }
+        }
+        return Observable.from(regions)
+                .flatMap(new Func1<Region, Observable<Headroom>>() {
+                    @Override
+                    public Observable<Headroom> call(Region region) {
+                        return Observable.zip(
+                                computeManager.virtualMachineCapacityIndexes().refreshAsync(region),
+                                networkManager.usages().listByRegionAsync(region).toList(),
+                                new Func2<VirtualMachineCapacityIndexImpl, List<NetworkUsage>, Headroom>() {
+                                    @Override
+                                    public Headroom call(VirtualMachineCapacityIndexImpl index, List<NetworkUsage> usages) {
+                                        return new Headroom(index, usages);
+                                    }
+                                });
+                    }
+                })
+                .toMap(new Func1<Headroom, String>() {
+                    @Override
+                    public String call(Headroom headroom) {
+                        return headroom.index.region().name();
+                    }
+                });
+    }
+
+    private static <T extends Indexable> Observable<T> createdAsync(SupportsBatchCreation<T> collection,
+                                                                    List<Creatable<T>> wave) {
+        final Set<String> keys = new HashSet<>();
+        for (Creatable<T> creatable : wave) {
+            keys.add(creatable.key());
+        }
+        return collection.createAsync(wave)
+                .filter(new Func1<Indexable, Boolean>() {
+                    @Override
+                    public Boolean call(Indexable resource) {
+                        return keys.contains(resource.key());
+                    }
+                })
+                .map(new Func1<Indexable, T>() {
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public T call(Indexable resource) {
+                        return (T) resource;
+                    }
+                });
+    }
+
+    /**
+     * The quota demand of a virtual machine or a virtual machine scale set.
+     */
+    static class Demand {
+        private final Region region;
+        private final String sizeName;
+        private final long instanceCount;
+        private final long networkInterfaces;
+        private final long publicIPAddresses;
+
+        Demand(Region region, String sizeName, long instanceCount, long networkInterfaces, long publicIPAddresses) {
+            this.region = region;
+            this.sizeName = sizeName;
+            this.instanceCount = instanceCount;
+            this.networkInterfaces = networkInterfaces;
+            this.publicIPAddresses = publicIPAddresses;
+        }
+    }
+
+    /**
+     * The remaining quota of a region.
+     */
+    static class Headroom {
+        private final VirtualMachineCapacityIndexImpl index;
+        private final Map<String, Long> network = new HashMap<>();
+
+        Headroom(VirtualMachineCapacityIndexImpl index, List<NetworkUsage> usages) {
+            this.index = index;
+            for (NetworkUsage usage : usages) {
+                if (usage.name() != null && usage.name().value() != null) {
+                    network.put(usage.name().value().toLowerCase(), Math.max(0, usage.limit() - usage.currentValue()));
+                }
+            }
+        }
+
+        /**
+         * @param demand the demand
+         * @return the amount the demand needs from each quota, keyed by quota name
+         * @throws IllegalArgumentException if the virtual machine size of the demand is not known in the region
+         */
+        Map<String, Long> quotasOf(Demand demand) {
+            Map<String, Long> quotas = new LinkedHashMap<>();
+            Integer cores = demand.sizeName != null ? index.numberOfCores(demand.sizeName) : null;
+            if (cores == null) {
+                // The cores of an unknown size cannot be counted, admitting it would hide its demand
+                throw new IllegalArgumentException(String.format(
+                        "Virtual machine size '%s' is not available in region '%s'",
+                        demand.sizeName, demand.region.name()));
+            }
+            long total = cores * demand.instanceCount;
+            quotas.put(REGIONAL_CORES_QUOTA, total);
+            String family = index.familyOf(demand.sizeName);
+            if (family != null) {
+                quotas.put(family, total);
+            }
+            if (demand.networkInterfaces > 0) {
+                quotas.put(NETWORK_INTERFACES_QUOTA, demand.networkInterfaces);
+            }
+            if (demand.publicIPAddresses > 0) {
+                quotas.put(PUBLIC_IP_ADDRESSES_QUOTA, demand.publicIPAddresses);
+            }
+            return quotas;
+        }
+
+        /**
+         * @param quotaName the quota name
+         * @param demand a demand that uses the quota
+         * @return the remaining amount of the quota, Long.MAX_VALUE if not known
+         */
+        long available(String quotaName, Demand demand) {
+            if (REGIONAL_CORES_QUOTA.equals(quotaName)) {
+                return index.remainingRegionalCores();
+            } else if (NETWORK_INTERFACES_QUOTA.equals(quotaName) || PUBLIC_IP_ADDRESSES_QUOTA.equals(quotaName)) {
+                Long remaining = network.get(quotaName.toLowerCase());
+                return remaining != null ? remaining : Long.MAX_VALUE;
+            }
+            return index.remainingFamilyCores(demand.sizeName);
+        }
+    }
+
+    /**
+     * Adds up the demands of a batch per region and quota.
+     */
+    static class Ledger {
+        private final Map<String, Headroom> headroom;
+        private final Map<String, Long> required = new LinkedHashMap<>();
+        private final Map<String, Long> available = new HashMap<>();
+        private final Map<String, Region> regions = new HashMap<>();
+
+        Ledger(Map<String, Headroom> headroom) {
+            this.headroom = headroom;
+        }
+
+        void add(Demand demand) {
+            if (demand == null) {
+                return;
+            }
+            Headroom regionHeadroom = headroom.get(demand.region.name());
+            for (Map.Entry<String, Long> quota : regionHeadroom.quotasOf(demand).entrySet()) {
+                String key = track(demand, regionHeadroom, quota.getKey());
+                required.put(key, required.get(key) + quota.getValue());
+            }
+        }
+
+        boolean tryAdd(Demand demand) {
+            if (demand == null) {
+                return true;
+            }
+            Headroom regionHeadroom = headroom.get(demand.region.name());
+            for (Map.Entry<String, Long> quota : regionHeadroom.quotasOf(demand).entrySet()) {
+                String key = track(demand, regionHeadroom, quota.getKey());
+                if (required.get(key) + quota.getValue() > available.get(key)) {
+                    return false;
+                }
+            }
+            add(demand);
+            return true;
+        }
+
+        QuotaExceededException firstExceeded() {
+            for (Map.Entry<String, Long> entry : required.entrySet()) {
+                if (entry.getValue() > available.get(entry.getKey())) {
+                    return exception(entry.getKey(), entry.getValue());
+                }
+            }
+            return null;
+        }
+
+        QuotaExceededException exceededBy(Demand demand) {
+            Headroom regionHeadroom = headroom.get(demand.region.name());
+            for (Map.Entry<String, Long> quota : regionHeadroom.quotasOf(demand).entrySet()) {
+                String key = track(demand, regionHeadroom, quota.getKey());
+                long total = required.get(key) + quota.getValue();
+                if (total > available.get(key)) {
+                    return exception(key, total);
+                }
+            }
+            return null;
+        }
+
+        private String track(Demand demand, Headroom regionHeadroom, String quotaName) {
+            String key = demand.region.name() + "/" + quotaName;
+            if (!required.containsKey(key)) {
+                required.put(key, 0L);
+                available.put(key, regionHeadroom.available(quotaName, demand));
+                regions.put(key, demand.region);
+            }
+            return key;
+        }
+
+        private QuotaExceededException exception(String key, long total) {
+            return new QuotaExceededException(regions.get(key),
+                    key.substring(key.indexOf('/') + 1),
+                    total,
+                    available.get(key));
+        }
+    }
+}
@@ -10,6 +10,7 @@ package com.microsoft.azure.management.compute.implementation;
 
 import com.microsoft.azure.management.compute.ResourceSkuCapacity;
 import java.util.List;
+import com.microsoft.azure.management.compute.ResourceSkuLocationInfo;
 import com.microsoft.azure.management.compute.ResourceSkuCosts;
 import com.microsoft.azure.management.compute.ResourceSkuCapabilities;
 import com.microsoft.azure.management.compute.ResourceSkuRestrictions;
@@ -67,6 +68,13 @@ public class ResourceSkuInner {
     @JsonProperty(value = "locations", access = JsonProperty.Access.WRITE_ONLY)
     private List<String> locations;
 
+    /**
+     * A list of locations and availability zones in those locations where the
+     * SKU is available.
+     */
+    @JsonProperty(value = "locationInfo", access = JsonProperty.Access.WRITE_ONLY)
+    private List<ResourceSkuLocationInfo> locationInfo;
+
     /**
      * The api versions that support this SKU.
      */
@@ -164,6 +172,15 @@ public class ResourceSkuInner {
         return this.locations;
     }
 
+    /**
+     * Get the locationInfo value.
+     *
+     * @return the locationInfo value
+     */
+    public List<ResourceSkuLocationInfo> locationInfo() {
+        return this.locationInfo;
+    }
+
     /**
      * Get the apiVersions value.
      *
@@ -24,6 +24,8 @@ import rx.Completable;
 import rx.Observable;
 import rx.functions.Func1;
 
+import java.io.File;
+
 /**
  * The implementation for Snapshot and its create and update interfaces.
  */
@@ -113,6 +115,18 @@ class SnapshotImpl
         return ServiceFuture.fromBody(this.revokeAccessAsync(), callback);
     }
 
+    @Override
+    public void downloadToFile(File file, int accessDurationInSeconds) {
+        this.downloadToFileAsync(file, accessDurationInSeconds).await();
+    }
+
+    @Override
+    public Completable downloadToFileAsync(File file, int accessDurationInSeconds) {
+        return new ManagedDiskDownloader(manager().inner().restClient()).downloadAsync(this.grantAccessAsync(accessDurationInSeconds),
+                this.revokeAccessAsync(),
+                file.toPath());
+    }
+
     @Override
     public SnapshotImpl withLinuxFromVhd(String vhdUrl) {
         this.inner()
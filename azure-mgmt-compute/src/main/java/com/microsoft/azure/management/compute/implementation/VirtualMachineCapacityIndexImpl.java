@@ -0,0 +1,308 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.compute.ResourceSkuLocationInfo;
+import com.microsoft.azure.management.compute.ResourceSkuRestrictions;
+import com.microsoft.azure.management.compute.ResourceSkuRestrictionsType;
+import com.microsoft.azure.management.compute.VirtualMachineCapacityIndex;
+import com.microsoft.azure.management.compute.VirtualMachineSize;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The implementation for {@link VirtualMachineCapacityIndex}.
+ */
+@LangDefinition
+class VirtualMachineCapacityIndexImpl implements VirtualMachineCapacityIndex {
+    private static final String VIRTUAL_MACHINES_RESOURCE_TYPE = "virtualMachines";
+    private static final String REGIONAL_CORES_QUOTA = "cores";
+
+    private final Region region;
+    private final DateTime refreshedTime;
+    // Ordered by number of cores, then memory, then name
+    private final Entry[] entries;
+    private final int[] cores;
+    private final Map<String, Entry> entriesByName;
+    private final long remainingRegionalCores;
+
+    /**
+     * Creates VirtualMachineCapacityIndexImpl.
+     *
+     * @param region the region
+     * @param refreshedTime the time the service data was retrieved
+     * @param sizes the virtual machine sizes in the region
+     * @param skus the compute resource SKUs of the subscription, in all regions
+     * @param usages the compute usages in the region
+     */
+    VirtualMachineCapacityIndexImpl(Region region,
+                                    DateTime refreshedTime,
+                                    List<VirtualMachineSizeInner> sizes,
+                                    List<ResourceSkuInner> skus,
+                                    List<UsageInner> usages) {
+        this.region = region;
+        this.refreshedTime = refreshedTime;
+
+        Map<String, Long> remainingByQuota = new HashMap<>();
+        for (UsageInner usage : usages) {
+            if (usage.name() != null && usage.name().value() != null) {
+                remainingByQuota.put(usage.name().value().toLowerCase(), Math.max(0, usage.limit() - usage.currentValue()));
+            }
+        }
+        Long regional = remainingByQuota.get(REGIONAL_CORES_QUOTA);
+        this.remainingRegionalCores = regional != null ? regional : Long.MAX_VALUE;
+
+        Map<String, ResourceSkuInner> skusByName = new HashMap<>();
+        for (ResourceSkuInner sku : skus) {
+            if (VIRTUAL_MACHINES_RESOURCE_TYPE.equalsIgnoreCase(sku.resourceType())
+                    && sku.name() != null
+                    && isInRegion(sku, region)) {
+                skusByName.put(sku.name().toLowerCase(), sku);
+            }
+        }
+
+        List<Entry> list = new ArrayList<>(sizes.size());
+        for (VirtualMachineSizeInner size : sizes) {
+            if (size.name() == null) {
+                continue;
+            }
+            ResourceSkuInner sku = skusByName.get(size.name().toLowerCase());
+            Entry entry = new Entry(new VirtualMachineSizeImpl(size));
+            if (sku != null) {
+                entry.zones.addAll(zonesOf(sku, region));
+                applyRestrictions(entry, sku, region);
+                if (sku.family() != null) {
+                    entry.family = sku.family().toLowerCase();
+                    Long family = remainingByQuota.get(sku.family().toLowerCase());
+                    if (family != null) {
+                        entry.remainingFamilyCores = family;
+                    }
+                }
+            }
+            list.add(entry);
+        }
+        Collections.sort(list, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry left, Entry right) {
+                int result = Integer.compare(left.size.numberOfCores(), right.size.numberOfCores());
+                if (result == 0) {
+                    result = Integer.compare(left.size.memoryInMB(), right.size.memoryInMB());
+                }
+                if (result == 0) {
+                    result = left.size.name().compareToIgnoreCase(right.size.name());
+                }
+                return result;
+            }
+        });
+        this.entries = list.toArray(new Entry[list.size()]);
+        this.cores = new int[entries.length];
+        this.entriesByName = new HashMap<>();
+        for (int i = 0; i < entries.length; i++) {
+            cores[i] = entries[i].size.numberOfCores();
+            entriesByName.put(entries[i].size.name().toLowerCase(), entries[i]);
+        }
+    }
+
+    @Override
+    public Region region() {
+        return region;
+    }
+
+    @Override
+    public DateTime refreshedTime() {
+        return refreshedTime;
+    }
+
+    @Override
+    public List<VirtualMachineSize> sizes() {
+        List<VirtualMachineSize> sizes = new ArrayList<>(entries.length);
+        for (Entry entry : entries) {
+            sizes.add(entry.size);
+        }
+        return Collections.unmodifiableList(sizes);
+    }
+
+    @Override
+    public boolean isAvailable(String sizeName) {
+        Entry entry = entriesByName.get(sizeName.toLowerCase());
+        return entry != null && !entry.restricted;
+    }
+
+    @Override
+    public Set<String> availabilityZones(String sizeName) {
+        Entry entry = entriesByName.get(sizeName.toLowerCase());
+        if (entry == null) {
+            return Collections.emptySet();
+        }
+        Set<String> zones = new TreeSet<>(entry.zones);
+        zones.removeAll(entry.restrictedZones);
+        return Collections.unmodifiableSet(zones);
+    }
+
+    @Override
+    public long remainingCores(String sizeName) {
+        Entry entry = entriesByName.get(sizeName.toLowerCase());
+        if (entry == null) {
+            return 0;
+        }
+        return remainingCores(entry);
+    }
+
+    @Override
+    public List<VirtualMachineSize> findSizes(int minCores, int minMemoryInMB, String availabilityZone, int instanceCount) {
+        List<VirtualMachineSize> sizes = new ArrayList<>();
+        for (int i = firstWithCores(minCores); i < entries.length; i++) {
+            if (matches(entries[i], minMemoryInMB, availabilityZone, instanceCount)) {
+                sizes.add(entries[i].size);
+            }
+        }
+        return sizes;
+    }
+
+    @Override
+    public VirtualMachineSize findSmallestSize(int minCores, int minMemoryInMB, String availabilityZone, int instanceCount) {
+        for (int i = firstWithCores(minCores); i < entries.length; i++) {
+            if (matches(entries[i], minMemoryInMB, availabilityZone, instanceCount)) {
+                return entries[i].size;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param sizeName the virtual machine size name
+     * @return the number of cores of the size, or null if the size is unknown
+     */
+    Integer numberOfCores(String sizeName) {
+        Entry entry = entriesByName.get(sizeName.toLowerCase());
+        return entry == null ? null : entry.size.numberOfCores();
+    }
+
+    /**
+     * @param sizeName the virtual machine size name
+     * @return the lower case name of the quota of the size family, or null if not known
+     */
+    String familyOf(String sizeName) {
+        Entry entry = entriesByName.get(sizeName.toLowerCase());
+        return entry == null ? null : entry.family;
+    }
+
+    /**
+     * @param sizeName the virtual machine size name
+     * @return the remaining cores of the size family, Long.MAX_VALUE if the family quota is not known
+     */
+    long remainingFamilyCores(String sizeName) {
+        Entry entry = entriesByName.get(sizeName.toLowerCase());
+        return entry == null ? Long.MAX_VALUE : entry.remainingFamilyCores;
+    }
+
+    /**
+     * @return the remaining regional cores, Long.MAX_VALUE if the regional quota is not known
+     */
+    long remainingRegionalCores() {
+        return remainingRegionalCores;
+    }
+
+    private int firstWithCores(int minCores) {
+        int low = 0;
+        int high = cores.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cores[middle] < minCores) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean matches(Entry entry, int minMemoryInMB, String availabilityZone, int instanceCount) {
+        if (entry.restricted || entry.size.memoryInMB() < minMemoryInMB) {
+            return false;
+        }
+        if (availabilityZone != null
+                && (!entry.zones.contains(availabilityZone) || entry.restrictedZones.contains(availabilityZone))) {
+            return false;
+        }
+        return (long) entry.size.numberOfCores() * instanceCount <= remainingCores(entry);
+    }
+
+    private long remainingCores(Entry entry) {
+        return Math.min(remainingRegionalCores, entry.remainingFamilyCores);
+    }
+
+    private static boolean isInRegion(ResourceSkuInner sku, Region region) {
+        if (sku.locations() == null) {
+            return false;
+        }
+        for (String location : sku.locations()) {
+            if (sameRegion(location, region)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> zonesOf(ResourceSkuInner sku, Region region) {
+        Set<String> zones = new HashSet<>();
+        if (sku.locationInfo() != null) {
+            for (ResourceSkuLocationInfo info : sku.locationInfo()) {
+                if (sameRegion(info.location(), region) && info.zones() != null) {
+                    zones.addAll(info.zones());
+                }
+            }
+        }
+        return zones;
+    }
+
+    private static void applyRestrictions(Entry entry, ResourceSkuInner sku, Region region) {
+        if (sku.restrictions() == null) {
+            return;
+        }
+        for (ResourceSkuRestrictions restriction : sku.restrictions()) {
+            if (ResourceSkuRestrictionsType.LOCATION.equals(restriction.type()) && restriction.values() != null) {
+                for (String location : restriction.values()) {
+                    if (sameRegion(location, region)) {
+                        entry.restricted = true;
+                    }
+                }
+            } else if (ResourceSkuRestrictionsType.ZONE.equals(restriction.type())
+                    && restriction.restrictionInfo() != null
+                    && restriction.restrictionInfo().zones() != null) {
+                entry.restrictedZones.addAll(restriction.restrictionInfo().zones());
+            }
+        }
+    }
+
+    private static boolean sameRegion(String location, Region region) {
+        return location != null && location.replace(" ", "").equalsIgnoreCase(region.name());
+    }
+
+    private static class Entry {
+        private final VirtualMachineSize size;
+        private final Set<String> zones = new HashSet<>();
+        private final Set<String> restrictedZones = new HashSet<>();
+        private boolean restricted;
+        private String family;
+        private long remainingFamilyCores = Long.MAX_VALUE;
+
+        Entry(VirtualMachineSize size) {
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.Page;
+import com.microsoft.azure.management.compute.VirtualMachineCapacityIndex;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import org.joda.time.DateTime;
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Action2;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per region cache of {@link VirtualMachineCapacityIndex} instances of a subscription.
+ * <p>
+ * An index is rebuilt once it is older than the time to live. The compute resource SKUs are
+ * listed for the whole subscription, so they are cached once and shared by all regions.
+ * Concurrent requests for the same region share a single in-flight refresh.
+ */
+class VirtualMachineCapacityIndexes {
+    static final long DEFAULT_TIME_TO_LIVE_IN_MILLISECONDS = 5 * 60 * 1000;
+    private static final String SKUS_KEY = "";
+
+    private final ComputeManagementClientImpl client;
+    private final long timeToLiveInMilliseconds;
+    private final ConcurrentMap<String, Observable<VirtualMachineCapacityIndexImpl>> indexes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Observable<Snapshot<List<ResourceSkuInner>>>> skus = new ConcurrentHashMap<>();
+
+    /**
+     * Creates VirtualMachineCapacityIndexes.
+     *
+     * @param client the compute management client
+     * @param timeToLiveInMilliseconds how long an index is served before it is rebuilt
+     */
+    VirtualMachineCapacityIndexes(ComputeManagementClientImpl client, long timeToLiveInMilliseconds) {
+        this.client = client;
+        this.timeToLiveInMilliseconds = timeToLiveInMilliseconds;
+    }
+
+    /**
+     * Gets the index of a region, rebuilding it if it is missing or expired.
+     *
+     * @param region the region
+     * @return an observable that emits the index
+     */
+    Observable<VirtualMachineCapacityIndex> getAsync(final Region region) {
+        return indexAsync(region).map(new Func1<VirtualMachineCapacityIndexImpl, VirtualMachineCapacityIndex>() {
+            @Override
+            public VirtualMachineCapacityIndex call(VirtualMachineCapacityIndexImpl index) {
+                return index;
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index of a region from the service, regardless of its age.
+     *
+     * @param region the region
+     * @return an observable that emits the rebuilt index
+     */
+    Observable<VirtualMachineCapacityIndexImpl> refreshAsync(final Region region) {
+        invalidate(region);
+        return indexAsync(region);
+    }
+
+    /**
+     * Drops the cached index of a region so that the next request rebuilds it.
+     *
+     * @param region the region
+     */
+    void invalidate(Region region) {
+        indexes.remove(region.name());
+    }
+
+    private Observable<VirtualMachineCapacityIndexImpl> indexAsync(final Region region) {
+        return cached(indexes, region.name(), new Func0<Observable<VirtualMachineCapacityIndexImpl>>() {
+            @Override
+            public Observable<VirtualMachineCapacityIndexImpl> call() {
+                return buildAsync(region);
+            }
+        }, new Func1<VirtualMachineCapacityIndexImpl, Long>() {
+            @Override
+            public Long call(VirtualMachineCapacityIndexImpl index) {
+                return index.refreshedTime().getMillis();
+            }
+        });
+    }
+
+    private Observable<VirtualMachineCapacityIndexImpl> buildAsync(final Region region) {
+        final DateTime now = new DateTime(SdkContext.getRxScheduler().now());
+        return Observable.zip(
+                client.virtualMachineSizes().listAsync(region.name()),
+                skusAsync(),
+                collect(client.usages().listAsync(region.name())),
+                new Func3<List<VirtualMachineSizeInner>, List<ResourceSkuInner>, List<UsageInner>, VirtualMachineCapacityIndexImpl>() {
+                    @Override
+                    public VirtualMachineCapacityIndexImpl call(List<VirtualMachineSizeInner> sizes,
+                                                                List<ResourceSkuInner> resourceSkus,
+                                                                List<UsageInner> usages) {
+                        return new VirtualMachineCapacityIndexImpl(region, now, sizes, resourceSkus, usages);
+                    }
+                });
+    }
+
+    private Observable<List<ResourceSkuInner>> skusAsync() {
+        return cached(skus, SKUS_KEY, new Func0<Observable<Snapshot<List<ResourceSkuInner>>>>() {
+            @Override
+            public Observable<Snapshot<List<ResourceSkuInner>>> call() {
+                final long now = SdkContext.getRxScheduler().now();
+                return collect(client.resourceSkus().listAsync())
+                        .map(new Func1<List<ResourceSkuInner>, Snapshot<List<ResourceSkuInner>>>() {
+                            @Override
+                            public Snapshot<List<ResourceSkuInner>> call(List<ResourceSkuInner> resourceSkus) {
+                                return new Snapshot<>(resourceSkus, now);
+                            }
+                        });
+            }
+        }, new Func1<Snapshot<List<ResourceSkuInner>>, Long>() {
+            @Override
+            public Long call(Snapshot<List<ResourceSkuInner>> snapshot) {
+                return snapshot.timeInMilliseconds;
+            }
+        }).map(new Func1<Snapshot<List<ResourceSkuInner>>, List<ResourceSkuInner>>() {
+            @Override
+            public List<ResourceSkuInner> call(Snapshot<List<ResourceSkuInner>> snapshot) {
+                return snapshot.value;
+            }
+        });
+    }
+
+    private <T> Observable<T> cached(final ConcurrentMap<String, Observable<T>> cache,
+                                     final String key,
+                                     final Func0<Observable<T>> load,
+                                     final Func1<T, Long> timeOf) {
+        final Observable<T> current = cache.get(key);
+        if (current == null) {
+            return reload(cache, key, null, load);
+        }
+        return current.flatMap(new Func1<T, Observable<T>>() {
+            @Override
+            public Observable<T> call(T value) {
+                if (SdkContext.getRxScheduler().now() - timeOf.call(value) < timeToLiveInMilliseconds) {
+                    return Observable.just(value);
+                }
+                return reload(cache, key, current, load);
+            }
+        });
+    }
+
+    private <T> Observable<T> reload(final ConcurrentMap<String, Observable<T>> cache,
+                                     final String key,
+                                     final Observable<T> expired,
+                                     Func0<Observable<T>> load) {
+        final AtomicReference<Observable<T>> self = new AtomicReference<>();
+        final Observable<T> loading = load.call()
+                .last()
+                .doOnError(new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        // Failures are not cached, the next request tries again.
+                        cache.remove(key, self.get());
+                    }
+                })
+                .cache();
+        self.set(loading);
+        boolean installed = expired == null
+                ? cache.putIfAbsent(key, loading) == null
+                : cache.replace(key, expired, loading);
+        if (!installed) {
+            Observable<T> winner = cache.get(key);
+            if (winner != null) {
+                return winner;
+            }
+            cache.put(key, loading);
+        }
+        return loading;
+    }
+
+    private static <T> Observable<List<T>> collect(Observable<Page<T>> pages) {
+        return pages.collect(new Func0<List<T>>() {
+            @Override
+            public List<T> call() {
+                return new ArrayList<>();
+            }
+        }, new Action2<List<T>, Page<T>>() {
+            @Override
+            public void call(List<T> items, Page<T> page) {
+                if (page.items() != null) {
+                    items.addAll(page.items());
+                }
+            }
+        });
+    }
+
+    private static class Snapshot<T> {
+        private final T value;
+        private final long timeInMilliseconds;
+
+        Snapshot(T value, long timeInMilliseconds) {
+            this.value = value;
+            this.timeInMilliseconds = timeInMilliseconds;
+        }
+    }
+}
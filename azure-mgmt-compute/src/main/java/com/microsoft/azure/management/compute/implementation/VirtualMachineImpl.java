@@ -155,6 +155,10 @@ class VirtualMachineImpl
     private VirtualMachineMsiHelper virtualMachineMsiHelper;
     // Reference to the PublicIp creatable that is implicitly created
     private  PublicIPAddress.DefinitionStages.WithCreate implicitPipCreatable;
+    // To track whether a new public IP is created along with the primary network interface
+    private boolean isPrimaryPublicIPAddressNew;
+    // To track whether the new primary network interface is a creatable supplied by the caller
+    private boolean isPrimaryNetworkInterfaceCreatable;
 
     VirtualMachineImpl(String name,
                        VirtualMachineInner innerModel,
@@ -452,6 +456,7 @@ class VirtualMachineImpl
         Creatable<NetworkInterface> nicCreatable = this.nicDefinitionWithCreate
                 .withNewPrimaryPublicIPAddress(creatable);
         this.creatablePrimaryNetworkInterfaceKey = nicCreatable.key();
+        this.isPrimaryPublicIPAddressNew = true;
         this.addCreatableDependency(nicCreatable);
         return this;
     }
@@ -473,6 +478,7 @@ class VirtualMachineImpl
         Creatable<NetworkInterface> nicCreatable = this.nicDefinitionWithCreate
                 .withNewPrimaryPublicIPAddress(this.implicitPipCreatable);
         this.creatablePrimaryNetworkInterfaceKey = nicCreatable.key();
+        this.isPrimaryPublicIPAddressNew = true;
         this.addCreatableDependency(nicCreatable);
         return this;
     }
@@ -499,6 +505,7 @@ class VirtualMachineImpl
     @Override
     public VirtualMachineImpl withNewPrimaryNetworkInterface(Creatable<NetworkInterface> creatable) {
         this.creatablePrimaryNetworkInterfaceKey = creatable.key();
+        this.isPrimaryNetworkInterfaceCreatable = true;
         this.addCreatableDependency(creatable);
         return this;
     }
@@ -506,6 +513,7 @@ class VirtualMachineImpl
     public VirtualMachineImpl withNewPrimaryNetworkInterface(String name, String publicDnsNameLabel) {
         Creatable<NetworkInterface> definitionCreatable = prepareNetworkInterface(name)
                 .withNewPrimaryPublicIPAddress(publicDnsNameLabel);
+        this.isPrimaryPublicIPAddressNew = true;
         return withNewPrimaryNetworkInterface(definitionCreatable);
     }
 
@@ -1718,6 +1726,25 @@ class VirtualMachineImpl
         throw new IllegalArgumentException("Unknown environment");
     }
 
+    /**
+     * @return the number of network interfaces created along with the virtual machine
+     */
+    int newNetworkInterfaceCount() {
+        return (this.creatablePrimaryNetworkInterfaceKey != null ? 1 : 0)
+                + this.creatableSecondaryNetworkInterfaceKeys.size();
+    }
+
+    /**
+     * The public IP addresses of the network interfaces supplied as creatables are not known before they are
+     * created, each of them is counted as creating one.
+     *
+     * @return the maximum number of public IP addresses created along with the virtual machine
+     */
+    int newPublicIPAddressCount() {
+        return (this.isPrimaryPublicIPAddressNew || this.isPrimaryNetworkInterfaceCreatable ? 1 : 0)
+                + this.creatableSecondaryNetworkInterfaceKeys.size();
+    }
+
     private void setOSDiskDefaults() {
         if (isInUpdateMode()) {
             return;
@@ -17,11 +17,17 @@ import com.microsoft.azure.management.graphrbac.implementation.GraphRbacManager;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
 import com.microsoft.azure.management.storage.implementation.StorageManager;
+import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
+import com.microsoft.azure.management.resources.fluentcore.model.CreatedResources;
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
+import rx.Observable;
+import rx.functions.Func1;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The implementation for VirtualMachineScaleSets.
@@ -130,6 +136,33 @@ public class VirtualMachineScaleSetsImpl
         return wrapModel(name);
     }
 
+    @Override
+    public CreatedResources<VirtualMachineScaleSet> createWithQuotaCheck(List<Creatable<VirtualMachineScaleSet>> creatables) {
+        new QuotaAdmission(this.manager(), this.networkManager).admitAsync(creatables).toBlocking().last();
+        return this.create(creatables);
+    }
+
+    @Override
+    public Observable<Indexable> createWithQuotaCheckAsync(List<Creatable<VirtualMachineScaleSet>> creatables) {
+        return new QuotaAdmission(this.manager(), this.networkManager).admitAsync(creatables)
+                .flatMap(new Func1<List<Creatable<VirtualMachineScaleSet>>, Observable<Indexable>>() {
+                    @Override
+                    public Observable<Indexable> call(List<Creatable<VirtualMachineScaleSet>> admitted) {
+                        return createAsync(admitted);
+                    }
+                });
+    }
+
+    @Override
+    public List<VirtualMachineScaleSet> createInQuotaWaves(List<Creatable<VirtualMachineScaleSet>> creatables) {
+        return createInQuotaWavesAsync(creatables).toList().toBlocking().last();
+    }
+
+    @Override
+    public Observable<VirtualMachineScaleSet> createInQuotaWavesAsync(List<Creatable<VirtualMachineScaleSet>> creatables) {
+        return new QuotaAdmission(this.manager(), this.networkManager).createInWavesAsync(this, creatables);
+    }
+
     @Override
     protected VirtualMachineScaleSetImpl wrapModel(String name) {
         VirtualMachineScaleSetInner inner = new VirtualMachineScaleSetInner();
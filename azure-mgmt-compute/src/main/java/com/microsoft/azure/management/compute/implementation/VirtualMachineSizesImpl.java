@@ -7,6 +7,7 @@ package com.microsoft.azure.management.compute.implementation;
 
 import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.compute.VirtualMachineCapacityIndex;
 import com.microsoft.azure.management.compute.VirtualMachineSize;
 import com.microsoft.azure.management.compute.VirtualMachineSizes;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
@@ -21,9 +22,11 @@ class VirtualMachineSizesImpl
         extends ReadableWrappersImpl<VirtualMachineSize, VirtualMachineSizeImpl, VirtualMachineSizeInner>
         implements VirtualMachineSizes {
     private final VirtualMachineSizesInner innerCollection;
+    private final ComputeManager computeManager;
 
-    VirtualMachineSizesImpl(VirtualMachineSizesInner innerCollection) {
-        this.innerCollection = innerCollection;
+    VirtualMachineSizesImpl(ComputeManager computeManager) {
+        this.innerCollection = computeManager.inner().virtualMachineSizes();
+        this.computeManager = computeManager;
     }
 
     @Override
@@ -53,4 +56,19 @@ class VirtualMachineSizesImpl
     public Observable<VirtualMachineSize> listByRegionAsync(String regionName) {
         return wrapListAsync(innerCollection.listAsync(regionName));
     }
+
+    @Override
+    public VirtualMachineCapacityIndex getCapacityIndex(Region region) {
+        return getCapacityIndexAsync(region).toBlocking().last();
+    }
+
+    @Override
+    public Observable<VirtualMachineCapacityIndex> getCapacityIndexAsync(Region region) {
+        return computeManager.virtualMachineCapacityIndexes().getAsync(region);
+    }
+
+    @Override
+    public void invalidateCapacityIndex(Region region) {
+        computeManager.virtualMachineCapacityIndexes().invalidate(region);
+    }
 }
@@ -21,6 +21,9 @@ import com.microsoft.azure.management.graphrbac.implementation.GraphRbacManager;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
 import com.microsoft.azure.management.storage.implementation.StorageManager;
+import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
+import com.microsoft.azure.management.resources.fluentcore.model.CreatedResources;
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
@@ -29,6 +32,7 @@ import rx.exceptions.Exceptions;
 import rx.functions.Func1;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The implementation for VirtualMachines.
@@ -55,7 +59,7 @@ class VirtualMachinesImpl
         this.storageManager = storageManager;
         this.networkManager = networkManager;
         this.rbacManager = rbacManager;
-        this.vmSizes = new VirtualMachineSizesImpl(computeManager.inner().virtualMachineSizes());
+        this.vmSizes = new VirtualMachineSizesImpl(computeManager);
     }
 
     // Actions
@@ -207,6 +211,33 @@ class VirtualMachinesImpl
         return ServiceFuture.fromBody(migrateToManagedAsync(groupName, name), callback);
     }
 
+    @Override
+    public CreatedResources<VirtualMachine> createWithQuotaCheck(List<Creatable<VirtualMachine>> creatables) {
+        new QuotaAdmission(this.manager(), this.networkManager).admitAsync(creatables).toBlocking().last();
+        return this.create(creatables);
+    }
+
+    @Override
+    public Observable<Indexable> createWithQuotaCheckAsync(List<Creatable<VirtualMachine>> creatables) {
+        return new QuotaAdmission(this.manager(), this.networkManager).admitAsync(creatables)
+                .flatMap(new Func1<List<Creatable<VirtualMachine>>, Observable<Indexable>>() {
+                    @Override
+                    public Observable<Indexable> call(List<Creatable<VirtualMachine>> admitted) {
+                        return createAsync(admitted);
+                    }
+                });
+    }
+
+    @Override
+    public List<VirtualMachine> createInQuotaWaves(List<Creatable<VirtualMachine>> creatables) {
+        return createInQuotaWavesAsync(creatables).toList().toBlocking().last();
+    }
+
+    @Override
+    public Observable<VirtualMachine> createInQuotaWavesAsync(List<Creatable<VirtualMachine>> creatables) {
+        return new QuotaAdmission(this.manager(), this.networkManager).createInWavesAsync(this, creatables);
+    }
+
     // Getters
     @Override
     public VirtualMachineSizes sizes() {
@@ -18,6 +18,7 @@ import rx.functions.Func1;
 
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * The implementation for DiskVolumeEncryptionStatus for Windows virtual machine.
@@ -141,6 +142,29 @@ class WindowsVolumeEncryptionMonitorImpl implements DiskVolumeEncryptionMonitor
                 });
     }
 
+    @Override
+    public Observable<DiskVolumeEncryptionMonitor> statusChangesAsync() {
+        final WindowsVolumeEncryptionMonitorImpl self = this;
+        // The status of Windows encryption is derived from the virtual machine model alone, so all monitors
+        // of virtual machines in the same resource group share a single list poll.
+        //
+        return DiskVolumeEncryptionWatcher.statusChanges(this.computeManager.diskVolumeEncryptionWatcher()
+                .virtualMachinesInGroup(rgName)
+                .flatMap(new Func1<Map<String, VirtualMachineInner>, Observable<DiskVolumeEncryptionMonitor>>() {
+                    @Override
+                    public Observable<DiskVolumeEncryptionMonitor> call(Map<String, VirtualMachineInner> virtualMachines) {
+                        VirtualMachineInner virtualMachine = virtualMachines.get(vmName.toLowerCase());
+                        if (virtualMachine == null) {
+                            return Observable.error(new Exception(String.format("VM with name '%s' not found (resource group '%s')",
+                                    vmName, rgName)));
+                        }
+                        self.virtualMachine = virtualMachine;
+                        self.encryptionExtension = DiskVolumeEncryptionWatcher.findEncryptionExtension(virtualMachine, "AzureDiskEncryption");
+                        return Observable.<DiskVolumeEncryptionMonitor>just(self);
+                    }
+                }));
+    }
+
     /**
      * Retrieve the virtual machine.
      * If the virtual machine does not exists then an error observable will be returned.
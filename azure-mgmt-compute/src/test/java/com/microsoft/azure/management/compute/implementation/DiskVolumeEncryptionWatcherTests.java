@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.compute.DiskVolumeEncryptionMonitor;
+import com.microsoft.azure.management.compute.EncryptionStatus;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DiskVolumeEncryptionWatcherTests {
+    private Scheduler originalScheduler;
+    private TestScheduler scheduler;
+
+    @Before
+    public void setup() {
+        originalScheduler = SdkContext.getRxScheduler();
+        scheduler = new TestScheduler();
+        SdkContext.setRxScheduler(scheduler);
+    }
+
+    @After
+    public void cleanup() {
+        SdkContext.setRxScheduler(originalScheduler);
+    }
+
+    @Test
+    public void backsOffWhileStateIsUnchanged() {
+        final AtomicInteger polls = new AtomicInteger();
+        // State changes on the 4th poll, stays the same otherwise.
+        Observable<Integer> poll = Observable.defer(new Func0<Observable<Integer>>() {
+            @Override
+            public Observable<Integer> call() {
+                int count = polls.incrementAndGet();
+                return Observable.just(count < 4 ? 0 : 1);
+            }
+        });
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Subscription subscription = DiskVolumeEncryptionWatcher.pollAdaptively(poll, new Func1<Integer, Object>() {
+            @Override
+            public Object call(Integer state) {
+                return state;
+            }
+        }, 10, 40).subscribe(subscriber);
+
+        Assert.assertEquals(1, polls.get());
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, polls.get());
+        // Unchanged: the delay doubles to 20 ms.
+        scheduler.advanceTimeBy(19, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, polls.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(3, polls.get());
+        // Unchanged again: 40 ms, the maximum.
+        scheduler.advanceTimeBy(40, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(4, polls.get());
+        // Changed: back to 10 ms.
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(5, polls.get());
+        subscription.unsubscribe();
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+        Assert.assertEquals(5, polls.get());
+        Assert.assertEquals(5, subscriber.getOnNextEvents().size());
+    }
+
+    @Test
+    public void sharesOnePollAcrossSubscribers() {
+        final AtomicInteger lists = new AtomicInteger();
+        DiskVolumeEncryptionWatcher watcher = new DiskVolumeEncryptionWatcher(null);
+        Observable<Map<String, VirtualMachineInner>> list = listing(lists, 0);
+
+        TestSubscriber<Map<String, VirtualMachineInner>> first = new TestSubscriber<>();
+        TestSubscriber<Map<String, VirtualMachineInner>> second = new TestSubscriber<>();
+        Subscription firstSubscription = watcher.sharedPoll("rg", list).subscribe(first);
+        Subscription secondSubscription = watcher.sharedPoll("rg", list).subscribe(second);
+
+        // The late subscriber gets the latest snapshot without listing again
+        Assert.assertEquals(1, lists.get());
+        Assert.assertEquals(1, second.getOnNextEvents().size());
+        scheduler.advanceTimeBy(DiskVolumeEncryptionWatcher.MIN_POLL_DELAY_IN_MILLISECONDS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, lists.get());
+        Assert.assertEquals(2, first.getOnNextEvents().size());
+        Assert.assertEquals(2, second.getOnNextEvents().size());
+
+        firstSubscription.unsubscribe();
+        secondSubscription.unsubscribe();
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+        Assert.assertEquals(2, lists.get());
+    }
+
+    @Test
+    public void retriesFailedListings() {
+        final AtomicInteger lists = new AtomicInteger();
+        DiskVolumeEncryptionWatcher watcher = new DiskVolumeEncryptionWatcher(null);
+        TestSubscriber<Map<String, VirtualMachineInner>> subscriber = new TestSubscriber<>();
+        watcher.sharedPoll("rg", listing(lists, 2)).subscribe(subscriber);
+
+        Assert.assertEquals(1, lists.get());
+        scheduler.advanceTimeBy(DiskVolumeEncryptionWatcher.MIN_POLL_DELAY_IN_MILLISECONDS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, lists.get());
+        // The delay doubles before the next retry
+        scheduler.advanceTimeBy(DiskVolumeEncryptionWatcher.MIN_POLL_DELAY_IN_MILLISECONDS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, lists.get());
+        scheduler.advanceTimeBy(DiskVolumeEncryptionWatcher.MIN_POLL_DELAY_IN_MILLISECONDS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(3, lists.get());
+
+        subscriber.assertNoErrors();
+        Assert.assertEquals(1, subscriber.getOnNextEvents().size());
+        subscriber.unsubscribe();
+    }
+
+    @Test
+    public void startsNewPollOnceSharedPollFails() {
+        final AtomicInteger lists = new AtomicInteger();
+        DiskVolumeEncryptionWatcher watcher = new DiskVolumeEncryptionWatcher(null);
+        Observable<Map<String, VirtualMachineInner>> list = listing(lists, Integer.MAX_VALUE);
+        Observable<Map<String, VirtualMachineInner>> poll = watcher.sharedPoll("rg", list);
+        TestSubscriber<Map<String, VirtualMachineInner>> subscriber = new TestSubscriber<>();
+        poll.subscribe(subscriber);
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+        Assert.assertEquals(DiskVolumeEncryptionWatcher.MAX_POLL_RETRIES + 1, lists.get());
+        subscriber.assertError(IOException.class);
+        Assert.assertNotSame(poll, watcher.sharedPoll("rg", list));
+    }
+
+    @Test
+    public void emitsOnlyStatusChanges() {
+        List<DiskVolumeEncryptionMonitor> polls = Arrays.asList(
+                monitor(EncryptionStatus.NOT_ENCRYPTED, "started"),
+                monitor(EncryptionStatus.NOT_ENCRYPTED, "started"),
+                monitor(EncryptionStatus.ENCRYPTION_INPROGRESS, "started"),
+                monitor(EncryptionStatus.ENCRYPTION_INPROGRESS, "started"),
+                monitor(EncryptionStatus.ENCRYPTION_INPROGRESS, "half way"),
+                monitor(EncryptionStatus.ENCRYPTED, "done"),
+                monitor(EncryptionStatus.ENCRYPTED, "done"));
+
+        List<DiskVolumeEncryptionMonitor> changes = DiskVolumeEncryptionWatcher.statusChanges(Observable.from(polls))
+                .toList().toBlocking().single();
+
+        Assert.assertEquals(Arrays.asList(polls.get(0), polls.get(2), polls.get(4), polls.get(5)), changes);
+    }
+
+    private static Observable<Map<String, VirtualMachineInner>> listing(final AtomicInteger lists, final int failures) {
+        return Observable.defer(new Func0<Observable<Map<String, VirtualMachineInner>>>() {
+            @Override
+            public Observable<Map<String, VirtualMachineInner>> call() {
+                if (lists.incrementAndGet() <= failures) {
+                    return Observable.error(new IOException("listing failed"));
+                }
+                return Observable.just(Collections.<String, VirtualMachineInner>emptyMap());
+            }
+        });
+    }
+
+    private static DiskVolumeEncryptionMonitor monitor(final EncryptionStatus osDiskStatus, final String progressMessage) {
+        return (DiskVolumeEncryptionMonitor) Proxy.newProxyInstance(DiskVolumeEncryptionWatcherTests.class.getClassLoader(),
+                new Class<?>[] {DiskVolumeEncryptionMonitor.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "osDiskStatus":
+                                return osDiskStatus;
+                            case "dataDiskStatus":
+                                return EncryptionStatus.NOT_ENCRYPTED;
+                            case "progressMessage":
+                                return progressMessage;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Completable;
+import rx.Observable;
+import rx.functions.Action0;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ManagedDiskDownloaderTests {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final String PAGE_LIST = "<?xml version=\"1.0\" encoding=\"utf-8\"?><PageList>"
+            + "<PageRange><Start>0</Start><End>196607</End></PageRange>"
+            + "<PageRange><Start>262144</Start><End>327679</End></PageRange>"
+            + "<PageRange><Start>393216</Start><End>394239</End></PageRange>"
+            + "</PageList>";
+
+    private static final String ETAG = "\"0x8D4BCC2E4835CD0\"";
+
+    private HttpServer server;
+    private byte[] blob;
+    private Set<String> requestedRanges;
+    private Path target;
+
+    @Before
+    public void setup() throws Exception {
+        blob = new byte[512 * 1024];
+        new Random(7).nextBytes(blob);
+        // Unallocated region and an allocated region that holds only zeros.
+        Arrays.fill(blob, 196608, 262144, (byte) 0);
+        Arrays.fill(blob, 262144, 327680, (byte) 0);
+        Arrays.fill(blob, 327680, 393216, (byte) 0);
+        Arrays.fill(blob, 394240, blob.length, (byte) 0);
+        requestedRanges = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/disk", new PageBlobHandler());
+        server.start();
+        target = Files.createTempFile("disk", ".vhd");
+        Files.delete(target);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        server.stop(0);
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(ManagedDiskDownloader.checkpointPath(target));
+    }
+
+    @Test
+    public void canDownloadAllocatedRanges() throws Exception {
+        newDownloader().downloadAsync(sasUri(), target).await();
+
+        Assert.assertArrayEquals(blob, Files.readAllBytes(target));
+        Assert.assertFalse(Files.exists(ManagedDiskDownloader.checkpointPath(target)));
+        // 3 chunks for the first range, 1 each for the second and third.
+        Assert.assertEquals(5, requestedRanges.size());
+        Assert.assertFalse(requestedRanges.contains("bytes=196608-262143"));
+    }
+
+    @Test
+    public void canResumeFromCheckpoint() throws Exception {
+        Files.write(target, Arrays.copyOf(blob, 65536));
+        Files.write(ManagedDiskDownloader.checkpointPath(target),
+                (blob.length + "\n" + ETAG + "\n0\n").getBytes(StandardCharsets.UTF_8));
+
+        newDownloader().downloadAsync(sasUri(), target).await();
+
+        Assert.assertArrayEquals(blob, Files.readAllBytes(target));
+        Assert.assertFalse(requestedRanges.contains("bytes=0-65535"));
+        Assert.assertEquals(4, requestedRanges.size());
+    }
+
+    @Test
+    public void restartsWhenBlobIsReplaced() throws Exception {
+        // A blob of the same size, checkpointed before it was replaced.
+        byte[] stale = new byte[65536];
+        Arrays.fill(stale, (byte) 1);
+        Files.write(target, stale);
+        Files.write(ManagedDiskDownloader.checkpointPath(target),
+                (blob.length + "\n\"0x8D4BCC2E4835CCF\"\n0\n").getBytes(StandardCharsets.UTF_8));
+
+        newDownloader().downloadAsync(sasUri(), target).await();
+
+        Assert.assertArrayEquals(blob, Files.readAllBytes(target));
+        Assert.assertTrue(requestedRanges.contains("bytes=0-65535"));
+        Assert.assertEquals(5, requestedRanges.size());
+    }
+
+    @Test
+    public void revokesAccessOnSuccessAndFailure() throws Exception {
+        final AtomicBoolean revoked = new AtomicBoolean();
+        Completable revoke = Completable.fromAction(new Action0() {
+            @Override
+            public void call() {
+                revoked.set(true);
+            }
+        });
+        newDownloader().downloadAsync(Observable.just(sasUri()), revoke, target).await();
+        Assert.assertTrue(revoked.get());
+
+        revoked.set(false);
+        try {
+            newDownloader().downloadAsync(Observable.just(sasUri().replace("/disk", "/missing")), revoke, target).await();
+            Assert.fail("Download of a missing blob should fail");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(revoked.get());
+        }
+    }
+
+    @Test
+    public void canSplitRanges() {
+        List<long[]> chunks = ManagedDiskDownloader.splitRanges(Arrays.asList(
+                new long[] {0, 511}, new long[] {512, 2047}, new long[] {4096, 4607}), 1024);
+        Assert.assertEquals(3, chunks.size());
+        Assert.assertArrayEquals(new long[] {0, 1023}, chunks.get(0));
+        Assert.assertArrayEquals(new long[] {1024, 2047}, chunks.get(1));
+        Assert.assertArrayEquals(new long[] {4096, 4607}, chunks.get(2));
+    }
+
+    @Test
+    public void canParsePageRanges() throws Exception {
+        List<long[]> ranges = ManagedDiskDownloader.parsePageRanges(
+                new ByteArrayInputStream(PAGE_LIST.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(3, ranges.size());
+        Assert.assertArrayEquals(new long[] {262144, 327679}, ranges.get(1));
+    }
+
+    private ManagedDiskDownloader newDownloader() {
+        return new ManagedDiskDownloader(new RestClient.Builder()
+                .withBaseUrl("http://localhost/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .build()
+                .retrofit(), 4, CHUNK_SIZE);
+    }
+
+    private String sasUri() {
+        return "http://localhost:" + server.getAddress().getPort() + "/disk?sv=2016-05-31&sig=test";
+    }
+
+    private class PageBlobHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!exchange.getRequestURI().getPath().equals("/disk")) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else if (exchange.getRequestMethod().equals("HEAD")) {
+                    exchange.getResponseHeaders().set("Content-Length", Integer.toString(blob.length));
+                    exchange.getResponseHeaders().set("ETag", ETAG);
+                    exchange.sendResponseHeaders(200, -1);
+                } else if (exchange.getRequestURI().getQuery().contains("comp=pagelist")) {
+                    send(exchange, PAGE_LIST.getBytes(StandardCharsets.UTF_8));
+                } else if (!ETAG.equals(exchange.getRequestHeaders().getFirst("If-Match"))) {
+                    exchange.sendResponseHeaders(412, -1);
+                } else {
+                    String range = exchange.getRequestHeaders().getFirst("x-ms-range");
+                    requestedRanges.add(range);
+                    String[] bounds = range.substring("bytes=".length()).split("-");
+                    send(exchange, Arrays.copyOfRange(blob, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1));
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private void send(HttpExchange exchange, byte[] content) throws IOException {
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream stream = exchange.getResponseBody()) {
+                stream.write(content);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ManagedDiskUploaderTests {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private HttpServer server;
+    private byte[] vhd;
+    private volatile byte[] blob;
+    private Set<String> writtenRanges;
+    private volatile boolean containerCreated;
+    // The first range fails with this status as many times as set
+    private volatile int firstRangeStatus;
+    private final AtomicInteger firstRangeFailures = new AtomicInteger();
+    private final AtomicInteger firstRangeAttempts = new AtomicInteger();
+    private Path source;
+
+    @Before
+    public void setup() throws Exception {
+        vhd = new byte[CHUNK_SIZE * 6 + 512];
+        new Random(11).nextBytes(vhd);
+        Arrays.fill(vhd, CHUNK_SIZE, CHUNK_SIZE * 3, (byte) 0);
+        source = Files.createTempFile("disk", ".vhd");
+        Files.write(source, vhd);
+        writtenRanges = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/vhds", new PageBlobHandler());
+        server.start();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        server.stop(0);
+        Files.deleteIfExists(source);
+    }
+
+    @Test
+    public void canUploadNonZeroRanges() throws Exception {
+        ManagedDiskUploader uploader = uploader();
+        String containerUrl = "http://localhost:" + server.getAddress().getPort() + "/vhds";
+
+        uploader.createContainerAsync(containerUrl, "sv=2016-05-31&sig=test").await();
+        String blobUrl = uploader.uploadAsync(source, containerUrl + "/disk.vhd", "sv=2016-05-31&sig=test")
+                .toBlocking().last();
+
+        Assert.assertTrue(containerCreated);
+        Assert.assertEquals(containerUrl + "/disk.vhd", blobUrl);
+        Assert.assertArrayEquals(vhd, blob);
+        // 7 ranges, two of which hold only zeros.
+        Assert.assertEquals(5, writtenRanges.size());
+        Assert.assertFalse(writtenRanges.contains("bytes=65536-131071"));
+        Assert.assertTrue(writtenRanges.contains("bytes=393216-393727"));
+    }
+
+    @Test
+    public void retriesServerErrors() {
+        firstRangeStatus = 503;
+        firstRangeFailures.set(2);
+        String containerUrl = "http://localhost:" + server.getAddress().getPort() + "/vhds";
+
+        uploader().uploadAsync(source, containerUrl + "/disk.vhd", "sv=2016-05-31&sig=test").toBlocking().last();
+
+        Assert.assertEquals(3, firstRangeAttempts.get());
+        Assert.assertArrayEquals(vhd, blob);
+    }
+
+    @Test
+    public void doesNotRetryRejectedRequests() {
+        firstRangeStatus = 403;
+        firstRangeFailures.set(1);
+        String containerUrl = "http://localhost:" + server.getAddress().getPort() + "/vhds";
+
+        try {
+            uploader().uploadAsync(source, containerUrl + "/disk.vhd", "sv=2016-05-31&sig=test").toBlocking().last();
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("403"));
+        }
+        Assert.assertEquals(1, firstRangeAttempts.get());
+    }
+
+    @Test
+    public void canCreateAccountSas() {
+        String sas = ManagedDiskUploader.accountSas("account",
+                BaseEncoding.base64().encode("key".getBytes()),
+                new DateTime(2030, 1, 1, 0, 0));
+        Assert.assertTrue(sas.startsWith("sv=2016-05-31&ss=b&srt=co&sp=rwdlc&se="));
+        Assert.assertTrue(sas.contains("&sig="));
+    }
+
+    private static ManagedDiskUploader uploader() {
+        return new ManagedDiskUploader(new RestClient.Builder()
+                .withBaseUrl("http://localhost/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .build()
+                .retrofit(), CHUNK_SIZE, CHUNK_SIZE * 2);
+    }
+
+    private class PageBlobHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                byte[] body = ByteStreams.toByteArray(exchange.getRequestBody());
+                String query = exchange.getRequestURI().getQuery();
+                if (query.contains("restype=container")) {
+                    containerCreated = true;
+                    exchange.sendResponseHeaders(201, -1);
+                } else if (query.contains("comp=page")) {
+                    String range = exchange.getRequestHeaders().getFirst("x-ms-range");
+                    String md5 = BaseEncoding.base64().encode(MessageDigest.getInstance("MD5").digest(body));
+                    if (!md5.equals(exchange.getRequestHeaders().getFirst("Content-MD5"))) {
+                        exchange.sendResponseHeaders(400, -1);
+                        return;
+                    }
+                    if (range.equals("bytes=0-" + (CHUNK_SIZE - 1))) {
+                        firstRangeAttempts.incrementAndGet();
+                        if (firstRangeFailures.getAndDecrement() > 0) {
+                            exchange.sendResponseHeaders(firstRangeStatus, -1);
+                            return;
+                        }
+                    }
+                    writtenRanges.add(range);
+                    int start = Integer.parseInt(range.substring("bytes=".length()).split("-")[0]);
+                    System.arraycopy(body, 0, blob, start, body.length);
+                    exchange.sendResponseHeaders(201, -1);
+                } else if ("PageBlob".equals(exchange.getRequestHeaders().getFirst("x-ms-blob-type"))) {
+                    blob = new byte[Integer.parseInt(exchange.getRequestHeaders().getFirst("x-ms-blob-content-length"))];
+                    exchange.sendResponseHeaders(201, -1);
+                } else {
+                    exchange.sendResponseHeaders(400, -1);
+                }
+            } catch (Exception e) {
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+}
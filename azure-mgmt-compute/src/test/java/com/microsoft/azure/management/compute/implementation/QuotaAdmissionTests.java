@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.compute.QuotaExceededException;
+import com.microsoft.azure.management.compute.Sku;
+import com.microsoft.azure.management.compute.UsageName;
+import com.microsoft.azure.management.compute.VirtualMachineScaleSetNetworkProfile;
+import com.microsoft.azure.management.compute.VirtualMachineScaleSetPublicIPAddressConfiguration;
+import com.microsoft.azure.management.compute.VirtualMachineScaleSetVMProfile;
+import com.microsoft.azure.management.network.NetworkUsage;
+import com.microsoft.azure.management.network.NetworkUsageUnit;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class QuotaAdmissionTests {
+    private static final String SKUS = "["
+            + "{\"resourceType\":\"virtualMachines\",\"name\":\"Standard_D4s_v3\",\"family\":\"standardDSv3Family\",\"locations\":[\"eastus\"]},"
+            + "{\"resourceType\":\"virtualMachines\",\"name\":\"Standard_E4s_v3\",\"family\":\"standardESv3Family\",\"locations\":[\"eastus\"]}"
+            + "]";
+
+    @Test
+    public void rejectsBatchExceedingFamilyQuota() throws Exception {
+        QuotaAdmission.Ledger ledger = new QuotaAdmission.Ledger(headroom(100, 16, 10));
+        for (int i = 0; i < 5; i++) {
+            ledger.add(new QuotaAdmission.Demand(Region.US_EAST, "Standard_D4s_v3", 1, 1, 0));
+        }
+
+        QuotaExceededException exceeded = ledger.firstExceeded();
+        Assert.assertNotNull(exceeded);
+        Assert.assertEquals("standarddsv3family", exceeded.quotaName());
+        Assert.assertEquals(20, exceeded.required());
+        Assert.assertEquals(16, exceeded.available());
+    }
+
+    @Test
+    public void admitsBatchWithinQuota() throws Exception {
+        QuotaAdmission.Ledger ledger = new QuotaAdmission.Ledger(headroom(100, 16, 10));
+        ledger.add(new QuotaAdmission.Demand(Region.US_EAST, "Standard_D4s_v3", 4, 0, 0));
+        ledger.add(new QuotaAdmission.Demand(Region.US_EAST, "Standard_E4s_v3", 2, 2, 1));
+        ledger.add(null);
+
+        Assert.assertNull(ledger.firstExceeded());
+    }
+
+    @Test
+    public void splitsIntoFeasibleWave() throws Exception {
+        // Regional cores allow 3 virtual machines of 4 cores, network interfaces allow 2.
+        QuotaAdmission.Ledger ledger = new QuotaAdmission.Ledger(headroom(12, 100, 2));
+        QuotaAdmission.Demand demand = new QuotaAdmission.Demand(Region.US_EAST, "Standard_E4s_v3", 1, 1, 0);
+
+        Assert.assertTrue(ledger.tryAdd(demand));
+        Assert.assertTrue(ledger.tryAdd(demand));
+        Assert.assertFalse(ledger.tryAdd(demand));
+        QuotaExceededException exceeded = ledger.exceededBy(demand);
+        Assert.assertEquals(QuotaAdmission.NETWORK_INTERFACES_QUOTA, exceeded.quotaName());
+        Assert.assertEquals(3, exceeded.required());
+        Assert.assertEquals(2, exceeded.available());
+        Assert.assertNull(ledger.firstExceeded());
+    }
+
+    @Test
+    public void countsNetworkDemandOfEachScaleSetInstance() throws Exception {
+        VirtualMachineScaleSetInner inner = new VirtualMachineScaleSetInner()
+                .withSku(new Sku().withName("Standard_D4s_v3").withCapacity(3L))
+                .withVirtualMachineProfile(new VirtualMachineScaleSetVMProfile()
+                        .withNetworkProfile(new VirtualMachineScaleSetNetworkProfile()
+                                .withNetworkInterfaceConfigurations(Arrays.asList(
+                                        nicConfiguration(new VirtualMachineScaleSetIPConfigurationInner()
+                                                .withPublicIPAddressConfiguration(new VirtualMachineScaleSetPublicIPAddressConfiguration())),
+                                        nicConfiguration(new VirtualMachineScaleSetIPConfigurationInner())))));
+        inner.withLocation(Region.US_EAST.name());
+        QuotaAdmission.Demand demand = QuotaAdmission.demandOf(
+                new VirtualMachineScaleSetImpl("vmss", inner, null, null, null, null));
+
+        // 3 instances of 2 network interfaces, one of them with a public IP address
+        QuotaAdmission.Ledger ledger = new QuotaAdmission.Ledger(headroom(100, 100, 5));
+        ledger.add(demand);
+        QuotaExceededException exceeded = ledger.firstExceeded();
+        Assert.assertNotNull(exceeded);
+        Assert.assertEquals(QuotaAdmission.NETWORK_INTERFACES_QUOTA, exceeded.quotaName());
+        Assert.assertEquals(6, exceeded.required());
+
+        Map<String, Long> quotas = headroom(100, 100, 10).get(Region.US_EAST.name()).quotasOf(demand);
+        Assert.assertEquals(Long.valueOf(12), quotas.get(QuotaAdmission.REGIONAL_CORES_QUOTA));
+        Assert.assertEquals(Long.valueOf(6), quotas.get(QuotaAdmission.NETWORK_INTERFACES_QUOTA));
+        Assert.assertEquals(Long.valueOf(3), quotas.get(QuotaAdmission.PUBLIC_IP_ADDRESSES_QUOTA));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownSize() throws Exception {
+        QuotaAdmission.Ledger ledger = new QuotaAdmission.Ledger(headroom(100, 100, 10));
+        ledger.add(new QuotaAdmission.Demand(Region.US_EAST, "Standard_Unknown", 1, 1, 0));
+    }
+
+    private static Map<String, QuotaAdmission.Headroom> headroom(long regionalCores, long dsFamilyCores, long networkInterfaces) throws Exception {
+        List<VirtualMachineSizeInner> sizes = Arrays.asList(
+                new VirtualMachineSizeInner().withName("Standard_D4s_v3").withNumberOfCores(4).withMemoryInMB(16384),
+                new VirtualMachineSizeInner().withName("Standard_E4s_v3").withNumberOfCores(4).withMemoryInMB(32768));
+        List<ResourceSkuInner> skus = Arrays.asList(new AzureJacksonAdapter().<ResourceSkuInner[]>deserialize(SKUS, ResourceSkuInner[].class));
+        List<UsageInner> usages = Arrays.asList(
+                new UsageInner().withName(new UsageName().withValue("cores")).withCurrentValue(0).withLimit(regionalCores),
+                new UsageInner().withName(new UsageName().withValue("standardDSv3Family")).withCurrentValue(0).withLimit(dsFamilyCores));
+        VirtualMachineCapacityIndexImpl index = new VirtualMachineCapacityIndexImpl(Region.US_EAST, DateTime.now(), sizes, skus, usages);
+        Map<String, QuotaAdmission.Headroom> headroom = new HashMap<>();
+        headroom.put(Region.US_EAST.name(), new QuotaAdmission.Headroom(index,
+                Collections.singletonList(networkUsage(QuotaAdmission.NETWORK_INTERFACES_QUOTA, 0, networkInterfaces))));
+        return headroom;
+    }
+
+    private static VirtualMachineScaleSetNetworkConfigurationInner nicConfiguration(
+            VirtualMachineScaleSetIPConfigurationInner ipConfiguration) {
+        return new VirtualMachineScaleSetNetworkConfigurationInner()
+                .withIpConfigurations(Collections.singletonList(ipConfiguration));
+    }
+
+    private static NetworkUsage networkUsage(final String name, final long currentValue, final long limit) {
+        return new NetworkUsage() {
+            @Override
+            public NetworkUsageUnit unit() {
+                return NetworkUsageUnit.COUNT;
+            }
+
+            @Override
+            public long currentValue() {
+                return currentValue;
+            }
+
+            @Override
+            public long limit() {
+                return limit;
+            }
+
+            @Override
+            public com.microsoft.azure.management.network.UsageName name() {
+                return new com.microsoft.azure.management.network.UsageName().withValue(name);
+            }
+
+            @Override
+            public com.microsoft.azure.management.network.implementation.UsageInner inner() {
+                return null;
+            }
+        };
+    }
+}
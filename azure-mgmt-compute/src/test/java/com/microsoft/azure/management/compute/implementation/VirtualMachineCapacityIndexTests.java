@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.compute.UsageName;
+import com.microsoft.azure.management.compute.VirtualMachineCapacityIndex;
+import com.microsoft.azure.management.compute.VirtualMachineSize;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class VirtualMachineCapacityIndexTests {
+    private static final String SKUS = "["
+            + sku("Standard_D2s_v3", "standardDSv3Family", "[\"1\",\"2\",\"3\"]", "")
+            + "," + sku("Standard_D8s_v3", "standardDSv3Family", "[\"1\",\"2\",\"3\"]",
+                    "{\"type\":\"Zone\",\"values\":[\"eastus2\"],\"restrictionInfo\":{\"zones\":[\"2\"]},\"reasonCode\":\"NotAvailableForSubscription\"}")
+            + "," + sku("Standard_E8s_v3", "standardESv3Family", "[\"1\",\"2\"]", "")
+            + "," + sku("Standard_F8s", "standardFSFamily", "[]",
+                    "{\"type\":\"Location\",\"values\":[\"eastus2\"],\"reasonCode\":\"NotAvailableForSubscription\"}")
+            + "," + sku("Standard_M64s", "standardMSFamily", "[\"2\"]", "")
+            + "]";
+
+    @Test
+    public void canFindSmallestSize() throws Exception {
+        VirtualMachineCapacityIndex index = newIndex(100, 64);
+
+        Assert.assertEquals(5, index.sizes().size());
+        Assert.assertEquals("Standard_D2s_v3", index.sizes().get(0).name());
+        // D8s_v3 is restricted in zone 2 and F8s in the region, E8s_v3 has 8 cores and 64 GB.
+        VirtualMachineSize size = index.findSmallestSize(8, 32 * 1024, "2", 1);
+        Assert.assertEquals("Standard_E8s_v3", size.name());
+        Assert.assertEquals("Standard_D8s_v3", index.findSmallestSize(8, 32 * 1024, "1", 1).name());
+        Assert.assertEquals("Standard_D8s_v3", index.findSmallestSize(8, 32 * 1024, null, 1).name());
+        Assert.assertNull(index.findSmallestSize(8, 32 * 1024, "3", 20));
+    }
+
+    @Test
+    public void appliesQuota() throws Exception {
+        // 64 regional cores left, E family limited to 16.
+        VirtualMachineCapacityIndex index = newIndex(64, 16);
+
+        Assert.assertEquals(16, index.remainingCores("Standard_E8s_v3"));
+        Assert.assertEquals(64, index.remainingCores("standard_d8s_v3"));
+        Assert.assertEquals("Standard_E8s_v3", index.findSmallestSize(8, 64 * 1024, "2", 2).name());
+        Assert.assertNull(index.findSmallestSize(8, 64 * 1024, "2", 3));
+        List<VirtualMachineSize> sizes = index.findSizes(8, 0, null, 3);
+        Assert.assertEquals(1, sizes.size());
+        Assert.assertEquals("Standard_D8s_v3", sizes.get(0).name());
+    }
+
+    @Test
+    public void exposesAvailability() throws Exception {
+        VirtualMachineCapacityIndex index = newIndex(100, 64);
+
+        Assert.assertFalse(index.isAvailable("Standard_F8s"));
+        Assert.assertFalse(index.isAvailable("Standard_A0"));
+        Assert.assertTrue(index.isAvailable("Standard_D8s_v3"));
+        Assert.assertEquals(Arrays.asList("1", "3"), Arrays.asList(index.availabilityZones("Standard_D8s_v3").toArray()));
+        Assert.assertTrue(index.availabilityZones("Standard_F8s").isEmpty());
+    }
+
+    private static VirtualMachineCapacityIndex newIndex(int remainingRegionalCores, int esFamilyLimit) throws Exception {
+        List<VirtualMachineSizeInner> sizes = Arrays.asList(
+                size("Standard_M64s", 64, 1024 * 1024),
+                size("Standard_F8s", 8, 16 * 1024),
+                size("Standard_E8s_v3", 8, 64 * 1024),
+                size("Standard_D8s_v3", 8, 32 * 1024),
+                size("Standard_D2s_v3", 2, 8 * 1024));
+        List<ResourceSkuInner> skus = Arrays.asList(new AzureJacksonAdapter().<ResourceSkuInner[]>deserialize(SKUS, ResourceSkuInner[].class));
+        List<UsageInner> usages = Arrays.asList(
+                usage("cores", 100 - remainingRegionalCores, 100),
+                usage("standardDSv3Family", 0, 100),
+                usage("standardESv3Family", 0, esFamilyLimit));
+        return new VirtualMachineCapacityIndexImpl(Region.US_EAST2, DateTime.now(), sizes, skus, usages);
+    }
+
+    private static VirtualMachineSizeInner size(String name, int cores, int memoryInMB) {
+        return new VirtualMachineSizeInner().withName(name).withNumberOfCores(cores).withMemoryInMB(memoryInMB);
+    }
+
+    private static UsageInner usage(String name, int currentValue, long limit) {
+        return new UsageInner().withName(new UsageName().withValue(name)).withCurrentValue(currentValue).withLimit(limit);
+    }
+
+    private static String sku(String name, String family, String zones, String restriction) {
+        return "{\"resourceType\":\"virtualMachines\",\"name\":\"" + name + "\",\"family\":\"" + family + "\","
+                + "\"locations\":[\"eastus2\"],"
+                + "\"locationInfo\":[{\"location\":\"eastus2\",\"zones\":" + zones + "}],"
+                + "\"restrictions\":[" + restriction + "]}";
+    }
+}
@@ -113,7 +113,7 @@ public class ContainerGroupImpl
     }
 
     private Observable<Triple<String, String, String>> createFileShareAsync(final StorageAccount storageAccount) {
-        return storageAccount.getKeysAsync()
+        return this.storageManager.storageAccountKeys().getKeysAsync(storageAccount)
             .map(new Func1<List<StorageAccountKey>, String>() {
                 @Override
                 public String call(List<StorageAccountKey> storageAccountKeys) {
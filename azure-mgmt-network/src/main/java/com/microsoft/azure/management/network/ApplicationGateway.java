@@ -7,6 +7,7 @@ package com.microsoft.azure.management.network;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.microsoft.azure.management.apigeneration.Beta;
 import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
@@ -61,6 +62,18 @@ public interface ApplicationGateway extends
     @Beta(SinceVersion.V1_4_0)
     Observable<Map<String, ApplicationGatewayBackendHealth>> checkBackendHealthAsync();
 
+    /**
+     * Checks the backend health periodically, emitting a health check only when the health status of a server
+     * changed since the previously emitted one. The network interfaces of the servers are fetched when first used,
+     * and fetched again only once the servers of the backends change.
+     * @param interval the interval between health checks
+     * @param unit the time unit of the interval
+     * @return an observable that emits backend healths indexed by backend name, starting with the first check
+     */
+    @Method
+    @Beta(SinceVersion.V1_4_0)
+    Observable<Map<String, ApplicationGatewayBackendHealth>> watchBackendHealthAsync(long interval, TimeUnit unit);
+
     /**
      * Stops the application gateway.
      */
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+
+import java.util.Map;
+
+/**
+ * Aggregates of the flow tuples of network security group flow logs.
+ * <p>
+ * A version 2 flow log records a flow with one tuple when it begins, and more tuples while it continues and when
+ * it ends. Flows are counted once, by the tuple that begins them, and their bytes are summed over all their tuples.
+ */
+@Fluent
+@Beta(SinceVersion.V1_4_0)
+public interface FlowLogAnalysis {
+    /**
+     * @return the number of flows read
+     */
+    long flowCount();
+
+    /**
+     * @return the number of flow tuples that could not be decoded and were skipped
+     */
+    long malformedFlowCount();
+
+    /**
+     * @return the number of denied flows
+     */
+    long deniedFlowCount();
+
+    /**
+     * @return the number of denied flows, keyed by the name of the rule that denied them
+     */
+    Map<String, Long> deniedFlowCountsByRule();
+
+    /**
+     * @return the source IP addresses with the most flows and their number of flows, in descending order
+     */
+    Map<String, Long> topTalkers();
+
+    /**
+     * @return the number of bytes sent in both directions by the top talkers, keyed by source IP address; only
+     * version 2 flow logs record bytes
+     */
+    Map<String, Long> topTalkerBytes();
+}
@@ -11,6 +11,7 @@ import java.util.Map;
 import com.microsoft.azure.management.apigeneration.Beta;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Method;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.network.implementation.VirtualNetworkInner;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.GroupableResource;
@@ -19,6 +20,7 @@ import com.microsoft.azure.management.resources.fluentcore.model.Appliable;
 import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
 import com.microsoft.azure.management.resources.fluentcore.model.Refreshable;
 import com.microsoft.azure.management.resources.fluentcore.model.Updatable;
+import rx.Observable;
 
 /**
  * Entry point for Virtual Network management API in Azure.
@@ -31,8 +33,14 @@ public interface Network extends
 
     /**
      * Checks if the specified private IP address is available in this network.
+     * <p>
+     * Addresses within the subnets are checked against a local index of the addresses in use, built from the
+     * state of the network as of its last refresh; only the other addresses are checked with the service. An
+     * address taken by another resource since the last refresh is thus reported as available, while one returned
+     * by {@link #nextAvailablePrivateIPAddresses(String, int)} is reported as in use. Refresh the network for an
+     * up to date answer.
      * @param ipAddress an IP address from this network's address space
-     * @return true if the address is within this network's address space and is available
+     * @return true if the address is within this network's address space and was available as of the last refresh
      */
     @Beta(SinceVersion.V1_3_0)
     boolean isPrivateIPAddressAvailable(String ipAddress);
@@ -45,6 +53,49 @@ public interface Network extends
     @Beta(SinceVersion.V1_3_0)
     boolean isPrivateIPAddressInNetwork(String ipAddress);
 
+    /**
+     * Finds the next available private IP addresses in a subnet of this network.
+     * <p>
+     * Candidate addresses are picked from a local index of the addresses in use in the subnet, built from
+     * the state of the network as of its last refresh, and only the picked addresses are confirmed with the
+     * service. The returned addresses are not reserved in Azure, but are not returned again by this network
+     * instance until it is refreshed.
+     * @param subnetName the name of the subnet
+     * @param count the number of addresses to find
+     * @return the available addresses in ascending order, fewer than requested if the subnet is exhausted
+     */
+    @Beta(SinceVersion.V1_4_0)
+    List<String> nextAvailablePrivateIPAddresses(String subnetName, int count);
+
+    /**
+     * Finds the next available private IP addresses in a subnet of this network asynchronously.
+     * @see #nextAvailablePrivateIPAddresses(String, int)
+     * @param subnetName the name of the subnet
+     * @param count the number of addresses to find
+     * @return an observable that emits the available addresses in ascending order
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Observable<List<String>> nextAvailablePrivateIPAddressesAsync(String subnetName, int count);
+
+    /**
+     * Builds a resolver of the next hops of traffic leaving the subnets of this network, from the state of the
+     * network as of its last refresh, the route tables of its subnets, its connected peerings and the routes
+     * learned by its virtual network gateway.
+     * @return the route resolver
+     */
+    @Beta(SinceVersion.V1_4_0)
+    @Method
+    NetworkRouteResolver buildRouteResolver();
+
+    /**
+     * Builds a resolver of the next hops of traffic leaving the subnets of this network asynchronously.
+     * @see #buildRouteResolver()
+     * @return an observable that emits the route resolver
+     */
+    @Beta(SinceVersion.V1_4_0)
+    @Method
+    Observable<NetworkRouteResolver> buildRouteResolverAsync();
+
     /**
      * @return list of address spaces associated with this virtual network, in the CIDR notation
      */
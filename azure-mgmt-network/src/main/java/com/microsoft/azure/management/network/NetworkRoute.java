@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+
+/**
+ * A route selected by a {@link NetworkRouteResolver} for a destination.
+ */
+@Fluent
+@Beta(SinceVersion.V1_4_0)
+public interface NetworkRoute {
+    /**
+     * @return the name of the route, the route name for user defined routes
+     */
+    String name();
+
+    /**
+     * @return the destination address prefix of the route, in CIDR notation
+     */
+    String addressPrefix();
+
+    /**
+     * @return where the route comes from: user defined routes, routes learned by the virtual network gateway
+     * or system default routes
+     */
+    EffectiveRouteSource source();
+
+    /**
+     * @return the type of the next hop; routes to the address spaces of peered networks have the type "VNetPeering"
+     */
+    RouteNextHopType nextHopType();
+
+    /**
+     * @return the IP address of the next hop, if any
+     */
+    String nextHopIPAddress();
+
+    /**
+     * @return the resource ID of the route table of a user defined route, otherwise null
+     */
+    String routeTableId();
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.apigeneration.Method;
+
+import java.util.List;
+
+/**
+ * Local resolver of the next hop of traffic leaving the subnets of a virtual network.
+ * <p>
+ * Routes are selected by longest prefix match among the user defined routes of the route table associated with
+ * the subnet, the routes learned by the virtual network gateway and the system routes (address spaces of the
+ * network and of its connected peerings, the Internet default route and the private ranges dropped by default).
+ * When several routes have the same prefix, user defined routes take precedence over gateway routes, which
+ * take precedence over system routes. Only IPv4 destinations are resolved.
+ */
+@Fluent
+@Beta(SinceVersion.V1_4_0)
+public interface NetworkRouteResolver {
+    /**
+     * @return the resource ID of the virtual network
+     */
+    String networkId();
+
+    /**
+     * Resolves the route selected for traffic from a subnet to a destination.
+     *
+     * @param subnetName the name of the source subnet
+     * @param destinationIPAddress the destination IP address
+     * @return the selected route, or null if the destination is not a valid IPv4 address
+     */
+    @Method
+    NetworkRoute resolveNextHop(String subnetName, String destinationIPAddress);
+
+    /**
+     * Resolves the routes selected for traffic from a subnet to many destinations.
+     *
+     * @param subnetName the name of the source subnet
+     * @param destinationIPAddresses the destination IP addresses
+     * @return the selected routes, in the order of the destinations
+     */
+    @Method
+    List<NetworkRoute> resolveNextHops(String subnetName, List<String> destinationIPAddresses);
+
+    /**
+     * Recompiles the user defined routes of a route table, for instance after it was updated. Only the routes
+     * of this route table are recompiled.
+     *
+     * @param routeTable the route table
+     * @return this resolver
+     */
+    @Method
+    NetworkRouteResolver refreshRouteTable(RouteTable routeTable);
+}
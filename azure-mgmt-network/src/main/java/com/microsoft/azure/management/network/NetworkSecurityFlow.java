@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+
+/**
+ * A network flow, described by its direction and 5-tuple, to evaluate against network security rules.
+ */
+@Beta(SinceVersion.V1_4_0)
+public class NetworkSecurityFlow {
+    private SecurityRuleDirection direction;
+    private SecurityRuleProtocol protocol;
+    private String sourceIPAddress;
+    private int sourcePort;
+    private String destinationIPAddress;
+    private int destinationPort;
+
+    /**
+     * Get the direction value.
+     *
+     * @return the direction value
+     */
+    public SecurityRuleDirection direction() {
+        return this.direction;
+    }
+
+    /**
+     * Set the direction value.
+     *
+     * @param direction the direction value to set
+     * @return the NetworkSecurityFlow object itself.
+     */
+    public NetworkSecurityFlow withDirection(SecurityRuleDirection direction) {
+        this.direction = direction;
+        return this;
+    }
+
+    /**
+     * Get the protocol value, TCP or UDP.
+     *
+     * @return the protocol value
+     */
+    public SecurityRuleProtocol protocol() {
+        return this.protocol;
+    }
+
+    /**
+     * Set the protocol value.
+     *
+     * @param protocol the protocol value to set
+     * @return the NetworkSecurityFlow object itself.
+     */
+    public NetworkSecurityFlow withProtocol(SecurityRuleProtocol protocol) {
+        this.protocol = protocol;
+        return this;
+    }
+
+    /**
+     * Get the sourceIPAddress value.
+     *
+     * @return the sourceIPAddress value
+     */
+    public String sourceIPAddress() {
+        return this.sourceIPAddress;
+    }
+
+    /**
+     * Set the sourceIPAddress value.
+     *
+     * @param sourceIPAddress the sourceIPAddress value to set
+     * @return the NetworkSecurityFlow object itself.
+     */
+    public NetworkSecurityFlow withSourceIPAddress(String sourceIPAddress) {
+        this.sourceIPAddress = sourceIPAddress;
+        return this;
+    }
+
+    /**
+     * Get the sourcePort value.
+     *
+     * @return the sourcePort value
+     */
+    public int sourcePort() {
+        return this.sourcePort;
+    }
+
+    /**
+     * Set the sourcePort value.
+     *
+     * @param sourcePort the sourcePort value to set
+     * @return the NetworkSecurityFlow object itself.
+     */
+    public NetworkSecurityFlow withSourcePort(int sourcePort) {
+        this.sourcePort = sourcePort;
+        return this;
+    }
+
+    /**
+     * Get the destinationIPAddress value.
+     *
+     * @return the destinationIPAddress value
+     */
+    public String destinationIPAddress() {
+        return this.destinationIPAddress;
+    }
+
+    /**
+     * Set the destinationIPAddress value.
+     *
+     * @param destinationIPAddress the destinationIPAddress value to set
+     * @return the NetworkSecurityFlow object itself.
+     */
+    public NetworkSecurityFlow withDestinationIPAddress(String destinationIPAddress) {
+        this.destinationIPAddress = destinationIPAddress;
+        return this;
+    }
+
+    /**
+     * Get the destinationPort value.
+     *
+     * @return the destinationPort value
+     */
+    public int destinationPort() {
+        return this.destinationPort;
+    }
+
+    /**
+     * Set the destinationPort value.
+     *
+     * @param destinationPort the destinationPort value to set
+     * @return the NetworkSecurityFlow object itself.
+     */
+    public NetworkSecurityFlow withDestinationPort(int destinationPort) {
+        this.destinationPort = destinationPort;
+        return this;
+    }
+}
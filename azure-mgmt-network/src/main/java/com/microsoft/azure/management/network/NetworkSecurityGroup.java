@@ -5,10 +5,14 @@
  */
 package com.microsoft.azure.management.network;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.apigeneration.Method;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.network.implementation.NetworkSecurityGroupInner;
 import com.microsoft.azure.management.network.model.HasAssociatedSubnets;
@@ -47,6 +51,18 @@ public interface NetworkSecurityGroup extends
      */
     Set<String> networkInterfaceIds();
 
+    /**
+     * Compiles the security rules and default security rules of this network security group into an evaluator
+     * answering whether network flows are allowed locally, without calling the service.
+     *
+     * @param serviceTagPrefixes the IPv4 address prefixes of the service tags referenced by the rules, keyed by tag,
+     *                           for instance the address spaces of the virtual network for "VirtualNetwork"
+     * @return the evaluator
+     */
+    @Beta(SinceVersion.V1_4_0)
+    @Method
+    NetworkSecurityRuleEvaluator compileRules(Map<String, List<String>> serviceTagPrefixes);
+
     // Fluent interfaces for creating NSGs
 
     /**
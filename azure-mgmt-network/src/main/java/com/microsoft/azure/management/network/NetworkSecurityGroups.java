@@ -5,6 +5,8 @@
  */
 package com.microsoft.azure.management.network;
 
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.network.implementation.NetworkSecurityGroupsInner;
@@ -19,6 +21,11 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -37,4 +44,34 @@ public interface NetworkSecurityGroups extends
     SupportsBatchDeletion,
     HasManager<NetworkManager>,
     HasInner<NetworkSecurityGroupsInner> {
+
+    /**
+     * Evaluates network flows against the rules of many network security groups, compiling and evaluating the
+     * rules of the network security groups in parallel.
+     *
+     * @param networkSecurityGroups the network security groups
+     * @param flows the flows to evaluate against each network security group
+     * @param serviceTagPrefixes the IPv4 address prefixes of the service tags referenced by the rules, keyed by tag
+     * @return the rule matching each flow, in the order of the flows, keyed by network security group ID
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Map<String, List<NetworkSecurityRule>> evaluateFlows(
+            Collection<NetworkSecurityGroup> networkSecurityGroups,
+            List<NetworkSecurityFlow> flows,
+            Map<String, List<String>> serviceTagPrefixes);
+
+    /**
+     * Evaluates network flows against the rules of many network security groups asynchronously.
+     * @see #evaluateFlows(Collection, List, Map)
+     *
+     * @param networkSecurityGroups the network security groups
+     * @param flows the flows to evaluate against each network security group
+     * @param serviceTagPrefixes the IPv4 address prefixes of the service tags referenced by the rules, keyed by tag
+     * @return an observable that emits the rule matching each flow, keyed by network security group ID
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Observable<Map<String, List<NetworkSecurityRule>>> evaluateFlowsAsync(
+            Collection<NetworkSecurityGroup> networkSecurityGroups,
+            List<NetworkSecurityFlow> flows,
+            Map<String, List<String>> serviceTagPrefixes);
 }
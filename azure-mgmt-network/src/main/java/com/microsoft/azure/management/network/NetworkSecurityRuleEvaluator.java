@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.apigeneration.Method;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Local evaluator of network flows against the security rules and default security rules of a network
+ * security group, as of the time it was compiled.
+ * <p>
+ * Only IPv4 flows are evaluated. Service tags are resolved from the address prefixes supplied when compiling;
+ * a rule referencing a tag that could not be resolved matches no flow.
+ */
+@Fluent
+@Beta(SinceVersion.V1_4_0)
+public interface NetworkSecurityRuleEvaluator {
+    /**
+     * @return the resource ID of the network security group the rules were compiled from
+     */
+    String networkSecurityGroupId();
+
+    /**
+     * @return the service tags referenced by the rules that could not be resolved to address prefixes
+     */
+    Set<String> unresolvedServiceTags();
+
+    /**
+     * Finds the rule with the highest priority matching a flow.
+     *
+     * @param flow the flow
+     * @return the matching rule, or null if no rule matches the flow
+     */
+    @Method
+    NetworkSecurityRule findMatchingRule(NetworkSecurityFlow flow);
+
+    /**
+     * Checks whether a flow is allowed.
+     *
+     * @param flow the flow
+     * @return true if the rule matching the flow allows it, false if it denies it or if no rule matches
+     */
+    @Method
+    boolean isAllowed(NetworkSecurityFlow flow);
+
+    /**
+     * Finds the rules matching flows.
+     *
+     * @param flows the flows
+     * @return the rule matching each flow, in the order of the flows, null for the flows no rule matches
+     */
+    @Method
+    List<NetworkSecurityRule> findMatchingRules(List<NetworkSecurityFlow> flows);
+}
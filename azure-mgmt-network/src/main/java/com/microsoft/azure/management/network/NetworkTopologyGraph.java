@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.apigeneration.Method;
+
+import java.util.Set;
+
+/**
+ * In-memory graph of the networking resources of a resource group and of the resources they reference, such as
+ * virtual machines or network interfaces in other resource groups.
+ * <p>
+ * Nodes are identified by resource ID, compared case insensitively. Besides top level resources, subnets, load
+ * balancer frontends, rules, inbound NAT rules and backends, and application gateway frontends and backends
+ * are nodes of their own.
+ */
+@Fluent
+@Beta(SinceVersion.V1_4_0)
+public interface NetworkTopologyGraph {
+    /**
+     * @return the name of the resource group the graph was built for
+     */
+    String resourceGroupName();
+
+    /**
+     * @return the IDs of all the nodes of the graph
+     */
+    Set<String> resourceIds();
+
+    /**
+     * @param resourceId the ID of a node
+     * @return the IDs of the nodes directly connected to the node
+     */
+    @Method
+    Set<String> adjacentResourceIds(String resourceId);
+
+    /**
+     * @param ipAddress a private or public IP address
+     * @return the IDs of the network interfaces, public IP addresses, load balancer and application gateway
+     * frontends using the IP address
+     */
+    @Method
+    Set<String> findResourceIdsByIPAddress(String ipAddress);
+
+    /**
+     * @param subnetId the ID of a subnet
+     * @return the IDs of the network interfaces with an IP configuration in the subnet
+     */
+    @Method
+    Set<String> networkInterfaceIdsInSubnet(String subnetId);
+
+    /**
+     * Finds the virtual machines receiving traffic sent to a public IP address, either directly through their
+     * network interfaces or through the load balancing rules, inbound NAT rules or backends of the load balancers
+     * and application gateways it is the frontend of.
+     *
+     * @param publicIPAddressId the ID of a public IP address
+     * @return the IDs of the virtual machines
+     */
+    @Method
+    Set<String> virtualMachineIdsBehindPublicIPAddress(String publicIPAddressId);
+}
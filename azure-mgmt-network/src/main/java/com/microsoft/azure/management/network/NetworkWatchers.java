@@ -6,6 +6,7 @@
 package com.microsoft.azure.management.network;
 
 import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.network.implementation.NetworkWatchersInner;
@@ -20,6 +21,12 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
 
 /**
  * Entry point for Network Watcher API in Azure.
@@ -38,4 +45,38 @@ public interface NetworkWatchers extends
         SupportsBatchDeletion,
         HasManager<NetworkManager>,
         HasInner<NetworkWatchersInner> {
+    /**
+     * Reads network security group flow logs downloaded from the storage account they are written to, and
+     * aggregates their flow tuples. A few files at a time are read on the I/O scheduler, and the files read are
+     * parsed in parallel on the computation scheduler.
+     *
+     * @param flowLogFiles the flow log files
+     * @param topTalkerCount the number of source IP addresses with the most flows to report
+     * @return the aggregates of the flow tuples of all the files
+     */
+    @Beta(SinceVersion.V1_4_0)
+    FlowLogAnalysis analyzeFlowLogs(Collection<File> flowLogFiles, int topTalkerCount);
+
+    /**
+     * Reads network security group flow logs downloaded from the storage account they are written to, and
+     * aggregates their flow tuples asynchronously.
+     * @see #analyzeFlowLogs(Collection, int)
+     *
+     * @param flowLogFiles the flow log files
+     * @param topTalkerCount the number of source IP addresses with the most flows to report
+     * @return an observable that emits the aggregates of the flow tuples of all the files
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Observable<FlowLogAnalysis> analyzeFlowLogsAsync(Collection<File> flowLogFiles, int topTalkerCount);
+
+    /**
+     * Reads a network security group flow log and aggregates its flow tuples.
+     *
+     * @param flowLog the flow log; the stream is read to the end but not closed
+     * @param topTalkerCount the number of source IP addresses with the most flows to report
+     * @return the aggregates of the flow tuples
+     * @throws IOException if the stream cannot be read or does not hold a flow log
+     */
+    @Beta(SinceVersion.V1_4_0)
+    FlowLogAnalysis analyzeFlowLog(InputStream flowLog, int topTalkerCount) throws IOException;
 }
@@ -5,9 +5,12 @@
  */
 package com.microsoft.azure.management.network;
 
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.network.implementation.PublicIPAddressesInner;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.SupportsBatchDeletion;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.SupportsDeletingByResourceGroup;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.SupportsGettingByResourceGroup;
@@ -19,6 +22,10 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
+
+import java.util.Collection;
+import java.util.Map;
 
 
 /**
@@ -37,4 +44,26 @@ public interface PublicIPAddresses extends
     SupportsBatchDeletion,
     HasManager<NetworkManager>,
     HasInner<PublicIPAddressesInner> {
+
+    /**
+     * Checks whether DNS labels are available for public IP addresses in a region, checking many labels
+     * concurrently. Labels found taken are remembered for a minute and reported as unavailable without a request.
+     *
+     * @param region the region
+     * @param leafDomainLabels the leaf domain labels
+     * @return the availability of each label, in the order of the labels
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Map<String, Boolean> checkDnsLabelAvailability(Region region, Collection<String> leafDomainLabels);
+
+    /**
+     * Checks whether DNS labels are available for public IP addresses in a region asynchronously.
+     * @see #checkDnsLabelAvailability(Region, Collection)
+     *
+     * @param region the region
+     * @param leafDomainLabels the leaf domain labels
+     * @return an observable that emits the availability of each label, in the order of the labels
+     */
+    @Beta(SinceVersion.V1_4_0)
+    Observable<Map<String, Boolean>> checkDnsLabelAvailabilityAsync(Region region, Collection<String> leafDomainLabels);
 }
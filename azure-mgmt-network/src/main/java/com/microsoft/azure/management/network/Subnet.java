@@ -17,6 +17,7 @@ import com.microsoft.azure.management.resources.fluentcore.arm.models.ChildResou
 import com.microsoft.azure.management.resources.fluentcore.model.Attachable;
 import com.microsoft.azure.management.resources.fluentcore.model.Settable;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
 
 /**
  * A client-side representation of a subnet of a virtual network.
@@ -41,10 +42,23 @@ public interface Subnet extends
      * @return network interface IP configurations that are associated with this subnet
      * <p>
      * Note that this call may result in multiple calls to Azure to fetch all the referenced interfaces each time it is invoked.
+     * The calls are made concurrently, see {@link Subnet#listNetworkInterfaceIPConfigurationsAsync()}.
      */
     @Method
     Collection<NicIPConfiguration> listNetworkInterfaceIPConfigurations();
 
+    /**
+     * Lists the network interface IP configurations that are associated with this subnet asynchronously.
+     * <p>
+     * The referenced network interfaces are fetched concurrently, and a resource group referenced by many
+     * of them is listed in a single call instead.
+     *
+     * @return an observable that emits the network interface IP configurations
+     */
+    @Beta(SinceVersion.V1_4_0)
+    @Method
+    Observable<NicIPConfiguration> listNetworkInterfaceIPConfigurationsAsync();
+
     /**
      * @return available private IP addresses within this network
      */
@@ -16,6 +16,7 @@ import com.microsoft.azure.management.network.ApplicationGatewayBackendHealth;
 import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthHttpSettings;
 import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthPool;
 import com.microsoft.azure.management.network.ApplicationGatewayBackendHttpConfigurationHealth;
+import com.microsoft.azure.management.network.NetworkInterface;
 import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
 
 /**
@@ -27,10 +28,13 @@ public class ApplicationGatewayBackendHealthImpl implements ApplicationGatewayBa
     private final ApplicationGatewayBackendHealthPool inner;
     private final ApplicationGatewayImpl appGateway;
     private final Map<String, ApplicationGatewayBackendHttpConfigurationHealth> httpConfigHealths = new TreeMap<>();
+    private final BackendServerNetworkInterfaces networkInterfaces;
 
-    ApplicationGatewayBackendHealthImpl(ApplicationGatewayBackendHealthPool inner, ApplicationGatewayImpl appGateway) {
+    ApplicationGatewayBackendHealthImpl(ApplicationGatewayBackendHealthPool inner, ApplicationGatewayImpl appGateway,
+                                        BackendServerNetworkInterfaces networkInterfaces) {
         this.inner = inner;
         this.appGateway = appGateway;
+        this.networkInterfaces = networkInterfaces;
         if (inner != null) {
             for (ApplicationGatewayBackendHealthHttpSettings httpConfigInner : inner.backendHttpSettingsCollection()) {
                 ApplicationGatewayBackendHttpConfigurationHealthImpl httpConfigHealth  = new ApplicationGatewayBackendHttpConfigurationHealthImpl(httpConfigInner, this);
@@ -72,4 +76,11 @@ public class ApplicationGatewayBackendHealthImpl implements ApplicationGatewayBa
     public ApplicationGateway parent() {
         return this.appGateway;
     }
+
+    /**
+     * @return the network interfaces of the servers of all the backends of the health check, keyed by lower case id
+     */
+    Map<String, NetworkInterface> networkInterfaces() {
+        return this.networkInterfaces.networkInterfaces();
+    }
 }
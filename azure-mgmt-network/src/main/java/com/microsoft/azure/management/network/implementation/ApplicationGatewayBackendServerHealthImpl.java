@@ -55,7 +55,8 @@ public class ApplicationGatewayBackendServerHealthImpl implements ApplicationGat
 
         String nicIPConfigName = ResourceUtils.nameFromResourceId(nicIPConfigId);
         String nicId = ResourceUtils.parentResourceIdFromResourceId(nicIPConfigId);
-        NetworkInterface nic = this.parent().parent().parent().manager().networkInterfaces().getById(nicId);
+        // Resolved together with the network interfaces of the servers of all the backends
+        NetworkInterface nic = ((ApplicationGatewayBackendHealthImpl) this.parent().parent()).networkInterfaces().get(nicId.toLowerCase());
         if (nic == null) {
             return null;
         } else {
@@ -11,6 +11,8 @@ import com.microsoft.azure.management.network.ApplicationGatewayBackend;
 import com.microsoft.azure.management.network.ApplicationGatewayBackendHealth;
 import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthPool;
 import com.microsoft.azure.management.network.ApplicationGatewayBackendHttpConfiguration;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHttpConfigurationHealth;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendServerHealth;
 import com.microsoft.azure.management.network.ApplicationGatewayFrontend;
 import com.microsoft.azure.management.network.ApplicationGatewayListener;
 import com.microsoft.azure.management.network.ApplicationGatewayIPConfiguration;
@@ -42,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 import com.microsoft.azure.SubResource;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
@@ -1491,6 +1494,40 @@ class ApplicationGatewayImpl
 
     @Override
     public Observable<Map<String, ApplicationGatewayBackendHealth>> checkBackendHealthAsync() {
+        return this.checkBackendHealthAsync(new BackendServerNetworkInterfaces(this.manager()));
+    }
+
+    @Override
+    public Observable<Map<String, ApplicationGatewayBackendHealth>> watchBackendHealthAsync(long interval, TimeUnit unit) {
+        // Shared by the health checks of the stream, so that the network interfaces are only fetched again
+        // once the servers change
+        final BackendServerNetworkInterfaces networkInterfaces = new BackendServerNetworkInterfaces(this.manager());
+        return healthChanges(Observable.interval(0, interval, unit, SdkContext.getRxScheduler())
+                .onBackpressureDrop()
+                .concatMap(new Func1<Long, Observable<Map<String, ApplicationGatewayBackendHealth>>>() {
+                    @Override
+                    public Observable<Map<String, ApplicationGatewayBackendHealth>> call(Long tick) {
+                        return checkBackendHealthAsync(networkInterfaces);
+                    }
+                }));
+    }
+
+    /**
+     * Drops the health checks in which the health status of each server is the same as in the check before.
+     *
+     * @param checks the health checks
+     * @return an observable that emits the health checks in which the health status of a server changed
+     */
+    static Observable<Map<String, ApplicationGatewayBackendHealth>> healthChanges(Observable<Map<String, ApplicationGatewayBackendHealth>> checks) {
+        return checks.distinctUntilChanged(new Func1<Map<String, ApplicationGatewayBackendHealth>, Map<String, String>>() {
+            @Override
+            public Map<String, String> call(Map<String, ApplicationGatewayBackendHealth> backendHealths) {
+                return serverStatuses(backendHealths);
+            }
+        });
+    }
+
+    private Observable<Map<String, ApplicationGatewayBackendHealth>> checkBackendHealthAsync(final BackendServerNetworkInterfaces networkInterfaces) {
         return this.manager().inner().applicationGateways()
                 .backendHealthAsync(this.resourceGroupName(), this.name())
                 .map(new Func1<ApplicationGatewayBackendHealthInner, Map<String, ApplicationGatewayBackendHealth>>() {
@@ -1498,8 +1535,10 @@ class ApplicationGatewayImpl
                     public Map<String, ApplicationGatewayBackendHealth> call(ApplicationGatewayBackendHealthInner inner) {
                         Map<String, ApplicationGatewayBackendHealth> backendHealths = new TreeMap<>();
                         if (inner != null) {
+                            networkInterfaces.addServers(inner.backendAddressPools());
                             for (ApplicationGatewayBackendHealthPool healthInner : inner.backendAddressPools()) {
-                                ApplicationGatewayBackendHealth backendHealth = new ApplicationGatewayBackendHealthImpl(healthInner, ApplicationGatewayImpl.this);
+                                ApplicationGatewayBackendHealth backendHealth = new ApplicationGatewayBackendHealthImpl(
+                                        healthInner, ApplicationGatewayImpl.this, networkInterfaces);
                                 backendHealths.put(backendHealth.name(), backendHealth);
                             }
                         }
@@ -1507,4 +1546,18 @@ class ApplicationGatewayImpl
                     }
                 });
     }
+
+    // The status of each server of a health check, keyed by backend, HTTP configuration and server address
+    static Map<String, String> serverStatuses(Map<String, ApplicationGatewayBackendHealth> backendHealths) {
+        Map<String, String> statuses = new HashMap<>();
+        for (ApplicationGatewayBackendHealth backendHealth : backendHealths.values()) {
+            for (ApplicationGatewayBackendHttpConfigurationHealth httpConfigHealth : backendHealth.httpConfigurationHealths().values()) {
+                for (ApplicationGatewayBackendServerHealth serverHealth : httpConfigHealth.serverHealths().values()) {
+                    statuses.put(backendHealth.name() + "/" + httpConfigHealth.name() + "/" + serverHealth.ipAddress(),
+                            String.valueOf(serverHealth.inner().health()));
+                }
+            }
+        }
+        return statuses;
+    }
 }
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthHttpSettings;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthPool;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthServer;
+import com.microsoft.azure.management.network.NetworkInterface;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func1;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The network interfaces of the servers of the backends of an application gateway, shared by all the backend
+ * healths of a health check, or of a stream of health checks.
+ * <p>
+ * The network interfaces are fetched on first use, all at once through {@link NetworkInterfaceResolver}, and
+ * then kept while the servers of the health checks stay the same. Once a server is added, removed, or moved to
+ * another IP configuration or address, the network interfaces of all the servers are fetched again.
+ */
+class BackendServerNetworkInterfaces {
+    private final Func1<Set<String>, Observable<Map<String, NetworkInterface>>> resolver;
+    // The IP configuration and address of each server of the last health check
+    private Set<String> servers = Collections.emptySet();
+    private Map<String, NetworkInterface> networkInterfaces = Collections.emptyMap();
+    // The network interfaces to fetch, null once fetched
+    private Set<String> pendingIds;
+    private Observable<Map<String, NetworkInterface>> resolution;
+
+    /**
+     * Creates BackendServerNetworkInterfaces.
+     *
+     * @param manager the network manager
+     */
+    BackendServerNetworkInterfaces(final NetworkManager manager) {
+        this(new Func1<Set<String>, Observable<Map<String, NetworkInterface>>>() {
+            @Override
+            public Observable<Map<String, NetworkInterface>> call(Set<String> networkInterfaceIds) {
+                return new NetworkInterfaceResolver(manager).resolveAsync(networkInterfaceIds);
+            }
+        });
+    }
+
+    /**
+     * Creates BackendServerNetworkInterfaces.
+     *
+     * @param resolver the function fetching network interfaces, keyed by lower case id, from their ids
+     */
+    BackendServerNetworkInterfaces(Func1<Set<String>, Observable<Map<String, NetworkInterface>>> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Registers the servers of the backends of a health check.
+     *
+     * @param backendHealths the backend healths
+     */
+    synchronized void addServers(List<ApplicationGatewayBackendHealthPool> backendHealths) {
+        Set<String> servers = new HashSet<>();
+        Set<String> nicIds = new HashSet<>();
+        if (backendHealths != null) {
+            for (ApplicationGatewayBackendHealthPool backendHealth : backendHealths) {
+                if (backendHealth.backendHttpSettingsCollection() == null) {
+                    continue;
+                }
+                for (ApplicationGatewayBackendHealthHttpSettings httpConfigInner : backendHealth.backendHttpSettingsCollection()) {
+                    if (httpConfigInner.servers() == null) {
+                        continue;
+                    }
+                    for (ApplicationGatewayBackendHealthServer serverInner : httpConfigInner.servers()) {
+                        if (serverInner.ipConfiguration() != null && serverInner.ipConfiguration().id() != null) {
+                            String ipConfigId = serverInner.ipConfiguration().id().toLowerCase();
+                            servers.add(ipConfigId + "|" + serverInner.address());
+                            nicIds.add(ResourceUtils.parentResourceIdFromResourceId(ipConfigId));
+                        }
+                    }
+                }
+            }
+        }
+        if (!servers.equals(this.servers)) {
+            this.servers = servers;
+            this.pendingIds = nicIds;
+            this.resolution = null;
+        }
+    }
+
+    /**
+     * Fetches the network interfaces of the servers, unless the servers did not change since the last fetch.
+     * The fetch is made without holding the lock, and shared by the callers asking meanwhile.
+     *
+     * @return a snapshot of the network interfaces keyed by lower case id
+     */
+    Map<String, NetworkInterface> networkInterfaces() {
+        Observable<Map<String, NetworkInterface>> resolution;
+        synchronized (this) {
+            if (this.pendingIds == null) {
+                return this.networkInterfaces;
+            }
+            if (this.resolution == null) {
+                this.resolution = resolve(this.pendingIds);
+            }
+            resolution = this.resolution;
+        }
+        return resolution.toBlocking().single();
+    }
+
+    private Observable<Map<String, NetworkInterface>> resolve(Set<String> nicIds) {
+        final AtomicReference<Observable<Map<String, NetworkInterface>>> self = new AtomicReference<>();
+        Observable<Map<String, NetworkInterface>> resolve = (nicIds.isEmpty()
+                ? Observable.just(Collections.<String, NetworkInterface>emptyMap())
+                : this.resolver.call(nicIds))
+                .map(new Func1<Map<String, NetworkInterface>, Map<String, NetworkInterface>>() {
+                    @Override
+                    public Map<String, NetworkInterface> call(Map<String, NetworkInterface> resolved) {
+                        Map<String, NetworkInterface> snapshot = Collections.unmodifiableMap(new HashMap<>(resolved));
+                        synchronized (BackendServerNetworkInterfaces.this) {
+                            // Kept only if the servers did not change meanwhile
+                            if (resolution == self.get()) {
+                                networkInterfaces = snapshot;
+                                pendingIds = null;
+                                resolution = null;
+                            }
+                        }
+                        return snapshot;
+                    }
+                })
+                .doOnError(new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        // A failed fetch is not kept, the next caller fetches again
+                        synchronized (BackendServerNetworkInterfaces.this) {
+                            if (resolution == self.get()) {
+                                resolution = null;
+                            }
+                        }
+                    }
+                })
+                .cache();
+        self.set(resolve);
+        return resolve;
+    }
+}
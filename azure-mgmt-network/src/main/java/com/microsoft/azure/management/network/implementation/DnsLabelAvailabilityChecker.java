@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the availability of many DNS labels in the cloudapp.azure.com zone of a region with a bounded number
+ * of concurrent requests.
+ * <p>
+ * Labels that do not match the label syntax are reported as unavailable without a request. Labels found taken are
+ * remembered for a short while, so that repeated naming passes do not check them again; available labels are not
+ * remembered, as they may be taken at any time.
+ */
+class DnsLabelAvailabilityChecker {
+    static final long DEFAULT_UNAVAILABLE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_REMEMBERED = 10000;
+    private static final Pattern LABEL_PATTERN = Pattern.compile("^[a-z][a-z0-9-]{1,61}[a-z0-9]$");
+
+    private final NetworkManager manager;
+    private final int maxConcurrency;
+    private final long unavailableTtlNanos;
+    // Expiry, in System.nanoTime() terms, of the labels found taken, keyed by region and label
+    private final Map<String, Long> unavailable = new ConcurrentHashMap<>();
+
+    /**
+     * Creates DnsLabelAvailabilityChecker.
+     *
+     * @param manager the network manager
+     * @param maxConcurrency the maximum number of concurrent requests
+     * @param unavailableTtlMillis how long a label found taken is reported as unavailable without a request
+     */
+    DnsLabelAvailabilityChecker(NetworkManager manager, int maxConcurrency, long unavailableTtlMillis) {
+        this.manager = manager;
+        this.maxConcurrency = maxConcurrency;
+        this.unavailableTtlNanos = TimeUnit.MILLISECONDS.toNanos(unavailableTtlMillis);
+    }
+
+    /**
+     * Checks the availability of DNS labels.
+     *
+     * @param regionName the region name
+     * @param labels the labels, duplicates are checked once
+     * @return an observable that emits the availability of each label, in the order of the labels
+     */
+    Observable<Map<String, Boolean>> checkAsync(final String regionName, Collection<String> labels) {
+        final Set<String> distinctLabels = new LinkedHashSet<>(labels);
+        return Observable.from(distinctLabels)
+                .flatMap(new Func1<String, Observable<Map.Entry<String, Boolean>>>() {
+                    @Override
+                    public Observable<Map.Entry<String, Boolean>> call(final String label) {
+                        if (!LABEL_PATTERN.matcher(label).matches() || isKnownUnavailable(regionName, label)) {
+                            return Observable.<Map.Entry<String, Boolean>>just(new AbstractMap.SimpleImmutableEntry<>(label, false));
+                        }
+                        return checkOneAsync(regionName, label)
+                                .map(new Func1<Boolean, Map.Entry<String, Boolean>>() {
+                                    @Override
+                                    public Map.Entry<String, Boolean> call(Boolean available) {
+                                        if (!available) {
+                                            rememberUnavailable(regionName, label);
+                                        }
+                                        return new AbstractMap.SimpleImmutableEntry<>(label, available);
+                                    }
+                                });
+                    }
+                }, maxConcurrency)
+                .toMap(new Func1<Map.Entry<String, Boolean>, String>() {
+                    @Override
+                    public String call(Map.Entry<String, Boolean> entry) {
+                        return entry.getKey();
+                    }
+                }, new Func1<Map.Entry<String, Boolean>, Boolean>() {
+                    @Override
+                    public Boolean call(Map.Entry<String, Boolean> entry) {
+                        return entry.getValue();
+                    }
+                })
+                .map(new Func1<Map<String, Boolean>, Map<String, Boolean>>() {
+                    @Override
+                    public Map<String, Boolean> call(Map<String, Boolean> results) {
+                        Map<String, Boolean> ordered = new LinkedHashMap<>();
+                        for (String label : distinctLabels) {
+                            ordered.put(label, results.get(label));
+                        }
+                        return Collections.unmodifiableMap(ordered);
+                    }
+                });
+    }
+
+    /**
+     * Checks the availability of one DNS label with the service.
+     *
+     * @param regionName the region name
+     * @param label the label
+     * @return an observable that emits true if the label is available
+     */
+    Observable<Boolean> checkOneAsync(String regionName, String label) {
+        return manager.inner().checkDnsNameAvailabilityAsync(regionName, label)
+                .map(new Func1<DnsNameAvailabilityResultInner, Boolean>() {
+                    @Override
+                    public Boolean call(DnsNameAvailabilityResultInner result) {
+                        return result != null && Boolean.TRUE.equals(result.available());
+                    }
+                });
+    }
+
+    private void rememberUnavailable(String regionName, String label) {
+        long now = System.nanoTime();
+        if (unavailable.size() >= MAX_REMEMBERED) {
+            for (Map.Entry<String, Long> entry : unavailable.entrySet()) {
+                if (now - entry.getValue() >= 0) {
+                    unavailable.remove(entry.getKey());
+                }
+            }
+        }
+        unavailable.put(key(regionName, label), now + unavailableTtlNanos);
+    }
+
+    private boolean isKnownUnavailable(String regionName, String label) {
+        String key = key(regionName, label);
+        Long expiry = unavailable.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiry < 0) {
+            return true;
+        }
+        unavailable.remove(key);
+        return false;
+    }
+
+    private static String key(String regionName, String label) {
+        return regionName.toLowerCase().replace(" ", "") + "/" + label;
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.FlowLogAnalysis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Implementation for FlowLogAnalysis.
+ * <p>
+ * Each flow log is aggregated into its own instance, by one thread, and the instances are then merged.
+ */
+@LangDefinition
+class FlowLogAnalysisImpl implements FlowLogAnalysis, FlowTupleBatch.Sink {
+    private static final String UNKNOWN_RULE = "";
+
+    private final int topTalkerCount;
+    private final AddressCounters talkers = new AddressCounters();
+    private final Map<String, Long> deniedFlowCountsByRule = new HashMap<>();
+    private long flowCount;
+    private long malformedFlowCount;
+    private long deniedFlowCount;
+    private long[] deniedByRuleIndex = new long[16];
+    private Map<String, Long> topTalkers;
+    private Map<String, Long> topTalkerBytes;
+
+    /**
+     * Creates FlowLogAnalysisImpl.
+     *
+     * @param topTalkerCount the number of top talkers to report
+     */
+    FlowLogAnalysisImpl(int topTalkerCount) {
+        this.topTalkerCount = topTalkerCount;
+    }
+
+    @Override
+    public void accept(FlowTupleBatch batch) {
+        List<String> rules = batch.rules();
+        if (deniedByRuleIndex.length < rules.size()) {
+            deniedByRuleIndex = new long[Math.max(rules.size(), deniedByRuleIndex.length * 2)];
+        } else {
+            Arrays.fill(deniedByRuleIndex, 0, rules.size(), 0);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            // Continuing and ending tuples of version 2 flows only add the bytes sent since the previous tuple
+            if (!batch.beginsFlow(i)) {
+                talkers.add(batch.sourceAddress(i), 0, batch.bytes(i));
+                continue;
+            }
+            talkers.add(batch.sourceAddress(i), 1, batch.bytes(i));
+            flowCount++;
+            if (batch.decision(i) == FlowTupleBatch.DECISION_DENY && batch.ruleIndex(i) >= 0) {
+                deniedByRuleIndex[batch.ruleIndex(i)]++;
+                deniedFlowCount++;
+            }
+        }
+        // Rules are counted per batch, so that the map is touched once per rule group, not once per flow
+        for (int i = 0; i < rules.size(); i++) {
+            if (deniedByRuleIndex[i] > 0) {
+                addDenied(rules.get(i) == null ? UNKNOWN_RULE : rules.get(i), deniedByRuleIndex[i]);
+            }
+        }
+        topTalkers = null;
+    }
+
+    /**
+     * Adds the flow tuples skipped by a parser.
+     *
+     * @param count the number of malformed flow tuples
+     */
+    void addMalformed(long count) {
+        malformedFlowCount += count;
+    }
+
+    /**
+     * Adds the aggregates of another analysis to this one.
+     *
+     * @param other the other analysis
+     * @return this analysis
+     */
+    FlowLogAnalysisImpl merge(FlowLogAnalysisImpl other) {
+        flowCount += other.flowCount;
+        malformedFlowCount += other.malformedFlowCount;
+        deniedFlowCount += other.deniedFlowCount;
+        for (Map.Entry<String, Long> entry : other.deniedFlowCountsByRule.entrySet()) {
+            addDenied(entry.getKey(), entry.getValue());
+        }
+        talkers.addAll(other.talkers);
+        topTalkers = null;
+        return this;
+    }
+
+    @Override
+    public long flowCount() {
+        return flowCount;
+    }
+
+    @Override
+    public long malformedFlowCount() {
+        return malformedFlowCount;
+    }
+
+    @Override
+    public long deniedFlowCount() {
+        return deniedFlowCount;
+    }
+
+    @Override
+    public Map<String, Long> deniedFlowCountsByRule() {
+        return Collections.unmodifiableMap(deniedFlowCountsByRule);
+    }
+
+    @Override
+    public Map<String, Long> topTalkers() {
+        rankTalkers();
+        return topTalkers;
+    }
+
+    @Override
+    public Map<String, Long> topTalkerBytes() {
+        rankTalkers();
+        return topTalkerBytes;
+    }
+
+    private void addDenied(String rule, long count) {
+        Long previous = deniedFlowCountsByRule.get(rule);
+        deniedFlowCountsByRule.put(rule, previous == null ? count : previous + count);
+    }
+
+    private void rankTalkers() {
+        if (topTalkers != null) {
+            return;
+        }
+        // Keeps the top talkers in a min heap of slot indexes, ordered by flow count
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, topTalkerCount), new Comparator<Integer>() {
+            @Override
+            public int compare(Integer slot1, Integer slot2) {
+                return Long.compare(talkers.flows[slot1], talkers.flows[slot2]);
+            }
+        });
+        for (int slot = 0; slot < talkers.used.length && topTalkerCount > 0; slot++) {
+            if (!talkers.used[slot]) {
+                continue;
+            }
+            if (heap.size() < topTalkerCount) {
+                heap.add(slot);
+            } else if (talkers.flows[slot] > talkers.flows[heap.peek()]) {
+                heap.poll();
+                heap.add(slot);
+            }
+        }
+        Integer[] slots = heap.toArray(new Integer[heap.size()]);
+        Arrays.sort(slots, Collections.reverseOrder(heap.comparator()));
+        Map<String, Long> flows = new LinkedHashMap<>();
+        Map<String, Long> bytes = new LinkedHashMap<>();
+        for (int slot : slots) {
+            String ipAddress = IPAllocationBitmap.format(talkers.addresses[slot] & 0xFFFFFFFFL);
+            flows.put(ipAddress, talkers.flows[slot]);
+            bytes.put(ipAddress, talkers.bytes[slot]);
+        }
+        topTalkerBytes = Collections.unmodifiableMap(bytes);
+        topTalkers = Collections.unmodifiableMap(flows);
+    }
+
+    /**
+     * Flow and byte counts keyed by IPv4 address, in an open addressing hash table of primitive arrays.
+     */
+    static class AddressCounters {
+        private int[] addresses = new int[1024];
+        private long[] flows = new long[1024];
+        private long[] bytes = new long[1024];
+        private boolean[] used = new boolean[1024];
+        private int size;
+
+        void addAll(AddressCounters other) {
+            for (int slot = 0; slot < other.used.length; slot++) {
+                if (other.used[slot]) {
+                    add(other.addresses[slot], other.flows[slot], other.bytes[slot]);
+                }
+            }
+        }
+
+        void add(int address, long flowCount, long byteCount) {
+            int slot = slotOf(address);
+            if (!used[slot]) {
+                if ((size + 1) * 2 > used.length) {
+                    grow();
+                    slot = slotOf(address);
+                }
+                used[slot] = true;
+                addresses[slot] = address;
+                size++;
+            }
+            flows[slot] += flowCount;
+            bytes[slot] += byteCount;
+        }
+
+        private int slotOf(int address) {
+            int mask = used.length - 1;
+            // Spreads the bits of the address, whose low bits vary little within a network
+            int hash = address * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (used[slot] && addresses[slot] != address) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldAddresses = addresses;
+            long[] oldFlows = flows;
+            long[] oldBytes = bytes;
+            boolean[] oldUsed = used;
+            addresses = new int[oldUsed.length * 2];
+            flows = new long[oldUsed.length * 2];
+            bytes = new long[oldUsed.length * 2];
+            used = new boolean[oldUsed.length * 2];
+            for (int slot = 0; slot < oldUsed.length; slot++) {
+                if (oldUsed[slot]) {
+                    int newSlot = slotOf(oldAddresses[slot]);
+                    used[newSlot] = true;
+                    addresses[newSlot] = oldAddresses[slot];
+                    flows[newSlot] = oldFlows[slot];
+                    bytes[newSlot] = oldBytes[slot];
+                }
+            }
+        }
+    }
+}
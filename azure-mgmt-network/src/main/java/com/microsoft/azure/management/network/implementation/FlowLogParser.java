@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming reader of network security group flow log blobs.
+ * <p>
+ * A blob holds records of the form
+ * {"records":[{"time":..,"properties":{"Version":..,"flows":[{"rule":..,"flows":[{"mac":..,"flowTuples":[..]}]}]}}]}.
+ * The blob is read token by token and the flow tuples are decoded into a {@link FlowTupleBatch} handed to a sink
+ * whenever it fills up, so that memory use does not depend on the size of the blob.
+ */
+class FlowLogParser {
+    static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final FlowTupleBatch batch;
+    private final FlowTupleBatch.Sink sink;
+    private long malformedCount;
+
+    /**
+     * Creates FlowLogParser.
+     *
+     * @param batchSize the number of flow tuples handed to the sink at once
+     * @param sink the sink of the flow tuples
+     */
+    FlowLogParser(int batchSize, FlowTupleBatch.Sink sink) {
+        this.batch = new FlowTupleBatch(batchSize);
+        this.sink = sink;
+    }
+
+    /**
+     * @return the number of flow tuples that could not be decoded so far
+     */
+    long malformedCount() {
+        return malformedCount;
+    }
+
+    /**
+     * Reads a flow log blob to the end; the stream is not closed.
+     *
+     * @param stream the flow log blob
+     * @throws IOException if the stream cannot be read or is not a flow log
+     */
+    void parse(InputStream stream) throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(stream);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Flow log is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "records".equals(field)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        parseRecord(parser);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } finally {
+            parser.close();
+        }
+        if (batch.size() > 0) {
+            sink.accept(batch);
+        }
+        batch.clear();
+    }
+
+    private void parseRecord(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && "properties".equals(field)) {
+                parseProperties(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseProperties(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "flows".equals(field)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parseRuleFlows(parser);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseRuleFlows(JsonParser parser) throws IOException {
+        // The rule is named when its field is read, which the service writes before the flows
+        batch.startRule(null);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_STRING && "rule".equals(field)) {
+                batch.nameRule(parser.getText());
+            } else if (token == JsonToken.START_ARRAY && "flows".equals(field)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parseMacFlows(parser);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseMacFlows(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "flowTuples".equals(field)) {
+                parseTuples(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseTuples(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.VALUE_STRING
+                    || !batch.add(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+                malformedCount++;
+                parser.skipChildren();
+                continue;
+            }
+            if (batch.isFull()) {
+                sink.accept(batch);
+                batch.clear();
+            }
+        }
+    }
+}
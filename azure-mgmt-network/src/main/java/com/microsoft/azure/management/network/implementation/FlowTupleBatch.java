@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reusable batch of decoded flow tuples, stored column by column in primitive arrays.
+ * <p>
+ * A flow tuple is a comma separated string: time stamp, source IP address, destination IP address, source port,
+ * destination port, protocol (T or U), direction (I or O) and decision (A or D). Version 2 flow logs append the
+ * flow state followed by the packets and bytes sent from source to destination and from destination to source.
+ * Tuples are decoded straight from the character buffer of the JSON parser, without allocating.
+ */
+class FlowTupleBatch {
+    /**
+     * Receives the batches as they fill up; the batch is reused once the call returns.
+     */
+    interface Sink {
+        /**
+         * @param batch the batch of flow tuples
+         */
+        void accept(FlowTupleBatch batch);
+    }
+
+    static final byte DECISION_DENY = 'D';
+    static final byte STATE_BEGIN = 'B';
+
+    private final long[] timestamps;
+    private final int[] sourceAddresses;
+    private final int[] destinationAddresses;
+    private final int[] sourcePorts;
+    private final int[] destinationPorts;
+    private final byte[] protocols;
+    private final byte[] directions;
+    private final byte[] decisions;
+    private final byte[] states;
+    private final long[] bytes;
+    private final int[] ruleIndexes;
+    private final List<String> rules = new ArrayList<>();
+    private int size;
+    private int cursor;
+
+    /**
+     * Creates FlowTupleBatch.
+     *
+     * @param capacity the maximum number of flow tuples in the batch
+     */
+    FlowTupleBatch(int capacity) {
+        this.timestamps = new long[capacity];
+        this.sourceAddresses = new int[capacity];
+        this.destinationAddresses = new int[capacity];
+        this.sourcePorts = new int[capacity];
+        this.destinationPorts = new int[capacity];
+        this.protocols = new byte[capacity];
+        this.directions = new byte[capacity];
+        this.decisions = new byte[capacity];
+        this.states = new byte[capacity];
+        this.bytes = new long[capacity];
+        this.ruleIndexes = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    long timestamp(int i) {
+        return timestamps[i];
+    }
+
+    /**
+     * @param i the index of the tuple
+     * @return the source IPv4 address as a 32 bit value
+     */
+    int sourceAddress(int i) {
+        return sourceAddresses[i];
+    }
+
+    int destinationAddress(int i) {
+        return destinationAddresses[i];
+    }
+
+    int sourcePort(int i) {
+        return sourcePorts[i];
+    }
+
+    int destinationPort(int i) {
+        return destinationPorts[i];
+    }
+
+    byte protocol(int i) {
+        return protocols[i];
+    }
+
+    byte direction(int i) {
+        return directions[i];
+    }
+
+    byte decision(int i) {
+        return decisions[i];
+    }
+
+    /**
+     * @param i the index of the tuple
+     * @return the flow state of a version 2 tuple (B, C or E), 0 for version 1 tuples
+     */
+    byte state(int i) {
+        return states[i];
+    }
+
+    /**
+     * @param i the index of the tuple
+     * @return true if the tuple is the first one of its flow, always true for version 1 tuples
+     */
+    boolean beginsFlow(int i) {
+        return states[i] == 0 || states[i] == STATE_BEGIN;
+    }
+
+    /**
+     * @param i the index of the tuple
+     * @return the bytes sent in both directions since the previous tuple of the flow, 0 for version 1 tuples
+     */
+    long bytes(int i) {
+        return bytes[i];
+    }
+
+    /**
+     * @param i the index of the tuple
+     * @return the index of the rule of the tuple in {@link #rules()}
+     */
+    int ruleIndex(int i) {
+        return ruleIndexes[i];
+    }
+
+    /**
+     * @return the names of the rules of the tuples in the batch
+     */
+    List<String> rules() {
+        return rules;
+    }
+
+    /**
+     * Starts a group of tuples matched by the same rule.
+     *
+     * @param rule the rule name, null if not known yet
+     */
+    void startRule(String rule) {
+        rules.add(rule);
+    }
+
+    /**
+     * Names the rule of the current group of tuples.
+     *
+     * @param rule the rule name
+     */
+    void nameRule(String rule) {
+        rules.set(rules.size() - 1, rule);
+    }
+
+    /**
+     * Empties the batch, keeping the current rule group open.
+     */
+    void clear() {
+        String rule = rules.isEmpty() ? null : rules.get(rules.size() - 1);
+        rules.clear();
+        rules.add(rule);
+        size = 0;
+    }
+
+    /**
+     * Decodes a flow tuple into the next row of the batch.
+     *
+     * @param chars the buffer holding the tuple
+     * @param offset the offset of the tuple in the buffer
+     * @param length the length of the tuple
+     * @return true if the tuple was decoded, false if it is malformed and was skipped
+     */
+    boolean add(char[] chars, int offset, int length) {
+        int end = offset + length;
+        cursor = offset;
+        long timestamp = readNumber(chars, end);
+        long sourceAddress = readAddress(chars, end);
+        long destinationAddress = readAddress(chars, end);
+        long sourcePort = readNumber(chars, end);
+        long destinationPort = readNumber(chars, end);
+        int protocol = readFlag(chars, end);
+        int direction = readFlag(chars, end);
+        int decision = readFlag(chars, end);
+        if (timestamp < 0 || sourceAddress < 0 || destinationAddress < 0 || sourcePort < 0 || destinationPort < 0
+                || protocol < 0 || direction < 0 || decision < 0) {
+            return false;
+        }
+        long totalBytes = 0;
+        int state = 0;
+        if (cursor <= end) {
+            // Version 2: state, packets and bytes from source, packets and bytes from destination, any may be empty
+            state = Math.max(0, readFlag(chars, end));
+            readNumber(chars, end);
+            totalBytes += Math.max(0, readNumber(chars, end));
+            readNumber(chars, end);
+            totalBytes += Math.max(0, readNumber(chars, end));
+        }
+        timestamps[size] = timestamp;
+        sourceAddresses[size] = (int) sourceAddress;
+        destinationAddresses[size] = (int) destinationAddress;
+        sourcePorts[size] = (int) sourcePort;
+        destinationPorts[size] = (int) destinationPort;
+        protocols[size] = (byte) protocol;
+        directions[size] = (byte) direction;
+        decisions[size] = (byte) decision;
+        states[size] = (byte) state;
+        bytes[size] = totalBytes;
+        ruleIndexes[size] = rules.size() - 1;
+        size++;
+        return true;
+    }
+
+    // Reads an unsigned decimal field and the comma after it, -1 if the field is empty or not a number
+    private long readNumber(char[] chars, int end) {
+        long value = 0;
+        int digits = 0;
+        while (cursor < end && chars[cursor] != ',') {
+            char c = chars[cursor++];
+            if (c < '0' || c > '9' || digits > 18) {
+                skipField(chars, end);
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+        }
+        cursor++;
+        return digits == 0 ? -1 : value;
+    }
+
+    // Reads a dotted decimal IPv4 address field and the comma after it, -1 if it is not one
+    private long readAddress(char[] chars, int end) {
+        long address = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        while (cursor < end && chars[cursor] != ',') {
+            char c = chars[cursor++];
+            if (c == '.' && digits > 0 && dots < 3 && octet <= 255) {
+                address = (address << 8) | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                octet = octet * 10 + (c - '0');
+                digits++;
+            } else {
+                skipField(chars, end);
+                return -1;
+            }
+        }
+        cursor++;
+        if (dots != 3 || digits == 0 || octet > 255) {
+            return -1;
+        }
+        return (address << 8) | octet;
+    }
+
+    // Reads a one character field and the comma after it, -1 if it is not one character
+    private int readFlag(char[] chars, int end) {
+        if (cursor >= end || chars[cursor] == ',' || (cursor + 1 < end && chars[cursor + 1] != ',')) {
+            skipField(chars, end);
+            return -1;
+        }
+        int flag = chars[cursor];
+        cursor += 2;
+        return flag;
+    }
+
+    private void skipField(char[] chars, int end) {
+        while (cursor < end && chars[cursor] != ',') {
+            cursor++;
+        }
+        cursor++;
+    }
+}
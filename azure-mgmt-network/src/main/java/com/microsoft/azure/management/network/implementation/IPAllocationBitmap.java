@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks which IPv4 addresses of an address prefix are in use, one bit per address.
+ * <p>
+ * The first four addresses (network address, default gateway and the two addresses mapped to Azure DNS)
+ * and the last address (broadcast) of a prefix are reserved by Azure and never reported as available.
+ */
+class IPAllocationBitmap {
+    private static final int RESERVED_AT_START = 4;
+
+    private final String addressPrefix;
+    private final long networkAddress;
+    private final int size;
+    private final long[] used;
+    private int cursor;
+
+    /**
+     * Creates IPAllocationBitmap.
+     *
+     * @param addressPrefix the address prefix in CIDR notation
+     */
+    IPAllocationBitmap(String addressPrefix) {
+        int prefixLength = prefixLength(addressPrefix);
+        if (prefixLength < 0) {
+            throw new IllegalArgumentException("Unsupported address prefix: " + addressPrefix);
+        }
+        this.addressPrefix = addressPrefix;
+        this.size = 1 << (32 - prefixLength);
+        this.networkAddress = parse(addressPrefix.split("/")[0]) & ~((long) size - 1);
+        this.used = new long[(size + 63) / 64];
+        for (int i = 0; i < RESERVED_AT_START; i++) {
+            set(i);
+        }
+        set(size - 1);
+        this.cursor = RESERVED_AT_START;
+    }
+
+    /**
+     * @return the address prefix in CIDR notation
+     */
+    String addressPrefix() {
+        return addressPrefix;
+    }
+
+    /**
+     * @param address an IPv4 address as returned by {@link #parse(String)}
+     * @return true if the address is within the prefix
+     */
+    boolean contains(long address) {
+        return address >= networkAddress && address < networkAddress + size;
+    }
+
+    /**
+     * @param address an IPv4 address within the prefix
+     * @return true if the address is neither reserved nor in use
+     */
+    boolean isAvailable(long address) {
+        int offset = (int) (address - networkAddress);
+        return (used[offset >>> 6] & (1L << offset)) == 0;
+    }
+
+    /**
+     * Marks an address as in use.
+     *
+     * @param address an IPv4 address within the prefix
+     */
+    void markUsed(long address) {
+        set((int) (address - networkAddress));
+    }
+
+    /**
+     * Takes the next available addresses, in ascending order after the previously taken ones, and marks
+     * them as in use. Words of the bitmap that are fully in use are skipped as a whole.
+     *
+     * @param count the maximum number of addresses to take
+     * @return the addresses taken, fewer than requested if the prefix is exhausted
+     */
+    List<Long> take(int count) {
+        List<Long> addresses = new ArrayList<>(Math.min(count, size));
+        int offset = cursor;
+        while (addresses.size() < count && offset < size) {
+            long free = ~used[offset >>> 6] & (-1L << offset);
+            if (free == 0) {
+                offset = ((offset >>> 6) + 1) << 6;
+                continue;
+            }
+            offset = ((offset >>> 6) << 6) + Long.numberOfTrailingZeros(free);
+            if (offset >= size) {
+                break;
+            }
+            set(offset);
+            addresses.add(networkAddress + offset);
+            offset++;
+        }
+        cursor = offset;
+        return addresses;
+    }
+
+    private void set(int offset) {
+        used[offset >>> 6] |= 1L << offset;
+    }
+
+    /**
+     * @param addressPrefix an address prefix in CIDR notation
+     * @return true if the prefix is an IPv4 prefix between /8 and /29
+     */
+    static boolean isSupported(String addressPrefix) {
+        return addressPrefix != null && prefixLength(addressPrefix) >= 0;
+    }
+
+    private static int prefixLength(String addressPrefix) {
+        String[] parts = addressPrefix.split("/");
+        if (parts.length != 2 || parse(parts[0]) < 0) {
+            return -1;
+        }
+        int prefixLength;
+        try {
+            prefixLength = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return (prefixLength < 8 || prefixLength > 29) ? -1 : prefixLength;
+    }
+
+    /**
+     * @param ipAddress an IPv4 address in dotted decimal notation
+     * @return the address as an unsigned 32 bit value, or -1 if it is not a valid IPv4 address
+     */
+    static long parse(String ipAddress) {
+        String[] octets = ipAddress.trim().split("\\.");
+        if (octets.length != 4) {
+            return -1;
+        }
+        long address = 0;
+        for (String octet : octets) {
+            int value;
+            try {
+                value = Integer.parseInt(octet);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            if (value < 0 || value > 255) {
+                return -1;
+            }
+            address = (address << 8) | value;
+        }
+        return address;
+    }
+
+    /**
+     * @param prefix an IPv4 address or address prefix in CIDR notation
+     * @return the first and last addresses of the prefix, or null if it is not an IPv4 prefix
+     */
+    static long[] parseAddressPrefix(String prefix) {
+        String[] parts = prefix.trim().split("/");
+        long address = IPAllocationBitmap.parse(parts[0]);
+        if (address < 0 || parts.length > 2) {
+            return null;
+        }
+        int prefixLength = 32;
+        if (parts.length == 2) {
+            try {
+                prefixLength = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (prefixLength < 0 || prefixLength > 32) {
+                return null;
+            }
+        }
+        long size = 1L << (32 - prefixLength);
+        long first = address & ~(size - 1);
+        return new long[] {first, first + size - 1};
+    }
+
+    /**
+     * @param address an IPv4 address as an unsigned 32 bit value
+     * @return the address in dotted decimal notation
+     */
+    static String format(long address) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+}
@@ -5,15 +5,16 @@
  */
 package com.microsoft.azure.management.network.implementation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
-import com.microsoft.azure.CloudException;
 import com.microsoft.azure.SubResource;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.network.LoadBalancerBackend;
@@ -83,17 +84,16 @@ class LoadBalancerBackendImpl
     public Set<String> getVirtualMachineIds() {
         Set<String> vmIds = new HashSet<>();
         Map<String, String> nicConfigs = this.backendNicIPConfigurationNames();
-        if (nicConfigs != null) {
-            for (String nicId : nicConfigs.keySet()) {
-                try {
-                    NetworkInterface nic = this.parent().manager().networkInterfaces().getById(nicId);
-                    if (nic == null || nic.virtualMachineId() == null) {
-                        continue;
-                    } else {
-                        vmIds.add(nic.virtualMachineId());
-                    }
-                } catch (CloudException | IllegalArgumentException e) {
-                    continue;
+        if (nicConfigs != null && !nicConfigs.isEmpty()) {
+            // Network interfaces that cannot be fetched are skipped
+            List<Throwable> nicErrors = new ArrayList<>();
+            Map<String, NetworkInterface> nics = new NetworkInterfaceResolver(this.parent().manager())
+                    .resolveAsync(nicConfigs.keySet(), nicErrors)
+                    .toBlocking()
+                    .single();
+            for (NetworkInterface nic : nics.values()) {
+                if (nic.virtualMachineId() != null) {
+                    vmIds.add(nic.virtualMachineId());
                 }
             }
         }
@@ -283,33 +283,83 @@ class LoadBalancerImpl
 
     @Override
     protected void afterCreating() {
-        if (this.nicsInBackends != null) {
-            List<Exception> nicExceptions = new ArrayList<>();
-
-            // Update the NICs to point to the backend pool
-            for (Entry<String, String> nicInBackend : this.nicsInBackends.entrySet()) {
-                String nicId = nicInBackend.getKey();
-                String backendName = nicInBackend.getValue();
-                try {
-                    NetworkInterface nic = this.manager().networkInterfaces().getById(nicId);
-                    NicIPConfiguration nicIP = nic.primaryIPConfiguration();
-                    nic.update()
-                        .updateIPConfiguration(nicIP.name())
-                            .withExistingLoadBalancerBackend(this, backendName)
-                            .parent()
-                        .apply();
-                } catch (Exception e) {
-                    nicExceptions.add(e);
-                }
-            }
+        // Network interfaces are added to the backends asynchronously, see createResourceAsync()
+    }
 
-            if (!nicExceptions.isEmpty()) {
-                throw new CompositeException(nicExceptions);
+    @Override
+    public Observable<LoadBalancer> createResourceAsync() {
+        return super.createResourceAsync().flatMap(new Func1<LoadBalancer, Observable<LoadBalancer>>() {
+            @Override
+            public Observable<LoadBalancer> call(LoadBalancer loadBalancer) {
+                return addNetworkInterfacesToBackendsAsync();
             }
+        });
+    }
 
-            this.nicsInBackends.clear();
-            this.refresh();
-        }
+    /**
+     * Updates the network interfaces of the virtual machines added to backends to point to their backend,
+     * with a bounded number of concurrent updates. All updates are attempted, failures are reported together
+     * as a composite exception once the others are done.
+     *
+     * @return an observable that emits this load balancer, refreshed if network interfaces were updated
+     */
+    private Observable<LoadBalancer> addNetworkInterfacesToBackendsAsync() {
+        if (this.nicsInBackends.isEmpty()) {
+            return Observable.<LoadBalancer>just(this);
+        }
+        final LoadBalancerImpl self = this;
+        final Map<String, String> backendsByNicId = new HashMap<>();
+        for (Entry<String, String> nicInBackend : this.nicsInBackends.entrySet()) {
+            backendsByNicId.put(nicInBackend.getKey().toLowerCase(), nicInBackend.getValue());
+        }
+        final List<Throwable> nicExceptions = new ArrayList<>();
+        return new NetworkInterfaceResolver(this.manager())
+                .resolveAsync(backendsByNicId.keySet(), nicExceptions)
+                .flatMap(new Func1<Map<String, NetworkInterface>, Observable<NetworkInterface>>() {
+                    @Override
+                    public Observable<NetworkInterface> call(Map<String, NetworkInterface> nics) {
+                        for (String nicId : backendsByNicId.keySet()) {
+                            if (!nics.containsKey(nicId)) {
+                                synchronized (nicExceptions) {
+                                    nicExceptions.add(new IllegalArgumentException("Network interface not found: " + nicId));
+                                }
+                            }
+                        }
+                        return Observable.from(nics.values());
+                    }
+                })
+                .flatMap(new Func1<NetworkInterface, Observable<NetworkInterface>>() {
+                    @Override
+                    public Observable<NetworkInterface> call(NetworkInterface nic) {
+                        // Update the NIC to point to the backend pool
+                        NicIPConfiguration nicIP = nic.primaryIPConfiguration();
+                        return nic.update()
+                                .updateIPConfiguration(nicIP.name())
+                                    .withExistingLoadBalancerBackend(self, backendsByNicId.get(nic.id().toLowerCase()))
+                                    .parent()
+                                .applyAsync()
+                                .onErrorResumeNext(new Func1<Throwable, Observable<NetworkInterface>>() {
+                                    @Override
+                                    public Observable<NetworkInterface> call(Throwable throwable) {
+                                        synchronized (nicExceptions) {
+                                            nicExceptions.add(throwable);
+                                        }
+                                        return Observable.empty();
+                                    }
+                                });
+                    }
+                }, NetworkInterfaceResolver.DEFAULT_MAX_CONCURRENCY)
+                .toList()
+                .flatMap(new Func1<List<NetworkInterface>, Observable<LoadBalancer>>() {
+                    @Override
+                    public Observable<LoadBalancer> call(List<NetworkInterface> updatedNics) {
+                        if (!nicExceptions.isEmpty()) {
+                            return Observable.error(new CompositeException(nicExceptions));
+                        }
+                        nicsInBackends.clear();
+                        return refreshAsync();
+                    }
+                });
     }
 
     @Override
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.network.NetworkInterface;
+import com.microsoft.azure.management.network.NicIPConfiguration;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory view of the private IP addresses in use in the subnets of a virtual network.
+ * <p>
+ * The addresses are taken from the IP configurations referenced by the subnets; the IP configurations of
+ * standalone network interfaces that do not carry their address are resolved through
+ * {@link NetworkInterfaceResolver}. A subnet that also references IP configurations of other resources
+ * without their address, such as scale set instances, load balancer frontends or gateways, cannot be
+ * fully described locally and is reported as unknown.
+ */
+class NetworkIPAllocationIndex {
+    private static final String NETWORK_INTERFACES_SEGMENT = "/providers/microsoft.network/networkinterfaces/";
+
+    private final Map<String, IPAllocationBitmap> bitmaps = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Set<String> incompleteSubnets = new HashSet<>();
+    private boolean hasUntrackedSubnets;
+
+    /**
+     * Creates NetworkIPAllocationIndex from the address prefixes of subnets, with all non reserved
+     * addresses available. Subnets without an IPv4 address prefix are not tracked.
+     *
+     * @param subnets the subnets
+     */
+    NetworkIPAllocationIndex(List<SubnetInner> subnets) {
+        if (subnets != null) {
+            for (SubnetInner subnet : subnets) {
+                if (IPAllocationBitmap.isSupported(subnet.addressPrefix())) {
+                    bitmaps.put(subnet.name(), new IPAllocationBitmap(subnet.addressPrefix()));
+                } else {
+                    hasUntrackedSubnets = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the index of the subnets of a virtual network.
+     *
+     * @param manager the network manager used to resolve network interfaces
+     * @param subnets the subnets of the virtual network
+     * @return an observable that emits the index
+     */
+    static Observable<NetworkIPAllocationIndex> buildAsync(NetworkManager manager, final List<SubnetInner> subnets) {
+        final NetworkIPAllocationIndex index = new NetworkIPAllocationIndex(subnets);
+        Set<String> nicIds = new HashSet<>();
+        if (subnets != null) {
+            for (SubnetInner subnet : subnets) {
+                if (subnet.ipConfigurations() == null) {
+                    continue;
+                }
+                for (IPConfigurationInner ipConfig : subnet.ipConfigurations()) {
+                    if (ipConfig.privateIPAddress() != null) {
+                        index.markUsed(subnet.name(), ipConfig.privateIPAddress());
+                    } else if (isStandaloneNetworkInterface(ipConfig.id())) {
+                        nicIds.add(ResourceUtils.parentResourceIdFromResourceId(ipConfig.id()));
+                    } else {
+                        index.incompleteSubnets.add(subnet.name().toLowerCase());
+                    }
+                }
+            }
+        }
+        if (nicIds.isEmpty()) {
+            return Observable.just(index);
+        }
+        return new NetworkInterfaceResolver(manager)
+                .resolveAsync(nicIds)
+                .map(new Func1<Map<String, NetworkInterface>, NetworkIPAllocationIndex>() {
+                    @Override
+                    public NetworkIPAllocationIndex call(Map<String, NetworkInterface> nics) {
+                        for (SubnetInner subnet : subnets) {
+                            if (subnet.ipConfigurations() == null) {
+                                continue;
+                            }
+                            for (IPConfigurationInner ipConfig : subnet.ipConfigurations()) {
+                                if (ipConfig.privateIPAddress() != null || !isStandaloneNetworkInterface(ipConfig.id())) {
+                                    continue;
+                                }
+                                NetworkInterface nic = nics.get(ResourceUtils.parentResourceIdFromResourceId(ipConfig.id()).toLowerCase());
+                                NicIPConfiguration nicIPConfig = nic != null
+                                        ? nic.ipConfigurations().get(ResourceUtils.nameFromResourceId(ipConfig.id()))
+                                        : null;
+                                if (nicIPConfig != null && nicIPConfig.privateIPAddress() != null) {
+                                    index.markUsed(subnet.name(), nicIPConfig.privateIPAddress());
+                                } else {
+                                    index.incompleteSubnets.add(subnet.name().toLowerCase());
+                                }
+                            }
+                        }
+                        return index;
+                    }
+                });
+    }
+
+    /**
+     * The network interfaces of virtual machine scale set instances are nested under the scale set in
+     * Microsoft.Compute and are not resolved as network interfaces.
+     *
+     * @param ipConfigId the id of an IP configuration referenced by a subnet
+     * @return true if the IP configuration belongs to a standalone network interface
+     */
+    private static boolean isStandaloneNetworkInterface(String ipConfigId) {
+        return ipConfigId.toLowerCase().contains(NETWORK_INTERFACES_SEGMENT);
+    }
+
+    /**
+     * @param ipAddress an IP address
+     * @return true if the address is within the address prefix of a subnet, false if it is not, null if
+     * it is in none of the tracked subnets but some subnets are not tracked
+     */
+    synchronized Boolean isInSubnet(String ipAddress) {
+        if (subnetOf(IPAllocationBitmap.parse(ipAddress)) != null) {
+            return true;
+        }
+        return hasUntrackedSubnets ? null : false;
+    }
+
+    /**
+     * @param ipAddress an IP address
+     * @return true if the address is available, false if it is reserved, in use or not in any subnet,
+     * null if the address is in a subnet whose usage is not fully known or in no tracked subnet while
+     * some subnets are not tracked
+     */
+    synchronized Boolean isAvailable(String ipAddress) {
+        long address = IPAllocationBitmap.parse(ipAddress);
+        String subnetName = subnetOf(address);
+        if (subnetName == null) {
+            return hasUntrackedSubnets ? null : false;
+        }
+        if (!bitmaps.get(subnetName).isAvailable(address)) {
+            return false;
+        }
+        return incompleteSubnets.contains(subnetName.toLowerCase()) ? null : true;
+    }
+
+    /**
+     * Takes the next available addresses of a subnet and marks them as in use.
+     *
+     * @param subnetName the subnet name
+     * @param count the maximum number of addresses
+     * @return the addresses, fewer than requested if the subnet is exhausted
+     */
+    synchronized List<String> take(String subnetName, int count) {
+        IPAllocationBitmap bitmap = bitmaps.get(subnetName);
+        if (bitmap == null) {
+            throw new IllegalArgumentException("Subnet '" + subnetName + "' not found or has no address prefix");
+        }
+        List<String> ipAddresses = new ArrayList<>(count);
+        for (long address : bitmap.take(count)) {
+            ipAddresses.add(IPAllocationBitmap.format(address));
+        }
+        return ipAddresses;
+    }
+
+    /**
+     * Marks an address as in use.
+     *
+     * @param subnetName the name of the subnet the address belongs to
+     * @param ipAddress the IP address
+     */
+    synchronized void markUsed(String subnetName, String ipAddress) {
+        IPAllocationBitmap bitmap = bitmaps.get(subnetName);
+        long address = IPAllocationBitmap.parse(ipAddress);
+        if (bitmap != null && bitmap.contains(address)) {
+            bitmap.markUsed(address);
+        }
+    }
+
+    private String subnetOf(long address) {
+        if (address < 0) {
+            return null;
+        }
+        for (Map.Entry<String, IPAllocationBitmap> entry : bitmaps.entrySet()) {
+            if (entry.getValue().contains(address)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+}
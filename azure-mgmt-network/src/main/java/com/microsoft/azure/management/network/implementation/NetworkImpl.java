@@ -11,14 +11,19 @@ import com.microsoft.azure.management.network.AddressSpace;
 import com.microsoft.azure.management.network.DhcpOptions;
 import com.microsoft.azure.management.network.Network;
 import com.microsoft.azure.management.network.NetworkPeerings;
+import com.microsoft.azure.management.network.NetworkRouteResolver;
 import com.microsoft.azure.management.network.Subnet;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.implementation.GroupableParentResourceImpl;
 
 import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Action2;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -41,6 +46,7 @@ class NetworkImpl
 
     private Map<String, Subnet> subnets;
     private NetworkPeeringsImpl peerings;
+    private Observable<NetworkIPAllocationIndex> ipAllocationIndex;
 
     NetworkImpl(String name,
             final VirtualNetworkInner innerModel,
@@ -61,6 +67,7 @@ class NetworkImpl
         }
 
         this.peerings = new NetworkPeeringsImpl(this);
+        resetIPAllocationIndex();
     }
 
     // Verbs
@@ -84,18 +91,141 @@ class NetworkImpl
 
     @Override
     public boolean isPrivateIPAddressAvailable(String ipAddress) {
+        if (ipAddress == null) {
+            return false;
+        }
+        Boolean available = this.ipAllocationIndex().toBlocking().single().isAvailable(ipAddress);
+        if (available != null) {
+            return available;
+        }
         IPAddressAvailabilityResultInner result = checkIPAvailability(ipAddress);
         return (result != null) ? result.available() : false;
     }
 
     @Override
     public boolean isPrivateIPAddressInNetwork(String ipAddress) {
+        if (ipAddress == null) {
+            return false;
+        }
+        // Only the subnet address prefixes are needed, so the usage of the subnets is not resolved
+        Boolean inSubnet = new NetworkIPAllocationIndex(this.inner().subnets()).isInSubnet(ipAddress);
+        if (inSubnet != null) {
+            return inSubnet;
+        }
         IPAddressAvailabilityResultInner result = checkIPAvailability(ipAddress);
         return (result != null) ? true : false;
     }
 
+    @Override
+    public List<String> nextAvailablePrivateIPAddresses(String subnetName, int count) {
+        return this.nextAvailablePrivateIPAddressesAsync(subnetName, count).toBlocking().single();
+    }
+
+    @Override
+    public Observable<List<String>> nextAvailablePrivateIPAddressesAsync(final String subnetName, final int count) {
+        return this.ipAllocationIndex().flatMap(new Func1<NetworkIPAllocationIndex, Observable<List<String>>>() {
+            @Override
+            public Observable<List<String>> call(NetworkIPAllocationIndex index) {
+                return allocateAsync(index, subnetName, count, new ArrayList<String>());
+            }
+        });
+    }
+
+    @Override
+    public NetworkRouteResolver buildRouteResolver() {
+        return this.buildRouteResolverAsync().toBlocking().single();
+    }
+
+    @Override
+    public Observable<NetworkRouteResolver> buildRouteResolverAsync() {
+        return NetworkRouteResolverImpl.buildAsync(this);
+    }
+
     // Helpers
 
+    /**
+     * Takes candidate addresses from the index and keeps the ones the service confirms as available,
+     * taking further candidates for the rejected ones until enough addresses are found or the subnet
+     * is exhausted. Both confirmed and rejected candidates stay marked as in use in the index.
+     */
+    private Observable<List<String>> allocateAsync(final NetworkIPAllocationIndex index,
+                                                   final String subnetName,
+                                                   final int count,
+                                                   final List<String> allocated) {
+        List<String> candidates = index.take(subnetName, count - allocated.size());
+        if (candidates.isEmpty()) {
+            return Observable.just(sortByAddress(allocated));
+        }
+        final VirtualNetworksInner client = this.manager().inner().virtualNetworks();
+        return Observable.from(candidates)
+                .flatMap(new Func1<String, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(final String candidate) {
+                        return client.checkIPAddressAvailabilityAsync(resourceGroupName(), name(), candidate)
+                                .filter(new Func1<IPAddressAvailabilityResultInner, Boolean>() {
+                                    @Override
+                                    public Boolean call(IPAddressAvailabilityResultInner result) {
+                                        return result != null && Boolean.TRUE.equals(result.available());
+                                    }
+                                })
+                                .map(new Func1<IPAddressAvailabilityResultInner, String>() {
+                                    @Override
+                                    public String call(IPAddressAvailabilityResultInner result) {
+                                        return candidate;
+                                    }
+                                });
+                    }
+                }, NetworkInterfaceResolver.DEFAULT_MAX_CONCURRENCY)
+                .collect(new Func0<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        return allocated;
+                    }
+                }, new Action2<List<String>, String>() {
+                    @Override
+                    public void call(List<String> addresses, String address) {
+                        addresses.add(address);
+                    }
+                })
+                .flatMap(new Func1<List<String>, Observable<List<String>>>() {
+                    @Override
+                    public Observable<List<String>> call(List<String> addresses) {
+                        if (addresses.size() >= count) {
+                            return Observable.just(sortByAddress(addresses));
+                        }
+                        return allocateAsync(index, subnetName, count, addresses);
+                    }
+                });
+    }
+
+    private static List<String> sortByAddress(List<String> ipAddresses) {
+        Collections.sort(ipAddresses, new Comparator<String>() {
+            @Override
+            public int compare(String left, String right) {
+                return Long.compare(IPAllocationBitmap.parse(left), IPAllocationBitmap.parse(right));
+            }
+        });
+        return ipAddresses;
+    }
+
+    private synchronized Observable<NetworkIPAllocationIndex> ipAllocationIndex() {
+        if (this.ipAllocationIndex == null) {
+            this.ipAllocationIndex = NetworkIPAllocationIndex.buildAsync(this.manager(), this.inner().subnets())
+                    .doOnError(new Action1<Throwable>() {
+                        @Override
+                        public void call(Throwable throwable) {
+                            resetIPAllocationIndex();
+                        }
+                    })
+                    .cache();
+        }
+        return this.ipAllocationIndex;
+    }
+
+    private synchronized void resetIPAllocationIndex() {
+        this.ipAllocationIndex = null;
+    }
+
     private IPAddressAvailabilityResultInner checkIPAvailability(String ipAddress) {
         if (ipAddress == null) {
             return null;
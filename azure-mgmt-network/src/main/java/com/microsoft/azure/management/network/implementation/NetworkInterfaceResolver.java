@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.network.NetworkInterface;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves many network interfaces by id with a bounded number of concurrent requests.
+ * <p>
+ * Network interfaces are grouped by resource group. A group referencing at least the list threshold of
+ * network interfaces is resolved with a single list by resource group call joined in memory with the
+ * requested ids, the network interfaces of the other groups are fetched one by one, concurrently.
+ */
+class NetworkInterfaceResolver {
+    static final int DEFAULT_MAX_CONCURRENCY = 16;
+    static final int DEFAULT_LIST_THRESHOLD = 10;
+
+    private final NetworkManager manager;
+    private final int maxConcurrency;
+    private final int listThreshold;
+
+    /**
+     * Creates NetworkInterfaceResolver with the default concurrency and list threshold.
+     *
+     * @param manager the network manager
+     */
+    NetworkInterfaceResolver(NetworkManager manager) {
+        this(manager, DEFAULT_MAX_CONCURRENCY, DEFAULT_LIST_THRESHOLD);
+    }
+
+    /**
+     * Creates NetworkInterfaceResolver.
+     *
+     * @param manager the network manager
+     * @param maxConcurrency the maximum number of concurrent requests
+     * @param listThreshold the number of network interfaces referenced in a resource group from which the
+     *                      whole resource group is listed instead
+     */
+    NetworkInterfaceResolver(NetworkManager manager, int maxConcurrency, int listThreshold) {
+        this.manager = manager;
+        this.maxConcurrency = maxConcurrency;
+        this.listThreshold = listThreshold;
+    }
+
+    /**
+     * Resolves network interfaces. Network interfaces that do not exist are skipped.
+     *
+     * @param networkInterfaceIds the network interface ids, duplicates are resolved once
+     * @return an observable that emits the resolved network interfaces keyed by lower case id
+     */
+    Observable<Map<String, NetworkInterface>> resolveAsync(Collection<String> networkInterfaceIds) {
+        return resolveAsync(networkInterfaceIds, null);
+    }
+
+    /**
+     * Resolves network interfaces, collecting the errors of failed requests instead of failing.
+     * Network interfaces that do not exist or could not be fetched are skipped.
+     *
+     * @param networkInterfaceIds the network interface ids, duplicates are resolved once
+     * @param errors the collection receiving the errors of failed requests, if null the first error
+     *               fails the resolution
+     * @return an observable that emits the resolved network interfaces keyed by lower case id
+     */
+    Observable<Map<String, NetworkInterface>> resolveAsync(Collection<String> networkInterfaceIds, final Collection<Throwable> errors) {
+        List<Observable<NetworkInterface>> requests = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> group : groupByResourceGroup(networkInterfaceIds).entrySet()) {
+            final Set<String> ids = group.getValue();
+            if (ids.size() >= listThreshold) {
+                requests.add(manager.networkInterfaces()
+                        .listByResourceGroupAsync(group.getKey())
+                        .filter(new Func1<NetworkInterface, Boolean>() {
+                            @Override
+                            public Boolean call(NetworkInterface nic) {
+                                return ids.contains(nic.id().toLowerCase());
+                            }
+                        }));
+            } else {
+                for (String id : ids) {
+                    requests.add(manager.networkInterfaces().getByIdAsync(id));
+                }
+            }
+        }
+        return Observable.from(requests)
+                .flatMap(new Func1<Observable<NetworkInterface>, Observable<NetworkInterface>>() {
+                    @Override
+                    public Observable<NetworkInterface> call(Observable<NetworkInterface> request) {
+                        if (errors == null) {
+                            return request;
+                        }
+                        return request.onErrorResumeNext(new Func1<Throwable, Observable<NetworkInterface>>() {
+                            @Override
+                            public Observable<NetworkInterface> call(Throwable throwable) {
+                                synchronized (errors) {
+                                    errors.add(throwable);
+                                }
+                                return Observable.empty();
+                            }
+                        });
+                    }
+                }, maxConcurrency)
+                .filter(new Func1<NetworkInterface, Boolean>() {
+                    @Override
+                    public Boolean call(NetworkInterface nic) {
+                        // Null for network interfaces that no longer exist
+                        return nic != null;
+                    }
+                })
+                .toMap(new Func1<NetworkInterface, String>() {
+                    @Override
+                    public String call(NetworkInterface nic) {
+                        return nic.id().toLowerCase();
+                    }
+                });
+    }
+
+    /**
+     * Groups distinct resource ids by resource group.
+     *
+     * @param resourceIds the resource ids
+     * @return the lower case resource ids, keyed by lower case resource group name
+     */
+    static Map<String, Set<String>> groupByResourceGroup(Collection<String> resourceIds) {
+        Map<String, Set<String>> groups = new LinkedHashMap<>();
+        for (String id : resourceIds) {
+            String resourceGroupName = ResourceUtils.groupFromResourceId(id).toLowerCase();
+            Set<String> ids = groups.get(resourceGroupName);
+            if (ids == null) {
+                ids = new HashSet<>();
+                groups.put(resourceGroupName, ids);
+            }
+            ids.add(id.toLowerCase());
+        }
+        return groups;
+    }
+}
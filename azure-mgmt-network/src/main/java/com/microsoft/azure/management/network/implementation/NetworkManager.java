@@ -19,6 +19,7 @@ import com.microsoft.azure.management.network.LocalNetworkGateways;
 import com.microsoft.azure.management.network.Network;
 import com.microsoft.azure.management.network.NetworkInterfaces;
 import com.microsoft.azure.management.network.NetworkSecurityGroups;
+import com.microsoft.azure.management.network.NetworkTopologyGraph;
 import com.microsoft.azure.management.network.NetworkUsages;
 import com.microsoft.azure.management.network.Networks;
 import com.microsoft.azure.management.network.PublicIPAddresses;
@@ -34,6 +35,7 @@ import com.microsoft.azure.management.resources.fluentcore.utils.ProviderRegistr
 import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerThrottlingInterceptor;
 import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.rest.RestClient;
+import rx.Observable;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -245,6 +247,28 @@ public final class NetworkManager extends Manager<NetworkManager, NetworkManagem
         return this.localNetworkGateways;
     }
 
+    /**
+     * Builds an in-memory graph of the networking resources of a resource group.
+     *
+     * @param resourceGroupName the name of the resource group
+     * @return the topology graph
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public NetworkTopologyGraph buildTopologyGraph(String resourceGroupName) {
+        return this.buildTopologyGraphAsync(resourceGroupName).toBlocking().last();
+    }
+
+    /**
+     * Builds an in-memory graph of the networking resources of a resource group asynchronously.
+     *
+     * @param resourceGroupName the name of the resource group
+     * @return an observable that emits the topology graph
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public Observable<NetworkTopologyGraph> buildTopologyGraphAsync(String resourceGroupName) {
+        return NetworkTopologyGraphImpl.buildAsync(this, resourceGroupName);
+    }
+
     // Internal utility function
     Subnet getAssociatedSubnet(SubResource subnetRef) {
         if (subnetRef == null) {
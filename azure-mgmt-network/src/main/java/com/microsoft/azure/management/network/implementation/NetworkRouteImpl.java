@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.EffectiveRouteSource;
+import com.microsoft.azure.management.network.NetworkRoute;
+import com.microsoft.azure.management.network.RouteNextHopType;
+
+/**
+ * Implementation for NetworkRoute.
+ */
+@LangDefinition
+class NetworkRouteImpl implements NetworkRoute {
+    private final String name;
+    private final String addressPrefix;
+    private final EffectiveRouteSource source;
+    private final RouteNextHopType nextHopType;
+    private final String nextHopIPAddress;
+    private final String routeTableId;
+    private final long firstAddress;
+    private final int prefixLength;
+
+    /**
+     * Creates NetworkRouteImpl.
+     *
+     * @param name the route name
+     * @param addressPrefix the destination IPv4 address prefix, in CIDR notation
+     * @param source the source of the route
+     * @param nextHopType the type of the next hop
+     * @param nextHopIPAddress the IP address of the next hop
+     * @param routeTableId the route table ID, for user defined routes
+     */
+    NetworkRouteImpl(String name,
+                     String addressPrefix,
+                     EffectiveRouteSource source,
+                     RouteNextHopType nextHopType,
+                     String nextHopIPAddress,
+                     String routeTableId) {
+        long[] range = IPAllocationBitmap.parseAddressPrefix(addressPrefix);
+        if (range == null) {
+            throw new IllegalArgumentException("Unsupported address prefix: " + addressPrefix);
+        }
+        this.name = name;
+        this.addressPrefix = addressPrefix;
+        this.source = source;
+        this.nextHopType = nextHopType;
+        this.nextHopIPAddress = nextHopIPAddress;
+        this.routeTableId = routeTableId;
+        this.firstAddress = range[0];
+        this.prefixLength = 32 - Long.numberOfTrailingZeros(range[1] - range[0] + 1);
+    }
+
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public String addressPrefix() {
+        return this.addressPrefix;
+    }
+
+    @Override
+    public EffectiveRouteSource source() {
+        return this.source;
+    }
+
+    @Override
+    public RouteNextHopType nextHopType() {
+        return this.nextHopType;
+    }
+
+    @Override
+    public String nextHopIPAddress() {
+        return this.nextHopIPAddress;
+    }
+
+    @Override
+    public String routeTableId() {
+        return this.routeTableId;
+    }
+
+    long firstAddress() {
+        return this.firstAddress;
+    }
+
+    int prefixLength() {
+        return this.prefixLength;
+    }
+
+    /**
+     * @return the precedence of the route over routes with the same prefix, higher first
+     */
+    int precedence() {
+        if (EffectiveRouteSource.USER.equals(this.source)) {
+            return 2;
+        } else if (EffectiveRouteSource.VIRTUAL_NETWORK_GATEWAY.equals(this.source)) {
+            return 1;
+        } else {
+            return 0;
+        }
+    }
+}
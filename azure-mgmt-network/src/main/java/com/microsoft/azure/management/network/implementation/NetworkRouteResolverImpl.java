@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.EffectiveRouteSource;
+import com.microsoft.azure.management.network.GatewayRoute;
+import com.microsoft.azure.management.network.Network;
+import com.microsoft.azure.management.network.NetworkPeering;
+import com.microsoft.azure.management.network.NetworkRoute;
+import com.microsoft.azure.management.network.NetworkRouteResolver;
+import com.microsoft.azure.management.network.Route;
+import com.microsoft.azure.management.network.RouteNextHopType;
+import com.microsoft.azure.management.network.RouteTable;
+import com.microsoft.azure.management.network.Subnet;
+import com.microsoft.azure.management.network.VirtualNetworkPeeringState;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func3;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation for NetworkRouteResolver.
+ * <p>
+ * System and gateway routes are compiled into one trie shared by all subnets, the user defined routes of each
+ * route table into a trie of their own, so that a route table can be recompiled alone.
+ */
+@LangDefinition
+class NetworkRouteResolverImpl implements NetworkRouteResolver {
+    static final RouteNextHopType VNET_PEERING = new RouteNextHopType("VNetPeering");
+    private static final String GATEWAY_SUBNET_NAME = "GatewaySubnet";
+    private static final String VIRTUAL_NETWORK_GATEWAYS_SEGMENT = "/virtualnetworkgateways/";
+    // Gateway routes with this origin are the address spaces of the network itself
+    private static final String NETWORK_ORIGIN = "Network";
+    private static final String[] DROPPED_PREFIXES = {"10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "100.64.0.0/10"};
+
+    private final String networkId;
+    private final RouteTrie systemRoutes = new RouteTrie();
+    private final Map<String, String> routeTableIdsBySubnet = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, RouteTrie> userRoutesByRouteTable = new ConcurrentHashMap<>();
+
+    /**
+     * Creates NetworkRouteResolverImpl.
+     *
+     * @param networkId the resource ID of the virtual network
+     * @param addressSpaces the address spaces of the virtual network
+     * @param routeTableIdsBySubnet the IDs of the route tables associated with subnets, keyed by subnet name
+     * @param peeredAddressSpaces the address spaces of the networks connected through peerings
+     * @param gatewayRoutes the routes learned by the virtual network gateway
+     * @param routeTables the route tables associated with the subnets of the network
+     */
+    NetworkRouteResolverImpl(String networkId,
+                             Collection<String> addressSpaces,
+                             Map<String, String> routeTableIdsBySubnet,
+                             Collection<String> peeredAddressSpaces,
+                             Collection<GatewayRoute> gatewayRoutes,
+                             Collection<RouteTable> routeTables) {
+        this.networkId = networkId;
+        for (Map.Entry<String, String> entry : routeTableIdsBySubnet.entrySet()) {
+            this.routeTableIdsBySubnet.put(entry.getKey(), entry.getValue().toLowerCase());
+        }
+        // Routes with the same prefix and precedence keep the first one added, the address spaces of the
+        // network and its peerings replace the default routes for the same prefix
+        for (String prefix : addressSpaces) {
+            addSystemRoute("VnetLocal", prefix, RouteNextHopType.VNET_LOCAL);
+        }
+        for (String prefix : peeredAddressSpaces) {
+            addSystemRoute("VNetPeering", prefix, VNET_PEERING);
+        }
+        addSystemRoute("Default", "0.0.0.0/0", RouteNextHopType.INTERNET);
+        for (String prefix : DROPPED_PREFIXES) {
+            addSystemRoute("Default", prefix, RouteNextHopType.NONE);
+        }
+        for (GatewayRoute route : gatewayRoutes) {
+            if (route.network() != null
+                    && !NETWORK_ORIGIN.equalsIgnoreCase(route.origin())
+                    && IPAllocationBitmap.parseAddressPrefix(route.network()) != null) {
+                this.systemRoutes.add(new NetworkRouteImpl("VirtualNetworkGateway", route.network(),
+                        EffectiveRouteSource.VIRTUAL_NETWORK_GATEWAY, RouteNextHopType.VIRTUAL_NETWORK_GATEWAY, route.nextHop(), null));
+            }
+        }
+        for (RouteTable routeTable : routeTables) {
+            refreshRouteTable(routeTable);
+        }
+    }
+
+    /**
+     * Gathers, concurrently, the address spaces of the connected peered networks, the routes learned by the
+     * gateway of the network, if any, and the route tables associated with its subnets.
+     *
+     * @param network the virtual network
+     * @return an observable that emits the resolver
+     */
+    static Observable<NetworkRouteResolver> buildAsync(final NetworkImpl network) {
+        final NetworkManager manager = network.manager();
+
+        Observable<List<String>> peeredAddressSpaces = network.peerings().listAsync()
+                .filter(new Func1<NetworkPeering, Boolean>() {
+                    @Override
+                    public Boolean call(NetworkPeering peering) {
+                        return VirtualNetworkPeeringState.CONNECTED.equals(peering.state());
+                    }
+                })
+                .flatMap(new Func1<NetworkPeering, Observable<Network>>() {
+                    @Override
+                    public Observable<Network> call(NetworkPeering peering) {
+                        return peering.getRemoteNetworkAsync();
+                    }
+                }, NetworkInterfaceResolver.DEFAULT_MAX_CONCURRENCY)
+                .flatMapIterable(new Func1<Network, Iterable<String>>() {
+                    @Override
+                    public Iterable<String> call(Network remoteNetwork) {
+                        return remoteNetwork == null ? Collections.<String>emptyList() : remoteNetwork.addressSpaces();
+                    }
+                })
+                .toList();
+
+        Observable<List<GatewayRoute>> gatewayRoutes = Observable.from(gatewayIds(network))
+                .flatMap(new Func1<String, Observable<GatewayRouteListResultInner>>() {
+                    @Override
+                    public Observable<GatewayRouteListResultInner> call(String gatewayId) {
+                        ResourceId id = ResourceId.fromString(gatewayId);
+                        return manager.inner().virtualNetworkGateways().getLearnedRoutesAsync(id.resourceGroupName(), id.name());
+                    }
+                })
+                .flatMapIterable(new Func1<GatewayRouteListResultInner, Iterable<GatewayRoute>>() {
+                    @Override
+                    public Iterable<GatewayRoute> call(GatewayRouteListResultInner result) {
+                        return (result == null || result.value() == null) ? Collections.<GatewayRoute>emptyList() : result.value();
+                    }
+                })
+                .toList();
+
+        final Map<String, String> routeTableIdsBySubnet = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Set<String> routeTableIds = new HashSet<>();
+        for (Subnet subnet : network.subnets().values()) {
+            if (subnet.routeTableId() != null) {
+                routeTableIdsBySubnet.put(subnet.name(), subnet.routeTableId());
+                routeTableIds.add(subnet.routeTableId().toLowerCase());
+            }
+        }
+        Observable<List<RouteTable>> routeTables = Observable.from(routeTableIds)
+                .flatMap(new Func1<String, Observable<RouteTable>>() {
+                    @Override
+                    public Observable<RouteTable> call(String routeTableId) {
+                        return manager.routeTables().getByIdAsync(routeTableId);
+                    }
+                }, NetworkInterfaceResolver.DEFAULT_MAX_CONCURRENCY)
+                .filter(new Func1<RouteTable, Boolean>() {
+                    @Override
+                    public Boolean call(RouteTable routeTable) {
+                        return routeTable != null;
+                    }
+                })
+                .toList();
+
+        return Observable.zip(peeredAddressSpaces, gatewayRoutes, routeTables,
+                new Func3<List<String>, List<GatewayRoute>, List<RouteTable>, NetworkRouteResolver>() {
+                    @Override
+                    public NetworkRouteResolver call(List<String> addressSpaces, List<GatewayRoute> routes, List<RouteTable> tables) {
+                        return new NetworkRouteResolverImpl(network.id(), network.addressSpaces(), routeTableIdsBySubnet,
+                                addressSpaces, routes, tables);
+                    }
+                });
+    }
+
+    @Override
+    public String networkId() {
+        return this.networkId;
+    }
+
+    @Override
+    public NetworkRoute resolveNextHop(String subnetName, String destinationIPAddress) {
+        long address = destinationIPAddress == null ? -1 : IPAllocationBitmap.parse(destinationIPAddress);
+        if (address < 0) {
+            return null;
+        }
+        NetworkRouteImpl systemRoute = this.systemRoutes.longestMatch(address);
+        String routeTableId = this.routeTableIdsBySubnet.get(subnetName);
+        RouteTrie userRoutes = routeTableId == null ? null : this.userRoutesByRouteTable.get(routeTableId);
+        NetworkRouteImpl userRoute = userRoutes == null ? null : userRoutes.longestMatch(address);
+        if (userRoute == null) {
+            return systemRoute;
+        } else if (systemRoute == null) {
+            return userRoute;
+        }
+        // User defined routes win over system routes with the same prefix
+        return userRoute.prefixLength() >= systemRoute.prefixLength() ? userRoute : systemRoute;
+    }
+
+    @Override
+    public List<NetworkRoute> resolveNextHops(String subnetName, List<String> destinationIPAddresses) {
+        List<NetworkRoute> routes = new ArrayList<>(destinationIPAddresses.size());
+        for (String destinationIPAddress : destinationIPAddresses) {
+            routes.add(resolveNextHop(subnetName, destinationIPAddress));
+        }
+        return routes;
+    }
+
+    @Override
+    public NetworkRouteResolverImpl refreshRouteTable(RouteTable routeTable) {
+        RouteTrie userRoutes = new RouteTrie();
+        for (Route route : routeTable.routes().values()) {
+            if (route.destinationAddressPrefix() != null
+                    && IPAllocationBitmap.parseAddressPrefix(route.destinationAddressPrefix()) != null) {
+                userRoutes.add(new NetworkRouteImpl(route.name(), route.destinationAddressPrefix(),
+                        EffectiveRouteSource.USER, route.nextHopType(), route.nextHopIPAddress(), routeTable.id()));
+            }
+        }
+        this.userRoutesByRouteTable.put(routeTable.id().toLowerCase(), userRoutes);
+        return this;
+    }
+
+    private void addSystemRoute(String name, String prefix, RouteNextHopType nextHopType) {
+        if (IPAllocationBitmap.parseAddressPrefix(prefix) != null) {
+            this.systemRoutes.add(new NetworkRouteImpl(name, prefix, EffectiveRouteSource.DEFAULT, nextHopType, null, null));
+        }
+    }
+
+    private static Set<String> gatewayIds(NetworkImpl network) {
+        Set<String> gatewayIds = new HashSet<>();
+        if (network.inner().subnets() == null) {
+            return gatewayIds;
+        }
+        for (SubnetInner subnet : network.inner().subnets()) {
+            if (!GATEWAY_SUBNET_NAME.equalsIgnoreCase(subnet.name()) || subnet.ipConfigurations() == null) {
+                continue;
+            }
+            for (IPConfigurationInner ipConfig : subnet.ipConfigurations()) {
+                if (ipConfig.id().toLowerCase().contains(VIRTUAL_NETWORK_GATEWAYS_SEGMENT)) {
+                    // The gateway ID is the parent of its IP configuration ID
+                    gatewayIds.add(ResourceId.fromString(ipConfig.id()).parent().id());
+                }
+            }
+        }
+        return gatewayIds;
+    }
+}
@@ -8,11 +8,13 @@ package com.microsoft.azure.management.network.implementation;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.network.NetworkSecurityGroup;
 import com.microsoft.azure.management.network.NetworkSecurityRule;
+import com.microsoft.azure.management.network.NetworkSecurityRuleEvaluator;
 import com.microsoft.azure.management.network.Subnet;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.implementation.GroupableParentResourceImpl;
 import rx.Observable;
 import rx.functions.Func1;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -138,6 +140,13 @@ class NetworkSecurityGroupImpl
         return Collections.unmodifiableSet(ids);
     }
 
+    @Override
+    public NetworkSecurityRuleEvaluator compileRules(Map<String, List<String>> serviceTagPrefixes) {
+        List<NetworkSecurityRule> allRules = new ArrayList<>(this.rules.values());
+        allRules.addAll(this.defaultRules.values());
+        return new NetworkSecurityRuleEvaluatorImpl(this.id(), allRules, serviceTagPrefixes);
+    }
+
     @Override
     protected void beforeCreating() {
         // Reset and update subnets
@@ -5,14 +5,31 @@
  */
 package com.microsoft.azure.management.network.implementation;
 
+import com.microsoft.azure.CloudException;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.network.NetworkInterface;
 import com.microsoft.azure.management.network.NetworkSecurityGroup;
 import com.microsoft.azure.management.network.NetworkSecurityGroups;
+import com.microsoft.azure.management.network.NetworkSecurityFlow;
+import com.microsoft.azure.management.network.NetworkSecurityRule;
+import com.microsoft.azure.management.network.NetworkSecurityRuleEvaluator;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import rx.Completable;
+import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.schedulers.Schedulers;
 
-import java.util.Set;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  *  Implementation for NetworkSecurityGroups.
@@ -27,31 +44,69 @@ class NetworkSecurityGroupsImpl
         NetworkManager>
     implements NetworkSecurityGroups {
 
+    private static final int MAX_CONCURRENT_DETACHMENTS = 16;
+    private static final int MAX_RETRIES = 5;
+    private static final int HTTP_CONFLICT = 409;
+
     NetworkSecurityGroupsImpl(final NetworkManager networkManager) {
         super(networkManager.inner().networkSecurityGroups(), networkManager);
     }
 
     @Override
-    public Completable deleteByResourceGroupAsync(String groupName, String name) {
-        // Clear NIC references if any
-        NetworkSecurityGroupImpl nsg = (NetworkSecurityGroupImpl) getByResourceGroup(groupName, name);
-        if (nsg != null) {
-            Set<String> nicIds = nsg.networkInterfaceIds();
-            if (nicIds != null) {
-                for (String nicRef : nsg.networkInterfaceIds()) {
-                    NetworkInterface nic = this.manager().networkInterfaces().getById(nicRef);
-                    if (nic == null) {
-                        continue;
-                    } else if (!nsg.id().equalsIgnoreCase(nic.networkSecurityGroupId())) {
-                        continue;
-                    } else {
-                        nic.update().withoutNetworkSecurityGroup().apply();
+    public Completable deleteByResourceGroupAsync(final String groupName, final String name) {
+        return this.inner().getByResourceGroupAsync(groupName, name)
+                .flatMap(new Func1<NetworkSecurityGroupInner, Observable<?>>() {
+                    @Override
+                    public Observable<?> call(NetworkSecurityGroupInner nsg) {
+                        if (nsg == null) {
+                            return Observable.empty();
+                        }
+                        // Clear NIC and subnet references if any
+                        return Observable.merge(detachNetworkInterfacesAsync(nsg), detachSubnetsAsync(nsg));
                     }
-                }
-            }
-        }
+                })
+                .toCompletable()
+                .andThen(this.deleteInnerAsync(groupName, name));
+    }
+
+    @Override
+    public Map<String, List<NetworkSecurityRule>> evaluateFlows(
+            Collection<NetworkSecurityGroup> networkSecurityGroups,
+            List<NetworkSecurityFlow> flows,
+            Map<String, List<String>> serviceTagPrefixes) {
+        return this.evaluateFlowsAsync(networkSecurityGroups, flows, serviceTagPrefixes).toBlocking().single();
+    }
 
-        return this.deleteInnerAsync(groupName, name);
+    @Override
+    public Observable<Map<String, List<NetworkSecurityRule>>> evaluateFlowsAsync(
+            Collection<NetworkSecurityGroup> networkSecurityGroups,
+            final List<NetworkSecurityFlow> flows,
+            final Map<String, List<String>> serviceTagPrefixes) {
+        return Observable.from(networkSecurityGroups)
+                .flatMap(new Func1<NetworkSecurityGroup, Observable<Map.Entry<String, List<NetworkSecurityRule>>>>() {
+                    @Override
+                    public Observable<Map.Entry<String, List<NetworkSecurityRule>>> call(final NetworkSecurityGroup nsg) {
+                        // Compiling and evaluating is CPU bound, one network security group per task
+                        return Observable.fromCallable(new Callable<Map.Entry<String, List<NetworkSecurityRule>>>() {
+                            @Override
+                            public Map.Entry<String, List<NetworkSecurityRule>> call() {
+                                NetworkSecurityRuleEvaluator evaluator = nsg.compileRules(serviceTagPrefixes);
+                                return new AbstractMap.SimpleImmutableEntry<>(nsg.id(), evaluator.findMatchingRules(flows));
+                            }
+                        }).subscribeOn(Schedulers.computation());
+                    }
+                })
+                .toMap(new Func1<Map.Entry<String, List<NetworkSecurityRule>>, String>() {
+                    @Override
+                    public String call(Map.Entry<String, List<NetworkSecurityRule>> entry) {
+                        return entry.getKey();
+                    }
+                }, new Func1<Map.Entry<String, List<NetworkSecurityRule>>, List<NetworkSecurityRule>>() {
+                    @Override
+                    public List<NetworkSecurityRule> call(Map.Entry<String, List<NetworkSecurityRule>> entry) {
+                        return entry.getValue();
+                    }
+                });
     }
 
     @Override
@@ -59,6 +114,103 @@ class NetworkSecurityGroupsImpl
         return wrapModel(name);
     }
 
+    // Helpers
+
+    private Observable<NetworkInterface> detachNetworkInterfacesAsync(final NetworkSecurityGroupInner nsg) {
+        if (nsg.networkInterfaces() == null) {
+            return Observable.empty();
+        }
+        return Observable.from(nsg.networkInterfaces())
+                .flatMap(new Func1<NetworkInterfaceInner, Observable<NetworkInterface>>() {
+                    @Override
+                    public Observable<NetworkInterface> call(final NetworkInterfaceInner nicRef) {
+                        // Deferred so that a retry reads the network interface again
+                        return Observable.defer(new Func0<Observable<NetworkInterface>>() {
+                            @Override
+                            public Observable<NetworkInterface> call() {
+                                return manager().networkInterfaces().getByIdAsync(nicRef.id())
+                                        .flatMap(new Func1<NetworkInterface, Observable<NetworkInterface>>() {
+                                            @Override
+                                            public Observable<NetworkInterface> call(NetworkInterface nic) {
+                                                if (nic == null || !nsg.id().equalsIgnoreCase(nic.networkSecurityGroupId())) {
+                                                    return Observable.empty();
+                                                }
+                                                return nic.update().withoutNetworkSecurityGroup().applyAsync();
+                                            }
+                                        });
+                            }
+                        }).retryWhen(new RetryOnConflict());
+                    }
+                }, MAX_CONCURRENT_DETACHMENTS);
+    }
+
+    private Observable<SubnetInner> detachSubnetsAsync(final NetworkSecurityGroupInner nsg) {
+        if (nsg.subnets() == null) {
+            return Observable.empty();
+        }
+        final SubnetsInner client = this.manager().inner().subnets();
+        return Observable.from(nsg.subnets())
+                .flatMap(new Func1<SubnetInner, Observable<SubnetInner>>() {
+                    @Override
+                    public Observable<SubnetInner> call(SubnetInner subnetRef) {
+                        final ResourceId subnetId = ResourceId.fromString(subnetRef.id());
+                        final String networkName = subnetId.parent().name();
+                        return Observable.defer(new Func0<Observable<SubnetInner>>() {
+                            @Override
+                            public Observable<SubnetInner> call() {
+                                return client.getAsync(subnetId.resourceGroupName(), networkName, subnetId.name())
+                                        .flatMap(new Func1<SubnetInner, Observable<SubnetInner>>() {
+                                            @Override
+                                            public Observable<SubnetInner> call(SubnetInner subnet) {
+                                                if (subnet == null
+                                                        || subnet.networkSecurityGroup() == null
+                                                        || !nsg.id().equalsIgnoreCase(subnet.networkSecurityGroup().id())) {
+                                                    return Observable.empty();
+                                                }
+                                                subnet.withNetworkSecurityGroup(null);
+                                                return client.createOrUpdateAsync(subnetId.resourceGroupName(), networkName, subnetId.name(), subnet);
+                                            }
+                                        });
+                            }
+                        }).retryWhen(new RetryOnConflict());
+                    }
+                }, MAX_CONCURRENT_DETACHMENTS);
+    }
+
+    /**
+     * Retries an update rejected because another operation is in progress on the same resource,
+     * such as concurrent updates of subnets of the same virtual network.
+     */
+    private static class RetryOnConflict implements Func1<Observable<? extends Throwable>, Observable<?>> {
+        @Override
+        public Observable<?> call(Observable<? extends Throwable> errors) {
+            return errors.zipWith(Observable.range(1, MAX_RETRIES + 1), new Func2<Throwable, Integer, Integer>() {
+                @Override
+                public Integer call(Throwable throwable, Integer attempt) {
+                    if (attempt <= MAX_RETRIES && isConflict(throwable)) {
+                        return attempt;
+                    } else {
+                        throw Exceptions.propagate(throwable);
+                    }
+                }
+            }).flatMap(new Func1<Integer, Observable<Long>>() {
+                @Override
+                public Observable<Long> call(Integer attempt) {
+                    return Observable.timer(1L << (attempt - 1), TimeUnit.SECONDS, SdkContext.getRxScheduler());
+                }
+            });
+        }
+
+        private static boolean isConflict(Throwable throwable) {
+            if (!(throwable instanceof CloudException)) {
+                return false;
+            }
+            CloudException exception = (CloudException) throwable;
+            return (exception.response() != null && exception.response().code() == HTTP_CONFLICT)
+                    || (exception.body() != null && "AnotherOperationInProgress".equalsIgnoreCase(exception.body().code()));
+        }
+    }
+
     // Fluent model create helpers
 
     @Override
@@ -0,0 +1,384 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.NetworkSecurityFlow;
+import com.microsoft.azure.management.network.NetworkSecurityRule;
+import com.microsoft.azure.management.network.NetworkSecurityRuleEvaluator;
+import com.microsoft.azure.management.network.SecurityRuleAccess;
+import com.microsoft.azure.management.network.SecurityRuleDirection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Implementation for NetworkSecurityRuleEvaluator.
+ * <p>
+ * The rules of each direction are sorted by priority and compiled into one interval index per dimension
+ * of the flow (source address, source port, destination address, destination port), plus one bit mask per
+ * protocol. Each interval index splits its dimension into elementary intervals, each carrying the bit mask of
+ * the rules matching it. Evaluating a flow takes one binary search per dimension and the intersection of
+ * the masks; the lowest bit set is the matching rule with the highest priority.
+ */
+@LangDefinition
+class NetworkSecurityRuleEvaluatorImpl implements NetworkSecurityRuleEvaluator {
+    static final String VIRTUAL_NETWORK_TAG = "VirtualNetwork";
+    static final String INTERNET_TAG = "Internet";
+    static final String AZURE_LOAD_BALANCER_TAG = "AzureLoadBalancer";
+    private static final String AZURE_LOAD_BALANCER_PREFIX = "168.63.129.16/32";
+    private static final long MAX_ADDRESS = 0xFFFFFFFFL;
+    private static final long MAX_PORT = 65535;
+
+    private final String networkSecurityGroupId;
+    private final Set<String> unresolvedServiceTags = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final CompiledRules inbound;
+    private final CompiledRules outbound;
+
+    /**
+     * Creates NetworkSecurityRuleEvaluatorImpl.
+     *
+     * @param networkSecurityGroupId the resource ID of the network security group
+     * @param rules the security rules and default security rules
+     * @param serviceTagPrefixes the IPv4 address prefixes of service tags, keyed by tag; the AzureLoadBalancer tag
+     *                           and, when the VirtualNetwork tag is supplied, the Internet tag are known implicitly
+     */
+    NetworkSecurityRuleEvaluatorImpl(String networkSecurityGroupId,
+                                     Collection<NetworkSecurityRule> rules,
+                                     Map<String, List<String>> serviceTagPrefixes) {
+        this.networkSecurityGroupId = networkSecurityGroupId;
+        Map<String, List<long[]>> serviceTags = resolveServiceTags(serviceTagPrefixes);
+        List<NetworkSecurityRule> inboundRules = new ArrayList<>();
+        List<NetworkSecurityRule> outboundRules = new ArrayList<>();
+        for (NetworkSecurityRule rule : rules) {
+            if (SecurityRuleDirection.INBOUND.equals(rule.direction())) {
+                inboundRules.add(rule);
+            } else if (SecurityRuleDirection.OUTBOUND.equals(rule.direction())) {
+                outboundRules.add(rule);
+            }
+        }
+        this.inbound = new CompiledRules(inboundRules, serviceTags, this.unresolvedServiceTags);
+        this.outbound = new CompiledRules(outboundRules, serviceTags, this.unresolvedServiceTags);
+    }
+
+    @Override
+    public String networkSecurityGroupId() {
+        return this.networkSecurityGroupId;
+    }
+
+    @Override
+    public Set<String> unresolvedServiceTags() {
+        return Collections.unmodifiableSet(this.unresolvedServiceTags);
+    }
+
+    @Override
+    public NetworkSecurityRule findMatchingRule(NetworkSecurityFlow flow) {
+        CompiledRules compiled;
+        if (SecurityRuleDirection.INBOUND.equals(flow.direction())) {
+            compiled = this.inbound;
+        } else if (SecurityRuleDirection.OUTBOUND.equals(flow.direction())) {
+            compiled = this.outbound;
+        } else {
+            return null;
+        }
+        if (flow.sourceIPAddress() == null || flow.destinationIPAddress() == null) {
+            return null;
+        }
+        long sourceAddress = IPAllocationBitmap.parse(flow.sourceIPAddress());
+        long destinationAddress = IPAllocationBitmap.parse(flow.destinationIPAddress());
+        if (sourceAddress < 0 || destinationAddress < 0) {
+            return null;
+        }
+        String protocol = flow.protocol() == null ? "" : flow.protocol().toString();
+        return compiled.match(protocol, sourceAddress, flow.sourcePort(), destinationAddress, flow.destinationPort());
+    }
+
+    @Override
+    public boolean isAllowed(NetworkSecurityFlow flow) {
+        NetworkSecurityRule rule = findMatchingRule(flow);
+        return rule != null && SecurityRuleAccess.ALLOW.equals(rule.access());
+    }
+
+    @Override
+    public List<NetworkSecurityRule> findMatchingRules(List<NetworkSecurityFlow> flows) {
+        List<NetworkSecurityRule> matches = new ArrayList<>(flows.size());
+        for (NetworkSecurityFlow flow : flows) {
+            matches.add(findMatchingRule(flow));
+        }
+        return matches;
+    }
+
+    private static Map<String, List<long[]>> resolveServiceTags(Map<String, List<String>> serviceTagPrefixes) {
+        Map<String, List<long[]>> serviceTags = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (serviceTagPrefixes != null) {
+            for (Map.Entry<String, List<String>> entry : serviceTagPrefixes.entrySet()) {
+                List<long[]> intervals = new ArrayList<>();
+                if (entry.getValue() != null) {
+                    for (String prefix : entry.getValue()) {
+                        long[] interval = IPAllocationBitmap.parseAddressPrefix(prefix);
+                        if (interval != null) {
+                            intervals.add(interval);
+                        }
+                    }
+                }
+                serviceTags.put(entry.getKey(), intervals);
+            }
+        }
+        if (!serviceTags.containsKey(AZURE_LOAD_BALANCER_TAG)) {
+            serviceTags.put(AZURE_LOAD_BALANCER_TAG, Collections.singletonList(IPAllocationBitmap.parseAddressPrefix(AZURE_LOAD_BALANCER_PREFIX)));
+        }
+        if (!serviceTags.containsKey(INTERNET_TAG) && serviceTags.containsKey(VIRTUAL_NETWORK_TAG)) {
+            serviceTags.put(INTERNET_TAG, complement(serviceTags.get(VIRTUAL_NETWORK_TAG)));
+        }
+        return serviceTags;
+    }
+
+    /**
+     * @param range a port, a port range such as "1000-2000" or "*"
+     * @return the first and last ports of the range, or null if it is not a valid range
+     */
+    static long[] parsePortRange(String range) {
+        String trimmed = range.trim();
+        if (trimmed.equals("*")) {
+            return new long[] {0, MAX_PORT};
+        }
+        String[] parts = trimmed.split("-");
+        try {
+            long first = Long.parseLong(parts[0].trim());
+            long last = parts.length == 2 ? Long.parseLong(parts[1].trim()) : first;
+            if (parts.length > 2 || first < 0 || last > MAX_PORT || first > last) {
+                return null;
+            }
+            return new long[] {first, last};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<long[]> complement(List<long[]> intervals) {
+        List<long[]> sorted = new ArrayList<>(intervals);
+        Collections.sort(sorted, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] left, long[] right) {
+                return Long.compare(left[0], right[0]);
+            }
+        });
+        List<long[]> complement = new ArrayList<>();
+        long next = 0;
+        for (long[] interval : sorted) {
+            if (interval[0] > next) {
+                complement.add(new long[] {next, interval[0] - 1});
+            }
+            next = Math.max(next, interval[1] + 1);
+        }
+        if (next <= MAX_ADDRESS) {
+            complement.add(new long[] {next, MAX_ADDRESS});
+        }
+        return complement;
+    }
+
+    /**
+     * The rules of one direction, compiled.
+     */
+    private static class CompiledRules {
+        private final NetworkSecurityRule[] rules;
+        private final IntervalIndex sourceAddresses;
+        private final IntervalIndex sourcePorts;
+        private final IntervalIndex destinationAddresses;
+        private final IntervalIndex destinationPorts;
+        private final Map<String, long[]> protocolMasks = new HashMap<>();
+        private final long[] anyProtocolMask;
+
+        CompiledRules(List<NetworkSecurityRule> rules, Map<String, List<long[]>> serviceTags, Set<String> unresolvedServiceTags) {
+            this.rules = rules.toArray(new NetworkSecurityRule[rules.size()]);
+            Arrays.sort(this.rules, new Comparator<NetworkSecurityRule>() {
+                @Override
+                public int compare(NetworkSecurityRule left, NetworkSecurityRule right) {
+                    return Integer.compare(left.priority(), right.priority());
+                }
+            });
+            int words = (this.rules.length + 63) / 64;
+            List<List<long[]>> sourceAddressIntervals = new ArrayList<>();
+            List<List<long[]>> sourcePortIntervals = new ArrayList<>();
+            List<List<long[]>> destinationAddressIntervals = new ArrayList<>();
+            List<List<long[]>> destinationPortIntervals = new ArrayList<>();
+            this.anyProtocolMask = new long[words];
+            Map<String, long[]> specificMasks = new HashMap<>();
+            for (int i = 0; i < this.rules.length; i++) {
+                SecurityRuleInner inner = this.rules[i].inner();
+                sourceAddressIntervals.add(addressIntervals(
+                        inner.sourceAddressPrefix(), inner.sourceAddressPrefixes(), serviceTags, unresolvedServiceTags));
+                destinationAddressIntervals.add(addressIntervals(
+                        inner.destinationAddressPrefix(), inner.destinationAddressPrefixes(), serviceTags, unresolvedServiceTags));
+                sourcePortIntervals.add(portIntervals(inner.sourcePortRange(), inner.sourcePortRanges()));
+                destinationPortIntervals.add(portIntervals(inner.destinationPortRange(), inner.destinationPortRanges()));
+                String protocol = inner.protocol() == null ? "*" : inner.protocol().toString().toLowerCase();
+                if (protocol.equals("*")) {
+                    setBit(this.anyProtocolMask, i);
+                } else {
+                    long[] mask = specificMasks.get(protocol);
+                    if (mask == null) {
+                        mask = new long[words];
+                        specificMasks.put(protocol, mask);
+                    }
+                    setBit(mask, i);
+                }
+            }
+            for (Map.Entry<String, long[]> entry : specificMasks.entrySet()) {
+                long[] mask = entry.getValue();
+                for (int w = 0; w < words; w++) {
+                    mask[w] |= this.anyProtocolMask[w];
+                }
+                this.protocolMasks.put(entry.getKey(), mask);
+            }
+            this.sourceAddresses = new IntervalIndex(sourceAddressIntervals, MAX_ADDRESS, words);
+            this.sourcePorts = new IntervalIndex(sourcePortIntervals, MAX_PORT, words);
+            this.destinationAddresses = new IntervalIndex(destinationAddressIntervals, MAX_ADDRESS, words);
+            this.destinationPorts = new IntervalIndex(destinationPortIntervals, MAX_PORT, words);
+        }
+
+        NetworkSecurityRule match(String protocol, long sourceAddress, long sourcePort, long destinationAddress, long destinationPort) {
+            if (sourcePort < 0 || sourcePort > MAX_PORT || destinationPort < 0 || destinationPort > MAX_PORT) {
+                return null;
+            }
+            long[] protocolMask = this.protocolMasks.get(protocol.toLowerCase());
+            if (protocolMask == null) {
+                protocolMask = this.anyProtocolMask;
+            }
+            long[] sourceAddressMask = this.sourceAddresses.masksAt(sourceAddress);
+            long[] sourcePortMask = this.sourcePorts.masksAt(sourcePort);
+            long[] destinationAddressMask = this.destinationAddresses.masksAt(destinationAddress);
+            long[] destinationPortMask = this.destinationPorts.masksAt(destinationPort);
+            for (int w = 0; w < protocolMask.length; w++) {
+                long matching = protocolMask[w] & sourceAddressMask[w] & sourcePortMask[w]
+                        & destinationAddressMask[w] & destinationPortMask[w];
+                if (matching != 0) {
+                    return this.rules[(w << 6) + Long.numberOfTrailingZeros(matching)];
+                }
+            }
+            return null;
+        }
+
+        private static List<long[]> addressIntervals(String prefix,
+                                                     List<String> prefixes,
+                                                     Map<String, List<long[]>> serviceTags,
+                                                     Set<String> unresolvedServiceTags) {
+            List<long[]> intervals = new ArrayList<>();
+            for (String value : values(prefix, prefixes)) {
+                String trimmed = value.trim();
+                if (trimmed.equals("*") || trimmed.equalsIgnoreCase("Any")) {
+                    intervals.add(new long[] {0, MAX_ADDRESS});
+                } else if (Character.isDigit(trimmed.charAt(0)) || trimmed.contains(":")) {
+                    // IPv6 prefixes are ignored
+                    long[] interval = IPAllocationBitmap.parseAddressPrefix(trimmed);
+                    if (interval != null) {
+                        intervals.add(interval);
+                    }
+                } else if (serviceTags.containsKey(trimmed)) {
+                    intervals.addAll(serviceTags.get(trimmed));
+                } else {
+                    unresolvedServiceTags.add(trimmed);
+                }
+            }
+            return intervals;
+        }
+
+        private static List<long[]> portIntervals(String range, List<String> ranges) {
+            List<long[]> intervals = new ArrayList<>();
+            for (String value : values(range, ranges)) {
+                long[] interval = parsePortRange(value);
+                if (interval != null) {
+                    intervals.add(interval);
+                }
+            }
+            return intervals;
+        }
+
+        private static List<String> values(String value, List<String> values) {
+            List<String> all = new ArrayList<>();
+            if (value != null && !value.trim().isEmpty()) {
+                all.add(value);
+            }
+            if (values != null) {
+                for (String v : values) {
+                    if (v != null && !v.trim().isEmpty()) {
+                        all.add(v);
+                    }
+                }
+            }
+            return all;
+        }
+    }
+
+    /**
+     * Splits the values of a dimension into elementary intervals, each with the bit mask of the rules
+     * matching all of its values.
+     */
+    static class IntervalIndex {
+        private final long[] starts;
+        private final long[][] masks;
+
+        /**
+         * Creates IntervalIndex.
+         *
+         * @param intervalsByRule the intervals matched by each rule, in rule order
+         * @param maxValue the largest value of the dimension
+         * @param words the number of 64 bit words of the rule masks
+         */
+        IntervalIndex(List<List<long[]>> intervalsByRule, long maxValue, int words) {
+            TreeSet<Long> boundaries = new TreeSet<>();
+            boundaries.add(0L);
+            for (List<long[]> intervals : intervalsByRule) {
+                for (long[] interval : intervals) {
+                    boundaries.add(interval[0]);
+                    if (interval[1] < maxValue) {
+                        boundaries.add(interval[1] + 1);
+                    }
+                }
+            }
+            this.starts = new long[boundaries.size()];
+            int i = 0;
+            for (Long boundary : boundaries) {
+                this.starts[i++] = boundary;
+            }
+            this.masks = new long[this.starts.length][words];
+            for (int rule = 0; rule < intervalsByRule.size(); rule++) {
+                for (long[] interval : intervalsByRule.get(rule)) {
+                    int last = indexOf(interval[1]);
+                    for (int k = indexOf(interval[0]); k <= last; k++) {
+                        setBit(this.masks[k], rule);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param value a value of the dimension
+         * @return the bit mask of the rules matching the value
+         */
+        long[] masksAt(long value) {
+            return this.masks[indexOf(value)];
+        }
+
+        private int indexOf(long value) {
+            int index = Arrays.binarySearch(this.starts, value);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+
+    private static void setBit(long[] mask, int bit) {
+        mask[bit >>> 6] |= 1L << bit;
+    }
+}
@@ -0,0 +1,454 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.SubResource;
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendAddress;
+import com.microsoft.azure.management.network.NetworkInterface;
+import com.microsoft.azure.management.network.NetworkTopologyGraph;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
+import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func6;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation for NetworkTopologyGraph.
+ * <p>
+ * The graph is built from the inner models of the resources, so that resources referenced by ID only, such as
+ * virtual machines or network interfaces outside of the resource group, are nodes too. Edges are undirected and
+ * typed by the types of their ends; traversals follow the allowed transitions between node types only.
+ */
+@LangDefinition
+class NetworkTopologyGraphImpl implements NetworkTopologyGraph {
+    /**
+     * Types of the nodes of the graph.
+     */
+    enum NodeType {
+        NETWORK, SUBNET, NETWORK_INTERFACE, VIRTUAL_MACHINE, NETWORK_SECURITY_GROUP, PUBLIC_IP_ADDRESS,
+        LOAD_BALANCER, LOAD_BALANCER_FRONTEND, LOAD_BALANCING_RULE, INBOUND_NAT_RULE, LOAD_BALANCER_BACKEND,
+        APPLICATION_GATEWAY, APPLICATION_GATEWAY_FRONTEND, APPLICATION_GATEWAY_BACKEND
+    }
+
+    // Steps from a public IP address to the virtual machines behind it
+    private static final Map<NodeType, Set<NodeType>> TRAFFIC_TRANSITIONS = new EnumMap<>(NodeType.class);
+    static {
+        TRAFFIC_TRANSITIONS.put(NodeType.PUBLIC_IP_ADDRESS, EnumSet.of(
+                NodeType.NETWORK_INTERFACE, NodeType.LOAD_BALANCER_FRONTEND, NodeType.APPLICATION_GATEWAY_FRONTEND));
+        TRAFFIC_TRANSITIONS.put(NodeType.LOAD_BALANCER_FRONTEND, EnumSet.of(NodeType.LOAD_BALANCING_RULE, NodeType.INBOUND_NAT_RULE));
+        TRAFFIC_TRANSITIONS.put(NodeType.LOAD_BALANCING_RULE, EnumSet.of(NodeType.LOAD_BALANCER_BACKEND));
+        TRAFFIC_TRANSITIONS.put(NodeType.INBOUND_NAT_RULE, EnumSet.of(NodeType.NETWORK_INTERFACE));
+        TRAFFIC_TRANSITIONS.put(NodeType.LOAD_BALANCER_BACKEND, EnumSet.of(NodeType.NETWORK_INTERFACE));
+        TRAFFIC_TRANSITIONS.put(NodeType.APPLICATION_GATEWAY_FRONTEND, EnumSet.of(NodeType.APPLICATION_GATEWAY));
+        TRAFFIC_TRANSITIONS.put(NodeType.APPLICATION_GATEWAY, EnumSet.of(NodeType.APPLICATION_GATEWAY_BACKEND));
+        TRAFFIC_TRANSITIONS.put(NodeType.APPLICATION_GATEWAY_BACKEND, EnumSet.of(NodeType.NETWORK_INTERFACE));
+        TRAFFIC_TRANSITIONS.put(NodeType.NETWORK_INTERFACE, EnumSet.of(NodeType.VIRTUAL_MACHINE));
+    }
+
+    private static final String NETWORK_INTERFACES_SEGMENT = "/providers/microsoft.network/networkinterfaces/";
+    private static final String SCALE_SET_VIRTUAL_MACHINES_SEGMENT = "/providers/microsoft.compute/virtualmachinescalesets/";
+
+    private final String resourceGroupName;
+    // Keyed by lower case ID
+    private final Map<String, String> ids = new HashMap<>();
+    private final Map<String, NodeType> types = new HashMap<>();
+    private final Map<String, Set<String>> adjacency = new HashMap<>();
+    private final Map<String, Set<String>> idsByIPAddress = new HashMap<>();
+    // Lower case IDs of the network interfaces added from their inner model
+    private final Set<String> networkInterfaceIds = new HashSet<>();
+    // Standalone network interfaces referenced by backends without being listed, such as the ones in other
+    // resource groups
+    private final Set<String> unlistedNetworkInterfaceIds = new HashSet<>();
+
+    /**
+     * Creates NetworkTopologyGraphImpl.
+     *
+     * @param resourceGroupName the resource group name
+     * @param networks the virtual networks
+     * @param nics the network interfaces
+     * @param loadBalancers the load balancers
+     * @param appGateways the application gateways
+     * @param publicIPAddresses the public IP addresses
+     * @param nsgs the network security groups
+     */
+    NetworkTopologyGraphImpl(String resourceGroupName,
+                             List<VirtualNetworkInner> networks,
+                             List<NetworkInterfaceInner> nics,
+                             List<LoadBalancerInner> loadBalancers,
+                             List<ApplicationGatewayInner> appGateways,
+                             List<PublicIPAddressInner> publicIPAddresses,
+                             List<NetworkSecurityGroupInner> nsgs) {
+        this.resourceGroupName = resourceGroupName;
+        for (NetworkSecurityGroupInner nsg : nsgs) {
+            addNode(nsg.id(), NodeType.NETWORK_SECURITY_GROUP);
+        }
+        for (PublicIPAddressInner pip : publicIPAddresses) {
+            addNode(pip.id(), NodeType.PUBLIC_IP_ADDRESS);
+            addIPAddress(pip.ipAddress(), pip.id());
+        }
+        for (VirtualNetworkInner network : networks) {
+            addNetwork(network);
+        }
+        for (NetworkInterfaceInner nic : nics) {
+            addNetworkInterface(nic);
+        }
+        for (LoadBalancerInner loadBalancer : loadBalancers) {
+            addLoadBalancer(loadBalancer);
+        }
+        // Last, as backend addresses are joined with the IP addresses of network interfaces
+        for (ApplicationGatewayInner appGateway : appGateways) {
+            addApplicationGateway(appGateway);
+        }
+    }
+
+    /**
+     * Lists the networking resources of a resource group concurrently and builds their graph. The network
+     * interfaces outside of the resource group referenced by its load balancers and application gateways are
+     * fetched next, to join them with their virtual machines.
+     *
+     * @param manager the network manager
+     * @param resourceGroupName the resource group name
+     * @return an observable that emits the graph
+     */
+    static Observable<NetworkTopologyGraph> buildAsync(final NetworkManager manager, final String resourceGroupName) {
+        return Observable.zip(
+                innersOf(manager.networks().listByResourceGroupAsync(resourceGroupName), VirtualNetworkInner.class),
+                innersOf(manager.networkInterfaces().listByResourceGroupAsync(resourceGroupName), NetworkInterfaceInner.class),
+                innersOf(manager.loadBalancers().listByResourceGroupAsync(resourceGroupName), LoadBalancerInner.class),
+                innersOf(manager.applicationGateways().listByResourceGroupAsync(resourceGroupName), ApplicationGatewayInner.class),
+                innersOf(manager.publicIPAddresses().listByResourceGroupAsync(resourceGroupName), PublicIPAddressInner.class),
+                innersOf(manager.networkSecurityGroups().listByResourceGroupAsync(resourceGroupName), NetworkSecurityGroupInner.class),
+                new Func6<List<VirtualNetworkInner>, List<NetworkInterfaceInner>, List<LoadBalancerInner>,
+                        List<ApplicationGatewayInner>, List<PublicIPAddressInner>, List<NetworkSecurityGroupInner>, NetworkTopologyGraphImpl>() {
+                    @Override
+                    public NetworkTopologyGraphImpl call(List<VirtualNetworkInner> networks,
+                                                     List<NetworkInterfaceInner> nics,
+                                                     List<LoadBalancerInner> loadBalancers,
+                                                     List<ApplicationGatewayInner> appGateways,
+                                                     List<PublicIPAddressInner> publicIPAddresses,
+                                                     List<NetworkSecurityGroupInner> nsgs) {
+                        return new NetworkTopologyGraphImpl(resourceGroupName, networks, nics, loadBalancers,
+                                appGateways, publicIPAddresses, nsgs);
+                    }
+                })
+                .flatMap(new Func1<NetworkTopologyGraphImpl, Observable<NetworkTopologyGraph>>() {
+                    @Override
+                    public Observable<NetworkTopologyGraph> call(NetworkTopologyGraphImpl graph) {
+                        return graph.addUnlistedNetworkInterfacesAsync(manager);
+                    }
+                });
+    }
+
+    /**
+     * Fetches the standalone network interfaces referenced by backends that are not in the resource group and
+     * adds them to the graph. Network interfaces that cannot be fetched are left without virtual machine.
+     *
+     * @param manager the network manager
+     * @return an observable that emits the graph
+     */
+    Observable<NetworkTopologyGraph> addUnlistedNetworkInterfacesAsync(NetworkManager manager) {
+        if (this.unlistedNetworkInterfaceIds.isEmpty()) {
+            return Observable.<NetworkTopologyGraph>just(this);
+        }
+        return new NetworkInterfaceResolver(manager)
+                .resolveAsync(this.unlistedNetworkInterfaceIds, new ArrayList<Throwable>())
+                .map(new Func1<Map<String, NetworkInterface>, NetworkTopologyGraph>() {
+                    @Override
+                    public NetworkTopologyGraph call(Map<String, NetworkInterface> nics) {
+                        for (NetworkInterface nic : nics.values()) {
+                            addNetworkInterface(nic.inner());
+                        }
+                        unlistedNetworkInterfaceIds.clear();
+                        return NetworkTopologyGraphImpl.this;
+                    }
+                });
+    }
+
+    private static <T extends HasInner<InnerT>, InnerT> Observable<List<InnerT>> innersOf(Observable<T> resources, Class<InnerT> innerClass) {
+        return resources.map(new Func1<T, InnerT>() {
+            @Override
+            public InnerT call(T resource) {
+                return resource.inner();
+            }
+        }).toList();
+    }
+
+    @Override
+    public String resourceGroupName() {
+        return this.resourceGroupName;
+    }
+
+    @Override
+    public Set<String> resourceIds() {
+        return Collections.unmodifiableSet(new HashSet<>(this.ids.values()));
+    }
+
+    @Override
+    public Set<String> adjacentResourceIds(String resourceId) {
+        return originalIds(this.adjacency.get(resourceId.toLowerCase()), null);
+    }
+
+    @Override
+    public Set<String> findResourceIdsByIPAddress(String ipAddress) {
+        return originalIds(this.idsByIPAddress.get(ipAddress), null);
+    }
+
+    @Override
+    public Set<String> networkInterfaceIdsInSubnet(String subnetId) {
+        return originalIds(this.adjacency.get(subnetId.toLowerCase()), NodeType.NETWORK_INTERFACE);
+    }
+
+    @Override
+    public Set<String> virtualMachineIdsBehindPublicIPAddress(String publicIPAddressId) {
+        return originalIds(traverse(publicIPAddressId.toLowerCase(), TRAFFIC_TRANSITIONS), NodeType.VIRTUAL_MACHINE);
+    }
+
+    /**
+     * Walks the graph breadth first from a node, following only the allowed transitions between node types.
+     *
+     * @param start the lower case ID of the start node
+     * @param transitions the node types reachable from each node type
+     * @return the lower case IDs of the nodes reached
+     */
+    Set<String> traverse(String start, Map<NodeType, Set<NodeType>> transitions) {
+        Set<String> visited = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        if (this.types.containsKey(start)) {
+            visited.add(start);
+            queue.add(start);
+        }
+        while (!queue.isEmpty()) {
+            String node = queue.poll();
+            Set<NodeType> next = transitions.get(this.types.get(node));
+            Set<String> neighbors = this.adjacency.get(node);
+            if (next == null || neighbors == null) {
+                continue;
+            }
+            for (String neighbor : neighbors) {
+                if (next.contains(this.types.get(neighbor)) && visited.add(neighbor)) {
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private void addNetwork(VirtualNetworkInner network) {
+        addNode(network.id(), NodeType.NETWORK);
+        if (network.subnets() == null) {
+            return;
+        }
+        for (SubnetInner subnet : network.subnets()) {
+            addEdge(network.id(), NodeType.NETWORK, subnet.id(), NodeType.SUBNET);
+            if (subnet.networkSecurityGroup() != null) {
+                addEdge(subnet.id(), NodeType.SUBNET, subnet.networkSecurityGroup().id(), NodeType.NETWORK_SECURITY_GROUP);
+            }
+        }
+    }
+
+    private void addNetworkInterface(NetworkInterfaceInner nic) {
+        this.networkInterfaceIds.add(addNode(nic.id(), NodeType.NETWORK_INTERFACE));
+        if (nic.virtualMachine() != null) {
+            addEdge(nic.id(), NodeType.NETWORK_INTERFACE, nic.virtualMachine().id(), NodeType.VIRTUAL_MACHINE);
+        }
+        if (nic.networkSecurityGroup() != null) {
+            addEdge(nic.id(), NodeType.NETWORK_INTERFACE, nic.networkSecurityGroup().id(), NodeType.NETWORK_SECURITY_GROUP);
+        }
+        if (nic.ipConfigurations() == null) {
+            return;
+        }
+        for (NetworkInterfaceIPConfigurationInner ipConfig : nic.ipConfigurations()) {
+            addIPAddress(ipConfig.privateIPAddress(), nic.id());
+            if (ipConfig.subnet() != null) {
+                addEdge(nic.id(), NodeType.NETWORK_INTERFACE, ipConfig.subnet().id(), NodeType.SUBNET);
+            }
+            if (ipConfig.publicIPAddress() != null) {
+                addEdge(nic.id(), NodeType.NETWORK_INTERFACE, ipConfig.publicIPAddress().id(), NodeType.PUBLIC_IP_ADDRESS);
+            }
+            if (ipConfig.loadBalancerBackendAddressPools() != null) {
+                for (BackendAddressPoolInner backend : ipConfig.loadBalancerBackendAddressPools()) {
+                    addEdge(nic.id(), NodeType.NETWORK_INTERFACE, backend.id(), NodeType.LOAD_BALANCER_BACKEND);
+                }
+            }
+            if (ipConfig.loadBalancerInboundNatRules() != null) {
+                for (InboundNatRuleInner natRule : ipConfig.loadBalancerInboundNatRules()) {
+                    addEdge(nic.id(), NodeType.NETWORK_INTERFACE, natRule.id(), NodeType.INBOUND_NAT_RULE);
+                }
+            }
+            if (ipConfig.applicationGatewayBackendAddressPools() != null) {
+                for (ApplicationGatewayBackendAddressPoolInner backend : ipConfig.applicationGatewayBackendAddressPools()) {
+                    addEdge(nic.id(), NodeType.NETWORK_INTERFACE, backend.id(), NodeType.APPLICATION_GATEWAY_BACKEND);
+                }
+            }
+        }
+    }
+
+    private void addLoadBalancer(LoadBalancerInner loadBalancer) {
+        String id = loadBalancer.id();
+        addNode(id, NodeType.LOAD_BALANCER);
+        if (loadBalancer.frontendIPConfigurations() != null) {
+            for (FrontendIPConfigurationInner frontend : loadBalancer.frontendIPConfigurations()) {
+                addEdge(id, NodeType.LOAD_BALANCER, frontend.id(), NodeType.LOAD_BALANCER_FRONTEND);
+                addIPAddress(frontend.privateIPAddress(), frontend.id());
+                if (frontend.publicIPAddress() != null) {
+                    addEdge(frontend.id(), NodeType.LOAD_BALANCER_FRONTEND, frontend.publicIPAddress().id(), NodeType.PUBLIC_IP_ADDRESS);
+                }
+                if (frontend.subnet() != null) {
+                    addEdge(frontend.id(), NodeType.LOAD_BALANCER_FRONTEND, frontend.subnet().id(), NodeType.SUBNET);
+                }
+            }
+        }
+        if (loadBalancer.backendAddressPools() != null) {
+            for (BackendAddressPoolInner backend : loadBalancer.backendAddressPools()) {
+                addEdge(id, NodeType.LOAD_BALANCER, backend.id(), NodeType.LOAD_BALANCER_BACKEND);
+                addBackendIPConfigurations(backend.id(), NodeType.LOAD_BALANCER_BACKEND, backend.backendIPConfigurations());
+            }
+        }
+        if (loadBalancer.loadBalancingRules() != null) {
+            for (LoadBalancingRuleInner rule : loadBalancer.loadBalancingRules()) {
+                addEdge(id, NodeType.LOAD_BALANCER, rule.id(), NodeType.LOAD_BALANCING_RULE);
+                addReference(rule.id(), NodeType.LOAD_BALANCING_RULE, rule.frontendIPConfiguration(), NodeType.LOAD_BALANCER_FRONTEND);
+                addReference(rule.id(), NodeType.LOAD_BALANCING_RULE, rule.backendAddressPool(), NodeType.LOAD_BALANCER_BACKEND);
+            }
+        }
+        if (loadBalancer.inboundNatRules() != null) {
+            for (InboundNatRuleInner natRule : loadBalancer.inboundNatRules()) {
+                addEdge(id, NodeType.LOAD_BALANCER, natRule.id(), NodeType.INBOUND_NAT_RULE);
+                addReference(natRule.id(), NodeType.INBOUND_NAT_RULE, natRule.frontendIPConfiguration(), NodeType.LOAD_BALANCER_FRONTEND);
+                if (natRule.backendIPConfiguration() != null) {
+                    addBackendIPConfigurations(natRule.id(), NodeType.INBOUND_NAT_RULE,
+                            Collections.singletonList(natRule.backendIPConfiguration()));
+                }
+            }
+        }
+    }
+
+    private void addApplicationGateway(ApplicationGatewayInner appGateway) {
+        String id = appGateway.id();
+        addNode(id, NodeType.APPLICATION_GATEWAY);
+        if (appGateway.frontendIPConfigurations() != null) {
+            for (ApplicationGatewayFrontendIPConfigurationInner frontend : appGateway.frontendIPConfigurations()) {
+                addEdge(id, NodeType.APPLICATION_GATEWAY, frontend.id(), NodeType.APPLICATION_GATEWAY_FRONTEND);
+                addIPAddress(frontend.privateIPAddress(), frontend.id());
+                addReference(frontend.id(), NodeType.APPLICATION_GATEWAY_FRONTEND, frontend.publicIPAddress(), NodeType.PUBLIC_IP_ADDRESS);
+                addReference(frontend.id(), NodeType.APPLICATION_GATEWAY_FRONTEND, frontend.subnet(), NodeType.SUBNET);
+            }
+        }
+        if (appGateway.backendAddressPools() != null) {
+            for (ApplicationGatewayBackendAddressPoolInner backend : appGateway.backendAddressPools()) {
+                addEdge(id, NodeType.APPLICATION_GATEWAY, backend.id(), NodeType.APPLICATION_GATEWAY_BACKEND);
+                addBackendIPConfigurations(backend.id(), NodeType.APPLICATION_GATEWAY_BACKEND, backend.backendIPConfigurations());
+                if (backend.backendAddresses() == null) {
+                    continue;
+                }
+                // Backends listed by IP address are joined with the network interfaces using the address
+                for (ApplicationGatewayBackendAddress address : backend.backendAddresses()) {
+                    Set<String> owners = address.ipAddress() == null ? null : this.idsByIPAddress.get(address.ipAddress());
+                    if (owners == null) {
+                        continue;
+                    }
+                    for (String owner : new ArrayList<>(owners)) {
+                        if (this.types.get(owner) == NodeType.NETWORK_INTERFACE) {
+                            addEdge(backend.id(), NodeType.APPLICATION_GATEWAY_BACKEND, this.ids.get(owner), NodeType.NETWORK_INTERFACE);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void addBackendIPConfigurations(String id, NodeType type, List<NetworkInterfaceIPConfigurationInner> ipConfigs) {
+        if (ipConfigs == null) {
+            return;
+        }
+        for (NetworkInterfaceIPConfigurationInner ipConfig : ipConfigs) {
+            if (ipConfig.id() == null) {
+                continue;
+            }
+            String nicId = ResourceUtils.parentResourceIdFromResourceId(ipConfig.id());
+            addEdge(id, type, nicId, NodeType.NETWORK_INTERFACE);
+            String nicKey = nicId.toLowerCase();
+            if (nicKey.contains(SCALE_SET_VIRTUAL_MACHINES_SEGMENT)) {
+                // The network interfaces of scale set instances are nested under the instance they belong to
+                addEdge(nicId, NodeType.NETWORK_INTERFACE,
+                        ResourceUtils.parentResourceIdFromResourceId(nicId), NodeType.VIRTUAL_MACHINE);
+            } else if (nicKey.contains(NETWORK_INTERFACES_SEGMENT) && !this.networkInterfaceIds.contains(nicKey)) {
+                this.unlistedNetworkInterfaceIds.add(nicId);
+            }
+        }
+    }
+
+    private void addReference(String id, NodeType type, SubResource reference, NodeType referenceType) {
+        if (reference != null && reference.id() != null) {
+            addEdge(id, type, reference.id(), referenceType);
+        }
+    }
+
+    private void addIPAddress(String ipAddress, String id) {
+        if (ipAddress == null) {
+            return;
+        }
+        Set<String> owners = this.idsByIPAddress.get(ipAddress);
+        if (owners == null) {
+            owners = new HashSet<>();
+            this.idsByIPAddress.put(ipAddress, owners);
+        }
+        owners.add(id.toLowerCase());
+    }
+
+    private String addNode(String id, NodeType type) {
+        String key = id.toLowerCase();
+        if (!this.ids.containsKey(key)) {
+            this.ids.put(key, id);
+        }
+        // Resources listed in the resource group are typed by their own list, referenced ones by the reference
+        if (!this.types.containsKey(key)) {
+            this.types.put(key, type);
+        }
+        return key;
+    }
+
+    private void addEdge(String id1, NodeType type1, String id2, NodeType type2) {
+        String key1 = addNode(id1, type1);
+        String key2 = addNode(id2, type2);
+        adjacentOf(key1).add(key2);
+        adjacentOf(key2).add(key1);
+    }
+
+    private Set<String> adjacentOf(String key) {
+        Set<String> adjacent = this.adjacency.get(key);
+        if (adjacent == null) {
+            adjacent = new HashSet<>();
+            this.adjacency.put(key, adjacent);
+        }
+        return adjacent;
+    }
+
+    private Set<String> originalIds(Set<String> keys, NodeType type) {
+        Set<String> originals = new HashSet<>();
+        if (keys != null) {
+            for (String key : keys) {
+                if (type == null || this.types.get(key) == type) {
+                    originals.add(this.ids.get(key));
+                }
+            }
+        }
+        return Collections.unmodifiableSet(originals);
+    }
+}
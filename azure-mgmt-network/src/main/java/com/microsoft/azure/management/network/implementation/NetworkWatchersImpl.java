@@ -6,9 +6,23 @@
 package com.microsoft.azure.management.network.implementation;
 
 import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.FlowLogAnalysis;
 import com.microsoft.azure.management.network.NetworkWatcher;
 import com.microsoft.azure.management.network.NetworkWatchers;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
+import rx.Observable;
+import rx.functions.Action2;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.concurrent.Callable;
 
 /**
  *  Implementation for Network Watchers.
@@ -22,6 +36,8 @@ class NetworkWatchersImpl
         NetworkWatchersInner,
         NetworkManager>
         implements NetworkWatchers {
+    // The number of flow log files read at once, and thus held in memory while waiting to be parsed
+    private static final int MAX_CONCURRENT_FLOW_LOG_READS = 4;
 
     NetworkWatchersImpl(final NetworkManager networkManager) {
         super(networkManager.inner().networkWatchers(), networkManager);
@@ -32,6 +48,71 @@ class NetworkWatchersImpl
         return wrapModel(name);
     }
 
+    @Override
+    public FlowLogAnalysis analyzeFlowLogs(Collection<File> flowLogFiles, int topTalkerCount) {
+        return this.analyzeFlowLogsAsync(flowLogFiles, topTalkerCount).toBlocking().single();
+    }
+
+    @Override
+    public Observable<FlowLogAnalysis> analyzeFlowLogsAsync(Collection<File> flowLogFiles, final int topTalkerCount) {
+        return Observable.from(flowLogFiles)
+                .flatMap(new Func1<File, Observable<byte[]>>() {
+                    @Override
+                    public Observable<byte[]> call(final File file) {
+                        // The files are read on the I/O scheduler, a few at a time
+                        return Observable.fromCallable(new Callable<byte[]>() {
+                            @Override
+                            public byte[] call() throws IOException {
+                                return Files.readAllBytes(file.toPath());
+                            }
+                        }).subscribeOn(Schedulers.io());
+                    }
+                }, MAX_CONCURRENT_FLOW_LOG_READS)
+                .flatMap(new Func1<byte[], Observable<FlowLogAnalysisImpl>>() {
+                    @Override
+                    public Observable<FlowLogAnalysisImpl> call(final byte[] content) {
+                        // One file per task, at most one task per processor; each file is aggregated on its own
+                        // and the aggregates merged
+                        return Observable.fromCallable(new Callable<FlowLogAnalysisImpl>() {
+                            @Override
+                            public FlowLogAnalysisImpl call() throws IOException {
+                                return analyze(new ByteArrayInputStream(content), topTalkerCount);
+                            }
+                        }).subscribeOn(Schedulers.computation());
+                    }
+                }, Runtime.getRuntime().availableProcessors())
+                .collect(new Func0<FlowLogAnalysisImpl>() {
+                    @Override
+                    public FlowLogAnalysisImpl call() {
+                        return new FlowLogAnalysisImpl(topTalkerCount);
+                    }
+                }, new Action2<FlowLogAnalysisImpl, FlowLogAnalysisImpl>() {
+                    @Override
+                    public void call(FlowLogAnalysisImpl total, FlowLogAnalysisImpl analysis) {
+                        total.merge(analysis);
+                    }
+                })
+                .map(new Func1<FlowLogAnalysisImpl, FlowLogAnalysis>() {
+                    @Override
+                    public FlowLogAnalysis call(FlowLogAnalysisImpl analysis) {
+                        return analysis;
+                    }
+                });
+    }
+
+    @Override
+    public FlowLogAnalysis analyzeFlowLog(InputStream flowLog, int topTalkerCount) throws IOException {
+        return analyze(flowLog, topTalkerCount);
+    }
+
+    private static FlowLogAnalysisImpl analyze(InputStream flowLog, int topTalkerCount) throws IOException {
+        FlowLogAnalysisImpl analysis = new FlowLogAnalysisImpl(topTalkerCount);
+        FlowLogParser parser = new FlowLogParser(FlowLogParser.DEFAULT_BATCH_SIZE, analysis);
+        parser.parse(flowLog);
+        analysis.addMalformed(parser.malformedCount());
+        return analysis;
+    }
+
     // Fluent model create helpers
 
     @Override
@@ -9,7 +9,12 @@ import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.network.PublicIPAddress;
 import com.microsoft.azure.management.network.PublicIPAddressDnsSettings;
 import com.microsoft.azure.management.network.PublicIPAddresses;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
+import rx.Observable;
+
+import java.util.Collection;
+import java.util.Map;
 
 /**
  *  Implementation for {@link PublicIPAddresses}.
@@ -24,8 +29,23 @@ class PublicIPAddressesImpl
         NetworkManager>
     implements PublicIPAddresses {
 
+    private final DnsLabelAvailabilityChecker dnsLabelChecker;
+
     PublicIPAddressesImpl(final NetworkManager networkManager) {
         super(networkManager.inner().publicIPAddresses(), networkManager);
+        this.dnsLabelChecker = new DnsLabelAvailabilityChecker(networkManager,
+                NetworkInterfaceResolver.DEFAULT_MAX_CONCURRENCY,
+                DnsLabelAvailabilityChecker.DEFAULT_UNAVAILABLE_TTL_MILLIS);
+    }
+
+    @Override
+    public Map<String, Boolean> checkDnsLabelAvailability(Region region, Collection<String> leafDomainLabels) {
+        return this.checkDnsLabelAvailabilityAsync(region, leafDomainLabels).toBlocking().single();
+    }
+
+    @Override
+    public Observable<Map<String, Boolean>> checkDnsLabelAvailabilityAsync(Region region, Collection<String> leafDomainLabels) {
+        return this.dnsLabelChecker.checkAsync(region.name(), leafDomainLabels);
     }
 
     @Override
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network.implementation;
+
+import java.util.Arrays;
+
+/**
+ * Binary trie of IPv4 routes, one level per bit of the address prefix, for longest prefix match lookups.
+ * When routes with the same prefix are added, the one with the highest precedence is kept, and the first
+ * one added among routes of equal precedence.
+ */
+class RouteTrie {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Child node indexes by bit value, 0 when absent since the root is never a child
+    private int[] zeros = new int[INITIAL_CAPACITY];
+    private int[] ones = new int[INITIAL_CAPACITY];
+    private NetworkRouteImpl[] routes = new NetworkRouteImpl[INITIAL_CAPACITY];
+    private int size = 1;
+
+    /**
+     * Adds a route.
+     *
+     * @param route the route
+     */
+    void add(NetworkRouteImpl route) {
+        int node = 0;
+        for (int bit = 0; bit < route.prefixLength(); bit++) {
+            boolean one = ((route.firstAddress() >>> (31 - bit)) & 1) == 1;
+            int child = one ? this.ones[node] : this.zeros[node];
+            if (child == 0) {
+                child = newNode();
+                if (one) {
+                    this.ones[node] = child;
+                } else {
+                    this.zeros[node] = child;
+                }
+            }
+            node = child;
+        }
+        NetworkRouteImpl existing = this.routes[node];
+        if (existing == null || route.precedence() > existing.precedence()) {
+            this.routes[node] = route;
+        }
+    }
+
+    /**
+     * @param address an IPv4 address as an unsigned 32 bit value
+     * @return the route with the longest prefix containing the address, or null if there is none
+     */
+    NetworkRouteImpl longestMatch(long address) {
+        NetworkRouteImpl match = this.routes[0];
+        int node = 0;
+        for (int bit = 0; bit < 32; bit++) {
+            node = ((address >>> (31 - bit)) & 1) == 1 ? this.ones[node] : this.zeros[node];
+            if (node == 0) {
+                break;
+            }
+            if (this.routes[node] != null) {
+                match = this.routes[node];
+            }
+        }
+        return match;
+    }
+
+    private int newNode() {
+        if (this.size == this.routes.length) {
+            int capacity = this.size * 2;
+            this.zeros = Arrays.copyOf(this.zeros, capacity);
+            this.ones = Arrays.copyOf(this.ones, capacity);
+            this.routes = Arrays.copyOf(this.routes, capacity);
+        }
+        return this.size++;
+    }
+}
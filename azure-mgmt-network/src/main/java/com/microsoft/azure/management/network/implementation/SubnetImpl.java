@@ -15,14 +15,16 @@ import com.microsoft.azure.management.network.RouteTable;
 import com.microsoft.azure.management.network.Subnet;
 import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.implementation.ChildResourceImpl;
+import rx.Observable;
+import rx.functions.Func1;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
@@ -146,42 +148,45 @@ class SubnetImpl
 
     @Override
     public Collection<NicIPConfiguration> listNetworkInterfaceIPConfigurations() {
-        Collection<NicIPConfiguration> ipConfigs = new ArrayList<>();
-        Map<String, NetworkInterface> nics = new TreeMap<>();
-        List<IPConfigurationInner> ipConfigRefs = this.inner().ipConfigurations();
-        if (ipConfigRefs == null) {
-            return ipConfigs;
-        }
+        return Collections.unmodifiableCollection(listNetworkInterfaceIPConfigurationsAsync()
+                .toList()
+                .toBlocking()
+                .single());
+    }
 
+    @Override
+    public Observable<NicIPConfiguration> listNetworkInterfaceIPConfigurationsAsync() {
+        final List<IPConfigurationInner> ipConfigRefs = this.inner().ipConfigurations();
+        if (ipConfigRefs == null || ipConfigRefs.isEmpty()) {
+            return Observable.empty();
+        }
+        Set<String> nicIds = new HashSet<>();
         for (IPConfigurationInner ipConfigRef : ipConfigRefs) {
-            String nicID = ResourceUtils.parentResourceIdFromResourceId(ipConfigRef.id());
-            String ipConfigName = ResourceUtils.nameFromResourceId(ipConfigRef.id());
-            // Check if NIC already cached
-            NetworkInterface nic = nics.get(nicID.toLowerCase());
-            if (nic == null) {
-                //  NIC not previously found, so ask Azure for it
-                nic = this.parent().manager().networkInterfaces().getById(nicID);
-            }
-
-            if (nic == null) {
-                // NIC doesn't exist so ignore this bad reference
-                continue;
-            }
-
-            // Cache the NIC
-            nics.put(nic.id().toLowerCase(), nic);
-
-            // Get the IP config
-            NicIPConfiguration ipConfig = nic.ipConfigurations().get(ipConfigName);
-            if (ipConfig == null) {
-                // IP config not found, so ignore this bad reference
-                continue;
-            }
-
-            ipConfigs.add(ipConfig);
+            nicIds.add(ResourceUtils.parentResourceIdFromResourceId(ipConfigRef.id()));
         }
-
-        return Collections.unmodifiableCollection(ipConfigs);
+        return new NetworkInterfaceResolver(this.parent().manager())
+                .resolveAsync(nicIds)
+                .flatMapIterable(new Func1<Map<String, NetworkInterface>, Iterable<NicIPConfiguration>>() {
+                    @Override
+                    public Iterable<NicIPConfiguration> call(Map<String, NetworkInterface> nics) {
+                        List<NicIPConfiguration> ipConfigs = new ArrayList<>();
+                        for (IPConfigurationInner ipConfigRef : ipConfigRefs) {
+                            String nicID = ResourceUtils.parentResourceIdFromResourceId(ipConfigRef.id());
+                            NetworkInterface nic = nics.get(nicID.toLowerCase());
+                            if (nic == null) {
+                                // NIC doesn't exist so ignore this bad reference
+                                continue;
+                            }
+                            NicIPConfiguration ipConfig = nic.ipConfigurations().get(ResourceUtils.nameFromResourceId(ipConfigRef.id()));
+                            if (ipConfig == null) {
+                                // IP config not found, so ignore this bad reference
+                                continue;
+                            }
+                            ipConfigs.add(ipConfig);
+                        }
+                        return ipConfigs;
+                    }
+                });
     }
 
     @Override
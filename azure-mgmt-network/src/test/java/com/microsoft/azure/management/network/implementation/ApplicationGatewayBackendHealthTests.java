@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealth;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthHttpSettings;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthPool;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthServer;
+import com.microsoft.azure.management.network.ApplicationGatewayBackendHealthServerHealth;
+import com.microsoft.azure.management.network.NetworkInterface;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class ApplicationGatewayBackendHealthTests {
+    private static final String PREFIX = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Network/";
+    private static final String NIC1 = PREFIX + "networkInterfaces/nic1";
+    private static final String NIC2 = PREFIX + "networkInterfaces/nic2";
+
+    private final List<Set<String>> resolutions = new ArrayList<>();
+    private final BackendServerNetworkInterfaces networkInterfaces = new BackendServerNetworkInterfaces(
+            new Func1<Set<String>, Observable<Map<String, NetworkInterface>>>() {
+                @Override
+                public Observable<Map<String, NetworkInterface>> call(Set<String> ids) {
+                    resolutions.add(ids);
+                    Map<String, NetworkInterface> resolved = new HashMap<>();
+                    for (String id : ids) {
+                        resolved.put(id, nic(id));
+                    }
+                    return Observable.just(resolved);
+                }
+            });
+
+    @Test
+    public void canKeyServerStatusesByBackendConfigurationAndAddress() {
+        Map<String, String> statuses = ApplicationGatewayImpl.serverStatuses(check(
+                pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.UP),
+                        server(NIC2, "10.0.0.5", ApplicationGatewayBackendHealthServerHealth.DOWN)),
+                pool("backend2", "http2", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.DRAINING))));
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("backend1/http1/10.0.0.4", "Up");
+        expected.put("backend1/http1/10.0.0.5", "Down");
+        expected.put("backend2/http2/10.0.0.4", "Draining");
+        Assert.assertEquals(expected, statuses);
+    }
+
+    @Test
+    public void emitsOnlyChecksWithChangedStatuses() {
+        List<Map<String, ApplicationGatewayBackendHealth>> checks = Arrays.asList(
+                check(pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.UP))),
+                check(pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.UP))),
+                check(pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.DOWN))),
+                check(pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.DOWN))),
+                check(pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.DOWN),
+                        server(NIC2, "10.0.0.5", ApplicationGatewayBackendHealthServerHealth.DOWN))),
+                check(pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.UP))));
+
+        List<Map<String, ApplicationGatewayBackendHealth>> changes = ApplicationGatewayImpl.healthChanges(Observable.from(checks))
+                .toList().toBlocking().single();
+
+        Assert.assertEquals(Arrays.asList(checks.get(0), checks.get(2), checks.get(4), checks.get(5)), changes);
+    }
+
+    @Test
+    public void fetchesNetworkInterfacesAgainOnlyWhenServersChange() {
+        networkInterfaces.addServers(Collections.singletonList(
+                pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.UP))));
+        Map<String, NetworkInterface> first = networkInterfaces.networkInterfaces();
+        networkInterfaces.addServers(Collections.singletonList(
+                pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.DOWN))));
+        Assert.assertSame(first, networkInterfaces.networkInterfaces());
+        Assert.assertEquals(1, resolutions.size());
+
+        // The address of the server changed
+        networkInterfaces.addServers(Collections.singletonList(
+                pool("backend1", "http1", server(NIC1, "10.0.0.6", ApplicationGatewayBackendHealthServerHealth.UP),
+                        server(NIC2, "10.0.0.5", ApplicationGatewayBackendHealthServerHealth.UP))));
+        Map<String, NetworkInterface> second = networkInterfaces.networkInterfaces();
+
+        Assert.assertEquals(2, resolutions.size());
+        Assert.assertEquals(2, resolutions.get(1).size());
+        Assert.assertEquals(2, second.size());
+        // The snapshot returned earlier is left alone
+        Assert.assertEquals(Collections.singleton(NIC1.toLowerCase()), first.keySet());
+    }
+
+    @Test
+    public void dropsNetworkInterfacesOfRemovedServers() {
+        networkInterfaces.addServers(Collections.singletonList(
+                pool("backend1", "http1", server(NIC1, "10.0.0.4", ApplicationGatewayBackendHealthServerHealth.UP),
+                        server(NIC2, "10.0.0.5", ApplicationGatewayBackendHealthServerHealth.UP))));
+        Assert.assertEquals(2, networkInterfaces.networkInterfaces().size());
+
+        networkInterfaces.addServers(Collections.singletonList(
+                pool("backend1", "http1", server(NIC2, "10.0.0.5", ApplicationGatewayBackendHealthServerHealth.UP))));
+
+        Assert.assertEquals(Collections.singleton(NIC2.toLowerCase()), networkInterfaces.networkInterfaces().keySet());
+    }
+
+    private Map<String, ApplicationGatewayBackendHealth> check(ApplicationGatewayBackendHealthPool... pools) {
+        Map<String, ApplicationGatewayBackendHealth> backendHealths = new TreeMap<>();
+        for (ApplicationGatewayBackendHealthPool pool : pools) {
+            ApplicationGatewayBackendHealth backendHealth = new ApplicationGatewayBackendHealthImpl(pool, null, networkInterfaces);
+            backendHealths.put(backendHealth.name(), backendHealth);
+        }
+        return backendHealths;
+    }
+
+    private static ApplicationGatewayBackendHealthPool pool(String backendName, String httpConfigName, ApplicationGatewayBackendHealthServer... servers) {
+        ApplicationGatewayBackendAddressPoolInner backend = new ApplicationGatewayBackendAddressPoolInner();
+        backend.withId(PREFIX + "applicationGateways/gw/backendAddressPools/" + backendName);
+        ApplicationGatewayBackendHttpSettingsInner httpConfig = new ApplicationGatewayBackendHttpSettingsInner();
+        httpConfig.withId(PREFIX + "applicationGateways/gw/backendHttpSettingsCollection/" + httpConfigName);
+        return new ApplicationGatewayBackendHealthPool()
+                .withBackendAddressPool(backend)
+                .withBackendHttpSettingsCollection(Collections.singletonList(new ApplicationGatewayBackendHealthHttpSettings()
+                        .withBackendHttpSettings(httpConfig)
+                        .withServers(Arrays.asList(servers))));
+    }
+
+    private static ApplicationGatewayBackendHealthServer server(String nicId, String address, ApplicationGatewayBackendHealthServerHealth health) {
+        NetworkInterfaceIPConfigurationInner ipConfig = new NetworkInterfaceIPConfigurationInner();
+        ipConfig.withId(nicId + "/ipConfigurations/ipconfig1");
+        return new ApplicationGatewayBackendHealthServer()
+                .withAddress(address)
+                .withIpConfiguration(ipConfig)
+                .withHealth(health);
+    }
+
+    private static NetworkInterface nic(final String id) {
+        return (NetworkInterface) Proxy.newProxyInstance(ApplicationGatewayBackendHealthTests.class.getClassLoader(),
+                new Class<?>[] {NetworkInterface.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "id":
+                            case "toString":
+                                return id;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+}
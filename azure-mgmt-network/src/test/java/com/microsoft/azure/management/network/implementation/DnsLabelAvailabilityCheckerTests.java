@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DnsLabelAvailabilityCheckerTests {
+    @Test
+    public void canCheckLabelsAndRememberTakenOnes() {
+        final List<String> checked = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        DnsLabelAvailabilityChecker checker = new DnsLabelAvailabilityChecker(null, 2, 60000) {
+            @Override
+            Observable<Boolean> checkOneAsync(String regionName, final String label) {
+                return Observable.fromCallable(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        maxInFlight.set(Math.max(maxInFlight.get(), inFlight.incrementAndGet()));
+                        Thread.sleep(10);
+                        checked.add(label);
+                        inFlight.decrementAndGet();
+                        return !label.startsWith("taken");
+                    }
+                }).subscribeOn(Schedulers.io());
+            }
+        };
+
+        Map<String, Boolean> results = checker.checkAsync("West US",
+                Arrays.asList("free1", "taken1", "Invalid", "free2", "taken2", "free1", "x")).toBlocking().single();
+        Assert.assertEquals(Arrays.asList("free1", "taken1", "Invalid", "free2", "taken2", "x"), new ArrayList<>(results.keySet()));
+        Assert.assertEquals(Arrays.asList(true, false, false, true, false, false), new ArrayList<>(results.values()));
+        Assert.assertEquals(4, checked.size());
+        Assert.assertTrue(maxInFlight.get() <= 2);
+
+        checked.clear();
+        results = checker.checkAsync("westus", Arrays.asList("taken1", "free1")).toBlocking().single();
+        Assert.assertFalse(results.get("taken1"));
+        Assert.assertTrue(results.get("free1"));
+        Assert.assertEquals(Collections.singletonList("free1"), checked);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FlowLogParserTests {
+    private static final String FLOW_LOG = "{\"records\":["
+            + "{\"time\":\"2017-06-16T20:59:43.7340000Z\",\"category\":\"NetworkSecurityGroupFlowEvent\","
+            + "\"properties\":{\"Version\":1,\"flows\":["
+            + "{\"rule\":\"DefaultRule_DenyAllInBound\",\"flows\":[{\"mac\":\"000D3AF8801A\",\"flowTuples\":["
+            + "\"1497646722,40.68.2.1,10.0.0.4,50011,22,T,I,D\","
+            + "\"1497646723,40.68.2.1,10.0.0.4,50012,3389,T,I,D\","
+            + "\"1497646724,not-an-ip,10.0.0.4,50013,22,T,I,D\"]}]},"
+            + "{\"rule\":\"UserRule_AllowWeb\",\"flows\":[{\"mac\":\"000D3AF8801A\",\"flowTuples\":["
+            + "\"1497646725,52.1.1.1,10.0.0.4,50014,80,T,I,A\"]}]}]}},"
+            + "{\"time\":\"2017-06-16T21:00:43.7340000Z\",\"extra\":{\"nested\":[1,2]},"
+            + "\"properties\":{\"Version\":2,\"flows\":["
+            + "{\"rule\":\"UserRule_AllowWeb\",\"flows\":[{\"flowTuples\":[\"1497646783,52.1.1.1,10.0.0.4,50015,443,T,I,A,E,10,1000,12,2000\","
+            + "\"1497646784,40.68.2.1,10.0.0.4,50016,443,U,I,A,B,,,,\"]}]}]}}]}";
+
+    @Test
+    public void canDecodeFlowTuplesInBatches() throws Exception {
+        final List<String> decoded = new ArrayList<>();
+        FlowLogParser parser = new FlowLogParser(2, new FlowTupleBatch.Sink() {
+            @Override
+            public void accept(FlowTupleBatch batch) {
+                Assert.assertTrue(batch.size() <= 2);
+                for (int i = 0; i < batch.size(); i++) {
+                    decoded.add(batch.timestamp(i) + " " + IPAllocationBitmap.format(batch.sourceAddress(i) & 0xFFFFFFFFL)
+                            + ":" + batch.sourcePort(i) + " " + IPAllocationBitmap.format(batch.destinationAddress(i) & 0xFFFFFFFFL)
+                            + ":" + batch.destinationPort(i) + " " + (char) batch.protocol(i) + (char) batch.direction(i)
+                            + (char) batch.decision(i) + " " + batch.bytes(i) + " " + batch.rules().get(batch.ruleIndex(i)));
+                }
+            }
+        });
+        parser.parse(stream(FLOW_LOG));
+
+        Assert.assertEquals(1, parser.malformedCount());
+        Assert.assertEquals(Arrays.asList(
+                "1497646722 40.68.2.1:50011 10.0.0.4:22 TID 0 DefaultRule_DenyAllInBound",
+                "1497646723 40.68.2.1:50012 10.0.0.4:3389 TID 0 DefaultRule_DenyAllInBound",
+                "1497646725 52.1.1.1:50014 10.0.0.4:80 TIA 0 UserRule_AllowWeb",
+                "1497646783 52.1.1.1:50015 10.0.0.4:443 TIA 3000 UserRule_AllowWeb",
+                "1497646784 40.68.2.1:50016 10.0.0.4:443 UIA 0 UserRule_AllowWeb"), decoded);
+    }
+
+    @Test
+    public void canAggregateAndMergeFlowLogs() throws Exception {
+        FlowLogAnalysisImpl total = new FlowLogAnalysisImpl(1);
+        for (int i = 0; i < 2; i++) {
+            FlowLogAnalysisImpl analysis = new FlowLogAnalysisImpl(1);
+            FlowLogParser parser = new FlowLogParser(FlowLogParser.DEFAULT_BATCH_SIZE, analysis);
+            parser.parse(stream(FLOW_LOG));
+            analysis.addMalformed(parser.malformedCount());
+            total.merge(analysis);
+        }
+
+        // The version 2 tuple ending a flow adds no flow
+        Assert.assertEquals(8, total.flowCount());
+        Assert.assertEquals(2, total.malformedFlowCount());
+        Assert.assertEquals(4, total.deniedFlowCount());
+        Assert.assertEquals(Long.valueOf(4), total.deniedFlowCountsByRule().get("DefaultRule_DenyAllInBound"));
+        Assert.assertFalse(total.deniedFlowCountsByRule().containsKey("UserRule_AllowWeb"));
+        Assert.assertEquals(Arrays.asList("40.68.2.1"), new ArrayList<>(total.topTalkers().keySet()));
+        Assert.assertEquals(Long.valueOf(6), total.topTalkers().get("40.68.2.1"));
+        Assert.assertEquals(Long.valueOf(0), total.topTalkerBytes().get("40.68.2.1"));
+    }
+
+    @Test
+    public void countsVersion2FlowsOnce() throws Exception {
+        FlowLogAnalysisImpl analysis = new FlowLogAnalysisImpl(2);
+        FlowLogParser parser = new FlowLogParser(FlowLogParser.DEFAULT_BATCH_SIZE, analysis);
+        parser.parse(stream("{\"records\":[{\"properties\":{\"Version\":2,\"flows\":["
+                + "{\"rule\":\"UserRule_AllowWeb\",\"flows\":[{\"flowTuples\":["
+                + "\"1497646783,52.1.1.1,10.0.0.4,50015,443,T,I,A,B,,,,\","
+                + "\"1497646843,52.1.1.1,10.0.0.4,50015,443,T,I,A,C,10,1000,12,2000\","
+                + "\"1497646903,52.1.1.1,10.0.0.4,50015,443,T,I,A,E,1,100,1,200\"]}]},"
+                + "{\"rule\":\"UserRule_DenySsh\",\"flows\":[{\"flowTuples\":["
+                + "\"1497646904,40.68.2.1,10.0.0.4,50016,22,T,I,D,B,,,,\"]}]}]}}]}"));
+
+        Assert.assertEquals(0, parser.malformedCount());
+        Assert.assertEquals(2, analysis.flowCount());
+        Assert.assertEquals(1, analysis.deniedFlowCount());
+        Assert.assertEquals(Long.valueOf(1), analysis.topTalkers().get("52.1.1.1"));
+        Assert.assertEquals(Long.valueOf(3300), analysis.topTalkerBytes().get("52.1.1.1"));
+    }
+
+    @Test
+    public void canCountManyTalkers() {
+        FlowLogAnalysisImpl analysis = new FlowLogAnalysisImpl(3);
+        FlowTupleBatch batch = new FlowTupleBatch(FlowLogParser.DEFAULT_BATCH_SIZE);
+        batch.startRule("rule");
+        for (int address = 0; address < 3000; address++) {
+            for (int i = 0; i <= address % 7; i++) {
+                char[] tuple = ("1," + IPAllocationBitmap.format(0x0A000000L + address) + ",10.1.0.4,1,2,T,I,A").toCharArray();
+                Assert.assertTrue(batch.add(tuple, 0, tuple.length));
+                if (batch.isFull()) {
+                    analysis.accept(batch);
+                    batch.clear();
+                }
+            }
+        }
+        analysis.accept(batch);
+
+        Assert.assertEquals(3, analysis.topTalkers().size());
+        for (long flows : analysis.topTalkers().values()) {
+            Assert.assertEquals(7, flows);
+        }
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
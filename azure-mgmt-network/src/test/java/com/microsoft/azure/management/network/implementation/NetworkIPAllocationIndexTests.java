@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class NetworkIPAllocationIndexTests {
+    private static final String NIC_ID = "/subscriptions/sub/resourceGroups/rg1/providers/Microsoft.Network/networkInterfaces/nic1/ipConfigurations/primary";
+    private static final String VMSS_NIC_ID = "/subscriptions/sub/resourceGroups/rg1/providers/Microsoft.Compute/virtualMachineScaleSets/vmss1/virtualMachines/%d/networkInterfaces/nic/ipConfigurations/primary";
+    private static final String LB_ID = "/subscriptions/sub/resourceGroups/rg1/providers/Microsoft.Network/loadBalancers/lb1/frontendIPConfigurations/frontend";
+
+    @Test
+    public void canTakeAddressesSkippingReservedAndUsed() {
+        IPAllocationBitmap bitmap = new IPAllocationBitmap("10.0.0.0/29");
+        bitmap.markUsed(IPAllocationBitmap.parse("10.0.0.5"));
+
+        Assert.assertFalse(bitmap.isAvailable(IPAllocationBitmap.parse("10.0.0.3")));
+        Assert.assertTrue(bitmap.isAvailable(IPAllocationBitmap.parse("10.0.0.4")));
+        List<Long> taken = bitmap.take(5);
+        Assert.assertEquals(2, taken.size());
+        Assert.assertEquals("10.0.0.4", IPAllocationBitmap.format(taken.get(0)));
+        Assert.assertEquals("10.0.0.6", IPAllocationBitmap.format(taken.get(1)));
+        Assert.assertTrue(bitmap.take(1).isEmpty());
+    }
+
+    @Test
+    public void canTakeAcrossFullWords() {
+        IPAllocationBitmap bitmap = new IPAllocationBitmap("10.1.0.0/16");
+        List<Long> first = bitmap.take(200);
+        Assert.assertEquals(200, first.size());
+        Assert.assertEquals("10.1.0.4", IPAllocationBitmap.format(first.get(0)));
+        Assert.assertEquals("10.1.0.203", IPAllocationBitmap.format(first.get(199)));
+        Assert.assertEquals("10.1.0.204", IPAllocationBitmap.format(bitmap.take(1).get(0)));
+        Assert.assertEquals(65536 - 5 - 201, bitmap.take(Integer.MAX_VALUE).size());
+        Assert.assertFalse(IPAllocationBitmap.isSupported("10.0.0.0/30"));
+        Assert.assertFalse(IPAllocationBitmap.isSupported("ace:cab:deca::/64"));
+    }
+
+    @Test
+    public void canAnswerAvailabilityLocally() throws Exception {
+        NetworkIPAllocationIndex index = new NetworkIPAllocationIndex(subnets(
+                "{\"name\":\"front\",\"properties\":{\"addressPrefix\":\"10.0.0.0/24\"}},"
+                + "{\"name\":\"back\",\"properties\":{\"addressPrefix\":\"10.0.1.0/24\"}}"));
+        index.markUsed("front", "10.0.0.4");
+
+        Assert.assertTrue(index.isInSubnet("10.0.1.200"));
+        Assert.assertFalse(index.isInSubnet("10.0.2.1"));
+        Assert.assertFalse(index.isAvailable("10.0.0.4"));
+        Assert.assertFalse(index.isAvailable("10.0.0.255"));
+        Assert.assertTrue(index.isAvailable("10.0.0.5"));
+        Assert.assertEquals(Arrays.asList("10.0.0.5", "10.0.0.6"), index.take("FRONT", 2));
+        Assert.assertFalse(index.isAvailable("10.0.0.5"));
+    }
+
+    @Test
+    public void reportsUnknownForSubnetsWithOtherResources() throws Exception {
+        NetworkIPAllocationIndex index = NetworkIPAllocationIndex.buildAsync(null, subnets(
+                "{\"name\":\"subnet1\",\"properties\":{\"addressPrefix\":\"10.0.0.0/24\",\"ipConfigurations\":["
+                + "{\"id\":\"" + NIC_ID + "\",\"properties\":{\"privateIPAddress\":\"10.0.0.4\"}},"
+                + "{\"id\":\"" + LB_ID + "\"}]}}"))
+                .toBlocking().single();
+
+        Assert.assertFalse(index.isAvailable("10.0.0.4"));
+        Assert.assertNull(index.isAvailable("10.0.0.5"));
+    }
+
+    @Test
+    public void doesNotResolveScaleSetNetworkInterfaces() throws Exception {
+        // A null manager fails the build if any network interface is resolved
+        NetworkIPAllocationIndex index = NetworkIPAllocationIndex.buildAsync(null, subnets(
+                "{\"name\":\"subnet1\",\"properties\":{\"addressPrefix\":\"10.0.0.0/24\",\"ipConfigurations\":["
+                + "{\"id\":\"" + String.format(VMSS_NIC_ID, 0) + "\",\"properties\":{\"privateIPAddress\":\"10.0.0.4\"}},"
+                + "{\"id\":\"" + String.format(VMSS_NIC_ID, 1) + "\",\"properties\":{\"privateIPAddress\":\"10.0.0.5\"}}]}},"
+                + "{\"name\":\"subnet2\",\"properties\":{\"addressPrefix\":\"10.0.1.0/24\",\"ipConfigurations\":["
+                + "{\"id\":\"" + String.format(VMSS_NIC_ID, 2) + "\"}]}}"))
+                .toBlocking().single();
+
+        Assert.assertFalse(index.isAvailable("10.0.0.4"));
+        Assert.assertFalse(index.isAvailable("10.0.0.5"));
+        Assert.assertTrue(index.isAvailable("10.0.0.6"));
+        Assert.assertNull(index.isAvailable("10.0.1.4"));
+    }
+
+    private static List<SubnetInner> subnets(String json) throws Exception {
+        return Arrays.asList(new AzureJacksonAdapter().<SubnetInner[]>deserialize("[" + json + "]", SubnetInner[].class));
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+public class NetworkInterfaceResolverTests {
+    private static final String PREFIX = "/subscriptions/sub/resourceGroups/";
+
+    @Test
+    public void canGroupByResourceGroup() {
+        Map<String, Set<String>> groups = NetworkInterfaceResolver.groupByResourceGroup(Arrays.asList(
+                PREFIX + "rg1/providers/Microsoft.Network/networkInterfaces/nic1",
+                PREFIX + "RG1/providers/Microsoft.Network/networkInterfaces/NIC1",
+                PREFIX + "rg1/providers/Microsoft.Network/networkInterfaces/nic2",
+                PREFIX + "rg2/providers/Microsoft.Network/networkInterfaces/nic3"));
+
+        Assert.assertEquals(2, groups.size());
+        Assert.assertEquals(2, groups.get("rg1").size());
+        Assert.assertTrue(groups.get("rg1").contains(PREFIX.toLowerCase() + "rg1/providers/microsoft.network/networkinterfaces/nic1"));
+        Assert.assertEquals(1, groups.get("rg2").size());
+    }
+}
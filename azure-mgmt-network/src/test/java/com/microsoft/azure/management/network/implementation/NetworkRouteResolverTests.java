@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.network.EffectiveRouteSource;
+import com.microsoft.azure.management.network.GatewayRoute;
+import com.microsoft.azure.management.network.NetworkRoute;
+import com.microsoft.azure.management.network.RouteNextHopType;
+import com.microsoft.azure.management.network.RouteTable;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class NetworkRouteResolverTests {
+    private static final String ROUTE_TABLE_ID = "/subscriptions/sub/resourceGroups/rg1/providers/Microsoft.Network/routeTables/rt1";
+
+    @Test
+    public void canResolveLongestPrefixMatch() throws Exception {
+        NetworkRouteResolverImpl resolver = resolver(routeTable(
+                "{\"name\":\"toFirewall\",\"properties\":{\"addressPrefix\":\"0.0.0.0/0\",\"nextHopType\":\"VirtualAppliance\",\"nextHopIpAddress\":\"10.0.1.4\"}},"
+                + "{\"name\":\"dropOnPrem\",\"properties\":{\"addressPrefix\":\"192.168.10.0/24\",\"nextHopType\":\"None\"}}"));
+
+        NetworkRoute route = resolver.resolveNextHop("front", "8.8.8.8");
+        Assert.assertEquals("toFirewall", route.name());
+        Assert.assertEquals(EffectiveRouteSource.USER, route.source());
+        Assert.assertEquals("10.0.1.4", route.nextHopIPAddress());
+        Assert.assertEquals(RouteNextHopType.INTERNET, resolver.resolveNextHop("back", "8.8.8.8").nextHopType());
+
+        Assert.assertEquals(RouteNextHopType.VNET_LOCAL, resolver.resolveNextHop("front", "10.0.2.7").nextHopType());
+        Assert.assertEquals(NetworkRouteResolverImpl.VNET_PEERING, resolver.resolveNextHop("front", "10.1.0.9").nextHopType());
+        Assert.assertEquals(RouteNextHopType.NONE, resolver.resolveNextHop("back", "10.2.0.1").nextHopType());
+        Assert.assertEquals(RouteNextHopType.VIRTUAL_NETWORK_GATEWAY, resolver.resolveNextHop("back", "192.168.10.1").nextHopType());
+        Assert.assertEquals(RouteNextHopType.NONE, resolver.resolveNextHop("front", "192.168.10.1").nextHopType());
+        Assert.assertNull(resolver.resolveNextHop("front", "not an address"));
+    }
+
+    @Test
+    public void canRefreshOneRouteTable() throws Exception {
+        NetworkRouteResolverImpl resolver = resolver(routeTable(
+                "{\"name\":\"toFirewall\",\"properties\":{\"addressPrefix\":\"0.0.0.0/0\",\"nextHopType\":\"VirtualAppliance\",\"nextHopIpAddress\":\"10.0.1.4\"}}"));
+        resolver.refreshRouteTable(routeTable(
+                "{\"name\":\"overrideVnet\",\"properties\":{\"addressPrefix\":\"10.0.0.0/16\",\"nextHopType\":\"VirtualAppliance\",\"nextHopIpAddress\":\"10.0.1.5\"}}"));
+
+        List<NetworkRoute> routes = resolver.resolveNextHops("front", Arrays.asList("8.8.8.8", "10.0.2.7"));
+        Assert.assertEquals(RouteNextHopType.INTERNET, routes.get(0).nextHopType());
+        Assert.assertEquals("overrideVnet", routes.get(1).name());
+    }
+
+    @Test
+    public void addressSpacesReplaceDefaultRoutesWithSamePrefix() throws Exception {
+        NetworkRouteResolverImpl resolver = new NetworkRouteResolverImpl(
+                "/subscriptions/sub/resourceGroups/rg1/providers/Microsoft.Network/virtualNetworks/vnet1",
+                Collections.singletonList("10.0.0.0/8"),
+                Collections.<String, String>emptyMap(),
+                Collections.singletonList("172.16.0.0/12"),
+                Collections.<GatewayRoute>emptyList(),
+                Collections.<RouteTable>emptyList());
+
+        NetworkRoute route = resolver.resolveNextHop("front", "10.200.0.4");
+        Assert.assertEquals(RouteNextHopType.VNET_LOCAL, route.nextHopType());
+        Assert.assertEquals("VnetLocal", route.name());
+        Assert.assertEquals(NetworkRouteResolverImpl.VNET_PEERING, resolver.resolveNextHop("front", "172.20.0.4").nextHopType());
+        Assert.assertEquals(RouteNextHopType.NONE, resolver.resolveNextHop("front", "192.168.0.4").nextHopType());
+    }
+
+    private static NetworkRouteResolverImpl resolver(RouteTable routeTable) throws Exception {
+        GatewayRoute onPremises = new AzureJacksonAdapter().deserialize(
+                "{\"network\":\"192.168.0.0/16\",\"nextHop\":\"172.16.0.1\",\"origin\":\"EBgp\"}", GatewayRoute.class);
+        return new NetworkRouteResolverImpl("/subscriptions/sub/resourceGroups/rg1/providers/Microsoft.Network/virtualNetworks/vnet1",
+                Collections.singletonList("10.0.0.0/16"),
+                Collections.singletonMap("front", ROUTE_TABLE_ID),
+                Collections.singletonList("10.1.0.0/16"),
+                Collections.singletonList(onPremises),
+                Collections.singletonList(routeTable));
+    }
+
+    private static RouteTable routeTable(String routes) throws Exception {
+        RouteTableInner inner = new AzureJacksonAdapter().deserialize(
+                "{\"id\":\"" + ROUTE_TABLE_ID + "\",\"name\":\"rt1\",\"properties\":{\"routes\":[" + routes + "]}}", RouteTableInner.class);
+        return new RouteTableImpl("rt1", inner, null);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.network.NetworkSecurityFlow;
+import com.microsoft.azure.management.network.NetworkSecurityRuleEvaluator;
+import com.microsoft.azure.management.network.SecurityRuleAccess;
+import com.microsoft.azure.management.network.SecurityRuleDirection;
+import com.microsoft.azure.management.network.SecurityRuleProtocol;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class NetworkSecurityRuleEvaluatorTests {
+    @Test
+    public void canEvaluateFlowsByPriority() {
+        NetworkSecurityRuleEvaluator evaluator = nsg().compileRules(
+                Collections.singletonMap("VirtualNetwork", Collections.singletonList("10.0.0.0/16")));
+
+        Assert.assertEquals("AllowSsh", evaluator.findMatchingRule(inbound(SecurityRuleProtocol.TCP, "10.1.2.3", 22)).name());
+        Assert.assertEquals("DenyBadHost", evaluator.findMatchingRule(inbound(SecurityRuleProtocol.TCP, "10.1.0.66", 22)).name());
+        Assert.assertTrue(evaluator.isAllowed(inbound(SecurityRuleProtocol.UDP, "10.1.2.3", 5001)));
+        Assert.assertFalse(evaluator.isAllowed(inbound(SecurityRuleProtocol.TCP, "10.1.2.3", 5001)));
+        Assert.assertEquals("AllowVnetInBound", evaluator.findMatchingRule(inbound(SecurityRuleProtocol.TCP, "10.0.3.3", 3389)).name());
+        Assert.assertEquals("DenyAllInBound", evaluator.findMatchingRule(inbound(SecurityRuleProtocol.TCP, "52.1.2.3", 3389)).name());
+        Assert.assertTrue(evaluator.isAllowed(new NetworkSecurityFlow()
+                .withDirection(SecurityRuleDirection.OUTBOUND)
+                .withProtocol(SecurityRuleProtocol.TCP)
+                .withSourceIPAddress("10.0.0.4").withSourcePort(50000)
+                .withDestinationIPAddress("52.1.2.3").withDestinationPort(443)));
+        Assert.assertTrue(evaluator.unresolvedServiceTags().isEmpty());
+    }
+
+    @Test
+    public void reportsUnresolvedServiceTags() {
+        NetworkSecurityRuleEvaluator evaluator = nsg().compileRules(null);
+
+        Assert.assertTrue(evaluator.unresolvedServiceTags().contains("VirtualNetwork"));
+        Assert.assertTrue(evaluator.unresolvedServiceTags().contains("Internet"));
+        Assert.assertEquals("DenyAllInBound", evaluator.findMatchingRule(inbound(SecurityRuleProtocol.TCP, "10.0.3.3", 3389)).name());
+    }
+
+    @Test
+    public void canSplitIntervals() {
+        NetworkSecurityRuleEvaluatorImpl.IntervalIndex index = new NetworkSecurityRuleEvaluatorImpl.IntervalIndex(
+                Arrays.<List<long[]>>asList(
+                        Collections.singletonList(new long[] {10, 20}),
+                        Arrays.asList(new long[] {15, 30}, new long[] {40, 40})),
+                100, 1);
+
+        Assert.assertEquals(0L, index.masksAt(9)[0]);
+        Assert.assertEquals(1L, index.masksAt(10)[0]);
+        Assert.assertEquals(3L, index.masksAt(20)[0]);
+        Assert.assertEquals(2L, index.masksAt(21)[0]);
+        Assert.assertEquals(2L, index.masksAt(40)[0]);
+        Assert.assertEquals(0L, index.masksAt(100)[0]);
+        Assert.assertArrayEquals(new long[] {10, 10}, IPAllocationBitmap.parseAddressPrefix("0.0.0.10"));
+        Assert.assertArrayEquals(new long[] {1000, 2000}, NetworkSecurityRuleEvaluatorImpl.parsePortRange("1000-2000"));
+        Assert.assertNull(IPAllocationBitmap.parseAddressPrefix("ace:cab:deca::/64"));
+    }
+
+    private static NetworkSecurityFlow inbound(SecurityRuleProtocol protocol, String sourceIPAddress, int destinationPort) {
+        return new NetworkSecurityFlow()
+                .withDirection(SecurityRuleDirection.INBOUND)
+                .withProtocol(protocol)
+                .withSourceIPAddress(sourceIPAddress)
+                .withSourcePort(40000)
+                .withDestinationIPAddress("10.0.0.4")
+                .withDestinationPort(destinationPort);
+    }
+
+    private static NetworkSecurityGroupImpl nsg() {
+        NetworkSecurityGroupInner inner = new NetworkSecurityGroupInner()
+                .withSecurityRules(Arrays.asList(
+                        rule("DenyBadHost", 100, SecurityRuleDirection.INBOUND, SecurityRuleAccess.DENY, SecurityRuleProtocol.ASTERISK,
+                                "10.1.0.64/27", "*"),
+                        rule("AllowSsh", 200, SecurityRuleDirection.INBOUND, SecurityRuleAccess.ALLOW, SecurityRuleProtocol.TCP,
+                                "10.1.0.0/16", "22"),
+                        rule("AllowIperfUdp", 300, SecurityRuleDirection.INBOUND, SecurityRuleAccess.ALLOW, SecurityRuleProtocol.UDP,
+                                "*", "5000-5100")))
+                .withDefaultSecurityRules(Arrays.asList(
+                        rule("AllowVnetInBound", 65000, SecurityRuleDirection.INBOUND, SecurityRuleAccess.ALLOW, SecurityRuleProtocol.ASTERISK,
+                                "VirtualNetwork", "*"),
+                        rule("DenyAllInBound", 65500, SecurityRuleDirection.INBOUND, SecurityRuleAccess.DENY, SecurityRuleProtocol.ASTERISK,
+                                "*", "*"),
+                        rule("AllowInternetOutBound", 65001, SecurityRuleDirection.OUTBOUND, SecurityRuleAccess.ALLOW, SecurityRuleProtocol.ASTERISK,
+                                "*", "*").withDestinationAddressPrefix("Internet"),
+                        rule("DenyAllOutBound", 65500, SecurityRuleDirection.OUTBOUND, SecurityRuleAccess.DENY, SecurityRuleProtocol.ASTERISK,
+                                "*", "*")));
+        return new NetworkSecurityGroupImpl("nsg1", inner, null);
+    }
+
+    private static SecurityRuleInner rule(String name, int priority, SecurityRuleDirection direction, SecurityRuleAccess access,
+                                          SecurityRuleProtocol protocol, String sourceAddressPrefix, String destinationPortRange) {
+        return new SecurityRuleInner()
+                .withName(name)
+                .withPriority(priority)
+                .withDirection(direction)
+                .withAccess(access)
+                .withProtocol(protocol)
+                .withSourceAddressPrefix(sourceAddressPrefix)
+                .withSourcePortRange("*")
+                .withDestinationAddressPrefix("*")
+                .withDestinationPortRange(destinationPortRange);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.management.network.NetworkTopologyGraph;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class NetworkTopologyGraphTests {
+    private static final String PREFIX = "/subscriptions/sub/resourceGroups/rg1/providers/";
+    private static final String NET = PREFIX + "Microsoft.Network/virtualNetworks/net1";
+    private static final String SUBNET = NET + "/subnets/subnet1";
+    private static final String VM1 = PREFIX + "Microsoft.Compute/virtualMachines/vm1";
+    private static final String VM2 = PREFIX + "Microsoft.Compute/virtualMachines/vm2";
+    private static final String VM3 = PREFIX + "Microsoft.Compute/virtualMachines/vm3";
+    private static final String NIC1 = PREFIX + "Microsoft.Network/networkInterfaces/nic1";
+    private static final String NIC2 = PREFIX + "Microsoft.Network/networkInterfaces/nic2";
+    private static final String NIC3 = PREFIX + "Microsoft.Network/networkInterfaces/nic3";
+    private static final String LB = PREFIX + "Microsoft.Network/loadBalancers/lb1";
+    private static final String AG = PREFIX + "Microsoft.Network/applicationGateways/ag1";
+    private static final String VMSS_VM = PREFIX + "Microsoft.Compute/virtualMachineScaleSets/vmss1/virtualMachines/3";
+    private static final String VMSS_NIC = VMSS_VM + "/networkInterfaces/nic";
+    private static final String LB_PIP = PREFIX + "Microsoft.Network/publicIPAddresses/pip1";
+    private static final String AG_PIP = PREFIX + "Microsoft.Network/publicIPAddresses/pip2";
+
+    @Test
+    public void canQueryTopology() throws Exception {
+        NetworkTopologyGraph graph = new NetworkTopologyGraphImpl("rg1",
+                parse("{\"id\":\"" + NET + "\",\"properties\":{\"subnets\":[{\"id\":\"" + SUBNET + "\"}]}}", VirtualNetworkInner[].class),
+                parse(nic(NIC1, VM1, "10.0.0.4", "\"loadBalancerBackendAddressPools\":[{\"id\":\"" + LB + "/backendAddressPools/pool1\"}]") + ","
+                        + nic(NIC2, VM2, "10.0.0.5", null) + ","
+                        + nic(NIC3, VM3, "10.0.0.6", null), NetworkInterfaceInner[].class),
+                parse("{\"id\":\"" + LB + "\",\"properties\":{"
+                        + "\"frontendIPConfigurations\":[{\"id\":\"" + LB + "/frontendIPConfigurations/front1\","
+                        + "\"properties\":{\"publicIPAddress\":{\"id\":\"" + LB_PIP + "\"}}}],"
+                        + "\"backendAddressPools\":[{\"id\":\"" + LB + "/backendAddressPools/pool1\"}],"
+                        + "\"loadBalancingRules\":[{\"id\":\"" + LB + "/loadBalancingRules/rule1\",\"properties\":{"
+                        + "\"frontendIPConfiguration\":{\"id\":\"" + LB + "/frontendIPConfigurations/front1\"},"
+                        + "\"backendAddressPool\":{\"id\":\"" + LB + "/backendAddressPools/pool1\"}}}]}}", LoadBalancerInner[].class),
+                parse("{\"id\":\"" + AG + "\",\"properties\":{"
+                        + "\"frontendIPConfigurations\":[{\"id\":\"" + AG + "/frontendIPConfigurations/front1\","
+                        + "\"properties\":{\"publicIPAddress\":{\"id\":\"" + AG_PIP + "\"}}}],"
+                        + "\"backendAddressPools\":[{\"id\":\"" + AG + "/backendAddressPools/pool1\","
+                        + "\"properties\":{\"backendAddresses\":[{\"ipAddress\":\"10.0.0.5\"}]}}]}}", ApplicationGatewayInner[].class),
+                parse("{\"id\":\"" + LB_PIP + "\",\"properties\":{\"ipAddress\":\"40.1.2.3\"}},"
+                        + "{\"id\":\"" + AG_PIP + "\",\"properties\":{\"ipAddress\":\"40.1.2.4\"}}", PublicIPAddressInner[].class),
+                Collections.<NetworkSecurityGroupInner>emptyList());
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(NIC1, NIC2, NIC3)), graph.networkInterfaceIdsInSubnet(SUBNET.toUpperCase()));
+        Assert.assertEquals(Collections.singleton(NIC2), graph.findResourceIdsByIPAddress("10.0.0.5"));
+        Assert.assertEquals(Collections.singleton(LB_PIP), graph.findResourceIdsByIPAddress("40.1.2.3"));
+        Assert.assertEquals(Collections.singleton(VM1), graph.virtualMachineIdsBehindPublicIPAddress(LB_PIP));
+        Assert.assertEquals(Collections.singleton(VM2), graph.virtualMachineIdsBehindPublicIPAddress(AG_PIP));
+        Assert.assertTrue(graph.adjacentResourceIds(NIC3).contains(VM3));
+        Assert.assertTrue(graph.virtualMachineIdsBehindPublicIPAddress(PREFIX + "Microsoft.Network/publicIPAddresses/none").isEmpty());
+    }
+
+    @Test
+    public void canFindScaleSetInstancesBehindLoadBalancer() throws Exception {
+        NetworkTopologyGraph graph = new NetworkTopologyGraphImpl("rg1",
+                Collections.<VirtualNetworkInner>emptyList(),
+                Collections.<NetworkInterfaceInner>emptyList(),
+                parse("{\"id\":\"" + LB + "\",\"properties\":{"
+                        + "\"frontendIPConfigurations\":[{\"id\":\"" + LB + "/frontendIPConfigurations/front1\","
+                        + "\"properties\":{\"publicIPAddress\":{\"id\":\"" + LB_PIP + "\"}}}],"
+                        + "\"backendAddressPools\":[{\"id\":\"" + LB + "/backendAddressPools/pool1\","
+                        + "\"properties\":{\"backendIPConfigurations\":[{\"id\":\"" + VMSS_NIC + "/ipConfigurations/primary\"}]}}],"
+                        + "\"loadBalancingRules\":[{\"id\":\"" + LB + "/loadBalancingRules/rule1\",\"properties\":{"
+                        + "\"frontendIPConfiguration\":{\"id\":\"" + LB + "/frontendIPConfigurations/front1\"},"
+                        + "\"backendAddressPool\":{\"id\":\"" + LB + "/backendAddressPools/pool1\"}}}]}}", LoadBalancerInner[].class),
+                Collections.<ApplicationGatewayInner>emptyList(),
+                parse("{\"id\":\"" + LB_PIP + "\",\"properties\":{\"ipAddress\":\"40.1.2.3\"}}", PublicIPAddressInner[].class),
+                Collections.<NetworkSecurityGroupInner>emptyList());
+
+        Assert.assertEquals(Collections.singleton(VMSS_VM), graph.virtualMachineIdsBehindPublicIPAddress(LB_PIP));
+        // Scale set network interfaces are not fetched, a null manager fails if they were
+        Assert.assertSame(graph, ((NetworkTopologyGraphImpl) graph).addUnlistedNetworkInterfacesAsync(null).toBlocking().single());
+    }
+
+    private static String nic(String id, String vmId, String ipAddress, String extraProperties) {
+        return "{\"id\":\"" + id + "\",\"properties\":{\"virtualMachine\":{\"id\":\"" + vmId + "\"},"
+                + "\"ipConfigurations\":[{\"id\":\"" + id + "/ipConfigurations/primary\",\"properties\":{"
+                + "\"privateIPAddress\":\"" + ipAddress + "\",\"subnet\":{\"id\":\"" + SUBNET + "\"}"
+                + (extraProperties == null ? "" : "," + extraProperties) + "}}]}}";
+    }
+
+    private static <T> List<T> parse(String json, Class<T[]> arrayClass) throws Exception {
+        return Arrays.asList(new AzureJacksonAdapter().<T[]>deserialize("[" + json + "]", arrayClass));
+    }
+}
@@ -12,20 +12,40 @@ import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import com.microsoft.azure.management.resources.implementation.PageImpl;
 import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import retrofit2.Response;
 import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava.HttpException;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Streaming;
 import retrofit2.http.Url;
 import rx.Observable;
 import rx.exceptions.Exceptions;
+import rx.functions.Action1;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Defines a few utilities.
  */
 public final class Utils {
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
     /**
      * Converts an object Boolean to a primitive boolean.
      *
@@ -120,14 +140,121 @@ public final class Utils {
      * @param retrofit the retrofit client
      * @return an Observable pointing to the content of the file
      */
-    public static Observable<byte[]> downloadFileAsync(String url, Retrofit retrofit) {
-        FileService service = retrofit.create(FileService.class);
-        Observable<ResponseBody> response = service.download(url);
-        return response.map(new Func1<ResponseBody, byte[]>() {
+    public static Observable<byte[]> downloadFileAsync(final String url, final Retrofit retrofit) {
+        return Observable.defer(new Func0<Observable<byte[]>>() {
             @Override
-            public byte[] call(ResponseBody responseBody) {
+            public Observable<byte[]> call() {
+                // One buffer per subscription, so that resubscribing or retrying downloads the file anew
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                return downloadFileAsync(url, retrofit, Channels.newChannel(content), 0)
+                        .map(new Func1<Long, byte[]>() {
+                            @Override
+                            public byte[] call(Long length) {
+                                return content.toByteArray();
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * Download a file asynchronously into a channel, through a buffer of bounded size.
+     * @param url the URL pointing to the file
+     * @param retrofit the retrofit client
+     * @param channel the channel the content of the file is written to; it is not closed
+     * @return an Observable emitting the number of bytes written
+     */
+    public static Observable<Long> downloadFileAsync(String url, Retrofit retrofit, WritableByteChannel channel) {
+        return downloadFileAsync(url, retrofit, channel, 0);
+    }
+
+    /**
+     * Download the content of a file from an offset on asynchronously into a channel, through a buffer of
+     * bounded size. The content before the offset is requested with a range, so that an interrupted download
+     * can be resumed. If the server answers that the range is not satisfiable, nothing is written, and the
+     * download fails unless the length of the file the server reports is the offset.
+     * @param url the URL pointing to the file
+     * @param retrofit the retrofit client
+     * @param channel the channel the content of the file from the offset on is written to; it is not closed
+     * @param offset the offset of the first byte to write
+     * @return an Observable emitting the number of bytes written
+     */
+    public static Observable<Long> downloadFileAsync(final String url, Retrofit retrofit, final WritableByteChannel channel, final long offset) {
+        return downloadResponseAsync(url, retrofit, offset)
+                .map(new Func1<Response<ResponseBody>, Long>() {
+                    @Override
+                    public Long call(Response<ResponseBody> response) {
+                        if (response.code() == HTTP_RANGE_NOT_SATISFIABLE) {
+                            if (response.errorBody() != null) {
+                                response.errorBody().close();
+                            }
+                            // Nothing is left to download only if the offset is the length of the file
+                            long length = unsatisfiedRangeLength(response.headers().get("Content-Range"));
+                            if (length != offset) {
+                                throw Exceptions.propagate(new IOException("Cannot resume the download of " + url
+                                        + " from offset " + offset + ", the length of the file is "
+                                        + (length < 0 ? "unknown" : length) + "."));
+                            }
+                            return 0L;
+                        }
+                        ResponseBody body = response.body();
+                        try {
+                            BufferedSource source = body.source();
+                            // A server ignoring the range sends the whole file
+                            if (offset > 0 && response.code() != HTTP_PARTIAL_CONTENT) {
+                                source.skip(offset);
+                            }
+                            return copy(source, channel);
+                        } catch (IOException e) {
+                            throw Exceptions.propagate(e);
+                        } finally {
+                            body.close();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Download a file asynchronously into a local file. If the local file exists, it is taken as the beginning
+     * of an interrupted download of the same file and only the remaining content is downloaded; the download
+     * fails if the local file is longer than the remote one.
+     * @param url the URL pointing to the file
+     * @param retrofit the retrofit client
+     * @param file the local file
+     * @return an Observable emitting the length of the local file once the download is complete
+     */
+    public static Observable<Long> downloadFileAsync(final String url, final Retrofit retrofit, final Path file) {
+        return Observable.using(new Func0<FileChannel>() {
+            @Override
+            public FileChannel call() {
                 try {
-                    return responseBody.bytes();
+                    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    return channel.position(channel.size());
+                } catch (IOException e) {
+                    throw Exceptions.propagate(e);
+                }
+            }
+        }, new Func1<FileChannel, Observable<Long>>() {
+            @Override
+            public Observable<Long> call(FileChannel channel) {
+                try {
+                    final long offset = channel.position();
+                    return downloadFileAsync(url, retrofit, channel, offset)
+                            .map(new Func1<Long, Long>() {
+                                @Override
+                                public Long call(Long written) {
+                                    return offset + written;
+                                }
+                            });
+                } catch (IOException e) {
+                    return Observable.error(e);
+                }
+            }
+        }, new Action1<FileChannel>() {
+            @Override
+            public void call(FileChannel channel) {
+                try {
+                    channel.close();
                 } catch (IOException e) {
                     throw Exceptions.propagate(e);
                 }
@@ -135,6 +262,130 @@ public final class Utils {
         });
     }
 
+    /**
+     * Download a file asynchronously as a stream of chunks, read as they are requested.
+     * @param url the URL pointing to the file
+     * @param retrofit the retrofit client
+     * @return an Observable emitting the content of the file in chunks of at most 64 KB
+     */
+    public static Observable<ByteBuffer> downloadFileChunksAsync(String url, Retrofit retrofit) {
+        return downloadResponseAsync(url, retrofit, 0)
+                .flatMap(new Func1<Response<ResponseBody>, Observable<ByteBuffer>>() {
+                    @Override
+                    public Observable<ByteBuffer> call(final Response<ResponseBody> response) {
+                        return Observable.using(new Func0<ResponseBody>() {
+                            @Override
+                            public ResponseBody call() {
+                                return response.body();
+                            }
+                        }, new Func1<ResponseBody, Observable<ByteBuffer>>() {
+                            @Override
+                            public Observable<ByteBuffer> call(ResponseBody body) {
+                                return Observable.from(chunks(body.source()));
+                            }
+                        }, new Action1<ResponseBody>() {
+                            @Override
+                            public void call(ResponseBody body) {
+                                body.close();
+                            }
+                        });
+                    }
+                });
+    }
+
+    /**
+     * Gets the length of a file from the Content-Range header of a response to an unsatisfiable range request.
+     * @param contentRange the Content-Range header, of the form "bytes &#42;/length"
+     * @return the length of the file, or -1 if the header is missing or malformed
+     */
+    private static long unsatisfiedRangeLength(String contentRange) {
+        String prefix = "bytes */";
+        if (contentRange == null || !contentRange.trim().startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.trim().substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Observable<Response<ResponseBody>> downloadResponseAsync(String url, Retrofit retrofit, long offset) {
+        FileService service = retrofit.create(FileService.class);
+        return service.download(url, offset > 0 ? "bytes=" + offset + "-" : null)
+                .map(new Func1<Response<ResponseBody>, Response<ResponseBody>>() {
+                    @Override
+                    public Response<ResponseBody> call(Response<ResponseBody> response) {
+                        if (response.isSuccessful() || response.code() == HTTP_RANGE_NOT_SATISFIABLE) {
+                            return response;
+                        }
+                        if (response.errorBody() != null) {
+                            response.errorBody().close();
+                        }
+                        throw Exceptions.propagate(new HttpException(response));
+                    }
+                });
+    }
+
+    private static long copy(BufferedSource source, WritableByteChannel channel) throws IOException {
+        byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long written = 0;
+        int read;
+        while ((read = source.read(buffer)) != -1) {
+            byteBuffer.clear().limit(read);
+            while (byteBuffer.hasRemaining()) {
+                written += channel.write(byteBuffer);
+            }
+        }
+        return written;
+    }
+
+    private static Iterable<ByteBuffer> chunks(final BufferedSource source) {
+        return new Iterable<ByteBuffer>() {
+            @Override
+            public Iterator<ByteBuffer> iterator() {
+                return new Iterator<ByteBuffer>() {
+                    private ByteBuffer next;
+                    private boolean exhausted;
+
+                    @Override
+                    public boolean hasNext() {
+                        if (next == null && !exhausted) {
+                            byte[] chunk = new byte[DOWNLOAD_BUFFER_SIZE];
+                            try {
+                                int read = source.read(chunk);
+                                if (read == -1) {
+                                    exhausted = true;
+                                } else {
+                                    next = ByteBuffer.wrap(chunk, 0, read);
+                                }
+                            } catch (IOException e) {
+                                throw Exceptions.propagate(e);
+                            }
+                        }
+                        return next != null;
+                    }
+
+                    @Override
+                    public ByteBuffer next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        ByteBuffer chunk = next;
+                        next = null;
+                        return chunk;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
     /**
      * Converts the given list of a type to paged list of a different type.
      *
@@ -168,7 +419,8 @@ public final class Utils {
      */
     private interface FileService {
         @GET
-        Observable<ResponseBody> download(@Url String url);
+        @Streaming
+        Observable<Response<ResponseBody>> download(@Url String url, @Header("Range") String range);
     }
 
     private Utils() {
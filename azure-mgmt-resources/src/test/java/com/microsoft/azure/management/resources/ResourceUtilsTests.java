@@ -8,10 +8,24 @@ package com.microsoft.azure.management.resources;
 
 import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
 import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.Assert;
 import org.junit.Test;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
+import rx.Observable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 public class ResourceUtilsTests {
     @Test
@@ -48,4 +62,82 @@ public class ResourceUtilsTests {
         String contentString = new String(content);
         Assert.assertNotNull(contentString);
     }
+
+    @Test
+    public void canResumeFileDownload() throws Exception {
+        final byte[] content = new byte[200 * 1024];
+        new Random(1).nextBytes(content);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/file", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                int offset = range == null ? 0 : Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                exchange.sendResponseHeaders(range == null ? 200 : 206, content.length - offset);
+                exchange.getResponseBody().write(content, offset, content.length - offset);
+                exchange.close();
+            }
+        });
+        server.start();
+        Path file = Files.createTempFile("download", ".bin");
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/file";
+            Retrofit retrofit = new Retrofit.Builder().baseUrl(url + "/").addCallAdapterFactory(RxJavaCallAdapterFactory.create()).build();
+            // An interrupted download left the first bytes of the file
+            Files.write(file, Arrays.copyOf(content, 1000));
+
+            long length = Utils.downloadFileAsync(url, retrofit, file).toBlocking().single();
+
+            Assert.assertEquals(content.length, length);
+            Assert.assertArrayEquals(content, Files.readAllBytes(file));
+            List<ByteBuffer> chunks = Utils.downloadFileChunksAsync(url, retrofit).toList().toBlocking().single();
+            ByteArrayOutputStream chunked = new ByteArrayOutputStream();
+            for (ByteBuffer chunk : chunks) {
+                chunked.write(chunk.array(), chunk.position(), chunk.remaining());
+            }
+            Assert.assertArrayEquals(content, chunked.toByteArray());
+            // Each subscription downloads into its own buffer
+            Observable<byte[]> download = Utils.downloadFileAsync(url, retrofit);
+            Assert.assertArrayEquals(content, download.toBlocking().single());
+            Assert.assertArrayEquals(content, download.toBlocking().single());
+        } finally {
+            server.stop(0);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void checksLengthOfLocalFileWhenRangeNotSatisfiable() throws Exception {
+        final int length = 1000;
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/file", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("Content-Range", "bytes */" + length);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        Path file = Files.createTempFile("download", ".bin");
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/file";
+            Retrofit retrofit = new Retrofit.Builder().baseUrl(url + "/").addCallAdapterFactory(RxJavaCallAdapterFactory.create()).build();
+            // A complete earlier download
+            Files.write(file, new byte[length]);
+            Assert.assertEquals(length, (long) Utils.downloadFileAsync(url, retrofit, file).toBlocking().single());
+
+            // A local file longer than the remote one, such as an earlier version of the file
+            Files.write(file, new byte[length + 1]);
+            try {
+                Utils.downloadFileAsync(url, retrofit, file).toBlocking().single();
+                Assert.fail();
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            server.stop(0);
+            Files.deleteIfExists(file);
+        }
+    }
 }
@@ -175,6 +175,11 @@ class StorageAccountImpl
             public List<StorageAccountKey> call(StorageAccountListKeysResultInner storageAccountListKeysResultInner) {
                 return storageAccountListKeysResultInner.keys();
             }
+        }).doOnNext(new Action1<List<StorageAccountKey>>() {
+            @Override
+            public void call(List<StorageAccountKey> keys) {
+                manager().storageAccountKeys().put(id(), keys);
+            }
         });
     }
 
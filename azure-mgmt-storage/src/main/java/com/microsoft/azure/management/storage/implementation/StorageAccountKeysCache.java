@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.storage.implementation;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.storage.StorageAccount;
+import com.microsoft.azure.management.storage.StorageAccountKey;
+import com.microsoft.rest.RestClient;
+import rx.Observable;
+import rx.functions.Action1;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A short lived cache of storage account keys, keyed by storage account id, for resources that
+ * configure many others with the keys of the same few storage accounts.
+ * <p>
+ * The cache holds the keys of at most {@link #MAX_ENTRIES} accounts. Concurrent requests for the
+ * keys of an account share a single List Keys call. One cache is shared by all the storage managers
+ * built from the same rest client for the same subscription, such as the ones the other managers of
+ * the Azure entry point build, so that keys regenerated through any of them replace the cached ones;
+ * keys regenerated elsewhere are picked up once the cached ones expire, or after {@link #invalidate(String)}.
+ */
+@Beta(SinceVersion.V1_4_0)
+public final class StorageAccountKeysCache {
+    /**
+     * The default time the keys of an account are cached for.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE_IN_MILLISECONDS = TimeUnit.MINUTES.toMillis(1);
+    /**
+     * The maximum number of storage accounts whose keys are cached.
+     */
+    public static final int MAX_ENTRIES = 1024;
+
+    // Keyed by rest client, weakly so that the caches go away with their clients, then by subscription id
+    private static final Map<RestClient, Map<String, StorageAccountKeysCache>> SHARED = new WeakHashMap<>();
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long timeToLiveNanos;
+
+    StorageAccountKeysCache(long timeToLiveMillis) {
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+    }
+
+    /**
+     * Gets the cache shared by the storage managers built from a rest client for a subscription.
+     *
+     * @param restClient the rest client of the storage manager
+     * @param subscriptionId the subscription id of the storage manager
+     * @return the shared cache
+     */
+    static StorageAccountKeysCache sharedBy(RestClient restClient, String subscriptionId) {
+        synchronized (SHARED) {
+            Map<String, StorageAccountKeysCache> caches = SHARED.get(restClient);
+            if (caches == null) {
+                caches = new HashMap<>();
+                SHARED.put(restClient, caches);
+            }
+            String key = subscriptionId == null ? "" : subscriptionId.toLowerCase(Locale.ROOT);
+            StorageAccountKeysCache cache = caches.get(key);
+            if (cache == null) {
+                cache = new StorageAccountKeysCache(DEFAULT_TIME_TO_LIVE_IN_MILLISECONDS);
+                caches.put(key, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Gets the keys of a storage account, from the cache if they are not expired.
+     *
+     * @param storageAccount the storage account
+     * @return an observable that emits the access keys of the storage account
+     */
+    public Observable<List<StorageAccountKey>> getKeysAsync(StorageAccount storageAccount) {
+        final String key = keyOf(storageAccount.id());
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                return entry.keys;
+            }
+            if (entry == null && entries.size() >= MAX_ENTRIES) {
+                evict();
+            }
+            Entry fetch = fetch(storageAccount, key);
+            boolean installed = entry == null
+                    ? entries.putIfAbsent(key, fetch) == null
+                    : entries.replace(key, entry, fetch);
+            if (installed) {
+                return fetch.keys;
+            }
+        }
+    }
+
+    /**
+     * Replaces the cached keys of a storage account, e.g. after they are regenerated.
+     *
+     * @param storageAccountId the storage account id
+     * @param keys the current access keys of the storage account
+     */
+    public void put(String storageAccountId, List<StorageAccountKey> keys) {
+        entries.put(keyOf(storageAccountId), new Entry(Observable.just(keys), expiry()));
+    }
+
+    /**
+     * Removes the cached keys of a storage account.
+     *
+     * @param storageAccountId the storage account id
+     */
+    public void invalidate(String storageAccountId) {
+        entries.remove(keyOf(storageAccountId));
+    }
+
+    /**
+     * Removes the cached keys of all the storage accounts.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private Entry fetch(StorageAccount storageAccount, final String key) {
+        final Entry entry = new Entry(expiry());
+        // A failed call is not cached, the next request for the keys calls the service again
+        entry.keys = storageAccount.getKeysAsync()
+                .doOnError(new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        entries.remove(key, entry);
+                    }
+                })
+                .cache();
+        return entry;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired()) {
+                iterator.remove();
+            }
+        }
+        // Still full of live entries, drop any of them
+        iterator = entries.values().iterator();
+        while (entries.size() >= MAX_ENTRIES && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private long expiry() {
+        return System.nanoTime() + timeToLiveNanos;
+    }
+
+    private static String keyOf(String storageAccountId) {
+        return storageAccountId.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The keys of one storage account, with the time they expire at.
+     */
+    private static final class Entry {
+        private final long expiresAtNanos;
+        private volatile Observable<List<StorageAccountKey>> keys;
+
+        Entry(long expiresAtNanos) {
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        Entry(Observable<List<StorageAccountKey>> keys, long expiresAtNanos) {
+            this.keys = keys;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
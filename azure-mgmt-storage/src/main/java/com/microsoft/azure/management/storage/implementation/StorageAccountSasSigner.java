@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.storage.implementation;
+
+import com.google.common.io.BaseEncoding;
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.storage.StorageAccount;
+import com.microsoft.azure.management.storage.StorageAccountKey;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Func1;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+/**
+ * Signs account and service shared access signatures locally, with the storage account keys
+ * taken from a {@link StorageAccountKeysCache}, so that a token costs no call to the service
+ * once the keys of its account are cached.
+ * <p>
+ * Tokens are signed with the first key of the account, are restricted to https, and use the
+ * 2016-05-31 storage service version.
+ */
+@Beta(SinceVersion.V1_4_0)
+public final class StorageAccountSasSigner {
+    /**
+     * The storage service version of the tokens.
+     */
+    public static final String SERVICE_VERSION = "2016-05-31";
+
+    private static final String PROTOCOL = "https";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final DateTimeFormatter EXPIRY_FORMAT = ISODateTimeFormat.dateTimeNoMillis().withZoneUTC();
+    private static final ThreadLocal<Signer> SIGNERS = new ThreadLocal<Signer>() {
+        @Override
+        protected Signer initialValue() {
+            return new Signer();
+        }
+    };
+
+    private final StorageAccountKeysCache keysCache;
+
+    StorageAccountSasSigner(StorageAccountKeysCache keysCache) {
+        this.keysCache = keysCache;
+    }
+
+    /**
+     * Creates an account SAS token.
+     *
+     * @param storageAccount the storage account
+     * @param services the services, e.g. "bq" for blobs and queues
+     * @param resourceTypes the resource types, e.g. "co" for containers and objects
+     * @param permissions the permissions, e.g. "rl" for read and list
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    public String accountSas(StorageAccount storageAccount, String services, String resourceTypes, String permissions, DateTime expiry) {
+        return accountSasAsync(storageAccount, services, resourceTypes, permissions, expiry).toBlocking().last();
+    }
+
+    /**
+     * Creates an account SAS token.
+     *
+     * @param storageAccount the storage account
+     * @param services the services, e.g. "bq" for blobs and queues
+     * @param resourceTypes the resource types, e.g. "co" for containers and objects
+     * @param permissions the permissions, e.g. "rl" for read and list
+     * @param expiry the expiry time of the token
+     * @return an observable that emits the SAS token, without leading question mark
+     */
+    public Observable<String> accountSasAsync(final StorageAccount storageAccount, final String services, final String resourceTypes,
+                                              final String permissions, final DateTime expiry) {
+        return keysCache.getKeysAsync(storageAccount).map(new Func1<List<StorageAccountKey>, String>() {
+            @Override
+            public String call(List<StorageAccountKey> keys) {
+                return accountSas(storageAccount.name(), keys.get(0).value(), services, resourceTypes, permissions, expiry);
+            }
+        });
+    }
+
+    /**
+     * Creates a service SAS token for a blob container.
+     *
+     * @param storageAccount the storage account
+     * @param containerName the container name
+     * @param permissions the permissions, e.g. "rl" for read and list
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    public String containerSas(StorageAccount storageAccount, String containerName, String permissions, DateTime expiry) {
+        return containerSasAsync(storageAccount, containerName, permissions, expiry).toBlocking().last();
+    }
+
+    /**
+     * Creates a service SAS token for a blob container.
+     *
+     * @param storageAccount the storage account
+     * @param containerName the container name
+     * @param permissions the permissions, e.g. "rl" for read and list
+     * @param expiry the expiry time of the token
+     * @return an observable that emits the SAS token, without leading question mark
+     */
+    public Observable<String> containerSasAsync(final StorageAccount storageAccount, final String containerName,
+                                                final String permissions, final DateTime expiry) {
+        return keysCache.getKeysAsync(storageAccount).map(new Func1<List<StorageAccountKey>, String>() {
+            @Override
+            public String call(List<StorageAccountKey> keys) {
+                return blobSas(storageAccount.name(), keys.get(0).value(), containerName, null, permissions, expiry);
+            }
+        });
+    }
+
+    /**
+     * Creates a service SAS token for a blob.
+     *
+     * @param storageAccount the storage account
+     * @param containerName the container name
+     * @param blobName the blob name
+     * @param permissions the permissions, e.g. "r" for read
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    public String blobSas(StorageAccount storageAccount, String containerName, String blobName, String permissions, DateTime expiry) {
+        return blobSasAsync(storageAccount, containerName, blobName, permissions, expiry).toBlocking().last();
+    }
+
+    /**
+     * Creates a service SAS token for a blob.
+     *
+     * @param storageAccount the storage account
+     * @param containerName the container name
+     * @param blobName the blob name
+     * @param permissions the permissions, e.g. "r" for read
+     * @param expiry the expiry time of the token
+     * @return an observable that emits the SAS token, without leading question mark
+     */
+    public Observable<String> blobSasAsync(final StorageAccount storageAccount, final String containerName, final String blobName,
+                                           final String permissions, final DateTime expiry) {
+        return keysCache.getKeysAsync(storageAccount).map(new Func1<List<StorageAccountKey>, String>() {
+            @Override
+            public String call(List<StorageAccountKey> keys) {
+                return blobSas(storageAccount.name(), keys.get(0).value(), containerName, blobName, permissions, expiry);
+            }
+        });
+    }
+
+    /**
+     * Creates a service SAS token for a queue.
+     *
+     * @param storageAccount the storage account
+     * @param queueName the queue name
+     * @param permissions the permissions, e.g. "ap" for add and process
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    public String queueSas(StorageAccount storageAccount, String queueName, String permissions, DateTime expiry) {
+        return queueSasAsync(storageAccount, queueName, permissions, expiry).toBlocking().last();
+    }
+
+    /**
+     * Creates a service SAS token for a queue.
+     *
+     * @param storageAccount the storage account
+     * @param queueName the queue name
+     * @param permissions the permissions, e.g. "ap" for add and process
+     * @param expiry the expiry time of the token
+     * @return an observable that emits the SAS token, without leading question mark
+     */
+    public Observable<String> queueSasAsync(final StorageAccount storageAccount, final String queueName,
+                                            final String permissions, final DateTime expiry) {
+        return keysCache.getKeysAsync(storageAccount).map(new Func1<List<StorageAccountKey>, String>() {
+            @Override
+            public String call(List<StorageAccountKey> keys) {
+                return queueSas(storageAccount.name(), keys.get(0).value(), queueName, permissions, expiry);
+            }
+        });
+    }
+
+    /**
+     * Creates an account SAS token with the given key.
+     *
+     * @param accountName the storage account name
+     * @param accountKey the base64 encoded storage account key
+     * @param services the services, e.g. "bq" for blobs and queues
+     * @param resourceTypes the resource types, e.g. "co" for containers and objects
+     * @param permissions the permissions, e.g. "rl" for read and list
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    public static String accountSas(String accountName, String accountKey, String services, String resourceTypes,
+                                    String permissions, DateTime expiry) {
+        Signer signer = SIGNERS.get();
+        String signedExpiry = EXPIRY_FORMAT.print(expiry);
+        StringBuilder builder = signer.builder();
+        builder.append(accountName).append('\n')
+                .append(permissions).append('\n')
+                .append(services).append('\n')
+                .append(resourceTypes).append('\n')
+                .append('\n')
+                .append(signedExpiry).append('\n')
+                .append('\n')
+                .append(PROTOCOL).append('\n')
+                .append(SERVICE_VERSION).append('\n');
+        String signature = signer.sign(accountKey, builder);
+        builder.setLength(0);
+        builder.append("sv=").append(SERVICE_VERSION)
+                .append("&ss=").append(services)
+                .append("&srt=").append(resourceTypes)
+                .append("&sp=").append(permissions);
+        return appendTail(builder, signedExpiry, signature);
+    }
+
+    /**
+     * Creates a service SAS token for a blob, or a blob container, with the given key.
+     *
+     * @param accountName the storage account name
+     * @param accountKey the base64 encoded storage account key
+     * @param containerName the container name
+     * @param blobName the blob name, null for a token for the container
+     * @param permissions the permissions, e.g. "r" for read
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    public static String blobSas(String accountName, String accountKey, String containerName, String blobName,
+                                 String permissions, DateTime expiry) {
+        Signer signer = SIGNERS.get();
+        String signedExpiry = EXPIRY_FORMAT.print(expiry);
+        StringBuilder builder = signer.builder();
+        builder.append(permissions).append('\n')
+                .append('\n')
+                .append(signedExpiry).append('\n')
+                .append("/blob/").append(accountName).append('/').append(containerName);
+        if (blobName != null) {
+            builder.append('/').append(blobName);
+        }
+        builder.append('\n')
+                .append('\n')
+                .append('\n')
+                .append(PROTOCOL).append('\n')
+                .append(SERVICE_VERSION).append('\n')
+                // The response header overrides are not used
+                .append("\n\n\n\n");
+        String signature = signer.sign(accountKey, builder);
+        builder.setLength(0);
+        builder.append("sv=").append(SERVICE_VERSION)
+                .append("&sr=").append(blobName != null ? 'b' : 'c')
+                .append("&sp=").append(permissions);
+        return appendTail(builder, signedExpiry, signature);
+    }
+
+    /**
+     * Creates a service SAS token for a queue with the given key.
+     *
+     * @param accountName the storage account name
+     * @param accountKey the base64 encoded storage account key
+     * @param queueName the queue name
+     * @param permissions the permissions, e.g. "ap" for add and process
+     * @param expiry the expiry time of the token
+     * @return the SAS token, without leading question mark
+     */
+    public static String queueSas(String accountName, String accountKey, String queueName, String permissions, DateTime expiry) {
+        Signer signer = SIGNERS.get();
+        String signedExpiry = EXPIRY_FORMAT.print(expiry);
+        StringBuilder builder = signer.builder();
+        builder.append(permissions).append('\n')
+                .append('\n')
+                .append(signedExpiry).append('\n')
+                .append("/queue/").append(accountName).append('/').append(queueName).append('\n')
+                .append('\n')
+                .append('\n')
+                .append(PROTOCOL).append('\n')
+                .append(SERVICE_VERSION);
+        String signature = signer.sign(accountKey, builder);
+        builder.setLength(0);
+        builder.append("sv=").append(SERVICE_VERSION)
+                .append("&sp=").append(permissions);
+        return appendTail(builder, signedExpiry, signature);
+    }
+
+    private static String appendTail(StringBuilder builder, String signedExpiry, String signature) {
+        builder.append("&se=");
+        appendEncoded(builder, signedExpiry);
+        builder.append("&spr=").append(PROTOCOL).append("&sig=");
+        appendEncoded(builder, signature);
+        return builder.toString();
+    }
+
+    /**
+     * Appends a value to a query string, percent encoding the characters of dates and base64
+     * signatures that are not allowed in a query parameter value.
+     */
+    private static void appendEncoded(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '+' || c == '/' || c == '=' || c == ':' || c == '&' || c == '%' || c == ' ') {
+                builder.append('%').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    /**
+     * The per-thread state of the signing: a Mac initialized with the last key used on the
+     * thread, and the buffer the strings are built in.
+     */
+    private static final class Signer {
+        private final Mac mac;
+        private final StringBuilder builder = new StringBuilder(256);
+        private String accountKey;
+
+        Signer() {
+            try {
+                mac = Mac.getInstance(HMAC_SHA256);
+            } catch (GeneralSecurityException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+
+        StringBuilder builder() {
+            builder.setLength(0);
+            return builder;
+        }
+
+        String sign(String accountKey, StringBuilder stringToSign) {
+            try {
+                if (!accountKey.equals(this.accountKey)) {
+                    mac.init(new SecretKeySpec(BaseEncoding.base64().decode(accountKey), HMAC_SHA256));
+                    this.accountKey = accountKey;
+                }
+                return BaseEncoding.base64().encode(mac.doFinal(stringToSign.toString().getBytes(StandardCharsets.UTF_8)));
+            } catch (GeneralSecurityException e) {
+                this.accountKey = null;
+                throw Exceptions.propagate(e);
+            }
+        }
+    }
+}
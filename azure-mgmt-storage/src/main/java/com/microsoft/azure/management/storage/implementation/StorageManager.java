@@ -9,6 +9,8 @@ package com.microsoft.azure.management.storage.implementation;
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.AzureResponseBuilder;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.resources.fluentcore.arm.AzureConfigurable;
 import com.microsoft.azure.management.resources.fluentcore.arm.implementation.AzureConfigurableImpl;
 import com.microsoft.azure.management.resources.fluentcore.arm.implementation.Manager;
@@ -26,6 +28,8 @@ public final class StorageManager extends Manager<StorageManager, StorageManagem
     // Collections
     private StorageAccounts storageAccounts;
     private Usages storageUsages;
+    private StorageAccountKeysCache storageAccountKeys;
+    private StorageAccountSasSigner sasSigner;
 
     /**
      * Get a Configurable instance that can be used to create StorageManager with optional configuration.
@@ -114,4 +118,27 @@ public final class StorageManager extends Manager<StorageManager, StorageManagem
         }
         return storageUsages;
     }
+
+    /**
+     * @return the cache of storage account keys shared by the storage managers built from the same rest client
+     * for the same subscription
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public synchronized StorageAccountKeysCache storageAccountKeys() {
+        if (storageAccountKeys == null) {
+            storageAccountKeys = StorageAccountKeysCache.sharedBy(inner().restClient(), subscriptionId());
+        }
+        return storageAccountKeys;
+    }
+
+    /**
+     * @return the signer of shared access signatures with the keys of {@link #storageAccountKeys()}
+     */
+    @Beta(SinceVersion.V1_4_0)
+    public synchronized StorageAccountSasSigner sasSigner() {
+        if (sasSigner == null) {
+            sasSigner = new StorageAccountSasSigner(storageAccountKeys());
+        }
+        return sasSigner;
+    }
 }
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.storage.implementation;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.storage.StorageAccount;
+import com.microsoft.azure.management.storage.StorageAccountKey;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.subjects.PublishSubject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StorageAccountKeysCacheTests {
+    private static final String ID = "/subscriptions/sub/resourceGroups/rg1/providers/Microsoft.Storage/storageAccounts/sa1";
+
+    @Test
+    public void sharesOneFetchAcrossConcurrentRequests() {
+        final PublishSubject<List<StorageAccountKey>> response = PublishSubject.create();
+        AtomicInteger calls = new AtomicInteger();
+        StorageAccount account = storageAccount(calls, new Func0<Observable<List<StorageAccountKey>>>() {
+            @Override
+            public Observable<List<StorageAccountKey>> call() {
+                return response;
+            }
+        });
+        StorageAccountKeysCache cache = new StorageAccountKeysCache(StorageAccountKeysCache.DEFAULT_TIME_TO_LIVE_IN_MILLISECONDS);
+
+        Observable<List<StorageAccountKey>> first = cache.getKeysAsync(account);
+        Observable<List<StorageAccountKey>> second = cache.getKeysAsync(account);
+        first.subscribe();
+        second.subscribe();
+        List<StorageAccountKey> keys = keys();
+        response.onNext(keys);
+        response.onCompleted();
+
+        Assert.assertSame(keys, first.toBlocking().single());
+        Assert.assertSame(keys, second.toBlocking().single());
+        Assert.assertSame(keys, cache.getKeysAsync(account).toBlocking().single());
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void doesNotCacheFailedFetch() {
+        final AtomicInteger calls = new AtomicInteger();
+        final List<StorageAccountKey> keys = keys();
+        StorageAccount account = storageAccount(calls, new Func0<Observable<List<StorageAccountKey>>>() {
+            @Override
+            public Observable<List<StorageAccountKey>> call() {
+                return calls.get() == 1
+                        ? Observable.<List<StorageAccountKey>>error(new RuntimeException("throttled"))
+                        : Observable.just(keys);
+            }
+        });
+        StorageAccountKeysCache cache = new StorageAccountKeysCache(StorageAccountKeysCache.DEFAULT_TIME_TO_LIVE_IN_MILLISECONDS);
+
+        try {
+            cache.getKeysAsync(account).toBlocking().single();
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals("throttled", e.getMessage());
+        }
+        Assert.assertSame(keys, cache.getKeysAsync(account).toBlocking().single());
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void fetchesAgainOnceExpired() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        StorageAccount account = storageAccount(calls, new Func0<Observable<List<StorageAccountKey>>>() {
+            @Override
+            public Observable<List<StorageAccountKey>> call() {
+                return Observable.just(keys());
+            }
+        });
+        StorageAccountKeysCache cache = new StorageAccountKeysCache(1);
+
+        List<StorageAccountKey> first = cache.getKeysAsync(account).toBlocking().single();
+        Thread.sleep(10);
+        Assert.assertNotSame(first, cache.getKeysAsync(account).toBlocking().single());
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void putReplacesCachedKeys() {
+        AtomicInteger calls = new AtomicInteger();
+        StorageAccount account = storageAccount(calls, new Func0<Observable<List<StorageAccountKey>>>() {
+            @Override
+            public Observable<List<StorageAccountKey>> call() {
+                return Observable.just(keys());
+            }
+        });
+        StorageAccountKeysCache cache = new StorageAccountKeysCache(StorageAccountKeysCache.DEFAULT_TIME_TO_LIVE_IN_MILLISECONDS);
+        cache.getKeysAsync(account).toBlocking().single();
+
+        List<StorageAccountKey> regenerated = keys();
+        cache.put(ID.toUpperCase(), regenerated);
+        Assert.assertSame(regenerated, cache.getKeysAsync(account).toBlocking().single());
+        Assert.assertEquals(1, calls.get());
+
+        cache.invalidate(ID);
+        Assert.assertNotSame(regenerated, cache.getKeysAsync(account).toBlocking().single());
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void isSharedByManagersOfTheSameClientAndSubscription() {
+        RestClient restClient = restClient();
+        StorageAccountKeysCache cache = StorageManager.authenticate(restClient, "sub1").storageAccountKeys();
+
+        Assert.assertSame(cache, StorageManager.authenticate(restClient, "SUB1").storageAccountKeys());
+        Assert.assertNotSame(cache, StorageManager.authenticate(restClient, "sub2").storageAccountKeys());
+        Assert.assertNotSame(cache, StorageManager.authenticate(restClient(), "sub1").storageAccountKeys());
+    }
+
+    private static List<StorageAccountKey> keys() {
+        return Collections.singletonList(new StorageAccountKey());
+    }
+
+    private static RestClient restClient() {
+        return new RestClient.Builder()
+                .withBaseUrl("http://localhost/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .build();
+    }
+
+    private static StorageAccount storageAccount(final AtomicInteger calls, final Func0<Observable<List<StorageAccountKey>>> getKeys) {
+        return (StorageAccount) Proxy.newProxyInstance(StorageAccount.class.getClassLoader(), new Class<?>[] {StorageAccount.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("id".equals(method.getName())) {
+                            return ID;
+                        } else if ("getKeysAsync".equals(method.getName()) && method.getParameterTypes().length == 0) {
+                            calls.incrementAndGet();
+                            return getKeys.call();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
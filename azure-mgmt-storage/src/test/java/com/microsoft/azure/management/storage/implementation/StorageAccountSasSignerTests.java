@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.storage.implementation;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StorageAccountSasSignerTests {
+    private static final String ACCOUNT = "myaccount";
+    // Bytes 0 to 63 and 64 to 127
+    private static final String KEY1 = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==";
+    private static final String KEY2 = "QEFCQ0RFRkdISUpLTE1OT1BRUlNUVVZXWFlaW1xdXl9gYWJjZGVmZ2hpamtsbW5vcHFyc3R1dnd4eXp7fH1+fw==";
+    private static final DateTime EXPIRY = new DateTime(2030, 1, 1, 0, 0, DateTimeZone.UTC);
+    private static final String TAIL = "&se=2030-01-01T00%3A00%3A00Z&spr=https&sig=";
+
+    @Test
+    public void canSignAccountSas() {
+        Assert.assertEquals("sv=2016-05-31&ss=bq&srt=co&sp=rl" + TAIL + "KOb0KQHMwOg%2FbM4okX7fvGWUpdi%2Ff%2BG3DcTVqXqMOrI%3D",
+                StorageAccountSasSigner.accountSas(ACCOUNT, KEY1, "bq", "co", "rl", EXPIRY));
+    }
+
+    @Test
+    public void canSignContainerSas() {
+        Assert.assertEquals("sv=2016-05-31&sr=c&sp=rl" + TAIL + "SREdbTa4bCxdhGhdKd0kFjzvWKs9i3EcoulwujXG%2FCE%3D",
+                StorageAccountSasSigner.blobSas(ACCOUNT, KEY1, "vhds", null, "rl", EXPIRY));
+    }
+
+    @Test
+    public void canSignBlobSas() {
+        Assert.assertEquals("sv=2016-05-31&sr=b&sp=r" + TAIL + "achIc1iosqi7q%2FsHR0vuQp7ncSg8z8rvO2KTebb2Cj4%3D",
+                StorageAccountSasSigner.blobSas(ACCOUNT, KEY1, "vhds", "disk.vhd", "r", EXPIRY));
+    }
+
+    @Test
+    public void canSignQueueSas() {
+        Assert.assertEquals("sv=2016-05-31&sp=ap" + TAIL + "Z9uGaKYLfIquRe7jOimXwYTOow%2FDkd5cCycpJ2uuKqw%3D",
+                StorageAccountSasSigner.queueSas(ACCOUNT, KEY1, "jobs", "ap", EXPIRY));
+    }
+
+    @Test
+    public void canSignWithDifferentKeysOnOneThread() {
+        String signedWithKey1 = "sv=2016-05-31&sp=ap" + TAIL + "Z9uGaKYLfIquRe7jOimXwYTOow%2FDkd5cCycpJ2uuKqw%3D";
+        String signedWithKey2 = "sv=2016-05-31&sp=ap" + TAIL + "Xs5Icnx3mH5CHntKSEXQW%2FvmfNc%2Bo8K29V5vgTVZ06s%3D";
+
+        // The thread's Mac is initialized again each time the key changes
+        Assert.assertEquals(signedWithKey1, StorageAccountSasSigner.queueSas(ACCOUNT, KEY1, "jobs", "ap", EXPIRY));
+        Assert.assertEquals(signedWithKey2, StorageAccountSasSigner.queueSas(ACCOUNT, KEY2, "jobs", "ap", EXPIRY));
+        Assert.assertEquals(signedWithKey2, StorageAccountSasSigner.queueSas(ACCOUNT, KEY2, "jobs", "ap", EXPIRY));
+        Assert.assertEquals(signedWithKey1, StorageAccountSasSigner.queueSas(ACCOUNT, KEY1, "jobs", "ap", EXPIRY));
+    }
+}